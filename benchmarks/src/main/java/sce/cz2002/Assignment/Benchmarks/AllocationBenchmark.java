@@ -0,0 +1,218 @@
+package sce.cz2002.Assignment.Benchmarks;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sce.cz2002.Assignment.Classes.Table;
+import sce.cz2002.Assignment.Control.TableAllocator;
+
+/**
+ * Simulates walk-in customers arriving at a busy restaurant, to compare the
+ * table<br>allocation policies<p>
+ * 
+ * Parties of 1 to 10 people arrive a little faster than the tables free up,
+ * and<br>stay for 45 to 90 minutes. Each benchmark call is one arrival.
+ * Besides the time<br>taken to pick a table, the number of people seated
+ * (covers) and of parties<br>turned away are reported as secondary results.
+ * As these are totals over the<br>measurement time, the policies are
+ * compared by the covers seated for each<br>party turned away
+ * 
+ * @author Jin Yao
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AllocationBenchmark
+{
+	/**
+	 * Cumulative chances (in percent) of a party having 1 to 10 people
+	 */
+	private static final int[] PARTY_SIZE_CHANCES =
+		{10, 50, 65, 85, 90, 95, 97, 98, 99, 100};
+	
+	/**
+	 * Number of minutes between two arrivals, multiplied by the number
+	 * of tables
+	 */
+	private static final double MINUTES_BETWEEN_ARRIVALS = 50;
+	
+	/**
+	 * The people seated and the parties turned away
+	 * 
+	 * @author Jin Yao
+	 * 
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Covers
+	{
+		/**
+		 * Number of people seated
+		 */
+		public long covers;
+		
+		/**
+		 * Number of parties that no table was found for
+		 */
+		public long turnedAway;
+	}
+	
+	/**
+	 * The table allocation policy
+	 */
+	@Param({"FirstFit", "BestFit", "LeastRecentlyUsed", "ZoneBalanced"})
+	public TableAllocator.Policy policy;
+	
+	/**
+	 * Number of tables in the restaurant
+	 */
+	@Param({"20", "1000"})
+	public int numOfTables;
+	
+	/**
+	 * The allocator of the tables
+	 */
+	private TableAllocator _tableAllocator;
+	
+	/**
+	 * The tables that are taken, by the minute at which they are freed
+	 */
+	private PriorityQueue<Departure> _departures;
+	
+	/**
+	 * The simulated time, in minutes
+	 */
+	private double _currentMinute;
+	
+	/**
+	 * Chooses the party sizes and lengths of stay
+	 */
+	private Random _random;
+	
+	/**
+	 * A party leaving a table
+	 * 
+	 * @author Jin Yao
+	 * 
+	 */
+	private static class Departure implements Comparable<Departure>
+	{
+		/**
+		 * The minute at which the party leaves
+		 */
+		private final double _minute;
+		
+		/**
+		 * The table that the party is at
+		 */
+		private final Table _table;
+		
+		/**
+		 * Creates a new departure
+		 * 
+		 * @param minute The minute at which the party leaves
+		 * @param table The table that the party is at
+		 */
+		public Departure(double minute, Table table)
+		{
+			_minute = minute;
+			_table = table;
+		}
+		
+		@Override
+		public int compareTo(Departure other) {
+			return Double.compare(_minute, other._minute);
+		}
+	}
+	
+	/**
+	 * Creates the tables, split into 4 zones
+	 */
+	@Setup
+	public void setUp()
+	{
+		_tableAllocator = new TableAllocator(policy);
+		for(Table table : DataGenerator.generateFloorPlan("Benchmark",
+				numOfTables).getTables())
+		{
+			_tableAllocator.addTable(table);
+		}
+		
+		_departures = new PriorityQueue<Departure>();
+		_currentMinute = 0;
+		_random = new Random(42);
+	}
+	
+	/**
+	 * Frees the tables of the parties that have left, and seats the next
+	 * party
+	 * 
+	 * @param covers The people seated and the parties turned away
+	 * 
+	 * @return The table the party is seated at, null if it was turned away
+	 */
+	@Benchmark
+	public Table arrive(Covers covers)
+	{
+		_currentMinute += MINUTES_BETWEEN_ARRIVALS / numOfTables;
+		
+		while(!_departures.isEmpty() &&
+				_departures.peek()._minute <= _currentMinute)
+		{
+			Table table = _departures.poll()._table;
+			table.freeTable();
+			_tableAllocator.update(table);
+		}
+		
+		int numOfPeople = nextPartySize();
+		Table table = _tableAllocator.allocate(numOfPeople);
+		
+		if(table == null)
+		{
+			covers.turnedAway++;
+			return null;
+		}
+		
+		table.tryAssignTable(1);
+		covers.covers += numOfPeople;
+		
+		_departures.add(new Departure(_currentMinute + 45
+				+ _random.nextInt(46), table));
+		
+		return table;
+	}
+	
+	/**
+	 * Picks the number of people in the next party
+	 * 
+	 * @return The number of people, from 1 to 10
+	 */
+	private int nextPartySize()
+	{
+		int chance = _random.nextInt(100);
+		int numOfPeople = 1;
+		
+		while(PARTY_SIZE_CHANCES[numOfPeople - 1] <= chance)
+			numOfPeople++;
+		
+		return numOfPeople;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,192 @@
+package sce.cz2002.Assignment.Benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sce.cz2002.Assignment.Classes.DateTimes;
+import sce.cz2002.Assignment.Classes.Reservation;
+import sce.cz2002.Assignment.Control.ReservationIndex;
+
+/**
+ * Benchmarks finding every free reservation time of a day, against an index
+ * whose<br>tables are booked for half of their 2 hour slots<p>
+ * 
+ * The free times are found from the cached occupancy of the day, from an
+ * occupancy<br>that has just been dropped by a new reservation, and by
+ * trying every start time<br>one by one as the staff used to do
+ * 
+ * @author Jin Yao
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AvailabilityBenchmark
+{
+	/**
+	 * Number of days that the free times are found for, fewer than the
+	 * days<br>whose occupancy is cached
+	 */
+	private static final int NUM_OF_QUERY_DAYS = 16;
+	
+	/**
+	 * Number of 15 minute slots from 0900 to 2200
+	 */
+	private static final int NUM_OF_SLOTS = 52;
+	
+	/**
+	 * Number of 15 minute slots in a 2 hour reservation
+	 */
+	private static final int SLOTS_PER_RESERVATION = 8;
+	
+	/**
+	 * Length of a slot, in milliseconds
+	 */
+	private static final long SLOT_MILLIS = 15 * DateTimes.MILLIS_PER_MINUTE;
+	
+	/**
+	 * Number of tables in the restaurant
+	 */
+	@Param({"20", "300"})
+	public int numOfTables;
+	
+	/**
+	 * The index of the existing reservations
+	 */
+	private ReservationIndex _reservationIndex;
+	
+	/**
+	 * The opening time of each day that the free times are found for
+	 */
+	private long[] _openingMillis;
+	
+	/**
+	 * A reservation on each day that the free times are found for, which
+	 * is added<br>and removed
+	 */
+	private Reservation[] _newReservations;
+	
+	/**
+	 * Index of the next day
+	 */
+	private int _nextDay;
+	
+	/**
+	 * Fills the index with reservations for 30 days, leaving out every
+	 * other one
+	 */
+	@Setup
+	public void setUp()
+	{
+		DataGenerator generator = new DataGenerator(42, 1);
+		int[] tableSizes = DataGenerator.generateTableSizes(numOfTables);
+		int numOfReservations = numOfTables * 6 * 30;
+		
+		_reservationIndex = new ReservationIndex();
+		for(int tableIndex = 0; tableIndex < numOfTables; tableIndex++)
+		{
+			_reservationIndex.addTable(tableIndex + 1, tableSizes[tableIndex]);
+		}
+		
+		_openingMillis = new long[NUM_OF_QUERY_DAYS];
+		_newReservations = new Reservation[NUM_OF_QUERY_DAYS];
+		
+		for(int reservationNo = 0; reservationNo < numOfReservations;
+				reservationNo++)
+		{
+			Reservation reservation = generator.generateReservation(
+					reservationNo, tableSizes, DataGenerator.MIN_ROWS);
+			int dayIndex = reservationNo / (numOfTables * 6);
+			
+			if((reservationNo / numOfTables) % 2 == 0)
+				_reservationIndex.add(reservation);
+			else if(dayIndex < NUM_OF_QUERY_DAYS)
+				_newReservations[dayIndex] = reservation;
+		}
+		
+		int firstDay = DateTimes.toEpochDay(
+				generator.getFirstReservationDayMillis());
+		for(int dayIndex = 0; dayIndex < NUM_OF_QUERY_DAYS; dayIndex++)
+		{
+			_openingMillis[dayIndex] = DateTimes.toStartMillis(
+					firstDay + dayIndex) + 9 * DateTimes.MILLIS_PER_HOUR;
+		}
+		
+		_nextDay = 0;
+	}
+	
+	/**
+	 * Finds the free start times of a day for 4 people, from the cached
+	 * occupancy
+	 * 
+	 * @return The free start slots
+	 */
+	@Benchmark
+	public long findFreeStarts()
+	{
+		long openingMillis = _openingMillis[_nextDay];
+		_nextDay = (_nextDay + 1) % NUM_OF_QUERY_DAYS;
+		
+		return _reservationIndex.findFreeStarts(4, openingMillis,
+				NUM_OF_SLOTS, SLOTS_PER_RESERVATION);
+	}
+	
+	/**
+	 * Makes and cancels a reservation of a day, then finds the free start
+	 * times<br>of the day for 4 people from a new occupancy
+	 * 
+	 * @return The free start slots
+	 */
+	@Benchmark
+	public long findFreeStartsAfterChange()
+	{
+		long openingMillis = _openingMillis[_nextDay];
+		Reservation newReservation = _newReservations[_nextDay];
+		_nextDay = (_nextDay + 1) % NUM_OF_QUERY_DAYS;
+		
+		_reservationIndex.add(newReservation);
+		_reservationIndex.remove(newReservation);
+		
+		return _reservationIndex.findFreeStarts(4, openingMillis,
+				NUM_OF_SLOTS, SLOTS_PER_RESERVATION);
+	}
+	
+	/**
+	 * Finds the free start times of a day for 4 people, by looking for a
+	 * free table<br>at each start time
+	 * 
+	 * @return The free start slots
+	 */
+	@Benchmark
+	public long tryEveryStart()
+	{
+		long openingMillis = _openingMillis[_nextDay];
+		_nextDay = (_nextDay + 1) % NUM_OF_QUERY_DAYS;
+		
+		long freeStarts = 0;
+		for(int slot = 0; slot <= NUM_OF_SLOTS - SLOTS_PER_RESERVATION; slot++)
+		{
+			long startMillis = openingMillis + slot * SLOT_MILLIS;
+			
+			if(_reservationIndex.findFreeTable(4, startMillis, startMillis
+					+ SLOTS_PER_RESERVATION * SLOT_MILLIS) != 0)
+				freeStarts |= 1L << slot;
+		}
+		
+		return freeStarts;
+	}
+}
\ No newline at end of file
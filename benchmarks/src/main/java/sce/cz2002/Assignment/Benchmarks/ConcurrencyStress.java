@@ -0,0 +1,521 @@
+package sce.cz2002.Assignment.Benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import sce.cz2002.Assignment.Classes.MenuItem;
+import sce.cz2002.Assignment.Classes.Order;
+import sce.cz2002.Assignment.Classes.OrderItem;
+import sce.cz2002.Assignment.Classes.Table;
+import sce.cz2002.Assignment.Control.HumanResourceMgr;
+import sce.cz2002.Assignment.Control.MenuMgr;
+import sce.cz2002.Assignment.Control.MenuService;
+import sce.cz2002.Assignment.Control.OrderMgr;
+import sce.cz2002.Assignment.Control.OrderService;
+import sce.cz2002.Assignment.Control.PeopleService;
+import sce.cz2002.Assignment.Control.ReservationService;
+import sce.cz2002.Assignment.Control.RestaurantMgr;
+import sce.cz2002.Assignment.Control.TableAllocator;
+import sce.cz2002.Assignment.Persistence.DataFile;
+import sce.cz2002.Assignment.Persistence.FloorPlanCodec;
+import sce.cz2002.Assignment.Persistence.OrderHistory;
+import sce.cz2002.Assignment.Persistence.OrderJournal;
+import sce.cz2002.Assignment.Persistence.RecordOutput;
+
+/**
+ * Drives the order service from many terminals at once, and checks that
+ * no change<br>is lost under contention<p>
+ * 
+ * Each thread is a terminal serving its own customer. It seats the
+ * customer with a new<br>order, lets the other terminals add items to the
+ * order, sometimes removes the<br>first item (which cancels an order with
+ * nothing else in it) and pays for the order.<br>There are fewer tables
+ * than terminals, so terminals keep racing for the same tables<p>
+ * 
+ * Once every terminal is done, the run fails if
+ * <ul>
+ * <li>a table was given to 2 orders at once</li>
+ * <li>a paid order, as returned or as archived, is missing an item that
+ * was added<br>or has a price that does not match its items</li>
+ * <li>2 orders were given the same order ID</li>
+ * <li>an order is still ongoing, or a table is still occupied</li>
+ * </ul>
+ * 
+ * Has to be run in an empty directory, as the data files are written into
+ * the working<br>directory:<br>
+ * <code>ConcurrencyStress [numOfThreads] [numOfOrdersPerThread]
+ * [numOfTables]</code>
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class ConcurrencyStress
+{
+	/**
+	 * Number of items added to other terminals' orders for every order
+	 * created
+	 */
+	private static final int ADDS_PER_ORDER = 8;
+	
+	/**
+	 * One in how many orders has its first item removed before payment
+	 */
+	private static final int REMOVE_INTERVAL = 8;
+	
+	/**
+	 * Number of terminals
+	 */
+	private final int _numOfThreads;
+	
+	/**
+	 * Number of orders that each terminal creates
+	 */
+	private final int _numOfOrdersPerThread;
+	
+	/**
+	 * The menu items that are ordered
+	 */
+	private final List<MenuItem> _menu;
+	
+	/**
+	 * The staff ID of the waiter taking every order
+	 */
+	private final int _staffID;
+	
+	/**
+	 * The order ID of each terminal's ongoing order, null while it has none
+	 * <br>Other terminals add items to these orders
+	 */
+	private final AtomicReferenceArray<String> _openOrderIDs;
+	
+	/**
+	 * The total quantity of items each order should have, keyed by order ID
+	 */
+	private final ConcurrentMap<String, AtomicInteger> _expectedQuantities =
+			new ConcurrentHashMap<String, AtomicInteger>();
+	
+	/**
+	 * The order ID of the order seated at each table, keyed by table number
+	 */
+	private final ConcurrentMap<Integer, String> _tableOrderIDs =
+			new ConcurrentHashMap<Integer, String>();
+	
+	/**
+	 * The paid orders, as returned by the order service
+	 */
+	private final Queue<Order> _paidOrders = new ConcurrentLinkedQueue<Order>();
+	
+	/**
+	 * What went wrong, empty if nothing did
+	 */
+	private final Queue<String> _failures = new ConcurrentLinkedQueue<String>();
+	
+	/**
+	 * Number of orders cancelled by removing their only item
+	 */
+	private final AtomicInteger _numOfCancelled = new AtomicInteger();
+	
+	/**
+	 * Number of times a terminal found no table available
+	 */
+	private final AtomicInteger _numOfUnseated = new AtomicInteger();
+	
+	/**
+	 * Number of items added to other terminals' orders
+	 */
+	private final AtomicInteger _numOfAdds = new AtomicInteger();
+	
+	/**
+	 * Creates a new stress run over the data loaded by the managers
+	 * 
+	 * @param numOfThreads The number of terminals
+	 * @param numOfOrdersPerThread The number of orders each terminal creates
+	 */
+	public ConcurrencyStress(int numOfThreads, int numOfOrdersPerThread)
+	{
+		_numOfThreads = numOfThreads;
+		_numOfOrdersPerThread = numOfOrdersPerThread;
+		
+		_menu = MenuService.getMenuService().getAlaCarteItems();
+		_staffID = PeopleService.getPeopleService().getWaiters().get(0)
+				.getStaffID();
+		_openOrderIDs = new AtomicReferenceArray<String>(numOfThreads);
+	}
+	
+	/**
+	 * Runs every terminal at once, and waits for all of them
+	 * 
+	 * @throws Exception If a terminal failed with an exception
+	 */
+	public void run() throws Exception
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(_numOfThreads);
+		final CountDownLatch startSignal = new CountDownLatch(1);
+		
+		List<Future<Void>> terminals = new ArrayList<Future<Void>>();
+		for(int terminal = 0; terminal < _numOfThreads; terminal++)
+		{
+			final int terminalNo = terminal;
+			
+			terminals.add(executor.submit(new Callable<Void>() {
+				
+				@Override
+				public Void call() throws Exception
+				{
+					startSignal.await();
+					runTerminal(terminalNo);
+					
+					return null;
+				}
+			}));
+		}
+		
+		startSignal.countDown();
+		try
+		{
+			for(Future<Void> terminal : terminals)
+				terminal.get();
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Creates, changes and pays for the orders of one terminal
+	 * 
+	 * @param terminalNo The terminal, from 0
+	 * 
+	 * @throws IOException If an order change cannot be journaled
+	 */
+	private void runTerminal(int terminalNo) throws IOException
+	{
+		OrderService orderService = OrderService.getOrderService();
+		Random random = new Random(terminalNo);
+		
+		// Customer IDs of the generated customers start from 1
+		int customerID = terminalNo + 1;
+		
+		int numOfOrders = 0;
+		while(numOfOrders < _numOfOrdersPerThread)
+		{
+			MenuItem firstItem = _menu.get(random.nextInt(_menu.size()));
+			Map<MenuItem, Integer> orderItems = new HashMap<MenuItem, Integer>();
+			orderItems.put(firstItem, 1);
+			
+			Order order = orderService.createOrder(_staffID, customerID,
+					1 + random.nextInt(2), orderItems);
+			
+			if(order == null)
+			{
+				_numOfUnseated.incrementAndGet();
+				addToOtherOrders(random);
+				Thread.yield();
+				continue;
+			}
+			
+			numOfOrders++;
+			String orderID = order.getOrderID();
+			checkSeated(order, customerID);
+			
+			_openOrderIDs.set(terminalNo, orderID);
+			for(int add = 0; add < ADDS_PER_ORDER; add++)
+				addToOtherOrders(random);
+			_openOrderIDs.set(terminalNo, null);
+			
+			// Still occupied until paid for, so no other order can take it
+			_tableOrderIDs.remove(order.getTableNumber(), orderID);
+			
+			if(random.nextInt(REMOVE_INTERVAL) == 0)
+			{
+				if(orderService.removeItem(orderID, firstItem.getItemID(), 1))
+				{
+					_numOfCancelled.incrementAndGet();
+					continue;
+				}
+				
+				_expectedQuantities.get(orderID).decrementAndGet();
+			}
+			
+			_paidOrders.add(orderService.payOrder(orderID));
+		}
+	}
+	
+	/**
+	 * Checks that a new order is the only order at its table, and that the
+	 * table is<br>occupied by the customer
+	 * 
+	 * @param order The new order
+	 * @param customerID The customer ID of the customer seated
+	 */
+	private void checkSeated(Order order, int customerID)
+	{
+		if(_expectedQuantities.putIfAbsent(order.getOrderID(),
+				new AtomicInteger(1)) != null)
+			_failures.add("Duplicate order ID " + order.getOrderID());
+		
+		String otherOrderID = _tableOrderIDs.putIfAbsent(order.getTableNumber(),
+				order.getOrderID());
+		if(otherOrderID != null)
+		{
+			_failures.add("Table " + order.getTableNumber() + " double booked"
+					+ " by orders " + otherOrderID + " and " + order.getOrderID());
+		}
+		
+		Table table = ReservationService.getReservationService().getTable(
+				order.getTableNumber());
+		if(!table.isOccupied() || table.getCustomerID() != customerID)
+		{
+			_failures.add("Table " + order.getTableNumber() + " not occupied"
+					+ " by customer " + customerID + " of order "
+					+ order.getOrderID());
+		}
+	}
+	
+	/**
+	 * Adds an item to the ongoing order of a random terminal, if it has one
+	 * <br>The order may be paid for in the meantime, which is not a failure
+	 * 
+	 * @param random The random choices of the terminal
+	 * 
+	 * @throws IOException If the change cannot be journaled
+	 */
+	private void addToOtherOrders(Random random) throws IOException
+	{
+		String orderID = _openOrderIDs.get(random.nextInt(_numOfThreads));
+		if(orderID == null)
+			return;
+		
+		try {
+			OrderService.getOrderService().addItem(orderID,
+					_menu.get(random.nextInt(_menu.size())), 1);
+		} catch (IllegalArgumentException ex) {
+			return; // Paid for or cancelled already
+		}
+		
+		_expectedQuantities.get(orderID).incrementAndGet();
+		_numOfAdds.incrementAndGet();
+	}
+	
+	/**
+	 * Checks the paid orders and the tables once every terminal is done
+	 */
+	public void checkServices()
+	{
+		for(Order order : _paidOrders)
+			checkItems("Paid", order);
+		
+		int numOfCurrentOrders =
+				OrderService.getOrderService().getCurrentOrders().size();
+		if(numOfCurrentOrders > 0)
+			_failures.add(numOfCurrentOrders + " orders still ongoing");
+		
+		for(Table table : ReservationService.getReservationService().getTables())
+		{
+			if(!table.isAvailable())
+				_failures.add("Table " + table.getTableNumber() + " not freed");
+		}
+	}
+	
+	/**
+	 * Checks the paid orders against the order history and the order file,
+	 * <br>after the orders have been saved and closed
+	 * 
+	 * @throws IOException If the order history or the order file cannot
+	 * 		   be read
+	 */
+	public void checkSavedOrders() throws IOException
+	{
+		if(!OrderJournal.readSnapshot("order.dat").getCurrentOrders().isEmpty())
+			_failures.add("Order file still holds ongoing orders");
+		
+		OrderHistory orderHistory = new OrderHistory("order.archive", 1);
+		orderHistory.open();
+		try
+		{
+			List<Order> archivedOrders = orderHistory.getOrders(0,
+					Long.MAX_VALUE);
+			
+			if(archivedOrders.size() != _paidOrders.size())
+			{
+				_failures.add(_paidOrders.size() + " orders paid for but "
+						+ archivedOrders.size() + " archived");
+			}
+			
+			Map<String, Order> archivedOrderIDs = new HashMap<String, Order>();
+			for(Order order : archivedOrders)
+			{
+				if(archivedOrderIDs.put(order.getOrderID(), order) != null)
+					_failures.add("Order " + order.getOrderID()
+							+ " archived twice");
+				
+				checkItems("Archived", order);
+			}
+		}
+		finally
+		{
+			orderHistory.close();
+		}
+	}
+	
+	/**
+	 * Checks that an order has every item added to it, and is priced from
+	 * its items
+	 * 
+	 * @param kind What kind of order it is, for the failure message
+	 * @param order The order
+	 */
+	private void checkItems(String kind, Order order)
+	{
+		AtomicInteger expectedQuantity = _expectedQuantities.get(
+				order.getOrderID());
+		if(expectedQuantity == null)
+		{
+			_failures.add(kind + " order " + order.getOrderID()
+					+ " was never created");
+			return;
+		}
+		
+		int quantity = 0;
+		long originalTotalCents = 0;
+		for(OrderItem orderItem : order.getOrderItems())
+		{
+			quantity += orderItem.getQuantity();
+			originalTotalCents += Math.round(orderItem.getPrice() * 100)
+					* orderItem.getQuantity();
+		}
+		
+		if(quantity != expectedQuantity.get())
+		{
+			_failures.add(kind + " order " + order.getOrderID() + " has "
+					+ quantity + " items, expected " + expectedQuantity.get());
+		}
+		
+		if(Math.round(order.getOriginalTotalPrice() * 100) != originalTotalCents)
+		{
+			_failures.add(kind + " order " + order.getOrderID() + " costs "
+					+ order.getOriginalTotalPrice() + ", its items cost "
+					+ originalTotalCents / 100.0);
+		}
+	}
+	
+	/**
+	 * Gets what went wrong during the run
+	 * 
+	 * @return The failures, empty if there were none
+	 */
+	public List<String> getFailures() {
+		return Collections.unmodifiableList(new ArrayList<String>(_failures));
+	}
+	
+	/**
+	 * Writes the data files that the stress run loads into the working
+	 * directory<br>
+	 * Every terminal has a customer of its own, and the tables are split
+	 * across<br>the floor plan like the restaurant's own tables
+	 * 
+	 * @param numOfCustomers The number of customers, one for each terminal
+	 * @param numOfTables The number of tables
+	 * 
+	 * @throws IOException If a data file cannot be written
+	 */
+	private static void writeDataFiles(int numOfCustomers, int numOfTables)
+			throws IOException
+	{
+		File directory = new File(".");
+		
+		if(new File(directory, "order.dat").exists())
+			throw new IOException("Not an empty directory: "
+					+ directory.getAbsolutePath());
+		
+		new DataGenerator(42, 1).writeDataFiles(directory, 0, 0, numOfCustomers);
+		
+		RecordOutput out = DataFile.create("floorPlan.dat", DataFile.FLOOR_PLAN);
+		try {
+			FloorPlanCodec.writeFloorPlans(out, Collections.singletonList(
+					DataGenerator.generateFloorPlan("Main", numOfTables)));
+		} catch (IOException ex) {
+			out.abort();
+			throw ex;
+		}
+		out.close();
+	}
+	
+	/**
+	 * Runs the stress run in the working directory
+	 * 
+	 * @param args The number of terminals, orders per terminal and tables
+	 * 		  <br>(defaults to 64, 50 and 32)
+	 * 
+	 * @throws Exception If a terminal failed, or a check did not pass
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		int numOfThreads = (args.length > 0) ? Integer.parseInt(args[0]) : 64;
+		int numOfOrdersPerThread = (args.length > 1) ?
+				Integer.parseInt(args[1]) : 50;
+		int numOfTables = (args.length > 2) ? Integer.parseInt(args[2]) : 32;
+		
+		writeDataFiles(numOfThreads, numOfTables);
+		
+		MenuMgr.getMenuMgr().loadMenu();
+		HumanResourceMgr.getHRMgr().loadPeople();
+		RestaurantMgr.getRestaurantMgr().loadRestaurant();
+		OrderMgr.getOrderMgr().loadOrders();
+		
+		ConcurrencyStress stress = new ConcurrencyStress(numOfThreads,
+				numOfOrdersPerThread);
+		
+		long startNanos = System.nanoTime();
+		try
+		{
+			stress.run();
+			stress.checkServices();
+			
+			OrderMgr.getOrderMgr().saveOrders();
+		}
+		finally
+		{
+			OrderMgr.getOrderMgr().closeOrders();
+		}
+		
+		stress.checkSavedOrders();
+		
+		System.out.printf("%d terminals paid for %d orders, cancelled %d and"
+				+ " added %d items to other orders (%d times no table) in"
+				+ " %d ms%n", numOfThreads, stress._paidOrders.size(),
+				stress._numOfCancelled.get(), stress._numOfAdds.get(),
+				stress._numOfUnseated.get(),
+				(System.nanoTime() - startNanos) / 1000000);
+		
+		// How often the terminals queued up behind each other for a table
+		System.out.printf("The table allocator was locked %d times, and had"
+				+ " to be waited for %d times%n", TableAllocator.getNumOfLocks(),
+				TableAllocator.getNumOfLockWaits());
+		
+		List<String> failures = stress.getFailures();
+		for(String failure : failures)
+			System.out.println(failure);
+		
+		if(!failures.isEmpty())
+			throw new AssertionError(failures.size() + " checks failed");
+	}
+}
\ No newline at end of file
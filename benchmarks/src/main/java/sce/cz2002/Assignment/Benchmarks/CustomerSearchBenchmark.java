@@ -0,0 +1,148 @@
+package sce.cz2002.Assignment.Benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sce.cz2002.Assignment.Classes.Customer;
+import sce.cz2002.Assignment.Control.CustomerSearchIndex;
+
+/**
+ * Benchmarks finding the first 10 customers whose name or contact number
+ * starts<br>with a search text, against going through every customer
+ * 
+ * @author Jin Yao
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CustomerSearchBenchmark
+{
+	/**
+	 * Number of customers returned by a search
+	 */
+	private static final int MAX_RESULTS = 10;
+	
+	/**
+	 * Number of registered customers
+	 */
+	@Param({"1000", "100000"})
+	public int numOfCustomers;
+	
+	/**
+	 * All registered customers
+	 */
+	private List<Customer> _customers;
+	
+	/**
+	 * The search index of the customers
+	 */
+	private CustomerSearchIndex _customerSearchIndex;
+	
+	/**
+	 * Search texts, half of them the beginning of a name and half the
+	 * beginning<br>of a contact number
+	 */
+	private String[] _searchTexts;
+	
+	/**
+	 * Index of the next search text
+	 */
+	private int _nextSearch;
+	
+	/**
+	 * Registers the customers and picks the search texts
+	 */
+	@Setup
+	public void setUp()
+	{
+		_customers = new DataGenerator(42, 1).generateCustomers(numOfCustomers);
+		
+		_customerSearchIndex = new CustomerSearchIndex();
+		for(Customer customer : _customers)
+		{
+			_customerSearchIndex.add(customer);
+		}
+		
+		Random random = new Random(42);
+		
+		_searchTexts = new String[1024];
+		for(int searchIndex = 0; searchIndex < _searchTexts.length;
+				searchIndex++)
+		{
+			Customer customer = _customers.get(random.nextInt(numOfCustomers));
+			
+			String name = customer.getName();
+			
+			// "Customer 12345" is searched for as "Customer 12", matching
+			// up to 1111 customers
+			_searchTexts[searchIndex] = (searchIndex % 2 == 0) ?
+					name.substring(0, Math.min(name.length(), 11)) :
+					Integer.toString(customer.getContactNumber()).substring(0, 5);
+		}
+		
+		_nextSearch = 0;
+	}
+	
+	/**
+	 * Finds the first customers matching a search text in the index
+	 * 
+	 * @return The matching customers
+	 */
+	@Benchmark
+	public List<Customer> search()
+	{
+		String searchText = _searchTexts[_nextSearch];
+		_nextSearch = (_nextSearch + 1) & (_searchTexts.length - 1);
+		
+		return _customerSearchIndex.search(searchText, MAX_RESULTS);
+	}
+	
+	/**
+	 * Finds the first customers matching a search text by going through
+	 * every<br>customer
+	 * 
+	 * @return The matching customers
+	 */
+	@Benchmark
+	public List<Customer> scanCustomers()
+	{
+		String searchText = _searchTexts[_nextSearch].toLowerCase(
+				Locale.ENGLISH);
+		_nextSearch = (_nextSearch + 1) & (_searchTexts.length - 1);
+		
+		List<Customer> matches = new ArrayList<Customer>();
+		for(Customer customer : _customers)
+		{
+			if(customer.getName().toLowerCase(Locale.ENGLISH).startsWith(
+					searchText) || Integer.toString(
+							customer.getContactNumber()).startsWith(searchText))
+			{
+				matches.add(customer);
+				
+				if(matches.size() >= MAX_RESULTS)
+					break;
+			}
+		}
+		
+		return matches;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,619 @@
+package sce.cz2002.Assignment.Benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import sce.cz2002.Assignment.Classes.Customer;
+import sce.cz2002.Assignment.Classes.DateTimeFormat;
+import sce.cz2002.Assignment.Classes.DateTimes;
+import sce.cz2002.Assignment.Classes.FloorPlan;
+import sce.cz2002.Assignment.Classes.MenuItem;
+import sce.cz2002.Assignment.Classes.Order;
+import sce.cz2002.Assignment.Classes.OrderItem;
+import sce.cz2002.Assignment.Classes.Person;
+import sce.cz2002.Assignment.Classes.Reservation;
+import sce.cz2002.Assignment.Classes.SetPackage;
+import sce.cz2002.Assignment.Classes.Staff;
+import sce.cz2002.Assignment.Persistence.DataFile;
+import sce.cz2002.Assignment.Persistence.FloorPlanCodec;
+import sce.cz2002.Assignment.Persistence.MenuCodec;
+import sce.cz2002.Assignment.Persistence.OrderHistory;
+import sce.cz2002.Assignment.Persistence.OrderJournal;
+import sce.cz2002.Assignment.Persistence.OrderSnapshot;
+import sce.cz2002.Assignment.Persistence.PeopleCodec;
+import sce.cz2002.Assignment.Persistence.RecordOutput;
+import sce.cz2002.Assignment.Persistence.ReservationCodec;
+
+/**
+ * Generates synthetic restaurant data for the benchmarks<p>
+ * 
+ * The same seed always generates the same data, so benchmark runs can be
+ * compared<br>with each other. Orders are spread evenly over a number of
+ * days, and reservations<br>fill the 2 hour slots of every table one day
+ * after another, so that no two<br>reservations of a table overlap<p>
+ * 
+ * When run on its own, writes a full set of data files which the
+ * application can load:<br>
+ * <code>DataGenerator &lt;directory&gt; [numOfOrders] [numOfReservations]
+ * [numOfCustomers]</code>
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class DataGenerator
+{
+	/**
+	 * Smallest number of rows that the benchmarks are run with
+	 */
+	public static final int MIN_ROWS = 1000;
+	
+	/**
+	 * Largest number of rows that the generator is meant for
+	 */
+	public static final int MAX_ROWS = 10000000;
+	
+	/**
+	 * Number of seats of the generated tables, repeated for every 5 tables
+	 * <br>Same as the restaurant's own tables
+	 */
+	private static final int[] TABLE_SIZES = {2, 4, 4, 6, 10};
+	
+	/**
+	 * 10% service charge, same as {@link Order}
+	 */
+	private static final double SERVICE_CHARGE = 1.10;
+	
+	/**
+	 * 7% goods & services tax, same as {@link Order}
+	 */
+	private static final double GOODS_SERVICES_TAX = 1.07;
+	
+	/**
+	 * 10% membership discount, same as {@link Order}
+	 */
+	private static final double MEMBERSHIP_DISCOUNT = 0.90;
+	
+	/**
+	 * Reservation duration, in hours
+	 */
+	private static final int RESERVATION_DURATION = 2;
+	
+	/**
+	 * Start hours of the reservation slots of a day, all within the
+	 * opening hours
+	 */
+	private static final int[] RESERVATION_HOURS = {9, 11, 13, 15, 17, 19};
+	
+	/**
+	 * Number of milliseconds in a day
+	 */
+	private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+	
+	/**
+	 * Most number of different items in a generated order
+	 */
+	private static final int MAX_ITEMS_PER_ORDER = 5;
+	
+	/**
+	 * Most quantity of each item in a generated order
+	 */
+	private static final int MAX_ITEM_QUANTITY = 5;
+	
+	/**
+	 * Source of all random choices
+	 */
+	private final Random _random;
+	
+	/**
+	 * Midnight of the first day that orders/reservations are generated for
+	 */
+	private final long _firstDayMillis;
+	
+	/**
+	 * Number of days that orders are spread over
+	 */
+	private final int _numOfDays;
+	
+	/**
+	 * Formats order date/times into the digits of an order ID, up to
+	 * <br>the second
+	 */
+	private static final DateTimeFormat ORDER_ID_FORMAT =
+			new DateTimeFormat("yyyyMMddHHmmss");
+	
+	/**
+	 * Creates a new data generator<br>
+	 * Orders are generated over the given number of days up to today,
+	 * <br>and reservations from tomorrow onwards
+	 * 
+	 * @param seed The seed of the random choices
+	 * @param numOfDays The number of days that orders are spread over
+	 */
+	public DataGenerator(long seed, int numOfDays)
+	{
+		int today = DateTimes.toEpochDay(System.currentTimeMillis());
+		
+		_random = new Random(seed);
+		_numOfDays = numOfDays;
+		_firstDayMillis = DateTimes.toStartMillis(today)
+				- (numOfDays - 1) * MILLIS_PER_DAY;
+	}
+	
+	/**
+	 * Gets the midnight of the first day that orders are generated for
+	 * 
+	 * @return The first day, in epoch milliseconds
+	 */
+	public long getFirstDayMillis() {
+		return _firstDayMillis;
+	}
+	
+	/**
+	 * Gets the number of days that orders are spread over
+	 * 
+	 * @return The number of days
+	 */
+	public int getNumOfDays() {
+		return _numOfDays;
+	}
+	
+	/**
+	 * Generates a menu of ala carte items, with a set package of 3 items
+	 * for every<br>10 items, with item IDs from 1 in menu order
+	 * 
+	 * @param numOfItems The total number of menu items
+	 * 
+	 * @return The menu items
+	 */
+	public List<MenuItem> generateMenu(int numOfItems)
+	{
+		MenuItem.ItemType[] alaCarteTypes = {MenuItem.ItemType.MainCourse,
+				MenuItem.ItemType.Drink, MenuItem.ItemType.Dessert};
+		
+		List<MenuItem> menu = new ArrayList<MenuItem>(numOfItems);
+		List<MenuItem> alaCarteItems = new ArrayList<MenuItem>(numOfItems);
+		
+		for(int itemNo = 1; itemNo <= numOfItems; itemNo++)
+		{
+			if(itemNo % 10 == 0 && alaCarteItems.size() >= 3)
+			{
+				List<MenuItem> packageItems = new ArrayList<MenuItem>(3);
+				for(int currItem = 0; currItem < 3; currItem++)
+				{
+					packageItems.add(alaCarteItems.get(
+							_random.nextInt(alaCarteItems.size())));
+				}
+				
+				SetPackage setPackage = new SetPackage(itemNo,
+						MenuItem.ItemType.SetPackage,
+						String.format("Set %05d", itemNo), "Generated set",
+						0, packageItems);
+				
+				menu.add(setPackage);
+				continue;
+			}
+			
+			MenuItem menuItem = new MenuItem(itemNo,
+					alaCarteTypes[itemNo % alaCarteTypes.length],
+					String.format("Item %05d", itemNo), "Generated item",
+					generatePrice());
+			
+			menu.add(menuItem);
+			alaCarteItems.add(menuItem);
+		}
+		
+		return menu;
+	}
+	
+	/**
+	 * Generates staff, with every other staff being a waiter
+	 * 
+	 * @param numOfStaff The number of staff
+	 * 
+	 * @return The staff, with staff IDs from 1
+	 */
+	public List<Staff> generateStaff(int numOfStaff)
+	{
+		Staff.JobTitle[] jobTitles = Staff.JobTitle.values();
+		List<Staff> staffList = new ArrayList<Staff>(numOfStaff);
+		
+		for(int staffID = 1; staffID <= numOfStaff; staffID++)
+		{
+			Staff.JobTitle jobTitle = (staffID % 2 == 1) ? Staff.JobTitle.Waiter
+					: jobTitles[_random.nextInt(jobTitles.length)];
+			
+			staffList.add(new Staff("Staff " + staffID, 18 + _random.nextInt(50),
+					generateGender(), staffID, jobTitle,
+					1500 + _random.nextInt(3000)));
+		}
+		
+		return staffList;
+	}
+	
+	/**
+	 * Generates customers, with every third customer being a member
+	 * 
+	 * @param numOfCustomers The number of customers
+	 * 
+	 * @return The customers, with customer IDs from 1
+	 */
+	public List<Customer> generateCustomers(int numOfCustomers)
+	{
+		List<Customer> customers = new ArrayList<Customer>(numOfCustomers);
+		
+		for(int customerID = 1; customerID <= numOfCustomers; customerID++)
+		{
+			customers.add(new Customer("Customer " + customerID,
+					12 + _random.nextInt(70), generateGender(), customerID,
+					80000000 + _random.nextInt(10000000), isMember(customerID)));
+		}
+		
+		return customers;
+	}
+	
+	/**
+	 * Gets the number of seats of each generated table
+	 * 
+	 * @param numOfTables The number of tables
+	 * 
+	 * @return The number of seats, indexed by (table number - 1)
+	 */
+	public static int[] generateTableSizes(int numOfTables)
+	{
+		int[] tableSizes = new int[numOfTables];
+		
+		for(int tableIndex = 0; tableIndex < numOfTables; tableIndex++)
+		{
+			tableSizes[tableIndex] = TABLE_SIZES[tableIndex % TABLE_SIZES.length];
+		}
+		
+		return tableSizes;
+	}
+	
+	/**
+	 * Generates the floor plan of an outlet, with the tables split evenly
+	 * into 4 zones
+	 * 
+	 * @param outletName The name of the outlet
+	 * @param numOfTables The number of tables, numbered from 1
+	 * 
+	 * @return The floor plan
+	 */
+	public static FloorPlan generateFloorPlan(String outletName,
+			int numOfTables)
+	{
+		int[] tableSizes = generateTableSizes(numOfTables);
+		int[] tableZones = new int[numOfTables];
+		
+		for(int tableIndex = 0; tableIndex < numOfTables; tableIndex++)
+		{
+			tableZones[tableIndex] = tableIndex * 4 / numOfTables;
+		}
+		
+		return new FloorPlan(outletName, tableSizes, tableZones);
+	}
+	
+	/**
+	 * Generates a completed order<br>
+	 * Orders with a higher order number are made later, so generating
+	 * order numbers<br>0 to (numOfOrders - 1) spreads the orders evenly
+	 * over the days
+	 * 
+	 * @param orderNo The order number, from 0 to (numOfOrders - 1)
+	 * @param numOfOrders The total number of orders being generated
+	 * @param menu The menu to order from
+	 * @param numOfCustomers The number of customers to choose from
+	 * @param numOfTables The number of tables to choose from
+	 * 
+	 * @return The order
+	 */
+	public Order generateOrder(int orderNo, int numOfOrders, List<MenuItem> menu,
+			int numOfCustomers, int numOfTables)
+	{
+		long spanMillis = _numOfDays * MILLIS_PER_DAY;
+		long orderMillis = _firstDayMillis + (spanMillis * orderNo) / numOfOrders;
+		
+		int customerID = 1 + _random.nextInt(numOfCustomers);
+		int tableNumber = 1 + _random.nextInt(numOfTables);
+		int numOfItems = 1 + _random.nextInt(Math.min(MAX_ITEMS_PER_ORDER,
+				menu.size()));
+		
+		List<OrderItem> orderItems = new ArrayList<OrderItem>(numOfItems);
+		double originalTotalPrice = 0;
+		
+		// Consecutive menu items, so that an item is never ordered twice
+		int firstItem = _random.nextInt(menu.size());
+		for(int currItem = 0; currItem < numOfItems; currItem++)
+		{
+			MenuItem menuItem = menu.get((firstItem + currItem) % menu.size());
+			int quantity = 1 + _random.nextInt(MAX_ITEM_QUANTITY);
+			
+			orderItems.add(new OrderItem(menuItem.getItemID(),
+					menuItem.getName(), menuItem.getPrice(), quantity));
+			originalTotalPrice += menuItem.getPrice() * quantity;
+		}
+		
+		double nettTotalPrice = originalTotalPrice * SERVICE_CHARGE
+				* GOODS_SERVICES_TAX;
+		if(isMember(customerID))
+			nettTotalPrice *= MEMBERSHIP_DISCOUNT;
+		
+		StringBuilder orderID = new StringBuilder(20);
+		ORDER_ID_FORMAT.format(orderMillis, orderID);
+		
+		int millisOfSecond = DateTimes.getMillisOfDay(orderMillis) % 1000;
+		if(millisOfSecond < 100)
+			orderID.append('0');
+		if(millisOfSecond < 10)
+			orderID.append('0');
+		orderID.append(millisOfSecond).append(tableNumber);
+		
+		Order order = new Order(1, customerID, tableNumber,
+				1 + _random.nextInt(10), originalTotalPrice, nettTotalPrice,
+				orderMillis, orderID.toString(), orderItems);
+		order.setMember(isMember(customerID));
+		
+		return order;
+	}
+	
+	/**
+	 * Generates completed orders spread evenly over the days
+	 * 
+	 * @param numOfOrders The number of orders
+	 * @param menu The menu to order from
+	 * @param numOfCustomers The number of customers to choose from
+	 * @param numOfTables The number of tables to choose from
+	 * 
+	 * @return The orders, in chronological order
+	 */
+	public List<Order> generateOrders(int numOfOrders, List<MenuItem> menu,
+			int numOfCustomers, int numOfTables)
+	{
+		List<Order> orders = new ArrayList<Order>(numOfOrders);
+		
+		for(int orderNo = 0; orderNo < numOfOrders; orderNo++)
+		{
+			orders.add(generateOrder(orderNo, numOfOrders, menu,
+					numOfCustomers, numOfTables));
+		}
+		
+		return orders;
+	}
+	
+	/**
+	 * Generates a reservation<br>
+	 * Reservation numbers fill every 2 hour slot of every table, one day
+	 * after<br>another from tomorrow, so reservations never overlap
+	 * 
+	 * @param reservationNo The reservation number, from 0
+	 * @param tableSizes The number of seats of each table
+	 * @param numOfCustomers The number of customers to choose from
+	 * 
+	 * @return The reservation
+	 */
+	public Reservation generateReservation(int reservationNo, int[] tableSizes,
+			int numOfCustomers)
+	{
+		int tableIndex = reservationNo % tableSizes.length;
+		int slotNo = reservationNo / tableSizes.length;
+		
+		int startDay = DateTimes.toEpochDay(getFirstReservationDayMillis())
+				+ slotNo / RESERVATION_HOURS.length;
+		long startMillis = DateTimes.toStartMillis(startDay)
+				+ RESERVATION_HOURS[slotNo % RESERVATION_HOURS.length]
+				* DateTimes.MILLIS_PER_HOUR;
+		
+		int customerID = 1 + _random.nextInt(numOfCustomers);
+		
+		return new Reservation(tableIndex + 1, customerID,
+				"Customer " + customerID, 80000000 + customerID,
+				1 + _random.nextInt(tableSizes[tableIndex]), startMillis,
+				RESERVATION_DURATION);
+	}
+	
+	/**
+	 * Generates reservations which fill the slots of the tables from tomorrow
+	 * 
+	 * @param numOfReservations The number of reservations
+	 * @param tableSizes The number of seats of each table
+	 * @param numOfCustomers The number of customers to choose from
+	 * 
+	 * @return The reservations, in chronological order
+	 */
+	public List<Reservation> generateReservations(int numOfReservations,
+			int[] tableSizes, int numOfCustomers)
+	{
+		List<Reservation> reservations =
+				new ArrayList<Reservation>(numOfReservations);
+		
+		for(int reservationNo = 0; reservationNo < numOfReservations;
+				reservationNo++)
+		{
+			reservations.add(generateReservation(reservationNo, tableSizes,
+					numOfCustomers));
+		}
+		
+		return reservations;
+	}
+	
+	/**
+	 * Gets the midnight of the first day that reservations are generated for
+	 * 
+	 * @return Tomorrow, in epoch milliseconds
+	 */
+	public long getFirstReservationDayMillis() {
+		return _firstDayMillis + _numOfDays * MILLIS_PER_DAY;
+	}
+	
+	/**
+	 * Number of days filled by a number of generated reservations
+	 * 
+	 * @param numOfReservations The number of reservations
+	 * @param numOfTables The number of tables
+	 * 
+	 * @return The number of days, from tomorrow
+	 */
+	public static int getNumOfReservationDays(int numOfReservations,
+			int numOfTables)
+	{
+		int slotsPerDay = numOfTables * RESERVATION_HOURS.length;
+		return (numOfReservations + slotsPerDay - 1) / slotsPerDay;
+	}
+	
+	/**
+	 * Whether a generated customer is a member
+	 * 
+	 * @param customerID The customer ID of the customer
+	 * 
+	 * @return True for every third customer
+	 */
+	public static boolean isMember(int customerID) {
+		return customerID % 3 == 0;
+	}
+	
+	/**
+	 * Generates a price from $1.00 to $20.00, in steps of 10 cents
+	 * 
+	 * @return The price
+	 */
+	private double generatePrice() {
+		return (10 + _random.nextInt(191)) / 10.0;
+	}
+	
+	/**
+	 * Picks a gender
+	 * 
+	 * @return The gender
+	 */
+	private Person.Gender generateGender() {
+		return _random.nextBoolean() ? Person.Gender.Male : Person.Gender.Female;
+	}
+	
+	/**
+	 * Writes a full set of data files (menu, staff/customers, floor plan,
+	 * reservations<br>and completed orders) into a directory<p>
+	 * 
+	 * Orders are archived as they are generated, so that even 10 million
+	 * orders<br>never have to be held in memory at once
+	 * 
+	 * @param directory The directory to write the data files into
+	 * @param numOfOrders The number of completed orders
+	 * @param numOfReservations The number of reservations
+	 * @param numOfCustomers The number of customers
+	 * 
+	 * @throws IOException If a data file cannot be written
+	 */
+	public void writeDataFiles(File directory, int numOfOrders,
+			int numOfReservations, int numOfCustomers) throws IOException
+	{
+		if(!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("Unable to create " + directory);
+		
+		List<MenuItem> menu = generateMenu(100);
+		int[] tableSizes = generateTableSizes(TABLE_SIZES.length);
+		
+		RecordOutput out = DataFile.create(
+				new File(directory, "menu.dat").getPath(), DataFile.MENU);
+		try {
+			MenuCodec.writeMenu(out, menu, menu.size() + 1, 0);
+		} catch (IOException ex) {
+			out.abort();
+			throw ex;
+		}
+		out.close();
+		
+		List<Staff> staffList = generateStaff(20);
+		
+		out = DataFile.create(new File(directory, "humanResource.dat").getPath(),
+				DataFile.PEOPLE);
+		try {
+			PeopleCodec.writeDictionaries(out);
+			PeopleCodec.writeStaff(out, staffList);
+			PeopleCodec.writeCustomers(out, generateCustomers(numOfCustomers));
+			
+			out.writeInt(staffList.size());
+			out.writeInt(numOfCustomers);
+		} catch (IOException ex) {
+			out.abort();
+			throw ex;
+		}
+		out.close();
+		
+		out = DataFile.create(new File(directory, "floorPlan.dat").getPath(),
+				DataFile.FLOOR_PLAN);
+		try {
+			FloorPlanCodec.writeFloorPlans(out, Collections.singletonList(
+					generateFloorPlan("Main", tableSizes.length)));
+		} catch (IOException ex) {
+			out.abort();
+			throw ex;
+		}
+		out.close();
+		
+		out = DataFile.create(new File(directory, "restaurant.dat").getPath(),
+				DataFile.RESTAURANT);
+		try {
+			ReservationCodec.writeReservations(out, generateReservations(
+					numOfReservations, tableSizes, numOfCustomers));
+		} catch (IOException ex) {
+			out.abort();
+			throw ex;
+		}
+		out.close();
+		
+		// Completed orders go straight into the order history, paid for
+		// before the first journal record
+		OrderHistory orderHistory = new OrderHistory(
+				new File(directory, "order.archive").getPath(), 1);
+		orderHistory.open();
+		try {
+			for(int orderNo = 0; orderNo < numOfOrders; orderNo++)
+			{
+				orderHistory.append(generateOrder(orderNo, numOfOrders, menu,
+						numOfCustomers, tableSizes.length), 0);
+			}
+		} finally {
+			orderHistory.close();
+		}
+		
+		OrderJournal.writeSnapshot(new File(directory, "order.dat").getPath(),
+				new OrderSnapshot());
+	}
+	
+	/**
+	 * Writes a full set of data files
+	 * 
+	 * @param args The directory, followed by the number of orders,
+	 * 		  reservations<br>and customers (defaults to 1000, 1000 and 1000)
+	 * 
+	 * @throws IOException If a data file cannot be written
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		if(args.length < 1)
+		{
+			System.out.println("Usage: DataGenerator <directory> [numOfOrders]"
+					+ " [numOfReservations] [numOfCustomers]");
+			return;
+		}
+		
+		int numOfOrders = (args.length > 1) ? Integer.parseInt(args[1]) : MIN_ROWS;
+		int numOfReservations = (args.length > 2) ?
+				Integer.parseInt(args[2]) : MIN_ROWS;
+		int numOfCustomers = (args.length > 3) ?
+				Integer.parseInt(args[3]) : MIN_ROWS;
+		
+		long startNanos = System.nanoTime();
+		
+		new DataGenerator(42, 365).writeDataFiles(new File(args[0]),
+				numOfOrders, numOfReservations, numOfCustomers);
+		
+		System.out.printf("Generated %d orders and %d reservations in %s"
+				+ " (%d ms)%n", numOfOrders, numOfReservations, args[0],
+				(System.nanoTime() - startNanos) / 1000000);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+package sce.cz2002.Assignment.Benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sce.cz2002.Assignment.Classes.Table;
+import sce.cz2002.Assignment.Control.Outlet;
+import sce.cz2002.Assignment.Control.ReservationService;
+import sce.cz2002.Assignment.Control.TableAllocator;
+
+/**
+ * Benchmarks an outlet set up from a large floor plan<p>
+ * 
+ * Finding a table by its number is compared with going through the tables
+ * one by one,<br>as tables used to be found. Seating a walk-in customer and
+ * freeing the table<br>again shows how the reservation service and each
+ * allocation policy scale<br>with the number of tables
+ * 
+ * @author Jin Yao
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FloorPlanBenchmark
+{
+	/**
+	 * Number of tables in the outlet
+	 */
+	@Param({"5", "300", "1000"})
+	public int numOfTables;
+	
+	/**
+	 * The policy used to pick the table of a walk-in customer
+	 */
+	@Param({"BestFit", "LeastRecentlyUsed", "ZoneBalanced"})
+	public TableAllocator.Policy policy;
+	
+	/**
+	 * The outlet
+	 */
+	private Outlet _outlet;
+	
+	/**
+	 * The table number looked up next
+	 */
+	private int _tableNumber;
+	
+	/**
+	 * Number of people in the next walk-in party, from 1 to 10
+	 */
+	private int _numOfPeople;
+	
+	/**
+	 * Sets up the outlet from a generated floor plan, split into 4 zones
+	 */
+	@Setup
+	public void setUp()
+	{
+		_outlet = new Outlet(0, DataGenerator.generateFloorPlan("Benchmark",
+				numOfTables), policy);
+		
+		_tableNumber = 0;
+		_numOfPeople = 1;
+	}
+	
+	/**
+	 * Finds a table by its number
+	 * 
+	 * @return The table
+	 */
+	@Benchmark
+	public Table findTable()
+	{
+		_tableNumber = (_tableNumber % numOfTables) + 1;
+		
+		return _outlet.getTable(_tableNumber);
+	}
+	
+	/**
+	 * Finds a table by going through the tables until its number matches
+	 * 
+	 * @return The table
+	 */
+	@Benchmark
+	public Table scanTables()
+	{
+		_tableNumber = (_tableNumber % numOfTables) + 1;
+		
+		List<Table> tables = _outlet.getTables();
+		for(int tableIndex = 0; tableIndex < tables.size(); tableIndex++)
+		{
+			Table table = tables.get(tableIndex);
+			
+			if(table.getTableNumber() == _tableNumber)
+				return table;
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Seats a walk-in customer at an available table, and frees the table
+	 * 
+	 * @return The table, null if no table fits
+	 */
+	@Benchmark
+	public Table claimAndFree()
+	{
+		ReservationService reservationService =
+				_outlet.getReservationService();
+		
+		int numOfPeople = _numOfPeople;
+		_numOfPeople = (numOfPeople % reservationService.getMaxNumOfPeople())
+				+ 1;
+		
+		Table table = reservationService.claimAvailableTable(1, numOfPeople);
+		
+		if(table != null)
+			reservationService.freeTable(table.getTableNumber());
+		
+		return table;
+	}
+}
\ No newline at end of file
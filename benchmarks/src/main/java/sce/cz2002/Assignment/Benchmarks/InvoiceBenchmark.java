@@ -0,0 +1,100 @@
+package sce.cz2002.Assignment.Benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sce.cz2002.Assignment.Classes.Order;
+import sce.cz2002.Assignment.Control.ReportWriter;
+
+/**
+ * Benchmarks writing the order invoices of a sale revenue report, into a
+ * <br>writer that throws the text away so that only the formatting is
+ * measured
+ * 
+ * @author Jin Yao
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InvoiceBenchmark
+{
+	/**
+	 * Number of invoices in the report
+	 */
+	@Param({"100", "1000"})
+	public int numOfOrders;
+	
+	/**
+	 * The orders whose invoices are written
+	 */
+	private List<Order> _orders;
+	
+	/**
+	 * The report that the invoices are written to
+	 */
+	private ReportWriter _out;
+	
+	/**
+	 * Generates the orders, and a report that throws its text away
+	 */
+	@Setup
+	public void setUp()
+	{
+		DataGenerator generator = new DataGenerator(42, 30);
+		
+		_orders = generator.generateOrders(numOfOrders,
+				generator.generateMenu(100), DataGenerator.MIN_ROWS, 5);
+		
+		Writer discard = new Writer()
+		{
+			@Override
+			public void write(char[] buffer, int offset, int length) {
+			}
+			
+			@Override
+			public void flush() {
+			}
+			
+			@Override
+			public void close() {
+			}
+		};
+		
+		_out = new ReportWriter(new BufferedWriter(discard), true);
+	}
+	
+	/**
+	 * Writes the invoice of every order, as the report by day does
+	 * 
+	 * @throws IOException If the report cannot be written
+	 */
+	@Benchmark
+	public void writeInvoices() throws IOException
+	{
+		for(Order order : _orders)
+		{
+			order.writeOrderInvoice(_out);
+		}
+		
+		_out.flush();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,173 @@
+package sce.cz2002.Assignment.Benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sce.cz2002.Assignment.Classes.MenuItem;
+import sce.cz2002.Assignment.Classes.Order;
+import sce.cz2002.Assignment.Control.KitchenPipeline;
+import sce.cz2002.Assignment.Control.LatencyHistogram;
+
+/**
+ * Benchmarks sending order lines to the kitchen stations, with the
+ * consumers of<br>every station running, either as fast as possible or at
+ * a fixed rate of lines<p>
+ * 
+ * The counts and latencies of each station are printed once the
+ * benchmark is done
+ * 
+ * @author Jin Yao
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class KitchenPipelineBenchmark
+{
+	/**
+	 * Number of menu items that lines are sent for
+	 */
+	private static final int NUM_OF_MENU_ITEMS = 64;
+	
+	/**
+	 * Number of lines sent per second, 0 to send them as fast as possible
+	 */
+	@Param({"0", "10000"})
+	public int linesPerSecond;
+	
+	/**
+	 * Number of consumer threads of each station
+	 */
+	@Param({"1", "2"})
+	public int numOfConsumers;
+	
+	/**
+	 * The pipeline that the lines are sent to
+	 */
+	private KitchenPipeline _pipeline;
+	
+	/**
+	 * The order that the lines belong to
+	 */
+	private Order _order;
+	
+	/**
+	 * The ala carte items that lines are sent for
+	 */
+	private List<MenuItem> _menuItems;
+	
+	/**
+	 * Index of the menu item of the next line
+	 */
+	private int _nextItem;
+	
+	/**
+	 * The time that the next line is due, when sending at a fixed rate
+	 */
+	private long _nextLineNanos;
+	
+	/**
+	 * Starts the pipeline and picks the menu items
+	 */
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		_pipeline = new KitchenPipeline(4096, numOfConsumers, 64, 100);
+		_pipeline.start();
+		
+		_order = new Order(1, 1, 1, 2, 0, 0, System.currentTimeMillis(),
+				"BENCHMARK");
+		
+		_menuItems = new ArrayList<MenuItem>(NUM_OF_MENU_ITEMS);
+		for(MenuItem menuItem : new DataGenerator(42, 1).generateMenu(
+				NUM_OF_MENU_ITEMS * 2))
+		{
+			if(menuItem.getItemType() != MenuItem.ItemType.SetPackage &&
+					_menuItems.size() < NUM_OF_MENU_ITEMS)
+				_menuItems.add(menuItem);
+		}
+		
+		_nextItem = 0;
+	}
+	
+	/**
+	 * Makes the first line of an iteration due now, so that the pause
+	 * between<br>iterations is not made up for with a burst of lines
+	 */
+	@Setup(Level.Iteration)
+	public void setUpIteration() {
+		_nextLineNanos = System.nanoTime();
+	}
+	
+	/**
+	 * Stops the pipeline and prints the counts and latencies of each
+	 * station
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		_pipeline.stop();
+		
+		for(MenuItem.ItemType itemType : MenuItem.ItemType.values())
+		{
+			KitchenPipeline.Station station = _pipeline.getStation(itemType);
+			if(station == null)
+				continue;
+			
+			LatencyHistogram latencies = station.getLatencies();
+			
+			System.out.printf("%n%-12s sent %d, rejected %d, failed %d, full"
+					+ " waits %d (%.1f ms), max depth %d, batches %d, latency"
+					+ " p50 %.1f us, p99 %.1f us, max %.1f us%n",
+					itemType.toStrValue(), station.getNumOfSent(),
+					station.getNumOfRejected(), station.getNumOfFailed(),
+					station.getNumOfFullWaits(),
+					station.getFullWaitNanos() / 1e6,
+					station.getMaxQueueDepth(), station.getNumOfBatches(),
+					latencies.getValueAtPercentile(50) / 1e3,
+					latencies.getValueAtPercentile(99) / 1e3,
+					latencies.getMax() / 1e3);
+		}
+	}
+	
+	/**
+	 * Sends a line for the next menu item, waiting until it is due when
+	 * sending<br>at a fixed rate
+	 * 
+	 * @return Whether the line was sent
+	 */
+	@Benchmark
+	public boolean sendLine()
+	{
+		if(linesPerSecond > 0)
+		{
+			_nextLineNanos += 1000000000L / linesPerSecond;
+			
+			while(System.nanoTime() < _nextLineNanos)
+				;
+		}
+		
+		MenuItem menuItem = _menuItems.get(_nextItem);
+		_nextItem = (_nextItem + 1) % _menuItems.size();
+		
+		return _pipeline.sendLine(_order, menuItem, 1);
+	}
+}
\ No newline at end of file
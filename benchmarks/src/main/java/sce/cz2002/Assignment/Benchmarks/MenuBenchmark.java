@@ -0,0 +1,120 @@
+package sce.cz2002.Assignment.Benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sce.cz2002.Assignment.Classes.MenuItem;
+import sce.cz2002.Assignment.Control.MenuService;
+
+/**
+ * Benchmarks looking up a menu item by name, as done when an item is
+ * selected<br>for an order, in the menu being edited and in the snapshot
+ * of the menu
+ * 
+ * @author Jin Yao
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MenuBenchmark
+{
+	/**
+	 * Number of menu items generated<br>
+	 * Only the ala carte items are put on the menu
+	 */
+	@Param({"10", "100", "1000"})
+	public int numOfItems;
+	
+	/**
+	 * Names of the items on the menu, in a different case from the menu
+	 */
+	private String[] _itemNames;
+	
+	/**
+	 * Index of the next item name to be looked up
+	 */
+	private int _nextItem;
+	
+	/**
+	 * Puts the generated menu items on the menu
+	 */
+	@Setup
+	public void setUp()
+	{
+		MenuService menuService = MenuService.getMenuService();
+		List<MenuItem> menu = new DataGenerator(42, 1).generateMenu(numOfItems);
+		
+		_itemNames = new String[numOfItems];
+		
+		int numOfNames = 0;
+		for(MenuItem menuItem : menu)
+		{
+			if(menuItem.getItemType() == MenuItem.ItemType.SetPackage)
+				continue;
+			
+			menuService.addMenuItem(menuItem.getItemType(), menuItem.getName(),
+					menuItem.getDesc(), menuItem.getPrice());
+			_itemNames[numOfNames++] = menuItem.getName().toUpperCase();
+		}
+		
+		_itemNames = Arrays.copyOf(_itemNames, numOfNames);
+		_nextItem = 0;
+	}
+	
+	/**
+	 * Looks up a menu item which is on the menu
+	 * 
+	 * @return The menu item
+	 */
+	@Benchmark
+	public MenuItem findMenuItem()
+	{
+		String itemName = _itemNames[_nextItem];
+		_nextItem = (_nextItem + 1) % _itemNames.length;
+		
+		return MenuService.getMenuService().findMenuItem(itemName);
+	}
+	
+	/**
+	 * Looks up a menu item which is on the menu, in the last snapshot of the
+	 * menu
+	 * 
+	 * @return The menu item
+	 */
+	@Benchmark
+	public MenuItem findSnapshotMenuItem()
+	{
+		String itemName = _itemNames[_nextItem];
+		_nextItem = (_nextItem + 1) % _itemNames.length;
+		
+		return MenuService.getMenuService().getMenuSnapshot().findItem(
+				itemName);
+	}
+	
+	/**
+	 * Looks up a menu item which is not on the menu
+	 * 
+	 * @return Null, as the menu item is not found
+	 */
+	@Benchmark
+	public MenuItem findMissingMenuItem() {
+		return MenuService.getMenuService().findMenuItem("No Such Item");
+	}
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+package sce.cz2002.Assignment.Benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sce.cz2002.Assignment.Classes.DateTimes;
+import sce.cz2002.Assignment.Classes.Person;
+import sce.cz2002.Assignment.Classes.Reservation;
+import sce.cz2002.Assignment.Classes.Table;
+import sce.cz2002.Assignment.Control.MetricsRegistry;
+import sce.cz2002.Assignment.Control.PeopleService;
+import sce.cz2002.Assignment.Control.ReservationService;
+
+/**
+ * Benchmarks timed service operations with metrics turned on and off, to
+ * find the<br>overhead of the timers<p>
+ * 
+ * Seating a walk-in customer is the cheapest operation that is timed, so it
+ * shows<br>the worst case. Making and cancelling a reservation is a more
+ * typical operation.<br>Both are timed by sampled timers. The timers on
+ * their own show the absolute cost<br>of timing every call, and of a
+ * sampled timer
+ * 
+ * @author Jin Yao
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MetricsBenchmark
+{
+	/**
+	 * Whether calls are timed
+	 */
+	@Param({"true", "false"})
+	public boolean metricsEnabled;
+	
+	/**
+	 * A timer which is not used by the application
+	 */
+	private MetricsRegistry.Timer _timer;
+	
+	/**
+	 * A sampled timer which is not used by the application
+	 */
+	private MetricsRegistry.Timer _sampledTimer;
+	
+	/**
+	 * The customer ID of the customer seated and making reservations
+	 */
+	private int _customerID;
+	
+	/**
+	 * The reservation date/time, noon of the next day
+	 */
+	private long _startMillis;
+	
+	/**
+	 * Turns metrics on or off, and registers the customer
+	 */
+	@Setup
+	public void setUp()
+	{
+		MetricsRegistry.setEnabled(metricsEnabled);
+		_timer = MetricsRegistry.getMetricsRegistry().getTimer(
+				"benchmark_empty");
+		_sampledTimer = MetricsRegistry.getMetricsRegistry().getSampledTimer(
+				"benchmark_empty_sampled");
+		
+		_customerID = PeopleService.getPeopleService().registerCustomer(
+				"Benchmark", 30, Person.Gender.Male, 91234567, false)
+				.getCustomerID();
+		
+		_startMillis = DateTimes.toStartMillis(DateTimes.toEpochDay(
+				System.currentTimeMillis()) + 1)
+				+ 12 * DateTimes.MILLIS_PER_HOUR;
+	}
+	
+	/**
+	 * Times a call which does nothing
+	 * 
+	 * @return The start time of the call
+	 */
+	@Benchmark
+	public long timeEmptyCall()
+	{
+		long startNanos = _timer.start();
+		_timer.stop(startNanos);
+		
+		return startNanos;
+	}
+	
+	/**
+	 * Times a call which does nothing, with a sampled timer
+	 * 
+	 * @return The start time of the call
+	 */
+	@Benchmark
+	public long timeEmptyCallSampled()
+	{
+		long startNanos = _sampledTimer.start();
+		_sampledTimer.stop(startNanos);
+		
+		return startNanos;
+	}
+	
+	/**
+	 * Seats a walk-in customer at an available table, and frees the table
+	 * 
+	 * @return The table
+	 */
+	@Benchmark
+	public Table claimAndFreeTable() {
+		return claimAndFree(_customerID);
+	}
+	
+	/**
+	 * Seats a walk-in customer at an available table, and frees the table,
+	 * with<br>8 threads timing the same operation
+	 * 
+	 * @return The table, null if all suitable tables were taken
+	 */
+	@Benchmark
+	@Threads(8)
+	public Table claimAndFreeTableContended() {
+		return claimAndFree(_customerID);
+	}
+	
+	/**
+	 * Makes a reservation for the next day, and cancels it
+	 * 
+	 * @return The reservation
+	 */
+	@Benchmark
+	public Reservation makeAndCancelReservation()
+	{
+		ReservationService reservationService =
+				ReservationService.getReservationService();
+		
+		Reservation reservation = reservationService.makeReservation(
+				_customerID, 2, _startMillis);
+		
+		if(reservation != null)
+			reservationService.cancelReservation(reservation);
+		
+		return reservation;
+	}
+	
+	/**
+	 * Seats a customer at an available table for 2, and frees the table
+	 * 
+	 * @param customerID The customer ID of the customer
+	 * 
+	 * @return The table, null if all suitable tables were taken
+	 */
+	private static Table claimAndFree(int customerID)
+	{
+		ReservationService reservationService =
+				ReservationService.getReservationService();
+		
+		Table table = reservationService.claimAvailableTable(customerID, 2);
+		
+		if(table != null)
+			reservationService.freeTable(table.getTableNumber());
+		
+		return table;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package sce.cz2002.Assignment.Benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sce.cz2002.Assignment.Classes.MenuItem;
+import sce.cz2002.Assignment.Classes.Order;
+
+/**
+ * Benchmarks adding/removing items to/from an ongoing order, each of which
+ * <br>looks up the order item and recalculates the order price
+ * 
+ * @author Jin Yao
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OrderBenchmark
+{
+	/**
+	 * Number of different items already in the order
+	 */
+	@Param({"4", "16", "64", "256"})
+	public int numOfItems;
+	
+	/**
+	 * Menu that the order is taken from, with one more item than the order
+	 */
+	private List<MenuItem> _menu;
+	
+	/**
+	 * The order being changed
+	 */
+	private Order _order;
+	
+	/**
+	 * Index of the next item in the order to be added again
+	 */
+	private int _nextItem;
+	
+	/**
+	 * Creates an order with the given number of different items
+	 */
+	@Setup
+	public void setUp()
+	{
+		_menu = new DataGenerator(42, 1).generateMenu(numOfItems + 1);
+		
+		_order = new Order(1, 1, 1, 4, 0, 0, System.currentTimeMillis(), "1");
+		
+		for(int currItem = 0; currItem < numOfItems; currItem++)
+		{
+			_order.addItemToOrder(_menu.get(currItem), 1);
+		}
+		
+		_nextItem = 0;
+	}
+	
+	/**
+	 * Adds 1 more of an item that is already in the order
+	 * 
+	 * @return The order, so the work is not optimized away
+	 */
+	@Benchmark
+	public Order addExistingItem()
+	{
+		MenuItem menuItem = _menu.get(_nextItem);
+		_nextItem = (_nextItem + 1) % numOfItems;
+		
+		_order.addItemToOrder(menuItem, 1);
+		return _order;
+	}
+	
+	/**
+	 * Adds an item that is not in the order yet, and removes it again
+	 * 
+	 * @return The order, so the work is not optimized away
+	 */
+	@Benchmark
+	public Order addAndRemoveNewItem()
+	{
+		MenuItem menuItem = _menu.get(numOfItems);
+		
+		_order.addItemToOrder(menuItem, 1);
+		_order.removeItemFromOrder(menuItem.getItemID(), 1);
+		return _order;
+	}
+}
\ No newline at end of file
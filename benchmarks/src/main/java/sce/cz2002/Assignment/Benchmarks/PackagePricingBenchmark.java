@@ -0,0 +1,139 @@
+package sce.cz2002.Assignment.Benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sce.cz2002.Assignment.Classes.MenuItem;
+import sce.cz2002.Assignment.Classes.SetPackage;
+import sce.cz2002.Assignment.Control.MenuService;
+
+/**
+ * Benchmarks changing the price of a menu item, and reading the price of a
+ * set<br>package that contains it, on a menu with many set packages
+ * 
+ * @author Jin Yao
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PackagePricingBenchmark
+{
+	/**
+	 * Number of ala carte items on the menu
+	 */
+	private static final int NUM_OF_ALA_CARTE_ITEMS = 100;
+	
+	/**
+	 * Number of menu items in each set package
+	 */
+	private static final int PACKAGE_SIZE = 3;
+	
+	/**
+	 * Number of set packages on the menu
+	 */
+	@Param({"100", "1000", "10000"})
+	public int numOfPackages;
+	
+	/**
+	 * The ala carte items on the menu
+	 */
+	private List<MenuItem> _alaCarteItems;
+	
+	/**
+	 * A set package containing each ala carte item, by position in the list
+	 * of<br>ala carte items
+	 */
+	private SetPackage[] _packageOfItem;
+	
+	/**
+	 * Index of the next ala carte item whose price is changed
+	 */
+	private int _nextItem;
+	
+	/**
+	 * Puts the ala carte items and the set packages on the menu
+	 */
+	@Setup
+	public void setUp()
+	{
+		MenuService menuService = MenuService.getMenuService();
+		Random random = new Random(42);
+		
+		_alaCarteItems = new ArrayList<MenuItem>(NUM_OF_ALA_CARTE_ITEMS);
+		_packageOfItem = new SetPackage[NUM_OF_ALA_CARTE_ITEMS];
+		
+		for(MenuItem menuItem : new DataGenerator(42, 1).generateMenu(
+				NUM_OF_ALA_CARTE_ITEMS * 2))
+		{
+			if(menuItem.getItemType() == MenuItem.ItemType.SetPackage ||
+					_alaCarteItems.size() == NUM_OF_ALA_CARTE_ITEMS)
+				continue;
+			
+			_alaCarteItems.add(menuService.addMenuItem(
+					menuItem.getItemType(), menuItem.getName(),
+					menuItem.getDesc(), menuItem.getPrice()));
+		}
+		
+		for(int packageNo = 0; packageNo < numOfPackages; packageNo++)
+		{
+			List<MenuItem> packageItems = new ArrayList<MenuItem>(PACKAGE_SIZE);
+			int[] itemIndexes = new int[PACKAGE_SIZE];
+			
+			for(int currItem = 0; currItem < PACKAGE_SIZE; currItem++)
+			{
+				itemIndexes[currItem] = random.nextInt(NUM_OF_ALA_CARTE_ITEMS);
+				packageItems.add(_alaCarteItems.get(itemIndexes[currItem]));
+			}
+			
+			SetPackage setPackage = menuService.addSetPackage(
+					String.format("Set %05d", packageNo), "Generated set",
+					packageItems);
+			
+			for(int itemIndex : itemIndexes)
+				_packageOfItem[itemIndex] = setPackage;
+		}
+		
+		_nextItem = 0;
+	}
+	
+	/**
+	 * Changes the price of an ala carte item, then reads the price of a set
+	 * package<br>that contains it
+	 * 
+	 * @return The price of the set package
+	 */
+	@Benchmark
+	public double updateItemPrice()
+	{
+		MenuItem menuItem = _alaCarteItems.get(_nextItem);
+		SetPackage setPackage = _packageOfItem[_nextItem];
+		_nextItem = (_nextItem + 1) % NUM_OF_ALA_CARTE_ITEMS;
+		
+		MenuService.getMenuService().updateMenuItem(menuItem,
+				menuItem.getName(), menuItem.getDesc(),
+				menuItem.getPrice() + 0.05);
+		
+		if(setPackage == null)
+			return 0;
+		
+		return setPackage.getPrice();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,264 @@
+package sce.cz2002.Assignment.Benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sce.cz2002.Assignment.Classes.Customer;
+import sce.cz2002.Assignment.Classes.MenuItem;
+import sce.cz2002.Assignment.Classes.Order;
+import sce.cz2002.Assignment.Classes.Reservation;
+import sce.cz2002.Assignment.Classes.Staff;
+import sce.cz2002.Assignment.Persistence.DataFile;
+import sce.cz2002.Assignment.Persistence.MenuCodec;
+import sce.cz2002.Assignment.Persistence.OrderJournal;
+import sce.cz2002.Assignment.Persistence.OrderSnapshot;
+import sce.cz2002.Assignment.Persistence.PeopleCodec;
+import sce.cz2002.Assignment.Persistence.RecordInput;
+import sce.cz2002.Assignment.Persistence.RecordOutput;
+import sce.cz2002.Assignment.Persistence.ReservationCodec;
+
+/**
+ * Benchmarks saving and loading each of the data files, laid out the same
+ * way as<br>the managers save them
+ * 
+ * @author Jin Yao
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PersistenceBenchmark
+{
+	/**
+	 * Number of menu items, the menu is always small
+	 */
+	private static final int NUM_OF_MENU_ITEMS = 100;
+	
+	/**
+	 * Number of staff, the staff list is always small
+	 */
+	private static final int NUM_OF_STAFF = 20;
+	
+	/**
+	 * Number of customers, reservations and completed transactions
+	 */
+	@Param({"1000", "100000"})
+	public int numOfRows;
+	
+	/**
+	 * Directory holding the data files
+	 */
+	private File _directory;
+	
+	/**
+	 * Paths of the data files
+	 */
+	private String _menuPath;
+	private String _peoplePath;
+	private String _restaurantPath;
+	private String _orderPath;
+	
+	/**
+	 * The generated data
+	 */
+	private List<MenuItem> _menu;
+	private List<Staff> _staff;
+	private List<Customer> _customers;
+	private List<Reservation> _reservations;
+	private OrderSnapshot _orders;
+	
+	/**
+	 * Generates the data, and saves each data file once so that it can
+	 * be loaded
+	 * 
+	 * @throws IOException If a data file cannot be saved
+	 */
+	@Setup
+	public void setUp() throws IOException
+	{
+		DataGenerator generator = new DataGenerator(42, 365);
+		int[] tableSizes = DataGenerator.generateTableSizes(5);
+		
+		_menu = generator.generateMenu(NUM_OF_MENU_ITEMS);
+		_staff = generator.generateStaff(NUM_OF_STAFF);
+		_customers = generator.generateCustomers(numOfRows);
+		_reservations = generator.generateReservations(numOfRows, tableSizes,
+				numOfRows);
+		
+		List<Order> completedOrders = generator.generateOrders(numOfRows,
+				_menu, numOfRows, tableSizes.length);
+		_orders = new OrderSnapshot(completedOrders, new ArrayList<Order>(), 0);
+		
+		_directory = Files.createTempDirectory("rrpss-bench").toFile();
+		_menuPath = new File(_directory, "menu.dat").getPath();
+		_peoplePath = new File(_directory, "humanResource.dat").getPath();
+		_restaurantPath = new File(_directory, "restaurant.dat").getPath();
+		_orderPath = new File(_directory, "order.dat").getPath();
+		
+		saveMenu();
+		savePeople();
+		saveReservations();
+		saveOrders();
+	}
+	
+	/**
+	 * Removes the data files
+	 */
+	@TearDown
+	public void tearDown()
+	{
+		File[] files = _directory.listFiles();
+		if(files != null)
+		{
+			for(File file : files)
+				file.delete();
+		}
+		
+		_directory.delete();
+	}
+	
+	/**
+	 * Saves the menu file
+	 * 
+	 * @throws IOException If the menu file cannot be saved
+	 */
+	@Benchmark
+	public void saveMenu() throws IOException
+	{
+		RecordOutput out = DataFile.create(_menuPath, DataFile.MENU);
+		MenuCodec.writeMenu(out, _menu, _menu.size() + 1, 0);
+		out.close();
+	}
+	
+	/**
+	 * Loads the menu file
+	 * 
+	 * @return The menu items loaded
+	 * 
+	 * @throws IOException If the menu file cannot be loaded
+	 */
+	@Benchmark
+	public List<MenuItem> loadMenu() throws IOException
+	{
+		RecordInput in = DataFile.open(_menuPath, DataFile.MENU);
+		List<MenuItem> menu = MenuCodec.readMenu(in);
+		in.close();
+		
+		return menu;
+	}
+	
+	/**
+	 * Saves the human resource file
+	 * 
+	 * @throws IOException If the human resource file cannot be saved
+	 */
+	@Benchmark
+	public void savePeople() throws IOException
+	{
+		RecordOutput out = DataFile.create(_peoplePath, DataFile.PEOPLE);
+		
+		PeopleCodec.writeDictionaries(out);
+		PeopleCodec.writeStaff(out, _staff);
+		PeopleCodec.writeCustomers(out, _customers);
+		out.writeInt(_staff.size());
+		out.writeInt(_customers.size());
+		
+		out.close();
+	}
+	
+	/**
+	 * Loads the human resource file
+	 * 
+	 * @return The customers loaded
+	 * 
+	 * @throws IOException If the human resource file cannot be loaded
+	 */
+	@Benchmark
+	public List<Customer> loadPeople() throws IOException
+	{
+		RecordInput in = DataFile.open(_peoplePath, DataFile.PEOPLE);
+		
+		PeopleCodec peopleCodec = PeopleCodec.readDictionaries(in);
+		peopleCodec.readStaff(in);
+		List<Customer> customers = peopleCodec.readCustomers(in);
+		in.readInt();
+		in.readInt();
+		
+		in.close();
+		
+		return customers;
+	}
+	
+	/**
+	 * Saves the reservation file
+	 * 
+	 * @throws IOException If the reservation file cannot be saved
+	 */
+	@Benchmark
+	public void saveReservations() throws IOException
+	{
+		RecordOutput out = DataFile.create(_restaurantPath,
+				DataFile.RESTAURANT);
+		ReservationCodec.writeReservations(out, _reservations);
+		out.close();
+	}
+	
+	/**
+	 * Loads the reservation file
+	 * 
+	 * @return The reservations loaded
+	 * 
+	 * @throws IOException If the reservation file cannot be loaded
+	 */
+	@Benchmark
+	public List<Reservation> loadReservations() throws IOException
+	{
+		RecordInput in = DataFile.open(_restaurantPath, DataFile.RESTAURANT);
+		List<Reservation> reservations = ReservationCodec.readReservations(in);
+		in.close();
+		
+		return reservations;
+	}
+	
+	/**
+	 * Saves the order file
+	 * 
+	 * @throws IOException If the order file cannot be saved
+	 */
+	@Benchmark
+	public void saveOrders() throws IOException {
+		OrderJournal.writeSnapshot(_orderPath, _orders);
+	}
+	
+	/**
+	 * Loads the order file
+	 * 
+	 * @return The orders loaded
+	 * 
+	 * @throws IOException If the order file cannot be loaded
+	 */
+	@Benchmark
+	public OrderSnapshot loadOrders() throws IOException {
+		return OrderJournal.readSnapshot(_orderPath);
+	}
+}
\ No newline at end of file
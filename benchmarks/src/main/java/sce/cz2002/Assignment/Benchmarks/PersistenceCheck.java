@@ -0,0 +1,714 @@
+package sce.cz2002.Assignment.Benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import sce.cz2002.Assignment.Classes.Customer;
+import sce.cz2002.Assignment.Classes.FloorPlan;
+import sce.cz2002.Assignment.Classes.MenuItem;
+import sce.cz2002.Assignment.Classes.Order;
+import sce.cz2002.Assignment.Classes.OrderItem;
+import sce.cz2002.Assignment.Classes.Reservation;
+import sce.cz2002.Assignment.Classes.SetPackage;
+import sce.cz2002.Assignment.Classes.Staff;
+import sce.cz2002.Assignment.Classes.Table;
+import sce.cz2002.Assignment.Control.HumanResourceMgr;
+import sce.cz2002.Assignment.Control.MenuMgr;
+import sce.cz2002.Assignment.Control.MenuService;
+import sce.cz2002.Assignment.Control.OrderMgr;
+import sce.cz2002.Assignment.Control.PeopleService;
+import sce.cz2002.Assignment.Control.ReservationService;
+import sce.cz2002.Assignment.Control.RestaurantMgr;
+import sce.cz2002.Assignment.Persistence.DataFile;
+import sce.cz2002.Assignment.Persistence.FloorPlanCodec;
+import sce.cz2002.Assignment.Persistence.Journal;
+import sce.cz2002.Assignment.Persistence.MenuCodec;
+import sce.cz2002.Assignment.Persistence.OrderHistory;
+import sce.cz2002.Assignment.Persistence.OrderJournal;
+import sce.cz2002.Assignment.Persistence.OrderSnapshot;
+import sce.cz2002.Assignment.Persistence.PeopleCodec;
+import sce.cz2002.Assignment.Persistence.RecordInput;
+import sce.cz2002.Assignment.Persistence.RecordOutput;
+import sce.cz2002.Assignment.Persistence.ReservationCodec;
+
+/**
+ * Checks that every data file reads back what was written, that data
+ * files saved using<br>Java serialization are migrated without losing
+ * anything, and that the order journal<br>recovers every committed change
+ * after a crash<p>
+ * 
+ * Crashes are simulated by leaving the order journal open, tearing the
+ * last record<br>of the journal file, and leaving a journal segment behind
+ * as if the application<br>stopped halfway through a compaction<p>
+ * 
+ * Has to be run in an empty directory, as the managers migrate the data
+ * files in the<br>working directory:<br>
+ * <code>PersistenceCheck</code>
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class PersistenceCheck
+{
+	/**
+	 * Number of rows of each kind of generated data
+	 */
+	private static final int NUM_OF_ROWS = 200;
+	
+	/**
+	 * Number of tables of the generated floor plans
+	 */
+	private static final int NUM_OF_TABLES = 10;
+	
+	/**
+	 * Suffix of the journal segment left behind by a compaction, same as
+	 * <br>{@link OrderJournal}
+	 */
+	private static final String SEGMENT_SUFFIX = ".compacting";
+	
+	/**
+	 * Generates the data written
+	 */
+	private final DataGenerator _generator = new DataGenerator(42, 30);
+	
+	/**
+	 * What went wrong, empty if nothing did
+	 */
+	private final List<String> _failures = new ArrayList<String>();
+	
+	/**
+	 * The ongoing orders rebuilt by the last order journal opened
+	 */
+	private List<Order> _recoveredOrders;
+	
+	/**
+	 * Writes each kind of data file in the record format, and checks that
+	 * it reads<br>back the same data
+	 * 
+	 * @param directory The directory to write the data files into
+	 * 
+	 * @throws IOException If a data file cannot be written or read
+	 */
+	public void checkRoundTrips(File directory) throws IOException
+	{
+		List<MenuItem> menu = _generator.generateMenu(NUM_OF_ROWS);
+		List<Staff> staffList = _generator.generateStaff(NUM_OF_ROWS);
+		List<Customer> customers = _generator.generateCustomers(NUM_OF_ROWS);
+		List<FloorPlan> floorPlans = Arrays.asList(
+				DataGenerator.generateFloorPlan("Main", NUM_OF_TABLES),
+				DataGenerator.generateFloorPlan("Annex", NUM_OF_TABLES / 2));
+		List<Reservation> reservations = _generator.generateReservations(
+				NUM_OF_ROWS, DataGenerator.generateTableSizes(NUM_OF_TABLES),
+				NUM_OF_ROWS);
+		
+		String menuPath = new File(directory, "menu.dat").getPath();
+		RecordOutput out = DataFile.create(menuPath, DataFile.MENU);
+		MenuCodec.writeMenu(out, menu, menu.size() + 1, 7);
+		out.close();
+		
+		RecordInput in = DataFile.open(menuPath, DataFile.MENU);
+		try
+		{
+			checkSame("Menu", menu, MenuCodec.readMenu(in));
+			checkSame("Next item ID", menu.size() + 1,
+					MenuCodec.readNextItemID(in));
+			checkSame("Menu version", 7L, MenuCodec.readMenuVersion(in));
+		}
+		finally
+		{
+			in.close();
+		}
+		
+		String peoplePath = new File(directory, "humanResource.dat").getPath();
+		out = DataFile.create(peoplePath, DataFile.PEOPLE);
+		PeopleCodec.writeDictionaries(out);
+		PeopleCodec.writeStaff(out, staffList);
+		PeopleCodec.writeCustomers(out, customers);
+		out.close();
+		
+		in = DataFile.open(peoplePath, DataFile.PEOPLE);
+		try
+		{
+			PeopleCodec peopleCodec = PeopleCodec.readDictionaries(in);
+			
+			checkSame("Staff", staffList, peopleCodec.readStaff(in));
+			checkSame("Customers", customers, peopleCodec.readCustomers(in));
+		}
+		finally
+		{
+			in.close();
+		}
+		
+		String floorPlanPath = new File(directory, "floorPlan.dat").getPath();
+		out = DataFile.create(floorPlanPath, DataFile.FLOOR_PLAN);
+		FloorPlanCodec.writeFloorPlans(out, floorPlans);
+		out.close();
+		
+		in = DataFile.open(floorPlanPath, DataFile.FLOOR_PLAN);
+		try {
+			checkSame("Floor plans", floorPlans, FloorPlanCodec.readFloorPlans(in));
+		} finally {
+			in.close();
+		}
+		
+		String restaurantPath = new File(directory, "restaurant.dat").getPath();
+		out = DataFile.create(restaurantPath, DataFile.RESTAURANT);
+		ReservationCodec.writeReservations(out, reservations);
+		out.close();
+		
+		in = DataFile.open(restaurantPath, DataFile.RESTAURANT);
+		try {
+			checkSame("Reservations", reservations,
+					ReservationCodec.readReservations(in));
+		} finally {
+			in.close();
+		}
+		
+		List<Order> completedOrders = _generator.generateOrders(NUM_OF_ROWS,
+				menu, NUM_OF_ROWS, NUM_OF_TABLES);
+		
+		// Taken at both outlets, whose table numbers are the same
+		for(int index = 0; index < completedOrders.size(); index++)
+		{
+			completedOrders.get(index).setOutletIndex(index % floorPlans.size());
+		}
+		List<Order> currentOrders = completedOrders.subList(0, NUM_OF_ROWS / 10);
+		OrderSnapshot snapshot = new OrderSnapshot(completedOrders.subList(
+				NUM_OF_ROWS / 10, NUM_OF_ROWS), currentOrders, 42);
+		
+		String orderPath = new File(directory, "order.dat").getPath();
+		OrderJournal.writeSnapshot(orderPath, snapshot);
+		
+		OrderSnapshot readSnapshot = OrderJournal.readSnapshot(orderPath);
+		checkSame("Completed orders", snapshot.getCompletedOrders(),
+				readSnapshot.getCompletedOrders());
+		checkSame("Ongoing orders", currentOrders,
+				readSnapshot.getCurrentOrders());
+		checkSame("Last sequence number", 42L,
+				readSnapshot.getLastSequenceNumber());
+	}
+	
+	/**
+	 * Writes the data files of the working directory using Java
+	 * serialization, has<br>the managers load them, and checks that they
+	 * were migrated to the record<br>format without losing anything<p>
+	 * 
+	 * The managers can only be loaded once, so this can only be checked
+	 * once<br>in a run
+	 * 
+	 * @throws IOException If a data file cannot be written or read
+	 */
+	public void checkLegacyMigration() throws IOException
+	{
+		List<MenuItem> menu = _generator.generateMenu(NUM_OF_ROWS);
+		List<Staff> staffList = _generator.generateStaff(NUM_OF_ROWS);
+		List<Customer> customers = _generator.generateCustomers(NUM_OF_ROWS);
+		List<Reservation> reservations = _generator.generateReservations(
+				NUM_OF_ROWS, DataGenerator.generateTableSizes(NUM_OF_TABLES),
+				NUM_OF_ROWS);
+		List<Order> orders = _generator.generateOrders(NUM_OF_ROWS, menu,
+				NUM_OF_ROWS, NUM_OF_TABLES);
+		
+		// The floor plan file was added with the record format
+		RecordOutput out = DataFile.create("floorPlan.dat", DataFile.FLOOR_PLAN);
+		FloorPlanCodec.writeFloorPlans(out, Collections.singletonList(
+				DataGenerator.generateFloorPlan("Main", NUM_OF_TABLES)));
+		out.close();
+		
+		writeLegacyFile("menu.dat", new ArrayList<MenuItem>(menu));
+		writeLegacyFile("humanResource.dat", new ArrayList<Staff>(staffList),
+				new ArrayList<Customer>(customers), staffList.size(),
+				customers.size());
+		writeLegacyFile("restaurant.dat",
+				new ArrayList<Reservation>(reservations));
+		writeLegacyFile("order.dat", new ArrayList<Order>(orders));
+		
+		MenuMgr.getMenuMgr().loadMenu();
+		HumanResourceMgr.getHRMgr().loadPeople();
+		RestaurantMgr.getRestaurantMgr().loadRestaurant();
+		OrderMgr.getOrderMgr().loadOrders();
+		OrderMgr.getOrderMgr().closeOrders();
+		
+		checkSame("Migrated menu", sortedByID(menu),
+				sortedByID(MenuService.getMenuService().getMenu()));
+		checkSame("Migrated staff", staffList,
+				PeopleService.getPeopleService().getStaff());
+		checkSame("Migrated customers", customers,
+				PeopleService.getPeopleService().getCustomers());
+		checkSame("Migrated reservations", reservations,
+				ReservationService.getReservationService().getReservations());
+		
+		for(String filePath : Arrays.asList("menu.dat", "humanResource.dat",
+				"restaurant.dat", "order.dat"))
+		{
+			if(DataFile.isLegacyFormat(filePath))
+				_failures.add(filePath + " was not rewritten in the record"
+						+ " format");
+		}
+		
+		RecordInput in = DataFile.open("menu.dat", DataFile.MENU);
+		try {
+			checkSame("Rewritten menu", sortedByID(menu),
+					sortedByID(MenuCodec.readMenu(in)));
+		} finally {
+			in.close();
+		}
+		
+		in = DataFile.open("humanResource.dat", DataFile.PEOPLE);
+		try
+		{
+			PeopleCodec peopleCodec = PeopleCodec.readDictionaries(in);
+			
+			checkSame("Rewritten staff", staffList, peopleCodec.readStaff(in));
+			checkSame("Rewritten customers", customers,
+					peopleCodec.readCustomers(in));
+		}
+		finally
+		{
+			in.close();
+		}
+		
+		in = DataFile.open("restaurant.dat", DataFile.RESTAURANT);
+		try {
+			checkSame("Rewritten reservations", reservations,
+					ReservationCodec.readReservations(in));
+		} finally {
+			in.close();
+		}
+		
+		// Completed transactions are moved into the order history
+		checkSame("Migrated orders", orders, readArchivedOrders("order.archive"));
+		checkSame("Orders left in the order file", Collections.emptyList(),
+				OrderJournal.readSnapshot("order.dat").getCompletedOrders());
+	}
+	
+	/**
+	 * Records order changes in an order journal, crashes it in a few
+	 * different ways,<br>and checks that opening it again brings back every
+	 * committed change<p>
+	 * 
+	 * <ol>
+	 * <li>Crashes with a torn record at the end of the journal, and with a
+	 * paid order<br>not archived yet</li>
+	 * <li>Crashes after the journal was set aside for compaction, but before
+	 * it was<br>compacted</li>
+	 * <li>Checkpoints and closes the journal as usual</li>
+	 * </ol>
+	 * 
+	 * @param directory The directory to write the order files into
+	 * 
+	 * @throws IOException If the order files cannot be written or read
+	 */
+	public void checkJournalRecovery(File directory) throws IOException
+	{
+		String snapshotPath = new File(directory, "order.dat").getPath();
+		String journalPath = new File(directory, "order.log").getPath();
+		String historyPath = new File(directory, "order.archive").getPath();
+		
+		List<MenuItem> menu = _generator.generateMenu(10);
+		long orderMillis = System.currentTimeMillis();
+		
+		Order orderA = newOrder("A", orderMillis, menu.get(0));
+		Order orderB = newOrder("B", orderMillis + 1, menu.get(1));
+		Order orderC = newOrder("C", orderMillis + 2, menu.get(2));
+		orderC.setOutletIndex(1);
+		
+		OrderJournal orderJournal = openJournal(snapshotPath, journalPath,
+				historyPath);
+		orderJournal.orderCreated(orderA);
+		orderJournal.orderCreated(orderB);
+		orderJournal.orderCreated(orderC);
+		
+		orderA.addItemToOrder(menu.get(3), 2);
+		orderJournal.itemAdded(orderA);
+		orderJournal.orderCancelled(orderB);
+		
+		// Crashed after the payment was journaled, before it was archived,
+		// and while the next order was being journaled
+		orderJournal.orderPaid(orderC);
+		orderJournal.orderCreated(newOrder("E", orderMillis + 4, menu.get(5)));
+		tearLastRecord(journalPath);
+		
+		orderJournal = openJournal(snapshotPath, journalPath, historyPath);
+		checkSame("Orders after a torn record", Arrays.asList(orderA),
+				_recoveredOrders);
+		checkSame("Archived orders after a torn record", Arrays.asList(orderC),
+				readArchivedOrders(historyPath));
+		
+		Order orderD = newOrder("D", orderMillis + 3, menu.get(4));
+		orderJournal.orderCreated(orderD);
+		orderA.addItemToOrder(menu.get(0), 1);
+		orderJournal.itemAdded(orderA);
+		
+		// Crashed after the journal was set aside, before it was compacted
+		File journalFile = new File(journalPath);
+		File segmentFile = new File(journalPath + SEGMENT_SUFFIX);
+		if(!journalFile.renameTo(segmentFile))
+			throw new IOException("Unable to set aside " + journalFile);
+		
+		orderJournal = openJournal(snapshotPath, journalPath, historyPath);
+		checkSame("Orders after an unfinished compaction",
+				Arrays.asList(orderA, orderD), _recoveredOrders);
+		checkSame("Archived orders after an unfinished compaction",
+				Arrays.asList(orderC), readArchivedOrders(historyPath));
+		
+		if(segmentFile.exists())
+			_failures.add("Journal segment left behind after recovery");
+		
+		orderJournal.orderPaid(orderA);
+		orderJournal.checkpoint();
+		
+		if(orderJournal.getCompactionFailure() != null)
+			_failures.add("Compaction failed: "
+					+ orderJournal.getCompactionFailure());
+		
+		orderJournal.close();
+		
+		checkSame("Orders after a checkpoint", Arrays.asList(orderD),
+				OrderJournal.readSnapshot(snapshotPath).getCurrentOrders());
+		
+		orderJournal = openJournal(snapshotPath, journalPath, historyPath);
+		checkSame("Orders after closing", Arrays.asList(orderD),
+				_recoveredOrders);
+		orderJournal.close();
+		
+		checkSame("Archived orders after closing", Arrays.asList(orderC,
+				orderA), readArchivedOrders(historyPath));
+	}
+	
+	/**
+	 * Opens an order journal, as the order manager does, and keeps the
+	 * ongoing<br>orders rebuilt from it<br>
+	 * A journal that is not closed again is as good as crashed
+	 * 
+	 * @param snapshotPath The path of the order file
+	 * @param journalPath The path of the journal file
+	 * @param historyPath The path of the order history
+	 * 
+	 * @return The opened order journal
+	 * 
+	 * @throws IOException If the order journal cannot be opened
+	 */
+	private OrderJournal openJournal(String snapshotPath, String journalPath,
+			String historyPath) throws IOException
+	{
+		OrderJournal orderJournal = new OrderJournal(snapshotPath, journalPath,
+				new OrderHistory(historyPath, 1), Journal.SyncPolicy.EveryCommit,
+				1000);
+		
+		_recoveredOrders = orderJournal.open().getCurrentOrders();
+		return orderJournal;
+	}
+	
+	/**
+	 * Cuts the last byte off a journal file, leaving its last record
+	 * partially written
+	 * 
+	 * @param journalPath The path of the journal file
+	 * 
+	 * @throws IOException If the journal file cannot be changed
+	 */
+	private static void tearLastRecord(String journalPath) throws IOException
+	{
+		RandomAccessFile journalFile = new RandomAccessFile(journalPath, "rw");
+		try {
+			journalFile.setLength(journalFile.length() - 1);
+		} finally {
+			journalFile.close();
+		}
+	}
+	
+	/**
+	 * Creates an ongoing order with a single item
+	 * 
+	 * @param orderID The order ID
+	 * @param orderMillis The order date/time, in epoch milliseconds
+	 * @param menuItem The item ordered
+	 * 
+	 * @return The order
+	 */
+	private static Order newOrder(String orderID, long orderMillis,
+			MenuItem menuItem)
+	{
+		Order order = new Order(1, 1, 1, 2, 0, 0, orderMillis, orderID);
+		order.addItemToOrder(menuItem, 1);
+		
+		return order;
+	}
+	
+	/**
+	 * Reads back every order in an order history
+	 * 
+	 * @param historyPath The path of the order history
+	 * 
+	 * @return The archived orders
+	 * 
+	 * @throws IOException If the order history cannot be read
+	 */
+	private static List<Order> readArchivedOrders(String historyPath)
+			throws IOException
+	{
+		OrderHistory orderHistory = new OrderHistory(historyPath, 1);
+		orderHistory.open();
+		try {
+			return orderHistory.getOrders(0, Long.MAX_VALUE);
+		} finally {
+			orderHistory.close();
+		}
+	}
+	
+	/**
+	 * Writes a data file using Java serialization, the way data files were
+	 * saved<br>before the record format
+	 * 
+	 * @param filePath The path of the data file
+	 * @param contents The lists and numbers written, in order
+	 * 
+	 * @throws IOException If the data file cannot be written
+	 */
+	private static void writeLegacyFile(String filePath, Object... contents)
+			throws IOException
+	{
+		ObjectOutputStream out = new ObjectOutputStream(
+				new FileOutputStream(filePath));
+		try
+		{
+			for(Object content : contents)
+			{
+				if(content instanceof Integer)
+					out.writeInt((Integer) content);
+				else
+					out.writeObject(content);
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+	
+	/**
+	 * Sorts menu items by item ID, as the menu is kept sorted by item type
+	 * 
+	 * @param menu The menu items
+	 * 
+	 * @return A new list of the menu items, sorted by item ID
+	 */
+	private static List<MenuItem> sortedByID(List<MenuItem> menu)
+	{
+		MenuItem[] menuItems = menu.toArray(new MenuItem[menu.size()]);
+		Arrays.sort(menuItems, new Comparator<MenuItem>() {
+			
+			@Override
+			public int compare(MenuItem itemA, MenuItem itemB) {
+				return Integer.compare(itemA.getItemID(), itemB.getItemID());
+			}
+		});
+		
+		return Arrays.asList(menuItems);
+	}
+	
+	/**
+	 * Checks that a list of data read back is the same as the data written
+	 * 
+	 * @param what What the data is, for the failure message
+	 * @param expected The data written
+	 * @param actual The data read back
+	 */
+	private void checkSame(String what, List<?> expected, List<?> actual)
+	{
+		if(expected.size() != actual.size())
+		{
+			_failures.add(what + ": " + actual.size() + " read back, "
+					+ expected.size() + " written");
+			return;
+		}
+		
+		for(int index = 0; index < expected.size(); index++)
+		{
+			checkSame(what + " #" + index, describe(expected.get(index)),
+					describe(actual.get(index)));
+		}
+	}
+	
+	/**
+	 * Checks that a value read back is the same as the value written
+	 * 
+	 * @param what What the value is, for the failure message
+	 * @param expected The value written
+	 * @param actual The value read back
+	 */
+	private void checkSame(String what, Object expected, Object actual)
+	{
+		if(!expected.equals(actual))
+			_failures.add(what + ": read back " + actual + ", wrote " + expected);
+	}
+	
+	/**
+	 * Describes every field of a piece of data that is saved, so that the
+	 * data written<br>can be compared with the data read back
+	 * 
+	 * @param data The menu item, staff, customer, floor plan, reservation
+	 * 		  or order
+	 * 
+	 * @return The description
+	 */
+	private static String describe(Object data)
+	{
+		StringBuilder description = new StringBuilder(data.getClass()
+				.getSimpleName());
+		
+		if(data instanceof MenuItem)
+		{
+			MenuItem menuItem = (MenuItem) data;
+			description.append(' ').append(menuItem.getItemID())
+					.append(' ').append(menuItem.getItemType())
+					.append(' ').append(menuItem.getName())
+					.append(' ').append(menuItem.getDesc())
+					.append(' ').append(toCents(menuItem.getPrice()));
+			
+			if(menuItem instanceof SetPackage)
+			{
+				for(MenuItem packageItem :
+					((SetPackage) menuItem).getPackageItems())
+				{
+					description.append(' ').append(describe(packageItem));
+				}
+			}
+		}
+		else if(data instanceof Staff)
+		{
+			Staff staff = (Staff) data;
+			description.append(' ').append(staff.getStaffID())
+					.append(' ').append(staff.getName())
+					.append(' ').append(staff.getAge())
+					.append(' ').append(staff.getGender())
+					.append(' ').append(staff.getJobTitle())
+					.append(' ').append(toCents(staff.getSalary()));
+		}
+		else if(data instanceof Customer)
+		{
+			Customer customer = (Customer) data;
+			description.append(' ').append(customer.getCustomerID())
+					.append(' ').append(customer.getName())
+					.append(' ').append(customer.getAge())
+					.append(' ').append(customer.getGender())
+					.append(' ').append(customer.getContactNumber())
+					.append(' ').append(customer.checkMembership());
+		}
+		else if(data instanceof FloorPlan)
+		{
+			FloorPlan floorPlan = (FloorPlan) data;
+			description.append(' ').append(floorPlan.getOutletName());
+			
+			for(Table table : floorPlan.getTables())
+			{
+				description.append(' ').append(table.getTableNumber())
+						.append('/').append(table.getNumOfSeats())
+						.append('/').append(table.getZone());
+			}
+		}
+		else if(data instanceof Reservation)
+		{
+			Reservation reservation = (Reservation) data;
+			description.append(' ').append(reservation.getReservedTableNo())
+					.append(' ').append(reservation.getCustomerID())
+					.append(' ').append(reservation.getCustomerName())
+					.append(' ').append(reservation.getCustomerContact())
+					.append(' ').append(reservation.getNumOfPeople())
+					.append(' ').append(reservation.getStartTimeInMillis())
+					.append(' ').append(reservation.getDuration());
+		}
+		else if(data instanceof Order)
+		{
+			Order order = (Order) data;
+			description.append(' ').append(order.getOrderID())
+					.append(' ').append(order.getStaffID())
+					.append(' ').append(order.getCustomerID())
+					.append(' ').append(order.getOutletIndex())
+					.append('/').append(order.getTableNumber())
+					.append(' ').append(order.getNumOfPeople())
+					.append(' ').append(order.getOrderTimeInMillis())
+					.append(' ').append(toCents(order.getOriginalTotalPrice()))
+					.append(' ').append(toCents(order.getNettTotalPrice()))
+					.append(' ').append(order.isMember());
+			
+			for(OrderItem orderItem : order.getOrderItems())
+			{
+				description.append(' ').append(orderItem.getItemID())
+						.append('/').append(orderItem.getName())
+						.append('/').append(toCents(orderItem.getPrice()))
+						.append('/').append(orderItem.getQuantity());
+			}
+		}
+		else
+		{
+			description.append(' ').append(data);
+		}
+		
+		return description.toString();
+	}
+	
+	/**
+	 * Converts a price to a whole number of cents
+	 * 
+	 * @param price The price in dollars
+	 * 
+	 * @return The price in cents
+	 */
+	private static long toCents(double price) {
+		return Math.round(price * 100);
+	}
+	
+	/**
+	 * Gets what went wrong during the checks
+	 * 
+	 * @return The failures, empty if there were none
+	 */
+	public List<String> getFailures() {
+		return Collections.unmodifiableList(_failures);
+	}
+	
+	/**
+	 * Runs every check in the working directory
+	 * 
+	 * @param args Not used
+	 * 
+	 * @throws IOException If a data file cannot be written or read
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		if(new File("menu.dat").exists())
+			throw new IOException("Not an empty directory: "
+					+ new File(".").getAbsolutePath());
+		
+		File codecDirectory = new File("roundTrip");
+		File journalDirectory = new File("journal");
+		if(!codecDirectory.mkdirs() || !journalDirectory.mkdirs())
+			throw new IOException("Unable to create the check directories");
+		
+		PersistenceCheck check = new PersistenceCheck();
+		
+		check.checkRoundTrips(codecDirectory);
+		check.checkJournalRecovery(journalDirectory);
+		check.checkLegacyMigration();
+		
+		List<String> failures = check.getFailures();
+		for(String failure : failures)
+			System.out.println(failure);
+		
+		if(!failures.isEmpty())
+			throw new AssertionError(failures.size() + " checks failed");
+		
+		System.out.println("Every data file, migration and journal recovery"
+				+ " check passed");
+	}
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+package sce.cz2002.Assignment.Benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sce.cz2002.Assignment.Classes.DateTimes;
+import sce.cz2002.Assignment.Classes.Order;
+import sce.cz2002.Assignment.Control.ReportEngine;
+import sce.cz2002.Assignment.Control.RevenueAccumulator;
+import sce.cz2002.Assignment.Persistence.OrderHistory;
+
+/**
+ * Benchmarks the parallel aggregation of a year of completed transactions
+ * <br>with 1 to 16 threads<p>
+ * 
+ * The speed up over a single thread is only seen with as many cores as
+ * threads
+ * 
+ * @author Jin Yao
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ReportBenchmark
+{
+	/**
+	 * Number of days that the completed transactions are spread over
+	 */
+	private static final int NUM_OF_DAYS = 365;
+	
+	/**
+	 * Number of completed transactions
+	 */
+	@Param({"100000", "1000000"})
+	public int numOfOrders;
+	
+	/**
+	 * Number of threads aggregating at once
+	 */
+	@Param({"1", "2", "4", "8", "16"})
+	public int parallelism;
+	
+	/**
+	 * The directory of the order history
+	 */
+	private File _historyDirectory;
+	
+	/**
+	 * The completed transactions, partitioned by month
+	 */
+	private OrderHistory _orderHistory;
+	
+	/**
+	 * The engine under test
+	 */
+	private ReportEngine _reportEngine;
+	
+	/**
+	 * The epoch day of the first day with orders
+	 */
+	private int _firstEpochDay;
+	
+	/**
+	 * Generates and archives the completed transactions
+	 * 
+	 * @throws IOException If the order history cannot be written
+	 */
+	@Setup
+	public void setUp() throws IOException
+	{
+		DataGenerator generator = new DataGenerator(42, NUM_OF_DAYS);
+		
+		List<Order> orders = generator.generateOrders(numOfOrders,
+				generator.generateMenu(100), DataGenerator.MIN_ROWS, 5);
+		
+		_historyDirectory = Files.createTempDirectory("report").toFile();
+		_orderHistory = new OrderHistory(_historyDirectory.getPath(), 13);
+		_orderHistory.open();
+		
+		for(Order order : orders)
+		{
+			_orderHistory.append(order, 0);
+		}
+		_orderHistory.force();
+		
+		_reportEngine = new ReportEngine(_orderHistory, parallelism);
+		
+		_firstEpochDay = DateTimes.toEpochDay(generator.getFirstDayMillis());
+	}
+	
+	/**
+	 * Stops the engine, and closes and deletes the order history
+	 * 
+	 * @throws IOException If the order history cannot be closed
+	 */
+	@TearDown
+	public void tearDown() throws IOException
+	{
+		_reportEngine.shutdown();
+		_orderHistory.close();
+		
+		for(File partitionDirectory : _historyDirectory.listFiles())
+		{
+			for(File partitionFile : partitionDirectory.listFiles())
+			{
+				partitionFile.delete();
+			}
+			partitionDirectory.delete();
+		}
+		_historyDirectory.delete();
+	}
+	
+	/**
+	 * Aggregates the whole year into one accumulator
+	 * 
+	 * @return The accumulated revenue of the year
+	 * 
+	 * @throws IOException If a partition cannot be read
+	 */
+	@Benchmark
+	public RevenueAccumulator aggregateYear() throws IOException {
+		return _reportEngine.aggregate(_firstEpochDay,
+				_firstEpochDay + NUM_OF_DAYS - 1);
+	}
+	
+	/**
+	 * Aggregates the whole year by table
+	 * 
+	 * @return The accumulated revenue of each table
+	 * 
+	 * @throws IOException If a partition cannot be read
+	 */
+	@Benchmark
+	public Map<Integer, RevenueAccumulator> aggregateByTable()
+			throws IOException
+	{
+		return _reportEngine.aggregate(_firstEpochDay,
+				_firstEpochDay + NUM_OF_DAYS - 1, ReportEngine.GroupBy.Table);
+	}
+}
\ No newline at end of file
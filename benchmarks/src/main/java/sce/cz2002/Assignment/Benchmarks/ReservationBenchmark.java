@@ -0,0 +1,157 @@
+package sce.cz2002.Assignment.Benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sce.cz2002.Assignment.Classes.DateTimes;
+import sce.cz2002.Assignment.Classes.Reservation;
+import sce.cz2002.Assignment.Control.ReservationIndex;
+
+/**
+ * Benchmarks the conflict checking done when making a reservation,
+ * against an index<br>holding a large number of existing reservations
+ * 
+ * @author Jin Yao
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ReservationBenchmark
+{
+	/**
+	 * Number of tables in the restaurant
+	 */
+	private static final int NUM_OF_TABLES = 20;
+	
+	/**
+	 * Reservation duration, in milliseconds
+	 */
+	private static final long DURATION_MILLIS = 2 * 60 * 60 * 1000L;
+	
+	/**
+	 * Number of existing reservations
+	 */
+	@Param({"1000", "100000", "1000000"})
+	public int numOfReservations;
+	
+	/**
+	 * The index of the existing reservations
+	 */
+	private ReservationIndex _reservationIndex;
+	
+	/**
+	 * Start times that fall within the existing reservations, on the hour
+	 */
+	private long[] _startMillis;
+	
+	/**
+	 * Index of the next start time to be tried
+	 */
+	private int _nextStart;
+	
+	/**
+	 * A reservation after all the existing reservations, which is added
+	 * and removed
+	 */
+	private Reservation _newReservation;
+	
+	/**
+	 * Fills the index with reservations
+	 */
+	@Setup
+	public void setUp()
+	{
+		DataGenerator generator = new DataGenerator(42, 1);
+		int[] tableSizes = DataGenerator.generateTableSizes(NUM_OF_TABLES);
+		
+		_reservationIndex = new ReservationIndex();
+		for(int tableIndex = 0; tableIndex < NUM_OF_TABLES; tableIndex++)
+		{
+			_reservationIndex.addTable(tableIndex + 1, tableSizes[tableIndex]);
+		}
+		
+		for(Reservation reservation : generator.generateReservations(
+				numOfReservations, tableSizes, DataGenerator.MIN_ROWS))
+		{
+			_reservationIndex.add(reservation);
+		}
+		
+		int numOfDays = DataGenerator.getNumOfReservationDays(
+				numOfReservations, NUM_OF_TABLES);
+		Random random = new Random(42);
+		
+		_startMillis = new long[1024];
+		for(int startIndex = 0; startIndex < _startMillis.length; startIndex++)
+		{
+			int startDay = DateTimes.toEpochDay(
+					generator.getFirstReservationDayMillis())
+					+ random.nextInt(numOfDays);
+			
+			_startMillis[startIndex] = DateTimes.toStartMillis(startDay)
+					+ (9 + random.nextInt(12)) * DateTimes.MILLIS_PER_HOUR;
+		}
+		
+		_newReservation = generator.generateReservation(
+				numOfReservations + NUM_OF_TABLES * 6, tableSizes,
+				DataGenerator.MIN_ROWS);
+		_nextStart = 0;
+	}
+	
+	/**
+	 * Finds a free table for 4 people at a time slot
+	 * 
+	 * @return The table number found
+	 */
+	@Benchmark
+	public int findFreeTable()
+	{
+		long startMillis = _startMillis[_nextStart];
+		_nextStart = (_nextStart + 1) & (_startMillis.length - 1);
+		
+		return _reservationIndex.findFreeTable(4, startMillis,
+				startMillis + DURATION_MILLIS);
+	}
+	
+	/**
+	 * Checks whether a single table is free at a time slot
+	 * 
+	 * @return True if the table is free
+	 */
+	@Benchmark
+	public boolean isTableFree()
+	{
+		long startMillis = _startMillis[_nextStart];
+		_nextStart = (_nextStart + 1) & (_startMillis.length - 1);
+		
+		return _reservationIndex.isTableFree(1 + (_nextStart % NUM_OF_TABLES),
+				startMillis, startMillis + DURATION_MILLIS);
+	}
+	
+	/**
+	 * Adds a reservation to the index and removes it again
+	 * 
+	 * @return True if the reservation was removed
+	 */
+	@Benchmark
+	public boolean addAndRemove()
+	{
+		_reservationIndex.add(_newReservation);
+		return _reservationIndex.remove(_newReservation);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,247 @@
+package sce.cz2002.Assignment.Benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sce.cz2002.Assignment.Classes.DateTimes;
+import sce.cz2002.Assignment.Classes.Order;
+import sce.cz2002.Assignment.Control.RevenueCube;
+import sce.cz2002.Assignment.Persistence.OrderHistory;
+
+/**
+ * Benchmarks the aggregation behind the sale revenue reports, without
+ * the printing<p>
+ * 
+ * The report by day reads back every order paid for on a day from the
+ * partition of<br>its month, and the report by month finds the total,
+ * highest and lowest revenue<br>of the days of a month from the month
+ * summary. Opening the order history<br>reads the summary of every month,
+ * and is done once on start up
+ * 
+ * @author Jin Yao
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RevenueBenchmark
+{
+	/**
+	 * Number of days that the completed transactions are spread over
+	 */
+	private static final int NUM_OF_DAYS = 365;
+	
+	/**
+	 * Number of completed transactions
+	 */
+	@Param({"1000", "100000", "1000000"})
+	public int numOfOrders;
+	
+	/**
+	 * Largest number of months kept open at once
+	 */
+	@Param({"1", "12"})
+	public int maxOpenPartitions;
+	
+	/**
+	 * The directory of the order history
+	 */
+	private File _historyDirectory;
+	
+	/**
+	 * The completed transactions, partitioned by month
+	 */
+	private OrderHistory _orderHistory;
+	
+	/**
+	 * Sale revenue of the completed transactions
+	 */
+	private RevenueCube _revenueCube;
+	
+	/**
+	 * The epoch day of the first day with orders
+	 */
+	private int _firstEpochDay;
+	
+	/**
+	 * Random days of the year to report on, as an offset from the first day
+	 */
+	private int[] _dayOffsets;
+	
+	/**
+	 * Index of the next day to be reported on
+	 */
+	private int _nextDay;
+	
+	/**
+	 * Generates and archives the completed transactions
+	 * 
+	 * @throws IOException If the order history cannot be written
+	 */
+	@Setup
+	public void setUp() throws IOException
+	{
+		DataGenerator generator = new DataGenerator(42, NUM_OF_DAYS);
+		
+		List<Order> orders = generator.generateOrders(numOfOrders,
+				generator.generateMenu(100), DataGenerator.MIN_ROWS, 5);
+		
+		_historyDirectory = Files.createTempDirectory("revenue").toFile();
+		_orderHistory = new OrderHistory(_historyDirectory.getPath(),
+				maxOpenPartitions);
+		_orderHistory.open();
+		
+		for(Order order : orders)
+		{
+			_orderHistory.append(order, 0);
+		}
+		_orderHistory.force();
+		
+		_revenueCube = new RevenueCube(_orderHistory);
+		
+		_firstEpochDay = DateTimes.toEpochDay(generator.getFirstDayMillis());
+		
+		Random random = new Random(42);
+		_dayOffsets = new int[256];
+		for(int dayIndex = 0; dayIndex < _dayOffsets.length; dayIndex++)
+		{
+			_dayOffsets[dayIndex] = random.nextInt(NUM_OF_DAYS);
+		}
+		
+		_nextDay = 0;
+	}
+	
+	/**
+	 * Closes and deletes the order history
+	 * 
+	 * @throws IOException If the order history cannot be closed
+	 */
+	@TearDown
+	public void tearDown() throws IOException
+	{
+		_orderHistory.close();
+		
+		for(File partitionDirectory : _historyDirectory.listFiles())
+		{
+			for(File partitionFile : partitionDirectory.listFiles())
+			{
+				partitionFile.delete();
+			}
+			partitionDirectory.delete();
+		}
+		_historyDirectory.delete();
+	}
+	
+	/**
+	 * Gets the next day to report on
+	 * 
+	 * @return The epoch day
+	 */
+	private int nextEpochDay()
+	{
+		int epochDay = _firstEpochDay + _dayOffsets[_nextDay];
+		_nextDay = (_nextDay + 1) & (_dayOffsets.length - 1);
+		
+		return epochDay;
+	}
+	
+	/**
+	 * Reads back the orders paid for on a day, as the report by day does
+	 * 
+	 * @return The total sales of the day
+	 * 
+	 * @throws IOException If the partition of the day cannot be read
+	 */
+	@Benchmark
+	public double revenueByDay() throws IOException
+	{
+		RevenueCube.DayRevenue dayRevenue =
+				_revenueCube.getDayRevenue(nextEpochDay());
+		
+		if(dayRevenue == null)
+			return 0;
+		
+		double totalRevenue = 0;
+		for(Order order : dayRevenue.getOrders())
+		{
+			totalRevenue += order.getNettTotalPrice();
+		}
+		
+		return totalRevenue;
+	}
+	
+	/**
+	 * Finds the total, highest and lowest sales of the days of a month,
+	 * <br>as the report by month does
+	 * 
+	 * @return The total sales of the month, plus the highest and lowest
+	 * 		   day
+	 */
+	@Benchmark
+	public double revenueByMonth()
+	{
+		int month = DateTimes.toEpochMonthOfDay(nextEpochDay());
+		
+		int firstEpochDay = DateTimes.getFirstDayOfMonth(month);
+		int numOfDays = DateTimes.getLengthOfMonth(month);
+		
+		double totalRevenue = 0;
+		double maxDayRevenue = 0;
+		double minDayRevenue = Double.MAX_VALUE;
+		
+		for(int currDay = 0; currDay < numOfDays; currDay++)
+		{
+			RevenueCube.DayRevenue dayRevenue =
+					_revenueCube.getDayRevenue(firstEpochDay + currDay);
+			
+			double revenue = (dayRevenue == null) ? 0 : dayRevenue.getRevenue();
+			
+			totalRevenue += revenue;
+			maxDayRevenue = Math.max(maxDayRevenue, revenue);
+			minDayRevenue = Math.min(minDayRevenue, revenue);
+		}
+		
+		return totalRevenue + maxDayRevenue + minDayRevenue;
+	}
+	
+	/**
+	 * Opens the order history, reading the summary of every month, as done
+	 * <br>on start up
+	 * 
+	 * @return The number of completed transactions
+	 * 
+	 * @throws IOException If the order history cannot be read
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public int openHistory() throws IOException
+	{
+		OrderHistory orderHistory = new OrderHistory(
+				_historyDirectory.getPath(), maxOpenPartitions);
+		
+		orderHistory.open();
+		orderHistory.close();
+		
+		return orderHistory.getNumOfOrders();
+	}
+}
@@ -0,0 +1,126 @@
+package sce.cz2002.Assignment.Benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sce.cz2002.Assignment.Classes.Table;
+import sce.cz2002.Assignment.Control.ReservationService;
+
+/**
+ * Benchmarks seating a walk-in customer at an available table and freeing
+ * the table<br>again, from one thread and from many threads competing for
+ * the same tables
+ * 
+ * @author Jin Yao
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TableBenchmark
+{
+	/**
+	 * Each thread seats a different customer
+	 * 
+	 * @author Jin Yao
+	 * 
+	 */
+	@State(Scope.Thread)
+	public static class Customer
+	{
+		/**
+		 * Customer IDs handed out to the threads
+		 */
+		private static int _lastCustomerID = 0;
+		
+		/**
+		 * The customer ID of this thread's customer
+		 */
+		private int _customerID;
+		
+		/**
+		 * Number of people in this thread's next party, from 1 to 10
+		 */
+		private int _numOfPeople;
+		
+		/**
+		 * Picks a customer ID for this thread
+		 */
+		@Setup
+		public void setUp()
+		{
+			synchronized(Customer.class)
+			{
+				_customerID = ++_lastCustomerID;
+			}
+			
+			_numOfPeople = 1;
+		}
+	}
+	
+	/**
+	 * Seats a customer at an available table, and frees the table
+	 * 
+	 * @param customer The thread's customer
+	 * 
+	 * @return The table, null if all suitable tables were taken
+	 */
+	@Benchmark
+	public Table claimAndFree(Customer customer)
+	{
+		return claimAndFreeTable(customer);
+	}
+	
+	/**
+	 * Seats a customer at an available table, and frees the table, with
+	 * 8 threads<br>competing for the tables
+	 * 
+	 * @param customer The thread's customer
+	 * 
+	 * @return The table, null if all suitable tables were taken
+	 */
+	@Benchmark
+	@Threads(8)
+	public Table claimAndFreeContended(Customer customer)
+	{
+		return claimAndFreeTable(customer);
+	}
+	
+	/**
+	 * Seats a customer at an available table, and frees the table
+	 * 
+	 * @param customer The customer to be seated
+	 * 
+	 * @return The table, null if all suitable tables were taken
+	 */
+	private static Table claimAndFreeTable(Customer customer)
+	{
+		ReservationService reservationService =
+				ReservationService.getReservationService();
+		
+		int numOfPeople = customer._numOfPeople;
+		customer._numOfPeople = (numOfPeople % reservationService.
+				getMaxNumOfPeople()) + 1;
+		
+		Table table = reservationService.claimAvailableTable(
+				customer._customerID, numOfPeople);
+		
+		if(table != null)
+			reservationService.freeTable(table.getTableNumber());
+		
+		return table;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,306 @@
+package sce.cz2002.Assignment.Classes;
+
+import java.text.DateFormatSymbols;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+
+/**
+ * An immutable date/time format, which formats instants held as
+ * milliseconds<br>since the epoch in the local time zone<p>
+ * 
+ * The pattern is made up of the {@link SimpleDateFormat} letters
+ * <code>E</code>, <code>d</code>, <code>M</code>,
+ * <br><code>y</code>, <code>H</code>, <code>m</code> and <code>s</code>,
+ * and any other
+ * character that is not a letter. Formatting works out<br>the fields with
+ * {@link DateTimes}, and appends them to a string builder without
+ * creating<br>any object. Parsing is strict, and is done by a
+ * {@link SimpleDateFormat} cached for each thread<p>
+ * 
+ * A format can be shared by any number of threads
+ * 
+ * @author Jin Yao
+ * 
+ */
+public final class DateTimeFormat
+{
+	/**
+	 * The date/time of an order or a reservation, e.g. "Fri, 14/11/2014, 13:46"
+	 */
+	public static final DateTimeFormat DATE_TIME =
+			new DateTimeFormat("E, dd/MM/yyyy, HH:mm");
+	
+	/**
+	 * A date and time as entered by the user, e.g. "14/11/2014 13:46"
+	 */
+	public static final DateTimeFormat DATE_TIME_INPUT =
+			new DateTimeFormat("dd/MM/yyyy HH:mm");
+	
+	/**
+	 * A day and its day of the week, e.g. "Fri, 14/11/2014"
+	 */
+	public static final DateTimeFormat DAY = new DateTimeFormat("E, dd/MM/yyyy");
+	
+	/**
+	 * A time of the day, e.g. "13:45"
+	 */
+	public static final DateTimeFormat TIME = new DateTimeFormat("HH:mm");
+	
+	/**
+	 * A date, e.g. "14/11/2014"
+	 */
+	public static final DateTimeFormat DATE = new DateTimeFormat("dd/MM/yyyy");
+	
+	/**
+	 * A month as entered by the user, e.g. "11/2014"
+	 */
+	public static final DateTimeFormat MONTH = new DateTimeFormat("MM/yyyy");
+	
+	/**
+	 * A month with its short name, e.g. "Nov 2014"
+	 */
+	public static final DateTimeFormat MONTH_NAME = new DateTimeFormat("MMM yyyy");
+	
+	/**
+	 * A month with its full name, e.g. "November 2014"
+	 */
+	public static final DateTimeFormat FULL_MONTH_NAME =
+			new DateTimeFormat("MMMM yyyy");
+	
+	/**
+	 * Number of milliseconds in a second
+	 */
+	private static final int MILLIS_PER_SECOND = 1000;
+	
+	/**
+	 * Short names of the days of the week, indexed from Calendar.SUNDAY
+	 */
+	private static final String[] SHORT_WEEKDAYS =
+			DateFormatSymbols.getInstance().getShortWeekdays();
+	
+	/**
+	 * Full names of the days of the week, indexed from Calendar.SUNDAY
+	 */
+	private static final String[] WEEKDAYS =
+			DateFormatSymbols.getInstance().getWeekdays();
+	
+	/**
+	 * Short names of the months, indexed from Calendar.JANUARY
+	 */
+	private static final String[] SHORT_MONTHS =
+			DateFormatSymbols.getInstance().getShortMonths();
+	
+	/**
+	 * Full names of the months, indexed from Calendar.JANUARY
+	 */
+	private static final String[] MONTHS =
+			DateFormatSymbols.getInstance().getMonths();
+	
+	/**
+	 * The pattern of this format
+	 */
+	private final String _pattern;
+	
+	/**
+	 * The pattern letter of each field, or the character itself if the
+	 * <br>field is not a letter
+	 */
+	private final char[] _fieldLetters;
+	
+	/**
+	 * The number of times the letter of each field is repeated, 0 if the
+	 * <br>field is not a letter
+	 */
+	private final int[] _fieldWidths;
+	
+	/**
+	 * Strict parser for this format, one for each thread
+	 */
+	private final ThreadLocal<SimpleDateFormat> _parsers;
+	
+	/**
+	 * Creates a format from a pattern
+	 * 
+	 * @param pattern The pattern, made up of the letters E, d, M, y, H, m
+	 * 		  <br>and s, and any character that is not a letter
+	 * 
+	 * @throws IllegalArgumentException If the pattern holds any other letter
+	 */
+	public DateTimeFormat(final String pattern)
+	{
+		_pattern = pattern;
+		
+		int numOfFields = 0;
+		char[] fieldLetters = new char[pattern.length()];
+		int[] fieldWidths = new int[pattern.length()];
+		
+		for(int index = 0; index < pattern.length(); numOfFields++)
+		{
+			char letter = pattern.charAt(index);
+			int width = 1;
+			
+			while(index + width < pattern.length()
+					&& pattern.charAt(index + width) == letter)
+				width++;
+			
+			if("EdMyHms".indexOf(letter) >= 0)
+			{
+				fieldLetters[numOfFields] = letter;
+				fieldWidths[numOfFields] = width;
+				index += width;
+			}
+			else if(Character.isLetter(letter) || letter == '\'')
+			{
+				throw new IllegalArgumentException("Unsupported pattern letter '"
+						+ letter + "' in \"" + pattern + "\"");
+			}
+			else
+			{
+				fieldLetters[numOfFields] = letter;
+				fieldWidths[numOfFields] = 0;
+				index++;
+			}
+		}
+		
+		_fieldLetters = new char[numOfFields];
+		_fieldWidths = new int[numOfFields];
+		System.arraycopy(fieldLetters, 0, _fieldLetters, 0, numOfFields);
+		System.arraycopy(fieldWidths, 0, _fieldWidths, 0, numOfFields);
+		
+		_parsers = new ThreadLocal<SimpleDateFormat>()
+		{
+			@Override
+			protected SimpleDateFormat initialValue()
+			{
+				SimpleDateFormat parser = new SimpleDateFormat(pattern);
+				parser.setLenient(false);
+				
+				return parser;
+			}
+		};
+	}
+	
+	/**
+	 * Gets the pattern of this format
+	 * 
+	 * @return The pattern
+	 */
+	public String getPattern() {
+		return _pattern;
+	}
+	
+	/**
+	 * Formats an instant
+	 * 
+	 * @param instantMillis The instant, in epoch milliseconds
+	 * 
+	 * @return The formatted date/time
+	 */
+	public String format(long instantMillis) {
+		return format(instantMillis, new StringBuilder(32)).toString();
+	}
+	
+	/**
+	 * Formats an instant, appending it to a string builder
+	 * 
+	 * @param instantMillis The instant, in epoch milliseconds
+	 * @param to The string builder appended to
+	 * 
+	 * @return The string builder
+	 */
+	public StringBuilder format(long instantMillis, StringBuilder to)
+	{
+		int epochDay = DateTimes.toEpochDay(instantMillis);
+		int civilDate = DateTimes.toCivilDate(epochDay);
+		int secondOfDay = DateTimes.getMillisOfDay(instantMillis)
+				/ MILLIS_PER_SECOND;
+		
+		for(int field = 0; field < _fieldLetters.length; field++)
+		{
+			int width = _fieldWidths[field];
+			
+			switch(width == 0 ? '\0' : _fieldLetters[field])
+			{
+				case 'E':
+					to.append((width < 4 ? SHORT_WEEKDAYS : WEEKDAYS)
+							[DateTimes.getDayOfWeek(epochDay)]);
+					break;
+				case 'd':
+					appendNumber(to, civilDate % 100, width);
+					break;
+				case 'M':
+					int month = (civilDate / 100) % 100;
+					
+					if(width == 3)
+						to.append(SHORT_MONTHS[month - 1]);
+					else if(width > 3)
+						to.append(MONTHS[month - 1]);
+					else
+						appendNumber(to, month, width);
+					break;
+				case 'y':
+					int year = civilDate / 10000;
+					
+					if(width == 2)
+						appendNumber(to, year % 100, width);
+					else
+						appendNumber(to, year, width);
+					break;
+				case 'H':
+					appendNumber(to, secondOfDay / 3600, width);
+					break;
+				case 'm':
+					appendNumber(to, (secondOfDay / 60) % 60, width);
+					break;
+				case 's':
+					appendNumber(to, secondOfDay % 60, width);
+					break;
+				default:
+					to.append(_fieldLetters[field]);
+			}
+		}
+		
+		return to;
+	}
+	
+	/**
+	 * Appends a number, padded with zeros on the left
+	 * 
+	 * @param to The string builder appended to
+	 * @param number The number, which must not be negative
+	 * @param width The smallest number of digits
+	 */
+	private static void appendNumber(StringBuilder to, int number, int width)
+	{
+		int numOfDigits = 1;
+		for(int limit = 10; number >= limit && numOfDigits < 10; limit *= 10)
+		{
+			numOfDigits++;
+		}
+		
+		for(int padding = numOfDigits; padding < width; padding++)
+		{
+			to.append('0');
+		}
+		
+		to.append(number);
+	}
+	
+	/**
+	 * Parses a date/time strictly, rejecting dates such as 30/02/2014
+	 * 
+	 * @param text The date/time
+	 * 
+	 * @return The instant, in epoch milliseconds
+	 * 
+	 * @throws ParseException If the date/time does not match this format
+	 */
+	public long parse(String text) throws ParseException {
+		return _parsers.get().parse(text).getTime();
+	}
+	
+	@Override
+	public String toString() {
+		return _pattern;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,368 @@
+package sce.cz2002.Assignment.Classes;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Date/time arithmetic on instants held as milliseconds since the epoch
+ * <p>
+ * Dates are worked out in the local time zone with integer arithmetic,
+ * so no<br>calendar is created and the methods are safe to call from
+ * any thread. Days are<br>numbered from 1970-01-01 (epoch days), and
+ * months from January 1970 (epoch<br>months)
+ * 
+ * @author Jin Yao
+ * 
+ */
+public final class DateTimes
+{
+	/**
+	 * Number of milliseconds in a minute
+	 */
+	public static final long MILLIS_PER_MINUTE = 60 * 1000L;
+	
+	/**
+	 * Number of milliseconds in an hour
+	 */
+	public static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+	
+	/**
+	 * Number of milliseconds in a day, away from daylight saving changes
+	 */
+	public static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+	
+	/**
+	 * Number of minutes in a day
+	 */
+	public static final int MINUTES_PER_DAY = 24 * 60;
+	
+	/**
+	 * Number of months in a year
+	 */
+	private static final int MONTHS_PER_YEAR = 12;
+	
+	/**
+	 * The year of the first epoch month
+	 */
+	private static final int EPOCH_YEAR = 1970;
+	
+	/**
+	 * Number of days in a 400 year cycle of the Gregorian calendar
+	 */
+	private static final int DAYS_PER_ERA = 146097;
+	
+	/**
+	 * Number of days from 0000-03-01 to 1970-01-01
+	 */
+	private static final int DAYS_TO_EPOCH = 719468;
+	
+	/**
+	 * The day of the week of 1970-01-01, a Thursday
+	 */
+	private static final int EPOCH_DAY_OF_WEEK = Calendar.THURSDAY;
+	
+	/**
+	 * The local time zone that dates are worked out in
+	 */
+	private static final TimeZone ZONE = TimeZone.getDefault();
+	
+	/**
+	 * Holds static methods only
+	 */
+	private DateTimes() {
+	}
+	
+	/**
+	 * Gets the local day of an instant
+	 * 
+	 * @param instantMillis The instant, in epoch milliseconds
+	 * 
+	 * @return The day, as a number of days since 1970-01-01
+	 */
+	public static int toEpochDay(long instantMillis)
+	{
+		long localMillis = instantMillis + ZONE.getOffset(instantMillis);
+		
+		return (int) floorDiv(localMillis, MILLIS_PER_DAY);
+	}
+	
+	/**
+	 * Gets the day of a date
+	 * 
+	 * @param year The year
+	 * @param month The month, from 1 (January) to 12 (December)
+	 * @param dayOfMonth The day of the month, from 1
+	 * 
+	 * @return The day, as a number of days since 1970-01-01
+	 */
+	public static int toEpochDay(int year, int month, int dayOfMonth)
+	{
+		// Years are counted from March, so that February is the last month
+		int marchYear = (month <= 2) ? year - 1 : year;
+		int era = floorDiv(marchYear, 400);
+		int yearOfEra = marchYear - era * 400;
+		int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5
+				+ dayOfMonth - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100
+				+ dayOfYear;
+		
+		return era * DAYS_PER_ERA + dayOfEra - DAYS_TO_EPOCH;
+	}
+	
+	/**
+	 * Gets the instant that a local day starts at
+	 * 
+	 * @param epochDay The day, as a number of days since 1970-01-01
+	 * 
+	 * @return The first instant of the day, in epoch milliseconds
+	 */
+	public static long toStartMillis(int epochDay)
+	{
+		long localMillis = epochDay * MILLIS_PER_DAY;
+		long startMillis = localMillis
+				- ZONE.getOffset(localMillis - ZONE.getRawOffset());
+		
+		// Midnight can fall in a daylight saving gap, the day then starts
+		// at the end of the gap
+		if(toEpochDay(startMillis) < epochDay)
+			startMillis = localMillis - ZONE.getOffset(startMillis);
+		
+		return startMillis;
+	}
+	
+	/**
+	 * Gets the local month of an instant
+	 * 
+	 * @param instantMillis The instant, in epoch milliseconds
+	 * 
+	 * @return The month, as a number of months since January 1970
+	 */
+	public static int toEpochMonth(long instantMillis) {
+		return toEpochMonthOfDay(toEpochDay(instantMillis));
+	}
+	
+	/**
+	 * Gets the month of a day
+	 * 
+	 * @param epochDay The day, as a number of days since 1970-01-01
+	 * 
+	 * @return The month, as a number of months since January 1970
+	 */
+	public static int toEpochMonthOfDay(int epochDay)
+	{
+		int civilDate = toCivilDate(epochDay);
+		
+		return (civilDate / 10000 - EPOCH_YEAR) * MONTHS_PER_YEAR
+				+ (civilDate / 100) % 100 - 1;
+	}
+	
+	/**
+	 * Gets the month of a date
+	 * 
+	 * @param year The year
+	 * @param month The month, from 1 (January) to 12 (December)
+	 * 
+	 * @return The month, as a number of months since January 1970
+	 */
+	public static int toEpochMonth(int year, int month) {
+		return (year - EPOCH_YEAR) * MONTHS_PER_YEAR + month - 1;
+	}
+	
+	/**
+	 * Gets the year of a month
+	 * 
+	 * @param epochMonth The month, as a number of months since January 1970
+	 * 
+	 * @return The year
+	 */
+	public static int getYearOfMonth(int epochMonth) {
+		return EPOCH_YEAR + floorDiv(epochMonth, MONTHS_PER_YEAR);
+	}
+	
+	/**
+	 * Gets the month of the year of a month
+	 * 
+	 * @param epochMonth The month, as a number of months since January 1970
+	 * 
+	 * @return The month of the year, from 1 (January) to 12 (December)
+	 */
+	public static int getMonthOfYear(int epochMonth)
+	{
+		return epochMonth - floorDiv(epochMonth, MONTHS_PER_YEAR)
+				* MONTHS_PER_YEAR + 1;
+	}
+	
+	/**
+	 * Gets the first day of a month
+	 * 
+	 * @param epochMonth The month, as a number of months since January 1970
+	 * 
+	 * @return The first day, as a number of days since 1970-01-01
+	 */
+	public static int getFirstDayOfMonth(int epochMonth) {
+		return toEpochDay(getYearOfMonth(epochMonth),
+				getMonthOfYear(epochMonth), 1);
+	}
+	
+	/**
+	 * Gets the number of days in a month
+	 * 
+	 * @param epochMonth The month, as a number of months since January 1970
+	 * 
+	 * @return The number of days, from 28 to 31
+	 */
+	public static int getLengthOfMonth(int epochMonth) {
+		return getFirstDayOfMonth(epochMonth + 1)
+				- getFirstDayOfMonth(epochMonth);
+	}
+	
+	/**
+	 * Gets the year of a day
+	 * 
+	 * @param epochDay The day, as a number of days since 1970-01-01
+	 * 
+	 * @return The year
+	 */
+	public static int getYear(int epochDay) {
+		return toCivilDate(epochDay) / 10000;
+	}
+	
+	/**
+	 * Gets the month of the year of a day
+	 * 
+	 * @param epochDay The day, as a number of days since 1970-01-01
+	 * 
+	 * @return The month of the year, from 1 (January) to 12 (December)
+	 */
+	public static int getMonth(int epochDay) {
+		return (toCivilDate(epochDay) / 100) % 100;
+	}
+	
+	/**
+	 * Gets the day of the month of a day
+	 * 
+	 * @param epochDay The day, as a number of days since 1970-01-01
+	 * 
+	 * @return The day of the month, from 1
+	 */
+	public static int getDayOfMonth(int epochDay) {
+		return toCivilDate(epochDay) % 100;
+	}
+	
+	/**
+	 * Gets the day of the week of a day
+	 * 
+	 * @param epochDay The day, as a number of days since 1970-01-01
+	 * 
+	 * @return The day of the week, from {@link Calendar#SUNDAY} to
+	 * 		   {@link Calendar#SATURDAY}
+	 */
+	public static int getDayOfWeek(int epochDay) {
+		return floorMod(epochDay + EPOCH_DAY_OF_WEEK - 1, 7) + 1;
+	}
+	
+	/**
+	 * Gets the local time of day of an instant
+	 * 
+	 * @param instantMillis The instant, in epoch milliseconds
+	 * 
+	 * @return The number of milliseconds since midnight
+	 */
+	public static int getMillisOfDay(long instantMillis)
+	{
+		long localMillis = instantMillis + ZONE.getOffset(instantMillis);
+		
+		return (int) floorMod(localMillis, MILLIS_PER_DAY);
+	}
+	
+	/**
+	 * Gets the local time of day of an instant
+	 * 
+	 * @param instantMillis The instant, in epoch milliseconds
+	 * 
+	 * @return The number of minutes since midnight
+	 */
+	public static int getMinuteOfDay(long instantMillis) {
+		return (int) (getMillisOfDay(instantMillis) / MILLIS_PER_MINUTE);
+	}
+	
+	/**
+	 * Gets the year, month and day of the month of a day
+	 * 
+	 * @param epochDay The day, as a number of days since 1970-01-01
+	 * 
+	 * @return The date packed as year * 10000 + month * 100 + day of month
+	 */
+	static int toCivilDate(int epochDay)
+	{
+		// Years are counted from March, so that February is the last month
+		int daysFromMarch = epochDay + DAYS_TO_EPOCH;
+		int era = floorDiv(daysFromMarch, DAYS_PER_ERA);
+		int dayOfEra = daysFromMarch - era * DAYS_PER_ERA;
+		int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524
+				- dayOfEra / (DAYS_PER_ERA - 1)) / 365;
+		int dayOfYear = dayOfEra
+				- (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		int monthFromMarch = (5 * dayOfYear + 2) / 153;
+		
+		int dayOfMonth = dayOfYear - (153 * monthFromMarch + 2) / 5 + 1;
+		int month = monthFromMarch < 10 ? monthFromMarch + 3 : monthFromMarch - 9;
+		int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+		
+		return year * 10000 + month * 100 + dayOfMonth;
+	}
+	
+	/**
+	 * Divides, rounding towards negative infinity
+	 * 
+	 * @param dividend The dividend
+	 * @param divisor The divisor, which must be positive
+	 * 
+	 * @return The quotient
+	 */
+	private static long floorDiv(long dividend, long divisor)
+	{
+		long quotient = dividend / divisor;
+		
+		return (dividend % divisor < 0) ? quotient - 1 : quotient;
+	}
+	
+	/**
+	 * Divides, rounding towards negative infinity
+	 * 
+	 * @param dividend The dividend
+	 * @param divisor The divisor, which must be positive
+	 * 
+	 * @return The quotient
+	 */
+	private static int floorDiv(int dividend, int divisor)
+	{
+		int quotient = dividend / divisor;
+		
+		return (dividend % divisor < 0) ? quotient - 1 : quotient;
+	}
+	
+	/**
+	 * Gets the remainder of a division rounding towards negative infinity
+	 * 
+	 * @param dividend The dividend
+	 * @param divisor The divisor, which must be positive
+	 * 
+	 * @return The remainder, from 0 to divisor - 1
+	 */
+	private static long floorMod(long dividend, long divisor) {
+		return dividend - floorDiv(dividend, divisor) * divisor;
+	}
+	
+	/**
+	 * Gets the remainder of a division rounding towards negative infinity
+	 * 
+	 * @param dividend The dividend
+	 * @param divisor The divisor, which must be positive
+	 * 
+	 * @return The remainder, from 0 to divisor - 1
+	 */
+	private static int floorMod(int dividend, int divisor) {
+		return dividend - floorDiv(dividend, divisor) * divisor;
+	}
+}
\ No newline at end of file
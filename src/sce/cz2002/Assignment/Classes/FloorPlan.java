@@ -0,0 +1,91 @@
+package sce.cz2002.Assignment.Classes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The floor plan of an outlet of the restaurant<br>
+ * A floor plan has a name and the tables of the outlet, each table being
+ * in a zone<br>of the floor plan
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class FloorPlan
+{
+	/**
+	 * The name of the outlet
+	 */
+	private final String _outletName;
+	
+	/**
+	 * The tables of the outlet, in the order they were added
+	 */
+	private final List<Table> _tables;
+	
+	/**
+	 * Creates a new floor plan with no tables
+	 * 
+	 * @param outletName The name of the outlet
+	 */
+	public FloorPlan(String outletName)
+	{
+		_outletName = outletName;
+		_tables = new ArrayList<Table>();
+	}
+	
+	/**
+	 * Creates a new floor plan with tables of the given sizes, numbered
+	 * from 1
+	 * 
+	 * @param outletName The name of the outlet
+	 * @param tableSizes The number of seats of each table
+	 * @param tableZones The zone of each table
+	 */
+	public FloorPlan(String outletName, int[] tableSizes, int[] tableZones)
+	{
+		this(outletName);
+		
+		for(int tableIndex = 0; tableIndex < tableSizes.length; tableIndex++)
+		{
+			addTable(tableIndex + 1, tableSizes[tableIndex],
+					tableZones[tableIndex]);
+		}
+	}
+	
+	/**
+	 * Gets the name of the outlet
+	 * 
+	 * @return The outlet's name
+	 */
+	public String getOutletName() {
+		return _outletName;
+	}
+	
+	/**
+	 * Gets the tables of the outlet
+	 * 
+	 * @return A read-only list of the tables, in the order they were added
+	 */
+	public List<Table> getTables() {
+		return Collections.unmodifiableList(_tables);
+	}
+	
+	/**
+	 * Adds an available table to the floor plan
+	 * 
+	 * @param tableNumber The table number of the table
+	 * @param numOfSeats The number of seats that the table has
+	 * @param zone The zone of the floor plan that the table is in, from 0
+	 * 
+	 * @return The table added
+	 */
+	public Table addTable(int tableNumber, int numOfSeats, int zone)
+	{
+		Table table = new Table(tableNumber, numOfSeats, false, false, 0, zone);
+		_tables.add(table);
+		
+		return table;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,138 @@
+package sce.cz2002.Assignment.Classes;
+
+/**
+ * A ticket sent to a kitchen station for a line of an order<p>
+ * 
+ * Includes the order ID and table number of the order, the menu item and
+ * the<br>quantity to be prepared, as well as the time the ticket was sent
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class KitchenTicket
+{
+	/**
+	 * Order ID of the order that the line belongs to
+	 */
+	private final String _orderID;
+	
+	/**
+	 * Table number that the order is for
+	 */
+	private final int _tableNumber;
+	
+	/**
+	 * Item ID of the menu item ordered
+	 */
+	private final int _itemID;
+	
+	/**
+	 * Name of the menu item ordered
+	 */
+	private final String _itemName;
+	
+	/**
+	 * Item type of the menu item ordered, which decides the kitchen station
+	 */
+	private final MenuItem.ItemType _itemType;
+	
+	/**
+	 * Quantity of the menu item to be prepared
+	 */
+	private final int _quantity;
+	
+	/**
+	 * The time that this ticket was sent, from {@link System#nanoTime()}
+	 */
+	private final long _sentNanos;
+	
+	/**
+	 * Creates a new kitchen ticket with the given information
+	 * 
+	 * @param orderID The order ID of the order
+	 * @param tableNumber The table number that the order is for
+	 * @param itemID The item ID of the menu item ordered
+	 * @param itemName The name of the menu item ordered
+	 * @param itemType The item type of the menu item ordered
+	 * @param quantity The quantity to be prepared
+	 * @param sentNanos The time that the ticket was sent, from
+	 * 		  {@link System#nanoTime()}
+	 */
+	public KitchenTicket(String orderID, int tableNumber, int itemID,
+			String itemName, MenuItem.ItemType itemType, int quantity,
+			long sentNanos)
+	{
+		_orderID = orderID;
+		_tableNumber = tableNumber;
+		
+		_itemID = itemID;
+		_itemName = itemName;
+		_itemType = itemType;
+		_quantity = quantity;
+		
+		_sentNanos = sentNanos;
+	}
+	
+	/**
+	 * Gets the order ID of the order that this ticket is for
+	 * 
+	 * @return The order ID
+	 */
+	public String getOrderID() {
+		return _orderID;
+	}
+	
+	/**
+	 * Gets the table number that this ticket is for
+	 * 
+	 * @return The table number
+	 */
+	public int getTableNumber() {
+		return _tableNumber;
+	}
+	
+	/**
+	 * Gets the item ID of the menu item to be prepared
+	 * 
+	 * @return The item ID
+	 */
+	public int getItemID() {
+		return _itemID;
+	}
+	
+	/**
+	 * Gets the name of the menu item to be prepared
+	 * 
+	 * @return The name of the menu item
+	 */
+	public String getItemName() {
+		return _itemName;
+	}
+	
+	/**
+	 * Gets the item type of the menu item to be prepared
+	 * 
+	 * @return The item type
+	 */
+	public MenuItem.ItemType getItemType() {
+		return _itemType;
+	}
+	
+	/**
+	 * Gets the quantity of the menu item to be prepared
+	 * 
+	 * @return The quantity
+	 */
+	public int getQuantity() {
+		return _quantity;
+	}
+	
+	/**
+	 * Gets the time that this ticket was sent
+	 * 
+	 * @return The time, from {@link System#nanoTime()}
+	 */
+	public long getSentNanos() {
+		return _sentNanos;
+	}
+}
\ No newline at end of file
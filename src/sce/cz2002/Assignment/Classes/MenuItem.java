@@ -44,6 +44,19 @@ public class MenuItem implements Serializable, Comparable<MenuItem>
 		}
 	}
 	
+	/**
+	 * Item ID of a menu item saved before menu items had item IDs, until
+	 * it is<br>given one
+	 */
+	public static final int NO_ITEM_ID = 0;
+	
+	/**
+	 * The item ID of this menu item, which never changes<br>
+	 * Item IDs are given out from 1 and are not used again once the menu
+	 * item<br>is removed
+	 */
+	private final int _itemID;
+	
 	/**
 	 * The item type of this menu item
 	 */
@@ -65,22 +78,34 @@ public class MenuItem implements Serializable, Comparable<MenuItem>
 	private double _price;
 	
 	/**
-	 * Creates a menu item with the given item type, name, description
-	 * and the price
+	 * Creates a menu item with the given item ID, item type, name,
+	 * description<br>and the price
 	 * 
+	 * @param itemID this menu item's item ID
 	 * @param itemType this menu item's item type
 	 * @param name this menu item's name
 	 * @param desc this menu item's description
 	 * @param price this menu item's price
 	 */
-	public MenuItem(ItemType itemType, String name, String desc, double price)
+	public MenuItem(int itemID, ItemType itemType, String name, String desc,
+			double price)
 	{
+		_itemID = itemID;
 		_itemType = itemType;
 		_name = name;
 		_desc = desc;
 		_price = price;
 	}
 	
+	/**
+	 * Gets the item ID of this menu item
+	 * 
+	 * @return this menu item's item ID
+	 */
+	public int getItemID() {
+		return _itemID;
+	}
+	
 	/**
 	 * Gets the item type of this menu item
 	 * 
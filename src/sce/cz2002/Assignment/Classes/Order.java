@@ -1,14 +1,20 @@
 package sce.cz2002.Assignment.Classes;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
-import java.text.DecimalFormat;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Iterator;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import sce.cz2002.Assignment.Control.HumanResourceMgr;
+import sce.cz2002.Assignment.Control.ReportWriter;
 
 /**
  * Stores a list of orderItems <p>
@@ -28,19 +34,46 @@ public class Order implements Serializable
 	private static final long serialVersionUID = 7048025711997254699L;
 	
 	/**
-	 * 10% Service charge for all orders
+	 * The fields of a serialized order, which holds its date/time as a
+	 * <br>Calendar as it did before
 	 */
-	private static final double SERVICE_CHARGE = 1.1;
+	private static final ObjectStreamField[] serialPersistentFields = {
+		new ObjectStreamField("_staffID", int.class),
+		new ObjectStreamField("_customerID", int.class),
+		new ObjectStreamField("_tableNumber", int.class),
+		new ObjectStreamField("_numOfPeople", int.class),
+		new ObjectStreamField("_originalTotalPrice", double.class),
+		new ObjectStreamField("_nettTotalPrice", double.class),
+		new ObjectStreamField("_orderItems", List.class),
+		new ObjectStreamField("_orderDateTime", Calendar.class),
+		new ObjectStreamField("_orderID", String.class)
+	};
 	
 	/**
-	 * 7% Goods and Services Tax for all orders
+	 * 10% Service charge for all orders, as a percentage of the price
 	 */
-	private static final double GOODS_SERVICES_TAX = 1.07;
+	private static final long SERVICE_CHARGE = 110;
 	
 	/**
-	 * 10% Discount given to customers that are members
+	 * 7% Goods and Services Tax for all orders, as a percentage of the price
 	 */
-	private static final double MEMBERSHIP_DISCOUNT = 0.9;
+	private static final long GOODS_SERVICES_TAX = 107;
+	
+	/**
+	 * 10% Discount given to customers that are members, as a percentage
+	 * <br>of the price
+	 */
+	private static final long MEMBERSHIP_DISCOUNT = 90;
+	
+	/**
+	 * Divisor applied after multiplying by the three percentages above
+	 */
+	private static final long PERCENTAGE_DIVISOR = 100 * 100 * 100;
+	
+	/**
+	 * Number of cents in a dollar
+	 */
+	private static final int CENTS_PER_DOLLAR = 100;
 	
 	/**
 	 * Staff ID of the staff who took the order
@@ -62,6 +95,14 @@ public class Order implements Serializable
 	 */
 	private int _numOfPeople;
 	
+	/**
+	 * The index of the outlet that this order was taken at, in the order
+	 * of the<br>floor plan file. Table numbers are only unique within an
+	 * outlet<br>
+	 * 0 for orders saved before orders were kept by outlet
+	 */
+	private int _outletIndex;
+	
 	/**
 	 * Original price of the order<br>
 	 * Calculated by adding the actual price of each order item
@@ -78,14 +119,35 @@ public class Order implements Serializable
 	private double _nettTotalPrice;
 	
 	/**
-	 * The list of all order items that this order contains
+	 * The list of all order items that this order contains<br>
+	 * Null when an order item has been removed, until the list is next
+	 * needed
 	 */
 	private List<OrderItem> _orderItems;
 	
 	/**
-	 * The date/time that this order was taken
+	 * The order items of this order keyed by the item ID of the menu item
+	 * <br>ordered, in the order they were added<br>
+	 * Rebuilt from the list of order items when an order is loaded
 	 */
-	private Calendar _orderDateTime;
+	private transient Map<Integer, OrderItem> _orderItemIndex;
+	
+	/**
+	 * Original price of the order in cents, kept up to date as order
+	 * items<br>are added and removed
+	 */
+	private transient long _originalTotalCents;
+	
+	/**
+	 * Whether the customer was a member when this order was created, or
+	 * <br>when the membership was last refreshed
+	 */
+	private transient boolean _isMember;
+	
+	/**
+	 * The date/time that this order was taken, in epoch milliseconds
+	 */
+	private long _orderTimeMillis;
 	
 	/**
 	 * The order ID of this order
@@ -93,10 +155,11 @@ public class Order implements Serializable
 	private String _orderID;
 	
 	/**
-	 * Simple date format used to format date/time for displaying
+	 * The version of the menu that the order items were last priced
+	 * against<br>
+	 * 0 for orders saved before the menu had versions
 	 */
-	private static final SimpleDateFormat _dateFormatter = 
-			new SimpleDateFormat("E, dd/MM/yyyy, HH:mm");
+	private long _menuVersion;
 	
 	/**
 	 * Creates a new order with the given information
@@ -107,12 +170,13 @@ public class Order implements Serializable
 	 * @param numOfPeople The number of people at the table
 	 * @param originalTotalPrice The original price of the order
 	 * @param nettTotalPrice The final nett price of the order
-	 * @param orderDateTime The date/time that this order was made
+	 * @param orderTimeMillis The date/time that this order was made, in
+	 * 		  epoch milliseconds
 	 * @param orderID The order ID for this order
 	 */
 	public Order(int staffID, int customerID, int tableNumber, 
 			int numOfPeople, double originalTotalPrice,
-			double nettTotalPrice, Calendar orderDateTime, String orderID)
+			double nettTotalPrice, long orderTimeMillis, String orderID)
 	{
 		_staffID = staffID;
 		_customerID = customerID;
@@ -124,9 +188,12 @@ public class Order implements Serializable
 		_nettTotalPrice = nettTotalPrice;
 		
 		_orderItems = new ArrayList<OrderItem>();
+		_orderItemIndex = new LinkedHashMap<Integer, OrderItem>();
 		
-		_orderDateTime = orderDateTime;
+		_orderTimeMillis = orderTimeMillis;
 		_orderID = orderID;
+		
+		_isMember = HumanResourceMgr.getHRMgr().isMember(customerID);
 	}
 	
 	/**
@@ -140,13 +207,14 @@ public class Order implements Serializable
 	 * @param numOfPeople The number of people at the table
 	 * @param originalTotalPrice The original price of the order
 	 * @param nettTotalPrice The final nett price of the order
-	 * @param orderDateTime The date/time that this order was made
+	 * @param orderTimeMillis The date/time that this order was made, in
+	 * 		  epoch milliseconds
 	 * @param orderID The order ID for this order
 	 * @param orderItems The list of order items (if any)
 	 */
 	public Order(int staffID, int customerID, int tableNumber, 
 			int numOfPeople, double originalTotalPrice,
-			double nettTotalPrice, Calendar orderDateTime, String orderID,
+			double nettTotalPrice, long orderTimeMillis, String orderID,
 			List<OrderItem> orderItems)
 	{
 		_staffID = staffID;
@@ -158,13 +226,137 @@ public class Order implements Serializable
 		_originalTotalPrice = originalTotalPrice;
 		_nettTotalPrice = nettTotalPrice;
 		
-		_orderDateTime = orderDateTime;
+		_orderTimeMillis = orderTimeMillis;
 		_orderID = orderID;
 		
 		if(orderItems != null)
 			_orderItems = orderItems;
 		else
 			_orderItems = new ArrayList<OrderItem>();
+		
+		indexOrderItems();
+		
+		// Replaced by the saved membership, for orders saved with one
+		_isMember = HumanResourceMgr.getHRMgr().isMember(customerID);
+	}
+	
+	/**
+	 * Builds the index of order items from the list of order items, and
+	 * <br>sums up the original price in cents<p>
+	 * Orders saved by older versions may hold several order items of the
+	 * same<br>menu item, these are merged into the first of them. Order
+	 * items saved before<br>menu items had item IDs are merged by name, and
+	 * given item IDs below 0 of<br>their own so that they can still be
+	 * removed
+	 */
+	private void indexOrderItems()
+	{
+		_orderItemIndex = new LinkedHashMap<Integer, OrderItem>(
+				_orderItems.size() * 2);
+		_originalTotalCents = 0;
+		
+		// Order items without an item ID, keyed by their item name
+		Map<String, OrderItem> unlinkedItems = null;
+		
+		for(OrderItem orderItem : _orderItems)
+		{
+			_originalTotalCents +=
+					toCents(orderItem.getPrice()) * orderItem.getQuantity();
+			
+			OrderItem existingItem;
+			
+			if(orderItem.getItemID() == MenuItem.NO_ITEM_ID)
+			{
+				if(unlinkedItems == null)
+					unlinkedItems = new HashMap<String, OrderItem>();
+				
+				existingItem = unlinkedItems.get(orderItem.getName());
+				
+				if(existingItem == null)
+				{
+					orderItem = new OrderItem(-1 - unlinkedItems.size(),
+							orderItem.getName(), orderItem.getPrice(),
+							orderItem.getQuantity());
+					unlinkedItems.put(orderItem.getName(), orderItem);
+				}
+			}
+			else
+				existingItem = _orderItemIndex.get(orderItem.getItemID());
+			
+			if(existingItem == null)
+				_orderItemIndex.put(orderItem.getItemID(), orderItem);
+			else
+				existingItem.incrementQuantity(orderItem.getQuantity());
+		}
+		
+		if(_orderItemIndex.size() != _orderItems.size() || unlinkedItems != null)
+			_orderItems = new ArrayList<OrderItem>(_orderItemIndex.values());
+	}
+	
+	/**
+	 * Reads the fields of this order when it is deserialized, and rebuilds
+	 * <br>the index of order items
+	 * 
+	 * @param in The stream the order is read from
+	 * 
+	 * @throws IOException If the order cannot be read
+	 * @throws ClassNotFoundException If a class of the order cannot be found
+	 */
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in)
+			throws IOException, ClassNotFoundException
+	{
+		ObjectInputStream.GetField fields = in.readFields();
+		
+		_staffID = fields.get("_staffID", 0);
+		_customerID = fields.get("_customerID", 0);
+		_tableNumber = fields.get("_tableNumber", 0);
+		_numOfPeople = fields.get("_numOfPeople", 0);
+		_originalTotalPrice = fields.get("_originalTotalPrice", 0.0);
+		_nettTotalPrice = fields.get("_nettTotalPrice", 0.0);
+		_orderItems = (List<OrderItem>) fields.get("_orderItems", null);
+		_orderID = (String) fields.get("_orderID", null);
+		
+		Calendar orderDateTime = (Calendar) fields.get("_orderDateTime", null);
+		if(orderDateTime != null)
+			_orderTimeMillis = orderDateTime.getTimeInMillis();
+		
+		if(_orderItems == null)
+			_orderItems = new ArrayList<OrderItem>();
+		
+		indexOrderItems();
+		
+		// Membership was not serialized, so the current one is taken
+		_isMember = HumanResourceMgr.getHRMgr().isMember(_customerID);
+	}
+	
+	/**
+	 * Writes the fields of this order when it is serialized, in the same
+	 * <br>form as before: with an up to date list of order items, and the
+	 * <br>date/time as a Calendar
+	 * 
+	 * @param out The stream the order is written to
+	 * 
+	 * @throws IOException If the order cannot be written
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException
+	{
+		Calendar orderDateTime = GregorianCalendar.getInstance();
+		orderDateTime.setTimeInMillis(_orderTimeMillis);
+		
+		ObjectOutputStream.PutField fields = out.putFields();
+		
+		fields.put("_staffID", _staffID);
+		fields.put("_customerID", _customerID);
+		fields.put("_tableNumber", _tableNumber);
+		fields.put("_numOfPeople", _numOfPeople);
+		fields.put("_originalTotalPrice", _originalTotalPrice);
+		fields.put("_nettTotalPrice", _nettTotalPrice);
+		fields.put("_orderItems", getOrderItems());
+		fields.put("_orderDateTime", orderDateTime);
+		fields.put("_orderID", _orderID);
+		
+		out.writeFields();
 	}
 	
 	/**
@@ -240,12 +432,13 @@ public class Order implements Serializable
 	}
 	
 	/**
-	 * Gets the date/time that this order was made
+	 * Gets the date/time that this order was made, as milliseconds since
+	 * <br>the epoch
 	 * 
-	 * @return the date/time that this order was made
+	 * @return the date/time that this order was made, in epoch milliseconds
 	 */
-	public Calendar getOrderDateTime() {
-		return _orderDateTime;
+	public long getOrderTimeInMillis() {
+		return _orderTimeMillis;
 	}
 	
 	/**
@@ -257,6 +450,87 @@ public class Order implements Serializable
 		return _orderID;
 	}
 	
+	/**
+	 * Gets the version of the menu that this order was last priced against
+	 * 
+	 * @return The version of the menu snapshot that the last order item
+	 * 		   was<br>added from
+	 */
+	public long getMenuVersion() {
+		return _menuVersion;
+	}
+	
+	/**
+	 * Records the version of the menu that this order has been priced
+	 * against
+	 * 
+	 * @param menuVersion The version of the menu snapshot that order items
+	 * 		  were<br>added from
+	 */
+	public void setMenuVersion(long menuVersion) {
+		_menuVersion = menuVersion;
+	}
+	
+	/**
+	 * Checks whether the membership discount is given for this order
+	 * 
+	 * @return True if the customer was a member when the order was created,
+	 * 		   <br>or when the membership was last refreshed
+	 */
+	public boolean isMember() {
+		return _isMember;
+	}
+	
+	/**
+	 * Gets the outlet that this order was taken at
+	 * 
+	 * @return The index of the outlet, in the order of the floor plan file
+	 */
+	public int getOutletIndex() {
+		return _outletIndex;
+	}
+	
+	/**
+	 * Records the outlet that this order was taken at
+	 * 
+	 * @param outletIndex The index of the outlet, in the order of the floor
+	 * 		  plan file
+	 */
+	public void setOutletIndex(int outletIndex) {
+		_outletIndex = outletIndex;
+	}
+	
+	/**
+	 * Records whether the membership discount was given for this order
+	 * <br>Used when loading an order, the nett total price is not worked
+	 * out again
+	 * 
+	 * @param isMember True if the customer was a member when the order
+	 * 		  was<br>created, or when the membership was last refreshed
+	 */
+	public void setMember(boolean isMember) {
+		_isMember = isMember;
+	}
+	
+	/**
+	 * Checks the customer's membership again, and updates the nett total
+	 * price<br>if the membership has changed
+	 * 
+	 * @return True if the membership has changed
+	 */
+	public boolean refreshMembership()
+	{
+		boolean isMember = HumanResourceMgr.getHRMgr().isMember(_customerID);
+		
+		if(isMember == _isMember)
+			return false;
+		
+		_isMember = isMember;
+		updateOrderPrice(0);
+		
+		return true;
+	}
+	
 	/**
 	 * Adds a selected menuItem of a given quantity to the order<p>
 	 * A new orderItem will be added to the order if this menuItem
@@ -269,27 +543,27 @@ public class Order implements Serializable
 	 */
 	public void addItemToOrder(MenuItem menuItem, int quantity)
 	{
-		if(!_orderItems.isEmpty())
+		OrderItem orderItem = _orderItemIndex.get(menuItem.getItemID());
+		
+		if(orderItem != null)
 		{
-			for(OrderItem orderItem : _orderItems)
-			{
-				if(orderItem.getName() == menuItem.getName())
-				{
-					orderItem.incrementQuantity(quantity);
-					recalculateOrderPrice();
-					
-					return;
-				}
-			}
+			orderItem.incrementQuantity(quantity);
+			updateOrderPrice(toCents(orderItem.getPrice()) * quantity);
+			
+			return;
 		}
 		
-		// Empty order list or added menuItem not part of order list
+		// Added menuItem not part of order list
 		OrderItem newOrderItem;
-		newOrderItem = new OrderItem(menuItem.getName(),
+		newOrderItem = new OrderItem(menuItem.getItemID(), menuItem.getName(),
 				menuItem.getPrice(), quantity);
 		
-		_orderItems.add(newOrderItem);
-		recalculateOrderPrice();
+		_orderItemIndex.put(newOrderItem.getItemID(), newOrderItem);
+		
+		if(_orderItems != null)
+			_orderItems.add(newOrderItem);
+		
+		updateOrderPrice(toCents(newOrderItem.getPrice()) * quantity);
 	}
 	
 	/**
@@ -298,33 +572,28 @@ public class Order implements Serializable
 	 * after the removal process, <br>the order item will be removed
 	 * from the order
 	 * 
-	 * @param itemName the menu item that the customer wish to remove from the order
+	 * @param itemID the item ID of the menu item that the customer wish to
+	 * 		  remove from the order
 	 * @param quantity the quantity of the menu item to be removed
 	 */
-	public void removeItemFromOrder(String itemName, int quantity)
+	public void removeItemFromOrder(int itemID, int quantity)
 	{
-		if(getNumberOfOrderItems() == 0)
+		OrderItem orderItem = _orderItemIndex.get(itemID);
+		
+		if(orderItem == null)
 			return;
 		
-		Iterator<OrderItem> ordersIter = _orderItems.iterator();
-		OrderItem orderItem = null;
+		orderItem.decrementQuantity(quantity);
 		
-		while(ordersIter.hasNext()) {
-			
-			orderItem = ordersIter.next();
+		if(orderItem.getQuantity() == 0)
+		{
+			_orderItemIndex.remove(itemID);
 			
-			if(orderItem.getName().equals(itemName)) {
-				
-				orderItem.decrementQuantity(quantity);
-
-				if(orderItem.getQuantity() == 0)
-					ordersIter.remove();
-
-				break;
-			}
+			// Rebuilt only when next needed, rather than on every removal
+			_orderItems = null;
 		}
 		
-		recalculateOrderPrice();
+		updateOrderPrice(-toCents(orderItem.getPrice()) * quantity);
 	}
 
 	/**
@@ -333,7 +602,7 @@ public class Order implements Serializable
 	 * @return the total number of order items in this order
 	 */
 	public int getNumberOfOrderItems() {
-		return _orderItems.size();
+		return _orderItemIndex.size();
 	}
 
 	/**
@@ -342,69 +611,86 @@ public class Order implements Serializable
 	 * @return whether this order is empty (contains no order items)
 	 */
 	public boolean isEmpty() {
-		return _orderItems.isEmpty();
+		return _orderItemIndex.isEmpty();
 	}
 
 	/**
-	 * Gets the list of all order items inside this order
+	 * Gets the list of all order items inside this order, in the order
+	 * they were added
 	 * 
 	 * @return the list of all order items inside this order
 	 */
-	public List<OrderItem> getOrderItems()	{
-		return _orderItems;
+	public List<OrderItem> getOrderItems()
+	{
+		List<OrderItem> orderItems = _orderItems;
+		
+		if(orderItems == null)
+		{
+			orderItems = new ArrayList<OrderItem>(_orderItemIndex.values());
+			_orderItems = orderItems;
+		}
+		
+		return orderItems;
 	}
 	
 	/**
-	 * Recalculates the order price based on the price of each order item<br>
+	 * Updates the order price after order items are added or removed<br>
 	 * The price of each order item is determined by (price * quantity)
 	 * <p>
 	 * Based on the original total order price, the nett total price is
 	 * calculated<br>
 	 * This is done by adding the relevants taxes and giving a membership
-	 * discount if the customer is a member
+	 * discount if the customer is a member<p>
+	 * Prices are worked out in whole cents, and the nett total price is
+	 * rounded<br>to the nearest cent
+	 * 
+	 * @param changeInCents The change in the original price, in cents
 	 */
-	private void recalculateOrderPrice()
+	private void updateOrderPrice(long changeInCents)
 	{
-		if(getNumberOfOrderItems() == 0)
-			return;
-
-		double newOriginalOrderPrice = 0;
-		for(OrderItem orderItem : _orderItems)
-		{
-			newOriginalOrderPrice += 
-					(orderItem.getPrice() * orderItem.getQuantity());
-		}
-
-		setOriginalTotalPrice(newOriginalOrderPrice);
+		_originalTotalCents += changeInCents;
 		
-		double newNettTotalPrice = 0;
-		newNettTotalPrice = (newOriginalOrderPrice * SERVICE_CHARGE
-				* GOODS_SERVICES_TAX);
+		long nettTotalCents = _originalTotalCents * SERVICE_CHARGE
+				* GOODS_SERVICES_TAX;
 		
-		if(HumanResourceMgr.getHRMgr().isMember(getCustomerID()))
-		{
-			newNettTotalPrice *= MEMBERSHIP_DISCOUNT;
-		}
+		if(_isMember)
+			nettTotalCents *= MEMBERSHIP_DISCOUNT;
+		else
+			nettTotalCents *= 100;
 		
-		setNettTotalPrice(newNettTotalPrice);
+		nettTotalCents = (nettTotalCents + PERCENTAGE_DIVISOR / 2)
+				/ PERCENTAGE_DIVISOR;
+		
+		setOriginalTotalPrice((double) _originalTotalCents / CENTS_PER_DOLLAR);
+		setNettTotalPrice((double) nettTotalCents / CENTS_PER_DOLLAR);
+	}
+	
+	/**
+	 * Converts a price to a whole number of cents
+	 * 
+	 * @param price The price in dollars
+	 * 
+	 * @return The price in cents
+	 */
+	private static long toCents(double price) {
+		return Math.round(price * CENTS_PER_DOLLAR);
 	}
 	
 	/**
 	 * Gets the exact quantity of a specific order item based on the
-	 * item name provided
+	 * item ID provided
 	 * 
-	 * @param itemName the name of the item to look for
+	 * @param itemID the item ID of the menu item to look for
 	 * @return the quantity of the item being searched for
 	 */
-	public int getOrderItemQuantity(String itemName)
+	public int getOrderItemQuantity(int itemID)
 	{
-		for(OrderItem orderItem : _orderItems)
-		{
-			if(orderItem.getName().equals(itemName))
-				return orderItem.getQuantity();
-		}
+		OrderItem orderItem = _orderItemIndex.get(itemID);
+		
+		if(orderItem == null)
+			return 0;
 		
-		return 0;
+		return orderItem.getQuantity();
 	}
 	
 	/**
@@ -415,19 +701,50 @@ public class Order implements Serializable
 	 */
 	public void displayOrderDetails()
 	{
-		System.out.printf("%-35s", "Order ID: " + getOrderID());
-		System.out.printf("%-17s",
-				"Staff ID: " + getStaffID());
-		System.out.printf("%-19s",
-				"Customer ID: " + getCustomerID());
-		System.out.printf("%-12s%n",
-				"Table No: " + getTableNumber());
-
+		ReportWriter out = ReportWriter.toConsole();
+		
+		try {
+			writeOrderDetails(out);
+			out.flush();
+		} catch (IOException ex) {
+			System.out.println("Unable to display the order details!");
+		}
+	}
+	
+	/**
+	 * Writes the order details to a report, as displayed by
+	 * {@link #displayOrderDetails()}
+	 * 
+	 * @param out The report being written
+	 * 
+	 * @throws IOException If the report cannot be written
+	 */
+	public void writeOrderDetails(ReportWriter out) throws IOException
+	{
+		out.text("Order ID: ").text(getOrderID()).left(35);
+		out.text("Staff ID: ").number(getStaffID()).left(17);
+		out.text("Customer ID: ").number(getCustomerID()).left(19);
+		out.text("Table No: ").number(getTableNumber()).left(12).line();
+		
+		writeOrderItems(out);
+	}
+	
+	/**
+	 * Writes the details of each order item to a report, numbered from 1
+	 * 
+	 * @param out The report being written
+	 * 
+	 * @throws IOException If the report cannot be written
+	 */
+	private void writeOrderItems(ReportWriter out) throws IOException
+	{
 		int orderItemNo = 1;
-		for(OrderItem orderItem : _orderItems)
+		for(OrderItem orderItem : _orderItemIndex.values())
 		{
-			System.out.printf("%5s%-5s: ", "", ("(" + (orderItemNo++) + ")") );
-			orderItem.displayOrderItemDetails();
+			out.repeat(' ', 5);
+			out.text('(').number(orderItemNo++).text(')').left(5);
+			out.text(": ").cell();
+			orderItem.writeOrderItemDetails(out);
 		}
 	}
 	
@@ -456,54 +773,72 @@ public class Order implements Serializable
 	 */
 	public void displayOrderInvoice()
 	{
-		System.out.print("\n" + new String(new char[36]).replace("\0", "="));
-		System.out.print(" Order Invoice ");
-		System.out.println(new String(new char[36]).replace("\0", "="));
-		
-		System.out.printf("%n%-47s", "Order ID: " + getOrderID());
-		System.out.printf("%-20s",
-				"Staff ID: " + getStaffID());
-		System.out.printf("%20s%n",
-				"Customer ID: " + getCustomerID());
-		
-		System.out.printf("%-47s", "Order Date/Time: " + 
-			_dateFormatter.format(_orderDateTime.getTime()));
-		System.out.printf("%-20s",
-				"Table No: " + getTableNumber());
-		System.out.printf("%20s%n%n",
-				"Pax: " + getNumOfPeople());
-
-		int orderItemNo = 1;
-		for(OrderItem orderItem : _orderItems)
-		{
-			System.out.printf("%5s%-5s: ", "", ("(" + (orderItemNo++) + ")") );
-			orderItem.displayOrderItemDetails();
+		ReportWriter out = ReportWriter.toConsole();
+		
+		try {
+			writeOrderInvoice(out);
+			out.flush();
+		} catch (IOException ex) {
+			System.out.println("Unable to display the order invoice!");
 		}
+	}
+	
+	/**
+	 * Writes the complete order details for payment to a report,
+	 * <br>as displayed by {@link #displayOrderInvoice()}
+	 * 
+	 * @param out The report being written
+	 * 
+	 * @throws IOException If the report cannot be written
+	 */
+	public void writeOrderInvoice(ReportWriter out) throws IOException
+	{
+		writeInvoiceBanner(out);
 		
-		System.out.println("\n" + new String(new char[87]).replace("\0", "-"));
-
-		System.out.printf("%87s%n", "Subtotal: " +
-				new DecimalFormat("$###,##0.00").format(
-						getOriginalTotalPrice()));
-
-		System.out.printf("%n%87s%n", "+10% Service Charge");
-		System.out.printf("%87s%n", "+7% Goods & Service Tax");
-		if(HumanResourceMgr.getHRMgr().isMember(getCustomerID()))
+		out.line();
+		out.text("Order ID: ").text(getOrderID()).left(47);
+		out.text("Staff ID: ").number(getStaffID()).left(20);
+		out.text("Customer ID: ").number(getCustomerID()).right(20).line();
+		
+		out.text("Order Date/Time: ").dateTime(_orderTimeMillis,
+				DateTimeFormat.DATE_TIME).left(47);
+		out.text("Table No: ").number(getTableNumber()).left(20);
+		out.text("Pax: ").number(getNumOfPeople()).right(20).line().line();
+		
+		writeOrderItems(out);
+		
+		out.line().repeat('-', 87).line();
+		
+		out.text("Subtotal: ").money(getOriginalTotalPrice()).right(87).line();
+		
+		out.line().text("+10% Service Charge").right(87).line();
+		out.text("+7% Goods & Service Tax").right(87).line();
+		if(isMember())
 		{
-			System.out.printf("%87s%n", "-10% membership discount");
+			out.text("-10% membership discount").right(87).line();
 		}
-
-		System.out.printf("%n%87s%n", "Total Payable: " + 
-				new DecimalFormat("$###,##0.00").format(getNettTotalPrice()));
 		
-		System.out.println(new String(new char[87]).replace("\0", "-") + "\n");
+		out.line();
+		out.text("Total Payable: ").money(getNettTotalPrice()).right(87).line();
+		
+		out.repeat('-', 87).line().line();
 		
-		System.out.print(new String(new char[29]).replace("\0", " "));
-		System.out.print("Thank you for dining with us!");
-		System.out.println(new String(new char[29]).replace("\0", " "));
+		out.repeat(' ', 29).text("Thank you for dining with us!");
+		out.repeat(' ', 29).line();
 		
-		System.out.print("\n" + new String(new char[36]).replace("\0", "="));
-		System.out.print(" Order Invoice ");
-		System.out.println(new String(new char[36]).replace("\0", "="));
+		writeInvoiceBanner(out);
+	}
+	
+	/**
+	 * Writes the banner that opens and closes an invoice
+	 * 
+	 * @param out The report being written
+	 * 
+	 * @throws IOException If the report cannot be written
+	 */
+	private static void writeInvoiceBanner(ReportWriter out) throws IOException
+	{
+		out.line().repeat('=', 36).text(" Order Invoice ");
+		out.repeat('=', 36).line();
 	}
 }
\ No newline at end of file
@@ -1,12 +1,14 @@
 package sce.cz2002.Assignment.Classes;
 
+import java.io.IOException;
 import java.io.Serializable;
-import java.text.DecimalFormat;
+
+import sce.cz2002.Assignment.Control.ReportWriter;
 
 /**
  * A single item within the order<br>
- * Includes the name of this order item, price of this order item and
- * the quantity of this order item
+ * Includes the item ID of the menu item ordered, the name of this order
+ * item,<br>price of this order item and the quantity of this order item
  * 
  * @author Jin Yao
  */
@@ -17,6 +19,13 @@ public class OrderItem implements Serializable
 	 */
 	private static final long serialVersionUID = -2799143503609964306L;
 
+	/**
+	 * The item ID of the menu item ordered, which never changes<br>
+	 * Order items saved before menu items had item IDs have none, see
+	 * <br>{@link MenuItem#NO_ITEM_ID}
+	 */
+	private final int _itemID;
+	
 	/**
 	 * The name of this order item
 	 */
@@ -33,20 +42,30 @@ public class OrderItem implements Serializable
 	private int _quantity;
 	
 	/**
-	 * Creates a new order item with the given name, price
+	 * Creates a new order item with the given item ID, name, price
 	 * as well as the quantity
 	 * 
+	 * @param itemID The item ID of the menu item ordered
 	 * @param name The name for this order item
 	 * @param price The price for this order item
 	 * @param quantity The quantity of this order item
 	 */
-	public OrderItem(String name, double price, int quantity)
+	public OrderItem(int itemID, String name, double price, int quantity)
 	{
+		_itemID = itemID;
 		_name = name;
 		_price = price;
 		_quantity = quantity;
 	}
 	
+	/**
+	 * Gets the item ID of the menu item ordered
+	 * @return this OrderItem's item ID
+	 */
+	public int getItemID() {
+		return _itemID;
+	}
+	
 	/**
 	 * Gets the name of this order item
 	 * @return this OrderItem's name
@@ -114,17 +133,19 @@ public class OrderItem implements Serializable
 	}
 	
 	/**
-	 * Formats and display the details of this order item,
-	 * including information such as quantity, name and the price
+	 * Formats and writes the details of this order item to a report,
+	 * <br>including information such as quantity, name and the price
 	 * of the order item (price of each item * quantity)
+	 * 
+	 * @param out The report being written
+	 * 
+	 * @throws IOException If the report cannot be written
 	 */
-	public void displayOrderItemDetails()
+	public void writeOrderItemDetails(ReportWriter out) throws IOException
 	{
-		System.out.printf("%-5s", getQuantity() + "x");
-		System.out.printf("%-30s", getName());
-		System.out.printf("%40s%n",
-				new DecimalFormat("$###,##0.00").format(
-						getPrice() * getQuantity()));
+		out.number(getQuantity()).text('x').left(5);
+		out.text(getName()).left(30);
+		out.money(getPrice() * getQuantity()).right(40).line();
 	}
 	
 	/**
@@ -1,8 +1,12 @@
 package sce.cz2002.Assignment.Classes;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.GregorianCalendar;
 
 /**
  * Represents a reservation made by a customer<p>
@@ -20,7 +24,21 @@ public class Reservation implements Serializable, Comparable<Reservation>
 	 * Generated serial version ID for serializable classes
 	 */
 	private static final long serialVersionUID = -1362303644760942385L;
-
+	
+	/**
+	 * The fields of a serialized reservation, which holds its date/time as
+	 * <br>a Calendar as it did before
+	 */
+	private static final ObjectStreamField[] serialPersistentFields = {
+		new ObjectStreamField("_reservedTableNo", int.class),
+		new ObjectStreamField("_customerID", int.class),
+		new ObjectStreamField("_customerName", String.class),
+		new ObjectStreamField("_customerContact", int.class),
+		new ObjectStreamField("_numOfPeople", int.class),
+		new ObjectStreamField("_startDateTime", Calendar.class),
+		new ObjectStreamField("_duration", int.class)
+	};
+	
 	/**
 	 * The table number that this reservation is associated with
 	 */
@@ -47,21 +65,15 @@ public class Reservation implements Serializable, Comparable<Reservation>
 	private int _numOfPeople;
 	
 	/**
-	 * The date/time that this reservation is made for
+	 * The date/time that this reservation is made for, in epoch milliseconds
 	 */
-	private Calendar _startDateTime;
+	private long _startTimeMillis;
 	
 	/**
 	 * The duration of this reservation
 	 */
 	private int _duration;
 	
-	/**
-	 * A Simple Date Format used to format date/time related information
-	 */
-	private static final SimpleDateFormat _dateFormatter = 
-			new SimpleDateFormat("E, dd/MM/yyyy, HH:mm");
-	
 	/**
 	 * Creates a new reservation with the given information
 	 * 
@@ -72,12 +84,13 @@ public class Reservation implements Serializable, Comparable<Reservation>
 	 * @param customerContact The contact number of the customer that made this
 	 * 						  reservation
 	 * @param numOfPeople The number of people that this reservation is made for
-	 * @param startDateTime The date/time for this reservation
+	 * @param startTimeMillis The date/time for this reservation, in epoch
+	 * 		  milliseconds
 	 * @param duration The duration of this reservation
 	 */
 	public Reservation(int reservedTableNo, int customerID,
 			String customerName, int customerContact, int numOfPeople,
-			Calendar startDateTime, int duration) {
+			long startTimeMillis, int duration) {
 		
 		_reservedTableNo = reservedTableNo;
 		
@@ -87,10 +100,62 @@ public class Reservation implements Serializable, Comparable<Reservation>
 		
 		_numOfPeople = numOfPeople;
 		
-		_startDateTime = startDateTime;
+		_startTimeMillis = startTimeMillis;
 		_duration = duration;
 	}
 	
+	/**
+	 * Reads the fields of this reservation when it is deserialized
+	 * 
+	 * @param in The stream the reservation is read from
+	 * 
+	 * @throws IOException If the reservation cannot be read
+	 * @throws ClassNotFoundException If a class of the reservation cannot
+	 * 		   be found
+	 */
+	private void readObject(ObjectInputStream in)
+			throws IOException, ClassNotFoundException
+	{
+		ObjectInputStream.GetField fields = in.readFields();
+		
+		_reservedTableNo = fields.get("_reservedTableNo", 0);
+		_customerID = fields.get("_customerID", 0);
+		_customerName = (String) fields.get("_customerName", null);
+		_customerContact = fields.get("_customerContact", 0);
+		_numOfPeople = fields.get("_numOfPeople", 0);
+		_duration = fields.get("_duration", 0);
+		
+		Calendar startDateTime = (Calendar) fields.get("_startDateTime", null);
+		if(startDateTime != null)
+			_startTimeMillis = startDateTime.getTimeInMillis();
+	}
+	
+	/**
+	 * Writes the fields of this reservation when it is serialized, in the
+	 * <br>same form as before, with the date/time as a Calendar
+	 * 
+	 * @param out The stream the reservation is written to
+	 * 
+	 * @throws IOException If the reservation cannot be written
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException
+	{
+		Calendar startDateTime = GregorianCalendar.getInstance();
+		startDateTime.setTimeInMillis(_startTimeMillis);
+		
+		ObjectOutputStream.PutField fields = out.putFields();
+		
+		fields.put("_reservedTableNo", _reservedTableNo);
+		fields.put("_customerID", _customerID);
+		fields.put("_customerName", _customerName);
+		fields.put("_customerContact", _customerContact);
+		fields.put("_numOfPeople", _numOfPeople);
+		fields.put("_startDateTime", startDateTime);
+		fields.put("_duration", _duration);
+		
+		out.writeFields();
+	}
+	
 	/**
 	 * Gets the table number of the table that the reservation is made for
 	 * 
@@ -155,21 +220,33 @@ public class Reservation implements Serializable, Comparable<Reservation>
 	}
 	
 	/**
-	 * Gets the date/time for this reservation
+	 * Gets the date/time for this reservation as milliseconds since the epoch
 	 * 
-	 * @return The date/time for this reservation
+	 * @return The start of this reservation, in epoch milliseconds
 	 */
-	public Calendar getStartDateTime() {
-		return _startDateTime;
+	public long getStartTimeInMillis() {
+		return _startTimeMillis;
 	}
 	
 	/**
 	 * Changes the date/time for this reservation
 	 * 
-	 * @param newStartDateTime This reservation's new date/time
+	 * @param newStartTimeMillis This reservation's new date/time, in epoch
+	 * 		  milliseconds
+	 */
+	public void setStartTimeInMillis(long newStartTimeMillis) {
+		_startTimeMillis = newStartTimeMillis;
+	}
+	
+	/**
+	 * Gets the date/time that this reservation ends, as milliseconds since
+	 * the epoch<br>
+	 * Calculated from the start date/time and the duration (in hours)
+	 * 
+	 * @return The end of this reservation, in epoch milliseconds
 	 */
-	public void setStartDateTime(Calendar newStartDateTime) {
-		_startDateTime = newStartDateTime;
+	public long getEndTimeInMillis() {
+		return getStartTimeInMillis() + (_duration * DateTimes.MILLIS_PER_HOUR);
 	}
 	
 	/**
@@ -209,7 +286,7 @@ public class Reservation implements Serializable, Comparable<Reservation>
 		System.out.printf("%5s%-25s", "",
 				"Number of People: " + getNumOfPeople());
 		System.out.printf("%-50s", "Reservation Date/Time: " + 
-				_dateFormatter.format(_startDateTime.getTime()));
+				DateTimeFormat.DATE_TIME.format(_startTimeMillis));
 		System.out.printf("%-20s%n", "Duration: " + getDuration() + 
 				(getDuration() > 1 ? " Hours" : " Hour"));
 	}
@@ -229,7 +306,7 @@ public class Reservation implements Serializable, Comparable<Reservation>
 		
 		// "Reservation Date/Time"
 		System.out.printf("%-25s", 
-				_dateFormatter.format(_startDateTime.getTime()));
+				DateTimeFormat.DATE_TIME.format(_startTimeMillis));
 		
 		// "Reservation Duration"
 		System.out.printf("%-20s%n", getDuration() + 
@@ -244,6 +321,9 @@ public class Reservation implements Serializable, Comparable<Reservation>
 	@Override
 	public int compareTo(Reservation res)
 	{
-		return this.getStartDateTime().compareTo(res.getStartDateTime());
+		long startA = this.getStartTimeInMillis();
+		long startB = res.getStartTimeInMillis();
+		
+		return (startA < startB) ? -1 : ((startA == startB) ? 0 : 1);
 	}
 }
\ No newline at end of file
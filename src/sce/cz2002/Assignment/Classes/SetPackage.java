@@ -7,7 +7,12 @@ import java.util.List;
 
 /**
  * Represents a Set Package in the menu of this restaurant<br>
- * A set package is also a {@link MenuItem}
+ * A set package is also a {@link MenuItem}<p>
+ * 
+ * The menu items of a set package on the menu are the menu items on the
+ * menu,<br>matched by item ID, so a changed price reaches the set package.
+ * The price of<br>the set package is calculated when it is read, and kept
+ * until it is invalidated
  * 
  * @author Chin Meng
  *
@@ -29,18 +34,26 @@ public class SetPackage extends MenuItem
 	 */
 	private List<MenuItem> _setPackageItems;
 	
+	/**
+	 * Whether the price of this set package has been calculated from its
+	 * menu items<br>since they last changed
+	 */
+	private boolean _isPriceCached;
+	
 	
 	/**
 	 * Creates a new set package with the given information
 	 * 
+	 * @param itemID This set package's item ID
 	 * @param itemType A set package is created with the enumerated item type
 	 * 				   SetPackage
 	 * @param name This set package's name
 	 * @param desc This set package's description
 	 * @param price This set package's price
 	 */
-	public SetPackage(ItemType itemType, String name, String desc, double price) {
-		super(itemType, name, desc, price);
+	public SetPackage(int itemID, ItemType itemType, String name, String desc,
+			double price) {
+		super(itemID, itemType, name, desc, price);
 		
 		_setPackageItems = new ArrayList<MenuItem>();
 	}
@@ -50,6 +63,7 @@ public class SetPackage extends MenuItem
 	 * Used for loading an existing set package if the list of
 	 * menu items is provided
 	 * 
+	 * @param itemID This set package's item ID
 	 * @param itemType A set package is created with the enumerated item type
 	 * 				   SetPackage
 	 * @param name This set package's name
@@ -57,9 +71,9 @@ public class SetPackage extends MenuItem
 	 * @param price This set package's price
 	 * @param setPackageItems This set package's list of menu items (if any)
 	 */
-	public SetPackage(ItemType itemType, String name, String desc, double price,
-			List<MenuItem> setPackageItems) {
-		super(itemType, name, desc, price);
+	public SetPackage(int itemID, ItemType itemType, String name, String desc,
+			double price, List<MenuItem> setPackageItems) {
+		super(itemID, itemType, name, desc, price);
 		
 		if(setPackageItems != null)
 			_setPackageItems = setPackageItems;
@@ -71,7 +85,7 @@ public class SetPackage extends MenuItem
 	 * Allows adding menu item to a set package<p>
 	 * A <b>20% discount</b> is applied to all menu items that are added into
 	 * the set package<br>
-	 * The price of the set package is updated, and the menu items within
+	 * The price of the set package is invalidated, and the menu items within
 	 * the set<br> package are sorted based on their item type
 	 * 
 	 * @param newPackageItem The menu item to be added to the set package
@@ -79,7 +93,7 @@ public class SetPackage extends MenuItem
 	public void addItemToPackage(MenuItem newPackageItem)
 	{
 		_setPackageItems.add(newPackageItem);
-		setPrice(getPrice() + (newPackageItem.getPrice() * ITEM_DISCOUNT));
+		invalidatePrice();
 		
 		Collections.sort(_setPackageItems);
 	}
@@ -89,31 +103,52 @@ public class SetPackage extends MenuItem
 	 * 
 	 * Nothing to be removed if there are no menu items in the set package<p>
 	 * 
-	 * The price of the set package is updated after removing menu item
+	 * The price of the set package is invalidated after removing menu item<br>
+	 * The menu item is matched by its item ID, so a saved copy of it is
+	 * removed too
 	 * 
 	 * @param packageItem The menu item to be removed from the set package
 	 */
 	public void removeItemFromPackage(MenuItem packageItem)
 	{
-		if(getPackageSize() == 0)
+		int itemIndex = indexInPackage(packageItem);
+		
+		if(itemIndex < 0)
 			return;
 		
-		setPrice(getPrice() - (packageItem.getPrice() * ITEM_DISCOUNT));
-		_setPackageItems.remove(packageItem);
+		_setPackageItems.remove(itemIndex);
+		invalidatePrice();
 	}
 	
 	/**
-	 * Checks if this set package contains the specified menu item
+	 * Checks if this set package contains the specified menu item<br>
+	 * The menu item is matched by its item ID
 	 * 
 	 * @param menuItem The menu item to look for in this set package
 	 * @return True if this menu item can be found in the set package
 	 */
-	public boolean findInPackage(MenuItem menuItem)
+	public boolean findInPackage(MenuItem menuItem) {
+		return indexInPackage(menuItem) >= 0;
+	}
+	
+	/**
+	 * Finds the position of a menu item in this set package, by its item ID
+	 * 
+	 * @param menuItem The menu item to look for in this set package
+	 * @return The position of the menu item, -1 if it is not in the
+	 * 		   set package
+	 */
+	private int indexInPackage(MenuItem menuItem)
 	{
-		if(getPackageSize() == 0)
-			return false;
+		int packageSize = getPackageSize();
+		
+		for(int currItem = 0; currItem < packageSize; currItem++)
+		{
+			if(_setPackageItems.get(currItem).getItemID() == menuItem.getItemID())
+				return currItem;
+		}
 		
-		return _setPackageItems.contains(menuItem);
+		return -1;
 	}
 	
 	/**
@@ -144,24 +179,43 @@ public class SetPackage extends MenuItem
 	}
 	
 	/**
-	 * Recalculates the price of the set package based on each
-	 * menu item that it contains<p>
+	 * Gets the price of this set package<br>
+	 * The price is recalculated from each menu item that it contains if
+	 * it has been<br>invalidated, an empty set package keeps its last price
 	 * 
-	 * This can be used to update the set package price when
-	 * a menu item's price has been changed
+	 * @return This set package's price
 	 */
-	public void recalculatePackagePrice()
+	@Override
+	public double getPrice()
 	{
-		if(getPackageSize() == 0)
-			return;
-		
-		double newPackagePrice = 0;
-		for(MenuItem setPackageItem : _setPackageItems)
+		if(!_isPriceCached)
 		{
-			newPackagePrice += (setPackageItem.getPrice() * ITEM_DISCOUNT);
+			if(getPackageSize() != 0)
+			{
+				double newPackagePrice = 0;
+				for(MenuItem setPackageItem : _setPackageItems)
+				{
+					newPackagePrice += (setPackageItem.getPrice() * ITEM_DISCOUNT);
+				}
+				
+				setPrice(newPackagePrice);
+			}
+			
+			_isPriceCached = true;
 		}
 		
-		setPrice(newPackagePrice);
+		return super.getPrice();
+	}
+	
+	/**
+	 * Invalidates the price of the set package, so that it is recalculated
+	 * the next<br>time it is read<p>
+	 * 
+	 * This is used to update the set package price when
+	 * a menu item's price has been changed
+	 */
+	public void invalidatePrice() {
+		_isPriceCached = false;
 	}
 	
 	/**
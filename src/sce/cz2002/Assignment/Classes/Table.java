@@ -1,9 +1,17 @@
 package sce.cz2002.Assignment.Classes;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * A table within the restaurant<br>
  * Each table has a different number of seats<br>
- * A table can be either available, reserved or occupied
+ * A table can be either available, reserved or occupied<p>
+ * 
+ * The status of the table and the customer ID are kept together in a
+ * single atomic<br>value, so that the status can be changed from many
+ * threads at once. The try...<br>functions only change the status if the
+ * table is in the expected status, which<br>allows a table to be claimed
+ * by exactly one customer without any locking
  * 
  * @author Chua Yong Lun
  *
@@ -21,19 +29,31 @@ public class Table
 	private int _numOfSeats;
 	
 	/**
-	 * Indicates whether this table is reserved at the moment
+	 * The zone of the floor plan that this table is in, from 0
 	 */
-	private boolean _isReserved;
+	private final int _zone;
 	
 	/**
-	 * Indicates whether this table is occupied at the moment
+	 * Status flag of a table that is reserved at the moment
+	 */
+	private static final long RESERVED = 1L << 32;
+	
+	/**
+	 * Status flag of a table that is occupied at the moment
+	 */
+	private static final long OCCUPIED = 1L << 33;
+	
+	/**
+	 * Status of an available table, with no customer
 	 */
-	private boolean _isOccupied;
+	private static final long AVAILABLE = 0;
 	
 	/**
-	 * Customer ID of the customer who reserved/occupied the table (if any)
+	 * The status flags of this table in the upper bits, and the customer ID
+	 * <br>of the customer who reserved/occupied the table (if any) in the
+	 * lower 32 bits
 	 */
-	private int _customerID;
+	private final AtomicLong _status;
 	
 	/**
 	 * Creates a new Table object using the given information
@@ -46,14 +66,44 @@ public class Table
 	 */
 	public Table(int tableNumber, int numOfSeats, boolean isReserved,
 			boolean isOccupied, int customerID) {
+		this(tableNumber, numOfSeats, isReserved, isOccupied, customerID, 0);
+	}
+	
+	/**
+	 * Creates a new Table object in a zone of the floor plan, using the
+	 * given information
+	 * 
+	 * @param tableNumber The table number associated with this table
+	 * @param numOfSeats The number of seats that this table has
+	 * @param isReserved Indictates whether this table is reserved
+	 * @param isOccupied Indicates whether this table is currently occupied
+	 * @param customerID Indicates the customer ID of the customer at this table
+	 * @param zone The zone of the floor plan that this table is in, from 0
+	 */
+	public Table(int tableNumber, int numOfSeats, boolean isReserved,
+			boolean isOccupied, int customerID, int zone) {
 		
 		_tableNumber = tableNumber;
 		_numOfSeats = numOfSeats;
+		_zone = zone;
 		
-		_isReserved = isReserved;
-		
-		_isOccupied = isOccupied;
-		_customerID = customerID;
+		_status = new AtomicLong(toStatus(isReserved, isOccupied, customerID));
+	}
+	
+	/**
+	 * Combines the status flags and the customer ID into a single value
+	 * 
+	 * @param isReserved Whether the table is reserved
+	 * @param isOccupied Whether the table is occupied
+	 * @param customerID The customer ID of the customer at the table
+	 * 
+	 * @return The combined status
+	 */
+	private static long toStatus(boolean isReserved, boolean isOccupied,
+			int customerID)
+	{
+		return (isReserved ? RESERVED : 0) | (isOccupied ? OCCUPIED : 0)
+				| (customerID & 0xFFFFFFFFL);
 	}
 	
 	/**
@@ -92,13 +142,22 @@ public class Table
 		_numOfSeats = newNumOfSeats;
 	}
 	
+	/**
+	 * Gets the zone of the floor plan that this table is in
+	 * 
+	 * @return This table's zone, from 0
+	 */
+	public int getZone() {
+		return _zone;
+	}
+	
 	/**
 	 * Indicates whether this table is reserved at the moment
 	 * 
 	 * @return True if this table is reserved at the moment
 	 */
 	public boolean isReserved() {
-		return _isReserved;
+		return (_status.get() & RESERVED) != 0;
 	}
 	
 	/**
@@ -107,7 +166,16 @@ public class Table
 	 * @return True if this table is occupied at the moment
 	 */
 	public boolean isOccupied() {
-		return _isOccupied;
+		return (_status.get() & OCCUPIED) != 0;
+	}
+	
+	/**
+	 * Indicates whether this table is neither reserved nor occupied
+	 * 
+	 * @return True if this table is available at the moment
+	 */
+	public boolean isAvailable() {
+		return _status.get() == AVAILABLE;
 	}
 	
 	/**
@@ -116,7 +184,7 @@ public class Table
 	 * @return The customer ID of the customer at this table
 	 */
 	public int getCustomerID() {
-		return _customerID;
+		return (int) _status.get();
 	}
 	
 	/**
@@ -127,8 +195,14 @@ public class Table
 	 */
 	public void reserveTable(int customerID)
 	{
-		_isReserved = true;
-		_customerID = customerID;
+		long status;
+		
+		do
+		{
+			status = _status.get();
+		}
+		while(!_status.compareAndSet(status,
+				toStatus(true, (status & OCCUPIED) != 0, customerID)));
 	}
 	
 	/**
@@ -136,8 +210,14 @@ public class Table
 	 */
 	public void releaseTable()
 	{
-		_isReserved = false;
-		_customerID = 0;
+		long status;
+		
+		do
+		{
+			status = _status.get();
+		}
+		while(!_status.compareAndSet(status,
+				toStatus(false, (status & OCCUPIED) != 0, 0)));
 	}
 	
 	/**
@@ -146,21 +226,72 @@ public class Table
 	 * @param customerID The customer ID of the customer
 	 *                   that is at this table
 	 */
-	public void assignTable(int customerID)
-	{
-		_isReserved = false;
-		_isOccupied = true;
-		_customerID = customerID;
+	public void assignTable(int customerID) {
+		_status.set(toStatus(false, true, customerID));
 	}
 	
 	/**
 	 * Frees the table that was previously occupied by some customer
 	 */
-	public void freeTable()
-	{
-		_isReserved = false;
-		_isOccupied = false;
-		_customerID = 0;
+	public void freeTable() {
+		_status.set(AVAILABLE);
+	}
+	
+	/**
+	 * Marks an available table as being reserved
+	 * 
+	 * @param customerID The customer ID of the customer that
+	 *                   reserved this table
+	 * 
+	 * @return True if the table was available and is now reserved,
+	 * 		   false if it is<br>already reserved or occupied
+	 */
+	public boolean tryReserveTable(int customerID) {
+		return _status.compareAndSet(AVAILABLE,
+				toStatus(true, false, customerID));
+	}
+	
+	/**
+	 * Releases a table that is reserved for a customer, and not
+	 * occupied yet
+	 * 
+	 * @param customerID The customer ID of the customer that
+	 *                   reserved this table
+	 * 
+	 * @return True if the table was reserved for the customer and is
+	 * 		   now available
+	 */
+	public boolean tryReleaseTable(int customerID) {
+		return _status.compareAndSet(toStatus(true, false, customerID),
+				AVAILABLE);
+	}
+	
+	/**
+	 * Assigns an available table to a walk-in customer
+	 * 
+	 * @param customerID The customer ID of the customer
+	 *                   that is at this table
+	 * 
+	 * @return True if the table was available and is now occupied by the
+	 * 		   customer,<br>false if another customer got to it first
+	 */
+	public boolean tryAssignTable(int customerID) {
+		return _status.compareAndSet(AVAILABLE,
+				toStatus(false, true, customerID));
+	}
+	
+	/**
+	 * Assigns a table to the customer that reserved it
+	 * 
+	 * @param customerID The customer ID of the customer that
+	 *                   reserved this table
+	 * 
+	 * @return True if the table was reserved for the customer and is
+	 * 		   now occupied<br>by the customer
+	 */
+	public boolean tryClaimTable(int customerID) {
+		return _status.compareAndSet(toStatus(true, false, customerID),
+				toStatus(false, true, customerID));
 	}
 	
 	/**
@@ -171,14 +302,18 @@ public class Table
 	 */
 	public void displayStatus()
 	{
+		// Read the status once, so that it is displayed consistently
+		long status = _status.get();
+		int customerID = (int) status;
+		
 		System.out.printf("%-20s", getTableNumber());
 		System.out.printf("%-20s", getNumOfSeats());
 		
 		System.out.printf("%-20s",
-				isOccupied() ? "Occupied" :
-				(isReserved() ? "Reserved" : "Available"));
+				((status & OCCUPIED) != 0) ? "Occupied" :
+				(((status & RESERVED) != 0) ? "Reserved" : "Available"));
 		
-		System.out.printf("%-20s%n", (getCustomerID() != 0)
-				? getCustomerID() : "N/A");	
+		System.out.printf("%-20s%n", (customerID != 0)
+				? customerID : "N/A");	
 	}
 }
\ No newline at end of file
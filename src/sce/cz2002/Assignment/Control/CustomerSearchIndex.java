@@ -0,0 +1,207 @@
+package sce.cz2002.Assignment.Control;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import sce.cz2002.Assignment.Classes.Customer;
+
+/**
+ * An index of the customers by the beginning of their name or contact
+ * number<p>
+ * 
+ * Each customer is filed under search keys in a sorted map: the whole
+ * name, every word<br>of the name after the first, and the contact number.
+ * Names are filed in lower case,<br>so searching is not case sensitive.
+ * All keys that start with a search text are next<br>to each other in the
+ * map, so the first matches are found in logarithmic time,<br>however many
+ * customers there are<p>
+ * 
+ * The index is not thread-safe, it is guarded by the human resource
+ * manager
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class CustomerSearchIndex
+{
+	/**
+	 * The customers filed under each search key, keyed by customer ID
+	 */
+	private final TreeMap<String, TreeMap<Integer, Customer>> _customersByKey;
+	
+	/**
+	 * The search keys that each customer is filed under, keyed by customer ID
+	 */
+	private final IntHashMap<List<String>> _keysByCustomer;
+	
+	/**
+	 * Creates a new, empty customer search index
+	 */
+	public CustomerSearchIndex()
+	{
+		_customersByKey = new TreeMap<String, TreeMap<Integer, Customer>>();
+		_keysByCustomer = new IntHashMap<List<String>>();
+	}
+	
+	/**
+	 * Files a customer under its current name and contact number<br>
+	 * A customer that is already in the index is filed again, so that a
+	 * changed<br>name or contact number is picked up
+	 * 
+	 * @param customer The customer to be indexed
+	 */
+	public void add(Customer customer)
+	{
+		remove(customer.getCustomerID());
+		
+		List<String> keys = getSearchKeys(customer);
+		for(String key : keys)
+		{
+			TreeMap<Integer, Customer> customers = _customersByKey.get(key);
+			if(customers == null)
+			{
+				customers = new TreeMap<Integer, Customer>();
+				_customersByKey.put(key, customers);
+			}
+			
+			customers.put(customer.getCustomerID(), customer);
+		}
+		
+		_keysByCustomer.put(customer.getCustomerID(), keys);
+	}
+	
+	/**
+	 * Removes a customer from the index
+	 * 
+	 * @param customerID The customer ID of the customer to be removed
+	 */
+	public void remove(int customerID)
+	{
+		List<String> keys = _keysByCustomer.remove(customerID);
+		
+		if(keys == null)
+			return;
+		
+		for(String key : keys)
+		{
+			TreeMap<Integer, Customer> customers = _customersByKey.get(key);
+			customers.remove(customerID);
+			
+			if(customers.isEmpty())
+				_customersByKey.remove(key);
+		}
+	}
+	
+	/**
+	 * Removes all customers from the index
+	 */
+	public void clear()
+	{
+		_customersByKey.clear();
+		_keysByCustomer.clear();
+	}
+	
+	/**
+	 * Finds the customers whose name, a word of whose name, or whose
+	 * contact number<br>starts with a search text<p>
+	 * 
+	 * Matches are in the order of the matching key, then of customer ID.
+	 * A customer<br>matching under several keys is only returned once
+	 * 
+	 * @param text The beginning of the name or contact number, in any case
+	 * @param maxResults The largest number of customers to be returned
+	 * 
+	 * @return The first matching customers, none if the search text is
+	 * 		   blank
+	 */
+	public List<Customer> search(String text, int maxResults)
+	{
+		List<Customer> matches = new ArrayList<Customer>();
+		String prefix = toSearchKey(text);
+		
+		if(prefix.isEmpty())
+			return matches;
+		
+		IntHashMap<Customer> matchesByID = new IntHashMap<Customer>();
+		
+		for(Map.Entry<String, TreeMap<Integer, Customer>> entry :
+			_customersByKey.tailMap(prefix, true).entrySet())
+		{
+			if(!entry.getKey().startsWith(prefix))
+				break;
+			
+			for(Customer customer : entry.getValue().values())
+			{
+				if(matchesByID.put(customer.getCustomerID(), customer) != null)
+					continue;
+				
+				matches.add(customer);
+				if(matches.size() >= maxResults)
+					return matches;
+			}
+		}
+		
+		return matches;
+	}
+	
+	/**
+	 * Gets the number of customers in the index
+	 * 
+	 * @return The number of customers
+	 */
+	public int size() {
+		return _keysByCustomer.size();
+	}
+	
+	/**
+	 * Gets the search keys that a customer is filed under
+	 * 
+	 * @param customer The customer
+	 * 
+	 * @return The whole name, every later word of the name and the contact
+	 * 		   number
+	 */
+	private static List<String> getSearchKeys(Customer customer)
+	{
+		List<String> keys = new ArrayList<String>();
+		String name = toSearchKey(customer.getName());
+		
+		if(!name.isEmpty())
+		{
+			keys.add(name);
+			
+			for(int index = name.indexOf(' '); index >= 0;
+					index = name.indexOf(' ', index + 1))
+			{
+				String word = name.substring(index + 1).trim();
+				
+				if(!word.isEmpty() && !keys.contains(word))
+					keys.add(word);
+			}
+		}
+		
+		String contactNumber = Integer.toString(customer.getContactNumber());
+		if(!keys.contains(contactNumber))
+			keys.add(contactNumber);
+		
+		return keys;
+	}
+	
+	/**
+	 * Converts a name or search text into the form it is filed under
+	 * 
+	 * @param text The name or search text
+	 * 
+	 * @return The text in lower case, without leading or trailing spaces
+	 */
+	private static String toSearchKey(String text)
+	{
+		if(text == null)
+			return "";
+		
+		return text.trim().toLowerCase(Locale.ENGLISH);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,224 @@
+package sce.cz2002.Assignment.Control;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import sce.cz2002.Assignment.Classes.Reservation;
+
+/**
+ * The occupancy of the tables of the restaurant over the opening hours of
+ * a day<p>
+ * 
+ * The opening hours are split into slots of {@link #SLOT_MINUTES} minutes,
+ * and each table<br>keeps a bitmap with a bit set for every slot that one
+ * of its reservations overlaps.<br>A reservation that does not start or
+ * end on a slot boundary takes up the whole<br>slots that it overlaps, so
+ * the free slots of a table are always really free<p>
+ * 
+ * The bitmaps are swept once, when the occupancy is created, into the
+ * start slots<br>at which a reservation fits on at least one table of each
+ * size. Finding the start<br>slots for a number of people is then a single
+ * look-up
+ * 
+ * @author Jin Yao
+ * 
+ */
+class DayOccupancy
+{
+	/**
+	 * Length of a slot, in minutes
+	 */
+	public static final int SLOT_MINUTES = 15;
+	
+	/**
+	 * Length of a slot, in milliseconds
+	 */
+	public static final long SLOT_MILLIS = SLOT_MINUTES * 60 * 1000L;
+	
+	/**
+	 * The largest number of slots in a day, one bit of a bitmap each
+	 */
+	public static final int MAX_NUM_OF_SLOTS = 64;
+	
+	/**
+	 * The start of the first slot, in epoch milliseconds
+	 */
+	private final long _openingMillis;
+	
+	/**
+	 * The number of slots from opening to closing
+	 */
+	private final int _numOfSlots;
+	
+	/**
+	 * The number of slots that a reservation takes up
+	 */
+	private final int _slotsPerReservation;
+	
+	/**
+	 * The start slots at which a reservation fits on at least one table,
+	 * by<br>number of seats<br>
+	 * The start slots of each number of seats include those of the larger
+	 * tables
+	 */
+	private final TreeMap<Integer, Long> _freeStartsBySeats;
+	
+	/**
+	 * Creates the occupancy of a day, from the reservations of each table
+	 * 
+	 * @param openingMillis The start of the first slot, in epoch milliseconds
+	 * @param numOfSlots The number of slots from opening to closing, at most
+	 * 		  {@link #MAX_NUM_OF_SLOTS}
+	 * @param slotsPerReservation The number of slots that a reservation
+	 * 		  takes up
+	 * @param tableIndex The reservations of each table, keyed by start time
+	 * @param tablesBySeats The table numbers, grouped by number of seats
+	 * 
+	 * @throws IllegalArgumentException If the number of slots is not from 1
+	 * 		   to {@link #MAX_NUM_OF_SLOTS}
+	 */
+	public DayOccupancy(long openingMillis, int numOfSlots,
+			int slotsPerReservation,
+			Map<Integer, TreeMap<Long, Reservation>> tableIndex,
+			TreeMap<Integer, TreeSet<Integer>> tablesBySeats)
+	{
+		if(numOfSlots < 1 || numOfSlots > MAX_NUM_OF_SLOTS)
+			throw new IllegalArgumentException("Invalid number of slots: "
+					+ numOfSlots);
+		
+		_openingMillis = openingMillis;
+		_numOfSlots = numOfSlots;
+		_slotsPerReservation = slotsPerReservation;
+		_freeStartsBySeats = new TreeMap<Integer, Long>();
+		
+		// From the largest tables down, so each size includes the larger ones
+		long freeStarts = 0;
+		for(Map.Entry<Integer, TreeSet<Integer>> tables :
+			tablesBySeats.descendingMap().entrySet())
+		{
+			for(int tableNumber : tables.getValue())
+			{
+				freeStarts |= getTableFreeStarts(getOccupiedSlots(
+						tableIndex.get(tableNumber)));
+			}
+			
+			_freeStartsBySeats.put(tables.getKey(), freeStarts);
+		}
+	}
+	
+	/**
+	 * Checks whether the occupancy was created for the given day and
+	 * reservation<br>duration
+	 * 
+	 * @param openingMillis The start of the first slot, in epoch milliseconds
+	 * @param numOfSlots The number of slots from opening to closing
+	 * @param slotsPerReservation The number of slots that a reservation
+	 * 		  takes up
+	 * 
+	 * @return True if the occupancy can be used as it is
+	 */
+	public boolean isFor(long openingMillis, int numOfSlots,
+			int slotsPerReservation)
+	{
+		return _openingMillis == openingMillis && _numOfSlots == numOfSlots &&
+				_slotsPerReservation == slotsPerReservation;
+	}
+	
+	/**
+	 * Gets the start slots at which a reservation for a number of people
+	 * fits on<br>at least one table
+	 * 
+	 * @param numOfPeople The number of people that the table has to
+	 * 		  accommodate
+	 * 
+	 * @return A bitmap with a bit set for every free start slot, the first
+	 * 		   slot being<br>the lowest bit
+	 */
+	public long getFreeStarts(int numOfPeople)
+	{
+		Map.Entry<Integer, Long> freeStarts =
+				_freeStartsBySeats.ceilingEntry(numOfPeople);
+		
+		if(freeStarts == null)
+			return 0;
+		
+		return freeStarts.getValue();
+	}
+	
+	/**
+	 * Gets the slots of the day that the reservations of a table overlap
+	 * 
+	 * @param tableReservations The reservations of the table, keyed by start
+	 * 		  time
+	 * 
+	 * @return A bitmap with a bit set for every occupied slot
+	 */
+	private long getOccupiedSlots(TreeMap<Long, Reservation> tableReservations)
+	{
+		long closingMillis = _openingMillis + _numOfSlots * SLOT_MILLIS;
+		long occupiedSlots = 0;
+		
+		// The reservation starting last before opening may still be ongoing
+		Long firstStart = tableReservations.lowerKey(_openingMillis);
+		if(firstStart == null)
+			firstStart = _openingMillis;
+		
+		for(Reservation reservation : tableReservations.subMap(firstStart,
+				true, closingMillis, false).values())
+		{
+			long startOffset = reservation.getStartTimeInMillis()
+					- _openingMillis;
+			long endOffset = reservation.getEndTimeInMillis() - _openingMillis;
+			
+			if(endOffset <= 0)
+				continue;
+			
+			int firstSlot = (int) Math.max(startOffset / SLOT_MILLIS, 0);
+			int endSlot = (int) Math.min(
+					(endOffset + SLOT_MILLIS - 1) / SLOT_MILLIS, _numOfSlots);
+			
+			occupiedSlots |= lowBits(endSlot) & ~lowBits(firstSlot);
+		}
+		
+		return occupiedSlots;
+	}
+	
+	/**
+	 * Gets the start slots of a table at which a whole reservation fits
+	 * before closing
+	 * 
+	 * @param occupiedSlots The occupied slots of the table
+	 * 
+	 * @return A bitmap with a bit set for every free start slot
+	 */
+	private long getTableFreeStarts(long occupiedSlots)
+	{
+		if(_slotsPerReservation > _numOfSlots)
+			return 0;
+		
+		long freeSlots = ~occupiedSlots & lowBits(_numOfSlots);
+		
+		// A start slot is free if it and the slots after it are all free
+		long freeStarts = freeSlots;
+		for(int slot = 1; slot < _slotsPerReservation; slot++)
+			freeStarts &= freeSlots >>> slot;
+		
+		return freeStarts & lowBits(_numOfSlots - _slotsPerReservation + 1);
+	}
+	
+	/**
+	 * Gets a bitmap of the first slots of the day
+	 * 
+	 * @param numOfSlots The number of slots, from 0 to 64
+	 * 
+	 * @return A bitmap with the lowest bits set
+	 */
+	private static long lowBits(int numOfSlots)
+	{
+		if(numOfSlots >= 64)
+			return -1L;
+		
+		return (1L << numOfSlots) - 1;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,208 @@
+package sce.cz2002.Assignment.Control;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import sce.cz2002.Assignment.Classes.DateTimes;
+import sce.cz2002.Assignment.Classes.Reservation;
+
+/**
+ * The tables that are free in each slot of a day<p>
+ * 
+ * The day is split into slots of {@link DayOccupancy#SLOT_MINUTES} minutes
+ * from midnight,<br>and each slot keeps a bitmap of the tables that no
+ * reservation overlaps during<br>the whole slot. Tables are numbered by
+ * rank, from the fewest seats to the most,<br>so the first free table with
+ * enough seats is the lowest bit set from the rank<br>of the smallest
+ * fitting table<p>
+ * 
+ * Finding a free table ANDs together the bitmaps of the slots that a
+ * time slot<br>overlaps, 64 tables at a time. A reservation that does not
+ * start or end on a slot<br>boundary takes up the whole slots that it
+ * overlaps, so this is exact for time<br>slots that start and end on slot
+ * boundaries. Any other time slot only takes<br>the slots that it fully
+ * covers to find the candidate tables, and checks the<br>reservations of
+ * a candidate only if one of its partly covered slots is taken
+ * 
+ * @author Jin Yao
+ * 
+ */
+class DaySlotTables
+{
+	/**
+	 * Number of tables in each word of a bitmap
+	 */
+	private static final int TABLES_PER_WORD = 64;
+	
+	/**
+	 * The start of the day, in epoch milliseconds
+	 */
+	private final long _dayStartMillis;
+	
+	/**
+	 * The end of the day, in epoch milliseconds
+	 */
+	private final long _dayEndMillis;
+	
+	/**
+	 * The number of slots in the day
+	 */
+	private final int _numOfSlots;
+	
+	/**
+	 * The number of words in the bitmap of each slot
+	 */
+	private final int _numOfWords;
+	
+	/**
+	 * The bitmaps of free tables, slot after slot, with a bit set for
+	 * every table<br>that is free for the whole slot
+	 */
+	private final long[] _freeTables;
+	
+	/**
+	 * Creates the free tables of a day, from the reservations of each table
+	 * 
+	 * @param epochDay The day
+	 * @param tableReservations The reservations of each table, keyed by
+	 * 		  start time,<br>in order of rank
+	 */
+	public DaySlotTables(int epochDay,
+			List<TreeMap<Long, Reservation>> tableReservations)
+	{
+		_dayStartMillis = DateTimes.toStartMillis(epochDay);
+		_dayEndMillis = DateTimes.toStartMillis(epochDay + 1);
+		
+		// Days that the clocks change on are not 24 hours long
+		_numOfSlots = (int) ((_dayEndMillis - _dayStartMillis
+				+ DayOccupancy.SLOT_MILLIS - 1) / DayOccupancy.SLOT_MILLIS);
+		_numOfWords = (tableReservations.size() + TABLES_PER_WORD - 1)
+				/ TABLES_PER_WORD;
+		_freeTables = new long[_numOfSlots * _numOfWords];
+		
+		for(int rank = 0; rank < tableReservations.size(); rank++)
+			update(rank, tableReservations.get(rank));
+	}
+	
+	/**
+	 * Gets the size of the bitmaps of the day
+	 * 
+	 * @return The number of words in the bitmaps of all the slots
+	 */
+	public int getNumOfWords() {
+		return _freeTables.length;
+	}
+	
+	/**
+	 * Marks the slots of a table again, after one of its reservations was
+	 * added<br>or removed
+	 * 
+	 * @param rank The rank of the table
+	 * @param tableReservations The reservations of the table, keyed by
+	 * 		  start time
+	 */
+	public void update(int rank, TreeMap<Long, Reservation> tableReservations)
+	{
+		int word = rank / TABLES_PER_WORD;
+		long bit = 1L << (rank % TABLES_PER_WORD);
+		
+		for(int slot = 0; slot < _numOfSlots; slot++)
+			_freeTables[slot * _numOfWords + word] |= bit;
+		
+		// The reservation starting last before the day may still be ongoing
+		Long firstStart = tableReservations.lowerKey(_dayStartMillis);
+		if(firstStart == null)
+			firstStart = _dayStartMillis;
+		
+		for(Map.Entry<Long, Reservation> entry : tableReservations.subMap(
+				firstStart, true, _dayEndMillis, false).entrySet())
+		{
+			long startOffset = entry.getKey() - _dayStartMillis;
+			long endOffset = entry.getValue().getEndTimeInMillis()
+					- _dayStartMillis;
+			
+			if(endOffset <= 0)
+				continue;
+			
+			int firstSlot = (int) Math.max(startOffset
+					/ DayOccupancy.SLOT_MILLIS, 0);
+			int endSlot = (int) Math.min((endOffset + DayOccupancy.SLOT_MILLIS
+					- 1) / DayOccupancy.SLOT_MILLIS, _numOfSlots);
+			
+			for(int slot = firstSlot; slot < endSlot; slot++)
+				_freeTables[slot * _numOfWords + word] &= ~bit;
+		}
+	}
+	
+	/**
+	 * Finds the first table from a rank that is free during a time slot
+	 * <br>The time slot has to start on this day, and may end on a later day
+	 * 
+	 * @param firstRank The rank of the first table that may be picked
+	 * @param startMillis The start of the time slot, in epoch milliseconds
+	 * @param endMillis The end of the time slot, in epoch milliseconds
+	 * @param tableReservations The reservations of each table, keyed by
+	 * 		  start time,<br>in order of rank
+	 * 
+	 * @return The rank of the free table, -1 if there isn't one
+	 */
+	public int findFreeTable(int firstRank, long startMillis, long endMillis,
+			List<TreeMap<Long, Reservation>> tableReservations)
+	{
+		long startOffset = startMillis - _dayStartMillis;
+		long endOffset = Math.min(endMillis, _dayEndMillis) - _dayStartMillis;
+		
+		// Slots that the time slot overlaps, and the ones it fully covers
+		int firstSlot = (int) (startOffset / DayOccupancy.SLOT_MILLIS);
+		int endSlot = (int) ((endOffset + DayOccupancy.SLOT_MILLIS - 1)
+				/ DayOccupancy.SLOT_MILLIS);
+		int firstCoveredSlot = (int) ((startOffset + DayOccupancy.SLOT_MILLIS
+				- 1) / DayOccupancy.SLOT_MILLIS);
+		int endCoveredSlot = (int) (endOffset / DayOccupancy.SLOT_MILLIS);
+		
+		// Past the end of the day, every table has to be checked in full
+		boolean withinDay = endMillis <= _dayEndMillis
+				&& startMillis < endMillis;
+		
+		for(int word = firstRank / TABLES_PER_WORD; word < _numOfWords; word++)
+		{
+			long candidates = -1L;
+			if(word == firstRank / TABLES_PER_WORD)
+				candidates <<= firstRank % TABLES_PER_WORD;
+			
+			// A table that is free for the time slot is free in every slot
+			// that the time slot fully covers
+			for(int slot = firstCoveredSlot;
+					slot < endCoveredSlot && candidates != 0; slot++)
+				candidates &= _freeTables[slot * _numOfWords + word];
+			
+			// A table that is free in every slot that the time slot overlaps
+			// is free for the time slot
+			long freeTables = withinDay ? candidates : 0;
+			for(int slot = firstSlot; slot < firstCoveredSlot; slot++)
+				freeTables &= _freeTables[slot * _numOfWords + word];
+			for(int slot = Math.max(endCoveredSlot, firstCoveredSlot);
+					slot < endSlot; slot++)
+				freeTables &= _freeTables[slot * _numOfWords + word];
+			
+			while(candidates != 0)
+			{
+				long bit = Long.lowestOneBit(candidates);
+				int rank = word * TABLES_PER_WORD
+						+ Long.numberOfTrailingZeros(bit);
+				
+				if(rank >= tableReservations.size())
+					break;
+				
+				if((freeTables & bit) != 0 || ReservationIndex.isFree(
+						tableReservations.get(rank), startMillis, endMillis))
+					return rank;
+				
+				candidates &= ~bit;
+			}
+		}
+		
+		return -1;
+	}
+}
@@ -2,26 +2,43 @@ package sce.cz2002.Assignment.Control;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import sce.cz2002.Assignment.Classes.Person;
 import sce.cz2002.Assignment.Classes.Staff;
 import sce.cz2002.Assignment.Classes.Customer;
+import sce.cz2002.Assignment.Persistence.DataFile;
+import sce.cz2002.Assignment.Persistence.PeopleCodec;
+import sce.cz2002.Assignment.Persistence.RecordInput;
+import sce.cz2002.Assignment.Persistence.RecordOutput;
 
 /**
  * A singleton class that takes care of all staff and customer related functionality<p>
  * 
  * Functionalities include saving/loading staff and customer information, viewing all staff,
  * <br> adding/updating/removing staff members, viewing all customers and adding/updating/removing
- * <br> customers
+ * <br> customers<p>
+ * 
+ * The human resource manager is the console client of the {@link PeopleService},
+ * which makes<br>the actual changes to the staff and customers<p>
+ * 
+ * Staff and customers are looked up by every terminal taking orders, but
+ * rarely change.<br>The lists are copied on write, and the ID indexes are
+ * guarded by a read/write lock<p>
+ * 
+ * Once there are more customers than fit on one screen, a customer is
+ * selected by<br>searching for the beginning of their name or contact
+ * number instead of from<br>the list of all customers
  * 
  * @author Jin Yao
  *
@@ -47,12 +64,29 @@ public class HumanResourceMgr
 		RemoveCustomer
 	}
 	
+	/**
+	 * The largest number of customers listed for the user to select from
+	 */
+	private static final int MAX_CUSTOMER_CHOICES = 10;
+	
 	/**
 	 * The file path indicating where the file used to store staff
 	 * and customer information is saved
 	 */
 	private static final String HR_FILE_PATH = "humanResource.dat";
 	
+	/**
+	 * Times loading the staff and customers
+	 */
+	private static final MetricsRegistry.Timer LOAD_TIMER =
+			MetricsRegistry.getMetricsRegistry().getTimer("people_load");
+	
+	/**
+	 * Times saving the staff and customers
+	 */
+	private static final MetricsRegistry.Timer SAVE_TIMER =
+			MetricsRegistry.getMetricsRegistry().getTimer("people_save");
+	
 	/**
 	 * A static instance of this Human Resource manager
 	 */
@@ -61,12 +95,40 @@ public class HumanResourceMgr
 	/**
 	 * A static list of the staff in this restaurant
 	 */
-	private static List<Staff> _staff;
+	private static CopyOnWriteArrayList<Staff> _staff;
 	
 	/**
 	 * A static list of the customers registered in the system
 	 */
-	private static List<Customer> _customer;
+	private static CopyOnWriteArrayList<Customer> _customer;
+	
+	/**
+	 * Staff in this restaurant, keyed by staff ID
+	 */
+	private static IntHashMap<Staff> _staffByID;
+	
+	/**
+	 * Customers registered in the system, keyed by customer ID
+	 */
+	private static IntHashMap<Customer> _customerByID;
+	
+	/**
+	 * Customer IDs of the customers that are members<br>
+	 * Allows membership to be checked without looking up the customer
+	 */
+	private static BitSet _memberIDs;
+	
+	/**
+	 * Customers registered in the system, by the beginning of their name
+	 * or<br>contact number
+	 */
+	private static CustomerSearchIndex _customerSearchIndex;
+	
+	/**
+	 * Guards the staff/customer ID indexes, the membership bitset and the
+	 * <br>customer search index
+	 */
+	private static ReadWriteLock _indexLock;
 	
 	/**
 	 * Standard Java Scanner used for processing user inputs
@@ -89,15 +151,21 @@ public class HumanResourceMgr
 	 * Private constructor used to support the Singleton design pattern
 	 * <p>
 	 * Creates a new Java Scanner object, and creates a new
-	 * arraylist of staff members<br>as well as a new arraylist
-	 * of customers
+	 * list of staff members<br>as well as a new list
+	 * of customers, together with their ID indexes
 	 */
 	private HumanResourceMgr()
 	{
 		sc = new Scanner(System.in);
 		
-		_staff = new ArrayList<Staff>();
-		_customer = new ArrayList<Customer>();
+		_staff = new CopyOnWriteArrayList<Staff>();
+		_customer = new CopyOnWriteArrayList<Customer>();
+		
+		_staffByID = new IntHashMap<Staff>();
+		_customerByID = new IntHashMap<Customer>();
+		_memberIDs = new BitSet();
+		_customerSearchIndex = new CustomerSearchIndex();
+		_indexLock = new ReentrantReadWriteLock();
 	}
 	
 	/**
@@ -119,8 +187,75 @@ public class HumanResourceMgr
 	 * Loads the staff and customer related information from the human<br>
 	 * resource file, if it exists
 	 * <br>Should be called at the start of the application
+	 * <p>
+	 * A human resource file saved in the old Java serialization format is
+	 * <br>migrated to the record format once it has been loaded
 	 */
 	public void loadPeople()
+	{
+		long startNanos = LOAD_TIMER.start();
+		try
+		{
+			loadPeopleFile();
+		}
+		finally
+		{
+			LOAD_TIMER.stop(startNanos);
+		}
+	}
+	
+	/**
+	 * Loads the staff and customers from the human resource file, in either
+	 * format
+	 */
+	private void loadPeopleFile()
+	{
+		if(DataFile.isLegacyFormat(HR_FILE_PATH))
+		{
+			loadLegacyPeople();
+			return;
+		}
+		
+		RecordInput in = null;
+		try
+		{
+			in = DataFile.open(HR_FILE_PATH, DataFile.PEOPLE);
+			
+			PeopleCodec peopleCodec = PeopleCodec.readDictionaries(in);
+			
+			_staff.addAll(peopleCodec.readStaff(in));
+			_customer.addAll(peopleCodec.readCustomers(in));
+			
+			// Read the current staff ID & current customer ID
+			// Used to increment the IDs correctly
+			currStaffID = in.readInt();
+			currCustomerID = in.readInt();
+			
+			in.close();
+			
+			rebuildIndexes();
+			
+			if(!_staff.isEmpty())
+				System.out.println("'Staff' data loaded successfully!");
+			
+			if(!_customer.isEmpty())
+				System.out.println("'Customer' data loaded successfully!");
+			
+		} catch (FileNotFoundException ex) {
+			System.out.println("Unable to load 'Staff/Customer' data!");
+		} catch (IOException ex) {
+			System.out.println("Unable to load 'Staff/Customer' data!");
+		} catch (Exception ex) {
+			System.out.println("Unable to load 'Staff/Customer' data!");
+		}
+	}
+	
+	/**
+	 * Loads the staff and customer related information from a human resource
+	 * <br>file saved using Java serialization, and rewrites the human resource
+	 * <br>file in the record format
+	 */
+	private void loadLegacyPeople()
 	{
 		FileInputStream fis = null;
 		ObjectInputStream in = null;
@@ -168,12 +303,18 @@ public class HumanResourceMgr
 
 			in.close();
 			
+			rebuildIndexes();
+			
 			if(!_staff.isEmpty())
 				System.out.println("'Staff' data loaded successfully!");
 			
 			if(!_customer.isEmpty())
 				System.out.println("'Customer' data loaded successfully!");
 			
+			writePeopleFile();
+			System.out.println("'Staff/Customer' data migrated to the"
+					+ " new format!");
+			
 		} catch (FileNotFoundException ex) {
 			System.out.println("Unable to load 'Staff/Customer' data!");
 		} catch (IOException ex) {
@@ -185,37 +326,223 @@ public class HumanResourceMgr
 		}
 	}
 	
+	/**
+	 * Rebuilds the staff/customer ID indexes, the membership bitset and
+	 * the<br>customer search index from the lists of staff and customers
+	 */
+	private void rebuildIndexes()
+	{
+		_indexLock.writeLock().lock();
+		try
+		{
+			_staffByID.clear();
+			_customerByID.clear();
+			_memberIDs.clear();
+			_customerSearchIndex.clear();
+			
+			for(Staff staff : _staff)
+			{
+				indexStaff(staff);
+			}
+			
+			for(Customer customer : _customer)
+			{
+				indexCustomer(customer);
+			}
+		}
+		finally
+		{
+			_indexLock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Gets the list of staff, for the {@link PeopleService}
+	 * 
+	 * @return The list of the staff in this restaurant
+	 */
+	List<Staff> getStaffList() {
+		return _staff;
+	}
+	
+	/**
+	 * Gets the list of customers, for the {@link PeopleService}
+	 * 
+	 * @return The list of the customers registered in the system
+	 */
+	List<Customer> getCustomerList() {
+		return _customer;
+	}
+	
+	/**
+	 * Gets the staff ID for a new staff
+	 * 
+	 * @return The next unused staff ID
+	 */
+	synchronized int nextStaffID() {
+		return ++currStaffID;
+	}
+	
+	/**
+	 * Gets the customer ID for a new customer
+	 * 
+	 * @return The next unused customer ID
+	 */
+	synchronized int nextCustomerID() {
+		return ++currCustomerID;
+	}
+	
+	/**
+	 * Adds a staff to the staff ID index
+	 * 
+	 * @param staff The staff to be indexed
+	 */
+	void indexStaff(Staff staff)
+	{
+		_indexLock.writeLock().lock();
+		try
+		{
+			_staffByID.put(staff.getStaffID(), staff);
+		}
+		finally
+		{
+			_indexLock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Removes a staff from the staff ID index
+	 * 
+	 * @param staff The staff to be removed
+	 */
+	void unindexStaff(Staff staff)
+	{
+		_indexLock.writeLock().lock();
+		try
+		{
+			_staffByID.remove(staff.getStaffID());
+		}
+		finally
+		{
+			_indexLock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Adds a customer to the customer ID index and the customer search
+	 * index,<br>and records whether the customer is a member<br>
+	 * Called again whenever the customer's details change
+	 * 
+	 * @param customer The customer to be indexed
+	 */
+	void indexCustomer(Customer customer)
+	{
+		_indexLock.writeLock().lock();
+		try
+		{
+			_customerByID.put(customer.getCustomerID(), customer);
+			_memberIDs.set(customer.getCustomerID(),
+					customer.checkMembership());
+			_customerSearchIndex.add(customer);
+		}
+		finally
+		{
+			_indexLock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Removes a customer from the customer ID index, the membership
+	 * bitset<br>and the customer search index
+	 * 
+	 * @param customer The customer to be removed
+	 */
+	void unindexCustomer(Customer customer)
+	{
+		_indexLock.writeLock().lock();
+		try
+		{
+			_customerByID.remove(customer.getCustomerID());
+			_memberIDs.clear(customer.getCustomerID());
+			_customerSearchIndex.remove(customer.getCustomerID());
+		}
+		finally
+		{
+			_indexLock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Finds the customers whose name, a word of whose name, or whose
+	 * contact number<br>starts with a search text
+	 * 
+	 * @param text The beginning of the name or contact number, in any case
+	 * @param maxResults The largest number of customers to be returned
+	 * 
+	 * @return The first matching customers, in the order of the matching
+	 * 		   name or<br>contact number
+	 */
+	List<Customer> searchCustomers(String text, int maxResults)
+	{
+		_indexLock.readLock().lock();
+		try
+		{
+			return _customerSearchIndex.search(text, maxResults);
+		}
+		finally
+		{
+			_indexLock.readLock().unlock();
+		}
+	}
+	
 	/**
 	 * Saves the all staff and customer related information to the human
 	 * resource file<br>
 	 * Should be called before exiting the application
 	 */
 	public void savePeople() {
-		FileOutputStream fos = null;
-		ObjectOutputStream out = null;
-
+		long startNanos = SAVE_TIMER.start();
 		try {
-			fos = new FileOutputStream(HR_FILE_PATH);
-			out = new ObjectOutputStream(fos);
-			
-			out.writeObject(_staff);
-			out.writeObject(_customer);
-			
-			out.writeInt(currStaffID);
-			out.writeInt(currCustomerID);
-			
-			out.close();
+			writePeopleFile();
 		} catch (FileNotFoundException ex) {
 			System.out.println("Unable to save 'Staff/Customer' data!");
 		} catch (IOException ex) {
 			System.out.println("Unable to save 'Staff/Customer' data!");
 		} catch (Exception ex) {
 			System.out.println("Unable to save 'Staff/Customer' data!");
+		} finally {
+			SAVE_TIMER.stop(startNanos);
 		}
 
 		System.out.println("Saved 'Staff/Customer' data successfully!");
 	}
 	
+	/**
+	 * Writes the staff and customer related information to the human
+	 * <br>resource file, in the record format
+	 * 
+	 * @throws IOException If the human resource file cannot be written
+	 */
+	private void writePeopleFile() throws IOException
+	{
+		RecordOutput out = DataFile.create(HR_FILE_PATH, DataFile.PEOPLE);
+		
+		try {
+			PeopleCodec.writeDictionaries(out);
+			
+			PeopleCodec.writeStaff(out, _staff);
+			PeopleCodec.writeCustomers(out, _customer);
+			
+			out.writeInt(currStaffID);
+			out.writeInt(currCustomerID);
+		} catch (IOException ex) {
+			out.abort();
+			throw ex;
+		}
+		
+		out.close();
+	}
+	
 	/**
 	 * Displays the list of options for this Human Resource Management submenu
 	 */
@@ -419,10 +746,8 @@ public class HumanResourceMgr
 			double staffSalary = sc.nextDouble();
 			sc.nextLine();
 			
-			newStaff = new Staff(staffName, staffAge, staffGender,
-					++currStaffID, staffJobTitle, staffSalary);
-			
-			_staff.add(newStaff);
+			newStaff = PeopleService.getPeopleService().hireStaff(staffName,
+					staffAge, staffGender, staffJobTitle, staffSalary);
 			
 			if(newStaff != null)
 			{
@@ -577,8 +902,9 @@ public class HumanResourceMgr
 				return;
 			}
 
-			firedStaffName = _staff.get(staffIndex - 1).getName();
-			_staff.remove(staffIndex - 1);
+			Staff firedStaff = PeopleService.getPeopleService().fireStaff(
+					_staff.get(staffIndex - 1).getStaffID());
+			firedStaffName = firedStaff.getName();
 
 			if(firedStaffName != null)
 			{
@@ -703,10 +1029,9 @@ public class HumanResourceMgr
 				return;
 			}
 			
-			newCustomer = new Customer(customerName, customerAge, customerGender,
-					++currCustomerID, customerContact, isMember);
-			
-			_customer.add(newCustomer);
+			newCustomer = PeopleService.getPeopleService().registerCustomer(
+					customerName, customerAge, customerGender, customerContact,
+					isMember);
 			
 			if(newCustomer != null)
 			{
@@ -749,6 +1074,10 @@ public class HumanResourceMgr
 
 		try
 		{
+			List<Customer> customerChoices = getCustomerChoices();
+			if(customerChoices.isEmpty())
+				return;
+			
 			int numOfCustomer = 0;
 
 			System.out.println();
@@ -757,7 +1086,7 @@ public class HumanResourceMgr
 			System.out.printf("%-20s%n", "Existing Member");
 
 			// Display customer
-			for(Customer customer : _customer)
+			for(Customer customer : customerChoices)
 			{
 				System.out.printf("%-5s", "(" + (++numOfCustomer) + ")");
 				customer.displayCustomerSummary();
@@ -784,7 +1113,7 @@ public class HumanResourceMgr
 				return;
 			}
 
-			Customer updatingCustomer = _customer.get(customerIndex - 1);
+			Customer updatingCustomer = customerChoices.get(customerIndex - 1);
 			updateCustomerInfo(updatingCustomer);
 		}
 		catch(InputMismatchException ex)
@@ -822,6 +1151,10 @@ public class HumanResourceMgr
 
 		try
 		{
+			List<Customer> customerChoices = getCustomerChoices();
+			if(customerChoices.isEmpty())
+				return;
+			
 			int numOfCustomer = 0;
 			String removedCustName = null;
 
@@ -831,7 +1164,7 @@ public class HumanResourceMgr
 			System.out.printf("%-20s%n", "Member");
 
 			// Display customer
-			for(Customer customer : _customer)
+			for(Customer customer : customerChoices)
 			{
 				System.out.printf("%-5s", "(" + (++numOfCustomer) + ")");
 				customer.displayCustomerSummary();
@@ -858,9 +1191,10 @@ public class HumanResourceMgr
 				return;
 			}
 
-			removedCustName = _customer.get(customerIndex - 1).getName();
-
-			_customer.remove(customerIndex - 1);
+			Customer removedCustomer = PeopleService.getPeopleService().
+					removeCustomer(customerChoices.get(customerIndex - 1).
+							getCustomerID());
+			removedCustName = removedCustomer.getName();
 
 			if(removedCustName != null)
 			{
@@ -964,9 +1298,9 @@ public class HumanResourceMgr
 					continue;
 				}
 				
-				updatingStaff.setName(newStaffName);
-				updatingStaff.setAge(newStaffAge);
-				updatingStaff.setGender(staffGender);
+				PeopleService.getPeopleService().updateStaff(
+						updatingStaff.getStaffID(), newStaffName, newStaffAge,
+						staffGender);
 				
 				System.out.printf("%nSuccessfully updated information"
 						+ " for \"%s\"!%n", updatingStaff.getName());
@@ -1009,8 +1343,9 @@ public class HumanResourceMgr
 				double newStaffSalary = sc.nextDouble();
 				sc.nextLine();
 				
-				updatingStaff.setJobTitle(newStaffJobTitle);
-				updatingStaff.setSalary(newStaffSalary);
+				PeopleService.getPeopleService().updateStaffJob(
+						updatingStaff.getStaffID(), newStaffJobTitle,
+						newStaffSalary);
 				
 				System.out.printf("%nSuccessfully updated job title & salary"
 						+ " for \"%s\"!%n", updatingStaff.getName());
@@ -1095,9 +1430,9 @@ public class HumanResourceMgr
 					continue;
 				}
 				
-				updatingCustomer.setName(newCustomerName);
-				updatingCustomer.setAge(newCustomerAge);
-				updatingCustomer.setGender(custGender);
+				PeopleService.getPeopleService().updateCustomer(
+						updatingCustomer.getCustomerID(), newCustomerName,
+						newCustomerAge, custGender);
 				
 				System.out.printf("%nSuccessfully updated information"
 						+ " for \"%s\"!%n", updatingCustomer.getName());
@@ -1135,8 +1470,18 @@ public class HumanResourceMgr
 					return;
 				}
 				
-				updatingCustomer.setContactNumber(newCustomerContact);
-				updatingCustomer.setMembership(isMember);
+				try
+				{
+					PeopleService.getPeopleService().updateCustomerContact(
+							updatingCustomer.getCustomerID(), newCustomerContact,
+							isMember);
+				}
+				catch(IOException ex)
+				{
+					System.out.println("\nUnable to save 'Transactions' data!"
+							+ " Ongoing orders may not reflect the new"
+							+ " membership status..");
+				}
 				
 				System.out.printf("%nSuccessfully updated contact number"
 						+ " & membership status"
@@ -1147,7 +1492,9 @@ public class HumanResourceMgr
 	}
 	
 	/**
-	 * Allows the user to select a customer from the list of all customers
+	 * Allows the user to select a customer from the list of all customers,
+	 * or from<br>the customers found by a search once there are too many
+	 * to list
 	 * 
 	 * @return The selected customer, if any and null if there is no customers registered
 	 * 		   <br>or the user did not make a valid selection
@@ -1162,8 +1509,12 @@ public class HumanResourceMgr
 			return null;
 		}
 
+		List<Customer> customerChoices = getCustomerChoices();
+		while(customerChoices.isEmpty())
+			customerChoices = getCustomerChoices();
+		
 		int customerIndex = 0;
-		int maxCustomerIndex = _customer.size();
+		int maxCustomerIndex = customerChoices.size();
 
 		do
 		{
@@ -1177,7 +1528,7 @@ public class HumanResourceMgr
 				System.out.printf("%-20s%n", "Member");
 
 				// Display customer
-				for(Customer customer : _customer)
+				for(Customer customer : customerChoices)
 				{
 					System.out.printf("%-5s", "(" + (++currIndex) + ")");
 					customer.displayCustomerSummary();
@@ -1215,7 +1566,43 @@ public class HumanResourceMgr
 
 		} while(customerIndex < 1 || customerIndex > maxCustomerIndex);
 
-		return _customer.get(customerIndex - 1);
+		return customerChoices.get(customerIndex - 1);
+	}
+	
+	/**
+	 * Gets the customers for the user to select from<p>
+	 * All customers are listed if there are only a few of them, otherwise
+	 * the user<br>searches by the beginning of the customer's name or
+	 * contact number
+	 * 
+	 * @return The customers to select from, none if no customer matches
+	 * 		   the search
+	 */
+	private List<Customer> getCustomerChoices()
+	{
+		if(_customer.size() <= MAX_CUSTOMER_CHOICES)
+			return _customer;
+		
+		System.out.print("\nSearch for the customer by name"
+				+ " or contact number: ");
+		
+		// Skips the rest of the line of the previous input, if any
+		String searchText;
+		do
+		{
+			searchText = sc.nextLine().trim();
+		} while(searchText.isEmpty());
+		
+		List<Customer> customerChoices = PeopleService.getPeopleService().
+				searchCustomers(searchText, MAX_CUSTOMER_CHOICES);
+		
+		if(customerChoices.isEmpty())
+		{
+			System.out.printf("%nNo customers found for \"%s\"!%n",
+					searchText);
+		}
+		
+		return customerChoices;
 	}
 	
 	/**
@@ -1228,16 +1615,58 @@ public class HumanResourceMgr
 	 */
 	public boolean isMember(int customerID)
 	{
-		if(_customer.isEmpty())
+		if(customerID < 0)
 			return false;
 		
-		for(Customer customer : _customer)
+		_indexLock.readLock().lock();
+		try
 		{
-			if(customer.getCustomerID() == customerID)
-				return customer.checkMembership();
+			return _memberIDs.get(customerID);
+		}
+		finally
+		{
+			_indexLock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Allows other control classes to look up a customer by customer ID
+	 * 
+	 * @param customerID The customer ID of the customer
+	 * 
+	 * @return The customer, null if no customer has the customer ID
+	 */
+	public Customer getCustomerByID(int customerID)
+	{
+		_indexLock.readLock().lock();
+		try
+		{
+			return _customerByID.get(customerID);
+		}
+		finally
+		{
+			_indexLock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Allows other control classes to look up a staff by staff ID
+	 * 
+	 * @param staffID The staff ID of the staff
+	 * 
+	 * @return The staff, null if no staff has the staff ID
+	 */
+	public Staff getStaffByID(int staffID)
+	{
+		_indexLock.readLock().lock();
+		try
+		{
+			return _staffByID.get(staffID);
+		}
+		finally
+		{
+			_indexLock.readLock().unlock();
 		}
-		
-		return false;
 	}
 	
 	/**
@@ -1248,16 +1677,7 @@ public class HumanResourceMgr
 	 */
 	public Staff selectWaiter()
 	{
-		if(_staff.isEmpty())
-			return null;
-		
-		List<Staff> waiters = new ArrayList<Staff>();
-		
-		for(Staff staff : _staff)
-		{
-			if(staff.getJobTitle() == Staff.JobTitle.Waiter)
-				waiters.add(staff);
-		}
+		List<Staff> waiters = PeopleService.getPeopleService().getWaiters();
 		
 		if(waiters.isEmpty())
 			return null;
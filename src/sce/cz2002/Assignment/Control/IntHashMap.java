@@ -0,0 +1,256 @@
+package sce.cz2002.Assignment.Control;
+
+/**
+ * A hash map with primitive int keys<p>
+ * 
+ * Keys are stored in a plain int array using open addressing with linear
+ * probing,<br>so looking up a value never boxes the key or allocates.
+ * Removed entries are<br>cleared by shifting later entries of the same
+ * probe sequence back, so no tombstones<br>are left behind<p>
+ * 
+ * Null values are not allowed, a null value marks an empty slot
+ * 
+ * @author Jin Yao
+ * 
+ * @param <V> The type of values
+ */
+public class IntHashMap<V>
+{
+	/**
+	 * Initial number of slots, must be a power of two
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+	
+	/**
+	 * The keys of the entries, indexed by slot
+	 */
+	private int[] _keys;
+	
+	/**
+	 * The values of the entries, indexed by slot<br>
+	 * Empty slots have a null value
+	 */
+	private Object[] _values;
+	
+	/**
+	 * Number of entries in the map
+	 */
+	private int _size;
+	
+	/**
+	 * Number of entries at which the slots are doubled
+	 * <br>Keeps the map at most half full
+	 */
+	private int _resizeThreshold;
+	
+	/**
+	 * Creates a new, empty map
+	 */
+	public IntHashMap()
+	{
+		allocate(INITIAL_CAPACITY);
+	}
+	
+	/**
+	 * Allocates empty slots
+	 * 
+	 * @param capacity The number of slots, must be a power of two
+	 */
+	private void allocate(int capacity)
+	{
+		_keys = new int[capacity];
+		_values = new Object[capacity];
+		_resizeThreshold = capacity / 2;
+	}
+	
+	/**
+	 * Gets the preferred slot of a key
+	 * 
+	 * @param key The key
+	 * 
+	 * @return The slot that the key hashes to
+	 */
+	private int slotOf(int key)
+	{
+		// Spread the bits, since IDs are usually sequential
+		int hash = key * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & (_keys.length - 1);
+	}
+	
+	/**
+	 * Finds the slot holding a key
+	 * 
+	 * @param key The key
+	 * 
+	 * @return The slot holding the key, or -1 if the key is not in the map
+	 */
+	private int findSlot(int key)
+	{
+		int mask = _keys.length - 1;
+		
+		for(int slot = slotOf(key); _values[slot] != null; slot = (slot + 1) & mask)
+		{
+			if(_keys[slot] == key)
+				return slot;
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Gets the value mapped to a key
+	 * 
+	 * @param key The key
+	 * 
+	 * @return The value, null if the key is not in the map
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int key)
+	{
+		int slot = findSlot(key);
+		return (slot < 0) ? null : (V) _values[slot];
+	}
+	
+	/**
+	 * Checks whether a key is in the map
+	 * 
+	 * @param key The key
+	 * 
+	 * @return True if the key is in the map
+	 */
+	public boolean containsKey(int key) {
+		return findSlot(key) >= 0;
+	}
+	
+	/**
+	 * Maps a key to a value, replacing the existing value (if any)
+	 * 
+	 * @param key The key
+	 * @param value The value, must not be null
+	 * 
+	 * @return The previous value, null if the key was not in the map
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value)
+	{
+		if(value == null)
+			throw new NullPointerException("Null values are not allowed");
+		
+		int mask = _keys.length - 1;
+		int slot = slotOf(key);
+		
+		for(; _values[slot] != null; slot = (slot + 1) & mask)
+		{
+			if(_keys[slot] == key)
+			{
+				V previousValue = (V) _values[slot];
+				_values[slot] = value;
+				
+				return previousValue;
+			}
+		}
+		
+		_keys[slot] = key;
+		_values[slot] = value;
+		
+		if(++_size > _resizeThreshold)
+			resize();
+		
+		return null;
+	}
+	
+	/**
+	 * Removes the value mapped to a key
+	 * 
+	 * @param key The key
+	 * 
+	 * @return The removed value, null if the key was not in the map
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(int key)
+	{
+		int slot = findSlot(key);
+		if(slot < 0)
+			return null;
+		
+		V removedValue = (V) _values[slot];
+		
+		// Shift back later entries that would no longer be found
+		int mask = _keys.length - 1;
+		int emptySlot = slot;
+		
+		for(int nextSlot = (slot + 1) & mask; _values[nextSlot] != null;
+				nextSlot = (nextSlot + 1) & mask)
+		{
+			int preferredSlot = slotOf(_keys[nextSlot]);
+			
+			// Distance from the preferred slot, along the probe sequence
+			boolean canShift = ((nextSlot - preferredSlot) & mask) >=
+					((nextSlot - emptySlot) & mask);
+			
+			if(canShift)
+			{
+				_keys[emptySlot] = _keys[nextSlot];
+				_values[emptySlot] = _values[nextSlot];
+				emptySlot = nextSlot;
+			}
+		}
+		
+		_values[emptySlot] = null;
+		_size--;
+		
+		return removedValue;
+	}
+	
+	/**
+	 * Doubles the number of slots, and re-inserts every entry
+	 */
+	private void resize()
+	{
+		int[] oldKeys = _keys;
+		Object[] oldValues = _values;
+		
+		allocate(oldKeys.length * 2);
+		
+		int mask = _keys.length - 1;
+		for(int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++)
+		{
+			if(oldValues[oldSlot] == null)
+				continue;
+			
+			int slot = slotOf(oldKeys[oldSlot]);
+			while(_values[slot] != null)
+				slot = (slot + 1) & mask;
+			
+			_keys[slot] = oldKeys[oldSlot];
+			_values[slot] = oldValues[oldSlot];
+		}
+	}
+	
+	/**
+	 * Gets the number of entries in the map
+	 * 
+	 * @return The number of entries
+	 */
+	public int size() {
+		return _size;
+	}
+	
+	/**
+	 * Checks whether the map has no entries
+	 * 
+	 * @return True if the map has no entries
+	 */
+	public boolean isEmpty() {
+		return _size == 0;
+	}
+	
+	/**
+	 * Removes every entry from the map
+	 */
+	public void clear()
+	{
+		allocate(INITIAL_CAPACITY);
+		_size = 0;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,778 @@
+package sce.cz2002.Assignment.Control;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import sce.cz2002.Assignment.Classes.KitchenTicket;
+import sce.cz2002.Assignment.Classes.MenuItem;
+import sce.cz2002.Assignment.Classes.Order;
+import sce.cz2002.Assignment.Classes.SetPackage;
+
+/**
+ * Sends the lines of orders to the kitchen stations as tickets<p>
+ * 
+ * There is a station for each item type of ala carte item, and the lines
+ * of a set<br>package are sent to the stations of the menu items it
+ * contains. Each station has<br>a bounded {@link TicketRing} that any
+ * number of terminals send tickets into, and<br>its own consumer threads,
+ * which take the tickets out in batches and hand them<br>to the
+ * {@link TicketListener}, e.g. a kitchen display<p>
+ * 
+ * When the ring of a station is full, the terminal waits for the consumers
+ * to make<br>room, for up to the send timeout. A ticket that still cannot
+ * be sent is rejected.<br>Each station counts the tickets sent, rejected
+ * and waited for, and records the<br>time from sending a ticket to handing
+ * it to the listener in a<br>{@link LatencyHistogram}. A batch that the
+ * listener fails on is counted as failed,<br>and the failure is kept
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class KitchenPipeline
+{
+	/**
+	 * Receives the tickets taken out by the consumers of the stations
+	 * 
+	 * @author Jin Yao
+	 * 
+	 */
+	public static interface TicketListener
+	{
+		/**
+		 * Called by a consumer of a station with a batch of tickets<br>
+		 * Consumers of different stations, and of the same station, may
+		 * call this at<br>the same time
+		 * 
+		 * @param itemType The item type of the station
+		 * @param tickets The tickets, oldest first
+		 */
+		public void ticketsReady(MenuItem.ItemType itemType,
+				List<KitchenTicket> tickets);
+	}
+	
+	/**
+	 * How long an idle consumer parks before checking its ring again, in
+	 * case it<br>missed being woken up
+	 */
+	private static final long IDLE_PARK_NANOS =
+			TimeUnit.MILLISECONDS.toNanos(10);
+	
+	/**
+	 * How long a stopping station parks while waiting for terminals that
+	 * are still<br>sending
+	 */
+	private static final long STOP_PARK_NANOS =
+			TimeUnit.MICROSECONDS.toNanos(50);
+	
+	/**
+	 * How long a terminal parks between attempts to send into a full ring
+	 */
+	private static final long FULL_PARK_NANOS =
+			TimeUnit.MICROSECONDS.toNanos(20);
+	
+	/**
+	 * The stations, indexed by the ordinal of their item type<br>
+	 * Null for set packages, which have no station of their own
+	 */
+	private final Station[] _stations;
+	
+	/**
+	 * The number of consumer threads of each station
+	 */
+	private final int _numOfConsumers;
+	
+	/**
+	 * The largest number of tickets handed to the listener at once
+	 */
+	private final int _maxBatchSize;
+	
+	/**
+	 * How long a terminal waits for room in a full ring, in nanoseconds
+	 */
+	private final long _sendTimeoutNanos;
+	
+	/**
+	 * The listener that the consumers hand the tickets to, if any
+	 */
+	private volatile TicketListener _ticketListener;
+	
+	/**
+	 * Whether the consumers are running, and tickets can be sent
+	 */
+	private volatile boolean _isRunning;
+	
+	/**
+	 * Creates a new pipeline, whose consumers have not been started
+	 * 
+	 * @param ringCapacity The number of tickets that each station can hold,
+	 * 		  a power of 2
+	 * @param numOfConsumers The number of consumer threads of each
+	 * 		  station, at least 1
+	 * @param maxBatchSize The largest number of tickets handed to the
+	 * 		  listener at once,<br>at least 1
+	 * @param sendTimeoutMillis How long a terminal waits for room in a full
+	 * 		  ring
+	 * 
+	 * @throws IllegalArgumentException If any of the arguments are invalid
+	 */
+	public KitchenPipeline(int ringCapacity, int numOfConsumers,
+			int maxBatchSize, long sendTimeoutMillis)
+	{
+		if(numOfConsumers < 1)
+			throw new IllegalArgumentException("Invalid number of consumers: "
+					+ numOfConsumers);
+		
+		if(maxBatchSize < 1)
+			throw new IllegalArgumentException("Invalid batch size: "
+					+ maxBatchSize);
+		
+		if(sendTimeoutMillis < 0)
+			throw new IllegalArgumentException("Invalid send timeout: "
+					+ sendTimeoutMillis);
+		
+		_numOfConsumers = numOfConsumers;
+		_maxBatchSize = maxBatchSize;
+		_sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+		
+		MenuItem.ItemType[] itemTypes = MenuItem.ItemType.values();
+		_stations = new Station[itemTypes.length];
+		
+		for(MenuItem.ItemType itemType : itemTypes)
+		{
+			if(itemType != MenuItem.ItemType.SetPackage)
+				_stations[itemType.ordinal()] = new Station(itemType,
+						ringCapacity);
+		}
+	}
+	
+	/**
+	 * Starts the consumer threads of every station<br>
+	 * Does nothing if they are already running
+	 */
+	public synchronized void start()
+	{
+		if(_isRunning)
+			return;
+		
+		_isRunning = true;
+		
+		for(Station station : _stations)
+		{
+			if(station != null)
+				station.startConsumers();
+		}
+	}
+	
+	/**
+	 * Stops the consumer threads of every station, once they have handed
+	 * <br>the tickets already sent to the listener<br>
+	 * Tickets sent after this are rejected
+	 */
+	public synchronized void stop()
+	{
+		if(!_isRunning)
+			return;
+		
+		_isRunning = false;
+		
+		for(Station station : _stations)
+		{
+			if(station != null)
+				station.stopConsumers();
+		}
+	}
+	
+	/**
+	 * Checks whether the consumers are running
+	 * 
+	 * @return True if tickets can be sent
+	 */
+	public boolean isRunning() {
+		return _isRunning;
+	}
+	
+	/**
+	 * Sets the listener that the consumers hand the tickets to<br>
+	 * Tickets taken out while there is no listener are only counted
+	 * 
+	 * @param ticketListener The listener, null for none
+	 */
+	public void setTicketListener(TicketListener ticketListener) {
+		_ticketListener = ticketListener;
+	}
+	
+	/**
+	 * Sends a line of an order to the kitchen<br>
+	 * A set package is sent as a ticket for each menu item it contains, to
+	 * the<br>station of that menu item
+	 * 
+	 * @param order The order that the line belongs to
+	 * @param menuItem The menu item ordered
+	 * @param quantity The quantity ordered
+	 * 
+	 * @return True if every ticket of the line was sent, false if any were
+	 * 		   rejected
+	 */
+	public boolean sendLine(Order order, MenuItem menuItem, int quantity)
+	{
+		if(menuItem instanceof SetPackage)
+		{
+			boolean isSent = true;
+			
+			for(MenuItem packageItem :
+					((SetPackage) menuItem).getPackageItems())
+			{
+				isSent &= sendLine(order, packageItem, quantity);
+			}
+			
+			return isSent;
+		}
+		
+		return send(new KitchenTicket(order.getOrderID(),
+				order.getTableNumber(), menuItem.getItemID(),
+				menuItem.getName(), menuItem.getItemType(), quantity,
+				System.nanoTime()));
+	}
+	
+	/**
+	 * Sends a ticket to the station of its item type<br>
+	 * Waits for up to the send timeout if the ring of the station is full
+	 * 
+	 * @param ticket The ticket to be sent
+	 * 
+	 * @return True if the ticket was sent, false if it was rejected
+	 * 
+	 * @throws IllegalArgumentException If there is no station for the item
+	 * 		   type of<br>the ticket
+	 */
+	public boolean send(KitchenTicket ticket)
+	{
+		Station station = getStation(ticket.getItemType());
+		
+		if(station == null)
+			throw new IllegalArgumentException("There is no kitchen station"
+					+ " for " + ticket.getItemType().toStrValue());
+		
+		return station.send(ticket);
+	}
+	
+	/**
+	 * Gets the station of an item type, for its counts and latencies
+	 * 
+	 * @param itemType The item type
+	 * 
+	 * @return The station, null for set packages
+	 */
+	public Station getStation(MenuItem.ItemType itemType) {
+		return _stations[itemType.ordinal()];
+	}
+	
+	/**
+	 * A kitchen station, with its ring of tickets and its consumers<p>
+	 * 
+	 * Counts are kept from the creation of the pipeline
+	 * 
+	 * @author Jin Yao
+	 * 
+	 */
+	public final class Station
+	{
+		/**
+		 * The item type of the menu items prepared by this station
+		 */
+		private final MenuItem.ItemType _itemType;
+		
+		/**
+		 * The tickets sent to this station and not yet taken out
+		 */
+		private final TicketRing _ring;
+		
+		/**
+		 * The consumers of this station, while they are running
+		 */
+		private volatile Consumer[] _consumers;
+		
+		/**
+		 * The number of terminals sending a ticket to this station right
+		 * now<br>
+		 * Raised before checking whether the pipeline is running, so that
+		 * stopping<br>always waits for a terminal that saw it running
+		 */
+		private final AtomicInteger _numOfSending;
+		
+		/**
+		 * The number of tickets sent to this station
+		 */
+		private final AtomicLong _numOfSent;
+		
+		/**
+		 * The number of tickets rejected by this station
+		 */
+		private final AtomicLong _numOfRejected;
+		
+		/**
+		 * The number of tickets that found the ring full and had to wait
+		 */
+		private final AtomicLong _numOfFullWaits;
+		
+		/**
+		 * The total time that terminals waited for room in the ring, in
+		 * nanoseconds
+		 */
+		private final AtomicLong _fullWaitNanos;
+		
+		/**
+		 * The most tickets that have been in the ring at once
+		 */
+		private final AtomicLong _maxQueueDepth;
+		
+		/**
+		 * The number of batches handed to the listener
+		 */
+		private final AtomicLong _numOfBatches;
+		
+		/**
+		 * The number of tickets handed to the listener
+		 */
+		private final AtomicLong _numOfDone;
+		
+		/**
+		 * The number of tickets that the listener failed on
+		 */
+		private final AtomicLong _numOfFailed;
+		
+		/**
+		 * Why the listener last failed on a batch, null if it never has
+		 */
+		private volatile RuntimeException _lastFailure;
+		
+		/**
+		 * The time from sending each ticket to handing it to the listener,
+		 * in<br>nanoseconds
+		 */
+		private final LatencyHistogram _latencies;
+		
+		/**
+		 * Creates a new station with an empty ring
+		 * 
+		 * @param itemType The item type of the station
+		 * @param ringCapacity The capacity of the ring
+		 */
+		private Station(MenuItem.ItemType itemType, int ringCapacity)
+		{
+			_itemType = itemType;
+			_ring = new TicketRing(ringCapacity);
+			_consumers = new Consumer[0];
+			_numOfSending = new AtomicInteger();
+			
+			_numOfSent = new AtomicLong();
+			_numOfRejected = new AtomicLong();
+			_numOfFullWaits = new AtomicLong();
+			_fullWaitNanos = new AtomicLong();
+			_maxQueueDepth = new AtomicLong();
+			_numOfBatches = new AtomicLong();
+			_numOfDone = new AtomicLong();
+			_numOfFailed = new AtomicLong();
+			_latencies = new LatencyHistogram();
+		}
+		
+		/**
+		 * Starts the consumer threads of this station
+		 */
+		private void startConsumers()
+		{
+			ThreadFactory threadFactory = new ThreadFactory() {
+				
+				private int _consumerNo = 0;
+				
+				@Override
+				public Thread newThread(Runnable task)
+				{
+					Thread consumerThread = new Thread(task, "Kitchen "
+							+ _itemType.toStrValue() + " " + (++_consumerNo));
+					consumerThread.setDaemon(true);
+					
+					return consumerThread;
+				}
+			};
+			
+			Consumer[] consumers = new Consumer[_numOfConsumers];
+			
+			for(int consumerNo = 0; consumerNo < _numOfConsumers; consumerNo++)
+			{
+				consumers[consumerNo] = new Consumer(this);
+				consumers[consumerNo]._thread = threadFactory.newThread(
+						consumers[consumerNo]);
+			}
+			
+			_consumers = consumers;
+			
+			for(Consumer consumer : consumers)
+				consumer._thread.start();
+		}
+		
+		/**
+		 * Stops the consumer threads of this station, then hands any
+		 * tickets that<br>were sent while they were stopping to the
+		 * listener<br>
+		 * Terminals that are still sending are waited for, so that no
+		 * ticket sent is<br>left in the ring
+		 */
+		private void stopConsumers()
+		{
+			Consumer[] consumers = _consumers;
+			
+			for(Consumer consumer : consumers)
+				LockSupport.unpark(consumer._thread);
+			
+			try {
+				for(Consumer consumer : consumers)
+					consumer._thread.join();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			
+			_consumers = new Consumer[0];
+			
+			List<KitchenTicket> batch = new ArrayList<KitchenTicket>(
+					_maxBatchSize);
+			while(true)
+			{
+				// Read before draining, so a send finishing after the read
+				// is still drained below
+				boolean isSending = _numOfSending.get() > 0;
+				
+				while(_ring.drainTo(batch, _maxBatchSize) > 0)
+				{
+					handOver(batch);
+					batch.clear();
+				}
+				
+				if(!isSending)
+					return;
+				
+				// Makes room for terminals waiting on a full ring
+				LockSupport.parkNanos(STOP_PARK_NANOS);
+			}
+		}
+		
+		/**
+		 * Sends a ticket into the ring of this station, waiting for room if
+		 * it is full
+		 * 
+		 * @param ticket The ticket to be sent
+		 * 
+		 * @return True if the ticket was sent, false if it was rejected
+		 */
+		private boolean send(KitchenTicket ticket)
+		{
+			_numOfSending.incrementAndGet();
+			try
+			{
+				if(!_isRunning)
+				{
+					_numOfRejected.incrementAndGet();
+					return false;
+				}
+				
+				if(!_ring.offer(ticket) && !waitToSend(ticket))
+				{
+					_numOfRejected.incrementAndGet();
+					return false;
+				}
+			}
+			finally
+			{
+				_numOfSending.decrementAndGet();
+			}
+			
+			_numOfSent.incrementAndGet();
+			
+			long queueDepth = _ring.size();
+			long maxQueueDepth = _maxQueueDepth.get();
+			while(queueDepth > maxQueueDepth &&
+					!_maxQueueDepth.compareAndSet(maxQueueDepth, queueDepth))
+				maxQueueDepth = _maxQueueDepth.get();
+			
+			wakeConsumer();
+			
+			return true;
+		}
+		
+		/**
+		 * Waits for room in the full ring of this station, for up to the
+		 * send timeout
+		 * 
+		 * @param ticket The ticket to be sent
+		 * 
+		 * @return True if the ticket was sent in time
+		 */
+		private boolean waitToSend(KitchenTicket ticket)
+		{
+			_numOfFullWaits.incrementAndGet();
+			
+			long startNanos = System.nanoTime();
+			long waitedNanos = 0;
+			boolean isSent = false;
+			
+			while(!isSent && waitedNanos < _sendTimeoutNanos)
+			{
+				wakeConsumer();
+				LockSupport.parkNanos(FULL_PARK_NANOS);
+				
+				isSent = _ring.offer(ticket);
+				waitedNanos = System.nanoTime() - startNanos;
+			}
+			
+			_fullWaitNanos.addAndGet(waitedNanos);
+			
+			return isSent;
+		}
+		
+		/**
+		 * Wakes up one idle consumer of this station, if any
+		 */
+		private void wakeConsumer()
+		{
+			for(Consumer consumer : _consumers)
+			{
+				if(consumer._isIdle)
+				{
+					LockSupport.unpark(consumer._thread);
+					return;
+				}
+			}
+		}
+		
+		/**
+		 * Hands a batch of tickets to the listener, and records their
+		 * latencies<br>
+		 * If the listener fails, the tickets are counted as failed instead
+		 * of done
+		 * 
+		 * @param batch The tickets taken out of the ring
+		 */
+		private void handOver(List<KitchenTicket> batch)
+		{
+			long nowNanos = System.nanoTime();
+			
+			for(KitchenTicket ticket : batch)
+				_latencies.record(nowNanos - ticket.getSentNanos());
+			
+			TicketListener ticketListener = _ticketListener;
+			
+			if(ticketListener != null)
+			{
+				try {
+					ticketListener.ticketsReady(_itemType,
+							Collections.unmodifiableList(
+							new ArrayList<KitchenTicket>(batch)));
+				} catch (RuntimeException ex) {
+					// The consumer has to keep going, so the failure is
+					// kept for whoever checks on the station
+					_lastFailure = ex;
+					_numOfFailed.addAndGet(batch.size());
+					return;
+				}
+			}
+			
+			_numOfBatches.incrementAndGet();
+			_numOfDone.addAndGet(batch.size());
+		}
+		
+		/**
+		 * Gets the item type of the menu items prepared by this station
+		 * 
+		 * @return The item type
+		 */
+		public MenuItem.ItemType getItemType() {
+			return _itemType;
+		}
+		
+		/**
+		 * Gets the number of tickets waiting in the ring of this station
+		 * 
+		 * @return The number of tickets, an estimate while tickets are sent
+		 */
+		public int getQueueDepth() {
+			return _ring.size();
+		}
+		
+		/**
+		 * Gets the most tickets that have been in the ring of this station
+		 * at once
+		 * 
+		 * @return The highest queue depth
+		 */
+		public long getMaxQueueDepth() {
+			return _maxQueueDepth.get();
+		}
+		
+		/**
+		 * Gets the number of tickets that the ring of this station can hold
+		 * 
+		 * @return The capacity of the ring
+		 */
+		public int getCapacity() {
+			return _ring.getCapacity();
+		}
+		
+		/**
+		 * Gets the number of tickets sent to this station
+		 * 
+		 * @return The number of tickets sent
+		 */
+		public long getNumOfSent() {
+			return _numOfSent.get();
+		}
+		
+		/**
+		 * Gets the number of tickets rejected by this station, because its
+		 * ring<br>stayed full or the pipeline was stopped
+		 * 
+		 * @return The number of tickets rejected
+		 */
+		public long getNumOfRejected() {
+			return _numOfRejected.get();
+		}
+		
+		/**
+		 * Gets the number of tickets that found the ring of this station
+		 * full
+		 * 
+		 * @return The number of tickets that had to wait
+		 */
+		public long getNumOfFullWaits() {
+			return _numOfFullWaits.get();
+		}
+		
+		/**
+		 * Gets the total time that terminals waited for room in the ring of
+		 * this station
+		 * 
+		 * @return The total waiting time, in nanoseconds
+		 */
+		public long getFullWaitNanos() {
+			return _fullWaitNanos.get();
+		}
+		
+		/**
+		 * Gets the number of batches handed to the listener by this station
+		 * 
+		 * @return The number of batches
+		 */
+		public long getNumOfBatches() {
+			return _numOfBatches.get();
+		}
+		
+		/**
+		 * Gets the number of tickets handed to the listener by this station
+		 * 
+		 * @return The number of tickets done
+		 */
+		public long getNumOfDone() {
+			return _numOfDone.get();
+		}
+		
+		/**
+		 * Gets the number of tickets of this station that the listener
+		 * failed on
+		 * 
+		 * @return The number of tickets failed
+		 */
+		public long getNumOfFailed() {
+			return _numOfFailed.get();
+		}
+		
+		/**
+		 * Gets why the listener last failed on a batch of this station
+		 * 
+		 * @return The exception thrown by the listener, null if it never
+		 * 		   failed
+		 */
+		public RuntimeException getLastFailure() {
+			return _lastFailure;
+		}
+		
+		/**
+		 * Gets the time from sending each ticket to this station to handing
+		 * it to<br>the listener
+		 * 
+		 * @return The latencies, in nanoseconds
+		 */
+		public LatencyHistogram getLatencies() {
+			return _latencies;
+		}
+	}
+	
+	/**
+	 * A consumer thread of a station, which takes the tickets out of its
+	 * ring in<br>batches, and parks while the ring is empty
+	 * 
+	 * @author Jin Yao
+	 * 
+	 */
+	private final class Consumer implements Runnable
+	{
+		/**
+		 * The station that this consumer takes tickets from
+		 */
+		private final Station _station;
+		
+		/**
+		 * The thread running this consumer
+		 */
+		private Thread _thread;
+		
+		/**
+		 * Whether this consumer is about to park, or parked<br>
+		 * Set before checking the ring for the last time, so that a terminal
+		 * which<br>sends a ticket after the check always sees it and
+		 * wakes this consumer up
+		 */
+		private volatile boolean _isIdle;
+		
+		/**
+		 * Creates a new consumer of a station
+		 * 
+		 * @param station The station
+		 */
+		private Consumer(Station station) {
+			_station = station;
+		}
+		
+		@Override
+		public void run()
+		{
+			TicketRing ring = _station._ring;
+			List<KitchenTicket> batch = new ArrayList<KitchenTicket>(
+					_maxBatchSize);
+			
+			while(true)
+			{
+				if(ring.drainTo(batch, _maxBatchSize) > 0)
+				{
+					_station.handOver(batch);
+					batch.clear();
+					continue;
+				}
+				
+				if(!_isRunning)
+					return;
+				
+				_isIdle = true;
+				
+				if(ring.isEmpty() && _isRunning)
+					LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+				
+				_isIdle = false;
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,234 @@
+package sce.cz2002.Assignment.Control;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies, which any number of threads can record into
+ * without<br>locking<p>
+ * 
+ * Values are counted in log-linear buckets: values below
+ * {@link #SUB_BUCKET_COUNT} each<br>have a bucket of their own, and every
+ * doubling above that is split into<br>{@link #SUB_BUCKET_COUNT} / 2
+ * buckets of equal width. A value is found again to<br>within 1/16 of
+ * itself, over the whole range of long values, with a fixed<br>number of
+ * buckets<p>
+ * 
+ * The count and the sum of the values are kept in {@link StripedCounter}s,
+ * so that<br>threads recording at once mostly touch different memory. The
+ * unit of the values<br>is up to the caller, e.g. nanoseconds
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class LatencyHistogram
+{
+	/**
+	 * Number of bits of a value kept by its bucket
+	 */
+	private static final int SUB_BUCKET_BITS = 5;
+	
+	/**
+	 * Number of values below which each value has a bucket of its own
+	 */
+	public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	
+	/**
+	 * Number of buckets in each doubling of the values
+	 */
+	private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+	
+	/**
+	 * Number of buckets, enough for every long value
+	 */
+	private static final int NUM_OF_BUCKETS =
+			(64 - SUB_BUCKET_BITS + 1) * HALF_SUB_BUCKET_COUNT
+			+ HALF_SUB_BUCKET_COUNT;
+	
+	/**
+	 * The number of values counted in each bucket
+	 */
+	private final AtomicLongArray _counts;
+	
+	/**
+	 * The number of values recorded
+	 */
+	private final StripedCounter _totalCount;
+	
+	/**
+	 * The sum of the values recorded
+	 */
+	private final StripedCounter _totalValue;
+	
+	/**
+	 * The largest value recorded
+	 */
+	private final AtomicLong _maxValue;
+	
+	/**
+	 * Creates a new, empty histogram
+	 */
+	public LatencyHistogram()
+	{
+		_counts = new AtomicLongArray(NUM_OF_BUCKETS);
+		_totalCount = new StripedCounter();
+		_totalValue = new StripedCounter();
+		_maxValue = new AtomicLong();
+	}
+	
+	/**
+	 * Records a value<br>
+	 * Negative values are recorded as 0
+	 * 
+	 * @param value The value to be recorded
+	 */
+	public void record(long value)
+	{
+		if(value < 0)
+			value = 0;
+		
+		_counts.incrementAndGet(getBucket(value));
+		_totalCount.increment();
+		_totalValue.add(value);
+		
+		// Only written while the largest value is still growing
+		long maxValue = _maxValue.get();
+		while(value > maxValue && !_maxValue.compareAndSet(maxValue, value))
+			maxValue = _maxValue.get();
+	}
+	
+	/**
+	 * Gets the number of values recorded
+	 * 
+	 * @return The number of values
+	 */
+	public long getCount() {
+		return _totalCount.sum();
+	}
+	
+	/**
+	 * Gets the largest value recorded
+	 * 
+	 * @return The largest value, 0 if there are none
+	 */
+	public long getMax() {
+		return _maxValue.get();
+	}
+	
+	/**
+	 * Gets the sum of the values recorded
+	 * 
+	 * @return The sum of the values
+	 */
+	public long getSum() {
+		return _totalValue.sum();
+	}
+	
+	/**
+	 * Gets the mean of the values recorded
+	 * 
+	 * @return The mean, 0 if there are no values
+	 */
+	public double getMean()
+	{
+		long totalCount = _totalCount.sum();
+		
+		if(totalCount == 0)
+			return 0;
+		
+		return (double) _totalValue.sum() / totalCount;
+	}
+	
+	/**
+	 * Gets the value that a percentage of the values recorded are at or
+	 * below
+	 * 
+	 * @param percentile The percentage, from 0 to 100
+	 * 
+	 * @return The highest value of the bucket holding the percentile, at most
+	 * 		   the<br>largest value recorded. 0 if there are no values
+	 */
+	public long getValueAtPercentile(double percentile)
+	{
+		long totalCount = 0;
+		for(int bucket = 0; bucket < NUM_OF_BUCKETS; bucket++)
+			totalCount += _counts.get(bucket);
+		
+		if(totalCount == 0)
+			return 0;
+		
+		double fraction = Math.max(0, Math.min(percentile, 100)) / 100;
+		long rank = Math.max(1, (long) Math.ceil(fraction * totalCount));
+		
+		long count = 0;
+		for(int bucket = 0; bucket < NUM_OF_BUCKETS; bucket++)
+		{
+			count += _counts.get(bucket);
+			
+			if(count >= rank)
+				return Math.min(getBucketMax(bucket), getMax());
+		}
+		
+		return getMax();
+	}
+	
+	/**
+	 * Gets the number of buckets of a histogram
+	 * 
+	 * @return The number of buckets
+	 */
+	public static int getNumOfBuckets() {
+		return NUM_OF_BUCKETS;
+	}
+	
+	/**
+	 * Gets the number of values counted in a bucket
+	 * 
+	 * @param bucket The bucket, from 0 to the number of buckets - 1
+	 * 
+	 * @return The number of values
+	 */
+	public long getBucketCount(int bucket) {
+		return _counts.get(bucket);
+	}
+	
+	/**
+	 * Gets the bucket that a value is counted in
+	 * 
+	 * @param value The value, at least 0
+	 * 
+	 * @return The bucket
+	 */
+	static int getBucket(long value)
+	{
+		if(value < SUB_BUCKET_COUNT)
+			return (int) value;
+		
+		int shift = 63 - Long.numberOfLeadingZeros(value)
+				- (SUB_BUCKET_BITS - 1);
+		
+		return shift * HALF_SUB_BUCKET_COUNT + (int) (value >>> shift);
+	}
+	
+	/**
+	 * Gets the highest value counted in a bucket
+	 * 
+	 * @param bucket The bucket
+	 * 
+	 * @return The highest value of the bucket
+	 */
+	public static long getBucketMax(int bucket)
+	{
+		if(bucket < SUB_BUCKET_COUNT)
+			return bucket;
+		
+		int shift = bucket / HALF_SUB_BUCKET_COUNT - 1;
+		long subBucket = bucket - shift * HALF_SUB_BUCKET_COUNT;
+		
+		// The last bucket reaches past the highest long value
+		if(subBucket + 1 > (Long.MAX_VALUE >>> shift))
+			return Long.MAX_VALUE;
+		
+		return ((subBucket + 1) << shift) - 1;
+	}
+}
\ No newline at end of file
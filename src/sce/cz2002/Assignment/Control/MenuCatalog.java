@@ -0,0 +1,348 @@
+package sce.cz2002.Assignment.Control;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import sce.cz2002.Assignment.Classes.MenuItem;
+import sce.cz2002.Assignment.Classes.SetPackage;
+
+/**
+ * A catalog of the menu items on the menu, by item ID and by name<p>
+ * 
+ * Menu items are kept in an array indexed by item ID, so a menu item is
+ * found by<br>its item ID without going through the menu. Names are kept
+ * in a hash index in<br>lower case, so finding a menu item by name, and
+ * checking for a duplicate name,<br>is not case sensitive and takes the
+ * same time however long the menu is<p>
+ * 
+ * Item IDs are given out from 1 in turn, and are never given out again
+ * once a menu<br>item is removed, so that order items keep referring to the
+ * menu item they were<br>ordered from<p>
+ * 
+ * The set packages that contain each menu item are kept by item ID, so
+ * a changed<br>menu item only invalidates the prices of the set packages
+ * that contain it,<br>however many set packages are on the menu<p>
+ * 
+ * The catalog is not thread-safe, it is guarded by the menu manager
+ * 
+ * @author Jin Yao
+ * 
+ */
+class MenuCatalog
+{
+	/**
+	 * Number of item IDs that a new catalog has room for
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+	
+	/**
+	 * The menu items on the menu, indexed by item ID<br>
+	 * Item IDs that are not on the menu are null
+	 */
+	private MenuItem[] _itemsByID;
+	
+	/**
+	 * The menu items on the menu, keyed by their name in lower case
+	 */
+	private final Map<String, MenuItem> _itemsByName;
+	
+	/**
+	 * The set packages on the menu that contain each menu item, keyed by
+	 * item ID
+	 */
+	private final IntHashMap<List<SetPackage>> _packagesByItem;
+	
+	/**
+	 * The next item ID to be given out
+	 */
+	private int _nextItemID;
+	
+	/**
+	 * Creates a new, empty catalog
+	 */
+	public MenuCatalog()
+	{
+		_itemsByID = new MenuItem[INITIAL_CAPACITY];
+		_itemsByName = new HashMap<String, MenuItem>();
+		_packagesByItem = new IntHashMap<List<SetPackage>>();
+		_nextItemID = 1;
+	}
+	
+	/**
+	 * Gives out the next item ID, for a new menu item
+	 * 
+	 * @return The item ID, never given out before
+	 */
+	public int nextItemID() {
+		return _nextItemID++;
+	}
+	
+	/**
+	 * Gets the next item ID to be given out, without giving it out
+	 * 
+	 * @return The next item ID
+	 */
+	public int getNextItemID() {
+		return _nextItemID;
+	}
+	
+	/**
+	 * Makes sure that item IDs from the given one onwards are the only ones
+	 * <br>given out, e.g. after loading the menu
+	 * 
+	 * @param nextItemID The lowest item ID that may still be given out
+	 */
+	public void reserveItemIDs(int nextItemID) {
+		_nextItemID = Math.max(_nextItemID, nextItemID);
+	}
+	
+	/**
+	 * Adds a menu item to the catalog<br>
+	 * Menu files saved before renaming checked for duplicate names may hold
+	 * two<br>menu items of the same name, the one added later is then only
+	 * found by item ID<p>
+	 * 
+	 * A set package is filed under each menu item that it contains
+	 * 
+	 * @param menuItem The menu item, with an item ID from 1
+	 * 
+	 * @throws IllegalArgumentException If the item ID is invalid or in use
+	 */
+	public void add(MenuItem menuItem)
+	{
+		int itemID = menuItem.getItemID();
+		
+		if(itemID < 1)
+			throw new IllegalArgumentException("Invalid item ID: " + itemID);
+		
+		if(getItem(itemID) != null)
+			throw new IllegalArgumentException("Item ID " + itemID
+					+ " is already in use");
+		
+		if(itemID >= _itemsByID.length)
+			_itemsByID = Arrays.copyOf(_itemsByID,
+					Math.max(itemID + 1, _itemsByID.length * 2));
+		
+		_itemsByID[itemID] = menuItem;
+		
+		String nameKey = toNameKey(menuItem.getName());
+		if(!_itemsByName.containsKey(nameKey))
+			_itemsByName.put(nameKey, menuItem);
+		
+		reserveItemIDs(itemID + 1);
+		
+		if(menuItem instanceof SetPackage)
+		{
+			SetPackage setPackage = (SetPackage) menuItem;
+			
+			for(MenuItem packageItem : setPackage.getPackageItems())
+				addPackageItem(setPackage, packageItem);
+		}
+	}
+	
+	/**
+	 * Removes a menu item from the catalog<br>
+	 * Its item ID is not given out again
+	 * 
+	 * @param menuItem The menu item to be removed
+	 */
+	public void remove(MenuItem menuItem)
+	{
+		if(getItem(menuItem.getItemID()) != menuItem)
+			return;
+		
+		_itemsByID[menuItem.getItemID()] = null;
+		removeName(menuItem);
+		
+		if(menuItem instanceof SetPackage)
+		{
+			SetPackage setPackage = (SetPackage) menuItem;
+			
+			for(MenuItem packageItem : setPackage.getPackageItems())
+				removePackage(setPackage, packageItem.getItemID());
+		}
+	}
+	
+	/**
+	 * Renames a menu item in the catalog
+	 * 
+	 * @param menuItem The menu item, which must be in the catalog
+	 * @param newName The new name of the menu item
+	 * 
+	 * @throws IllegalArgumentException If another menu item has the new name
+	 */
+	public void rename(MenuItem menuItem, String newName)
+	{
+		String newNameKey = toNameKey(newName);
+		
+		MenuItem namedItem = _itemsByName.get(newNameKey);
+		
+		if(namedItem != null && namedItem != menuItem)
+			throw new IllegalArgumentException("A menu item named \""
+					+ newName + "\" already exists");
+		
+		removeName(menuItem);
+		menuItem.setName(newName);
+		_itemsByName.put(newNameKey, menuItem);
+	}
+	
+	/**
+	 * Removes all menu items from the catalog<br>
+	 * Item IDs already given out are still not given out again
+	 */
+	public void clear()
+	{
+		Arrays.fill(_itemsByID, null);
+		_itemsByName.clear();
+		_packagesByItem.clear();
+	}
+	
+	/**
+	 * Files a set package on the menu under a menu item that has been added
+	 * to it
+	 * 
+	 * @param setPackage The set package
+	 * @param packageItem The menu item added to the set package
+	 */
+	public void addPackageItem(SetPackage setPackage, MenuItem packageItem)
+	{
+		List<SetPackage> setPackages =
+				_packagesByItem.get(packageItem.getItemID());
+		
+		if(setPackages == null)
+		{
+			setPackages = new ArrayList<SetPackage>(1);
+			_packagesByItem.put(packageItem.getItemID(), setPackages);
+		}
+		
+		if(!setPackages.contains(setPackage))
+			setPackages.add(setPackage);
+	}
+	
+	/**
+	 * Stops filing a set package under a menu item that has been removed
+	 * from it<br>
+	 * The set package stays filed if it still contains the menu item
+	 * 
+	 * @param setPackage The set package
+	 * @param packageItem The menu item removed from the set package
+	 */
+	public void removePackageItem(SetPackage setPackage, MenuItem packageItem)
+	{
+		if(!setPackage.findInPackage(packageItem))
+			removePackage(setPackage, packageItem.getItemID());
+	}
+	
+	/**
+	 * Gets the set packages on the menu that contain a menu item
+	 * 
+	 * @param itemID The item ID of the menu item
+	 * 
+	 * @return A copy of the list of set packages, which may be changed
+	 */
+	public List<SetPackage> getPackagesContaining(int itemID)
+	{
+		List<SetPackage> setPackages = _packagesByItem.get(itemID);
+		
+		if(setPackages == null)
+			return Collections.emptyList();
+		
+		return new ArrayList<SetPackage>(setPackages);
+	}
+	
+	/**
+	 * Invalidates the price of every set package on the menu that contains
+	 * a menu item
+	 * 
+	 * @param itemID The item ID of the menu item whose price has changed
+	 */
+	public void invalidatePackagePrices(int itemID)
+	{
+		List<SetPackage> setPackages = _packagesByItem.get(itemID);
+		
+		if(setPackages == null)
+			return;
+		
+		for(SetPackage setPackage : setPackages)
+			setPackage.invalidatePrice();
+	}
+	
+	/**
+	 * Gets a menu item by its item ID
+	 * 
+	 * @param itemID The item ID
+	 * 
+	 * @return The menu item, null if there is no menu item with the item ID
+	 * 		   <br>on the menu
+	 */
+	public MenuItem getItem(int itemID)
+	{
+		if(itemID < 0 || itemID >= _itemsByID.length)
+			return null;
+		
+		return _itemsByID[itemID];
+	}
+	
+	/**
+	 * Finds a menu item by its name, ignoring case
+	 * 
+	 * @param itemName The name of the menu item
+	 * 
+	 * @return The menu item, null if there is no menu item with the name
+	 */
+	public MenuItem findItem(String itemName)
+	{
+		if(itemName == null)
+			return null;
+		
+		return _itemsByName.get(toNameKey(itemName));
+	}
+	
+	/**
+	 * Removes the name of a menu item from the name index, if the menu item
+	 * <br>is the one found by that name
+	 * 
+	 * @param menuItem The menu item
+	 */
+	private void removeName(MenuItem menuItem)
+	{
+		String nameKey = toNameKey(menuItem.getName());
+		
+		if(_itemsByName.get(nameKey) == menuItem)
+			_itemsByName.remove(nameKey);
+	}
+	
+	/**
+	 * Removes a set package from the set packages filed under a menu item
+	 * 
+	 * @param setPackage The set package
+	 * @param itemID The item ID of the menu item
+	 */
+	private void removePackage(SetPackage setPackage, int itemID)
+	{
+		List<SetPackage> setPackages = _packagesByItem.get(itemID);
+		
+		if(setPackages == null)
+			return;
+		
+		setPackages.remove(setPackage);
+		if(setPackages.isEmpty())
+			_packagesByItem.remove(itemID);
+	}
+	
+	/**
+	 * Converts a menu item name into the key it is indexed under
+	 * 
+	 * @param itemName The name of the menu item
+	 * 
+	 * @return The name in lower case
+	 */
+	static String toNameKey(String itemName) {
+		return itemName.toLowerCase(Locale.ENGLISH);
+	}
+}
\ No newline at end of file
@@ -2,21 +2,21 @@ package sce.cz2002.Assignment.Control;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.InputMismatchException;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Scanner;
 
 import sce.cz2002.Assignment.Classes.MenuItem;
 import sce.cz2002.Assignment.Classes.MenuItem.ItemType;
 import sce.cz2002.Assignment.Classes.SetPackage;
+import sce.cz2002.Assignment.Persistence.DataFile;
+import sce.cz2002.Assignment.Persistence.MenuCodec;
+import sce.cz2002.Assignment.Persistence.RecordInput;
+import sce.cz2002.Assignment.Persistence.RecordOutput;
 
 /**
  * A singleton class that takes care of all menu-related functionality<p>
@@ -24,7 +24,10 @@ import sce.cz2002.Assignment.Classes.SetPackage;
  * Functionalities include saving/loading menu information, creating
  * new menu items,<br> updating/removing existing menu items,
  * creating new set packages, updating/removing existing<br> set packages and
- * also viewing the menu
+ * also viewing the menu<p>
+ * 
+ * The menu manager is the console client of the {@link MenuService}, which
+ * makes<br>the actual changes to the menu
  * 
  * @author Jin Yao
  *
@@ -54,6 +57,18 @@ public class MenuMgr
 	 */
 	private static final String MENU_FILE_PATH = "menu.dat";
 	
+	/**
+	 * Times loading the menu
+	 */
+	private static final MetricsRegistry.Timer LOAD_TIMER =
+			MetricsRegistry.getMetricsRegistry().getTimer("menu_load");
+	
+	/**
+	 * Times saving the menu
+	 */
+	private static final MetricsRegistry.Timer SAVE_TIMER =
+			MetricsRegistry.getMetricsRegistry().getTimer("menu_save");
+	
 	/**
 	 * A static instance of this menu manager
 	 */
@@ -64,6 +79,16 @@ public class MenuMgr
 	 */
 	private static List<MenuItem> _menu;
 	
+	/**
+	 * The menu items contained in the menu, by item ID and by name
+	 */
+	private static MenuCatalog _catalog;
+	
+	/**
+	 * The snapshot of the menu published after the last change to the menu
+	 */
+	private static volatile MenuSnapshot _snapshot;
+	
 	/**
 	 * Standard Java scanner using for processing inputs
 	 */
@@ -73,13 +98,16 @@ public class MenuMgr
 	 * Private constructor used to support the Singleton design pattern
 	 * <br>
 	 * Creates a new Java Scanner object, and creates a new
-	 * arraylist of menu items
+	 * arraylist and catalog<br>of menu items, with a snapshot of the
+	 * empty menu
 	 */
 	private MenuMgr()
 	{
 		sc = new Scanner(System.in);
 		
 		_menu = new ArrayList<MenuItem>();
+		_catalog = new MenuCatalog();
+		_snapshot = new MenuSnapshot(0, _menu);
 	}
 	
 	/**
@@ -97,11 +125,108 @@ public class MenuMgr
 		return _menuMgr;
 	}
 	
+	/**
+	 * Gets the list of menu items, for the {@link MenuService}
+	 * 
+	 * @return The list of all menu items contained in the menu
+	 */
+	List<MenuItem> getMenuItems() {
+		return _menu;
+	}
+	
+	/**
+	 * Gets the catalog of menu items, for the {@link MenuService}
+	 * 
+	 * @return The menu items contained in the menu, by item ID and by name
+	 */
+	MenuCatalog getCatalog() {
+		return _catalog;
+	}
+	
+	/**
+	 * Gets the snapshot of the menu, for the {@link MenuService}
+	 * 
+	 * @return The snapshot published after the last change to the menu
+	 */
+	MenuSnapshot getMenuSnapshot() {
+		return _snapshot;
+	}
+	
+	/**
+	 * Publishes a snapshot of the menu as it is now, with the next version
+	 * number<br>
+	 * Called by the {@link MenuService} after each change to the menu
+	 */
+	void publishMenu() {
+		_snapshot = new MenuSnapshot(_snapshot.getVersion() + 1, _menu);
+	}
+	
 	/**
 	 * Loads the menu information from the menu file, if it exists
-	 * <br>Should be called at the start of the application
+	 * <br>Should be called at the start of the application<p>
+	 * 
+	 * A menu file saved in the old Java serialization format is migrated
+	 * <br>to the record format once it has been loaded. Menu items saved
+	 * before menu<br>items had item IDs are given item IDs as they are
+	 * loaded<p>
+	 * 
+	 * The loaded menu is published with the version it was saved with
 	 */
 	public void loadMenu()
+	{
+		long startNanos = LOAD_TIMER.start();
+		try
+		{
+			loadMenuFile();
+		}
+		finally
+		{
+			LOAD_TIMER.stop(startNanos);
+		}
+	}
+	
+	/**
+	 * Loads the menu from the menu file, in either format
+	 */
+	private void loadMenuFile()
+	{
+		if(DataFile.isLegacyFormat(MENU_FILE_PATH))
+		{
+			loadLegacyMenu();
+			return;
+		}
+		
+		RecordInput in = null;
+		try
+		{
+			in = DataFile.open(MENU_FILE_PATH, DataFile.MENU);
+			
+			List<MenuItem> menu = MenuCodec.readMenu(in);
+			_catalog.reserveItemIDs(MenuCodec.readNextItemID(in));
+			long menuVersion = MenuCodec.readMenuVersion(in);
+			
+			in.close();
+			
+			addLoadedItems(menu);
+			_snapshot = new MenuSnapshot(menuVersion, _menu);
+			
+			if(!_menu.isEmpty())
+				System.out.println("'Menu' data loaded successfully!");
+			
+		} catch (FileNotFoundException ex) {
+			System.out.println("Unable to load 'Menu' data!");
+		} catch (IOException ex) {
+			System.out.println("Unable to load 'Menu' data!");
+		} catch (Exception ex) {
+			System.out.println("Unable to load 'Menu' data!");
+		}
+	}
+	
+	/**
+	 * Loads the menu information from a menu file saved using Java
+	 * <br>serialization, and rewrites the menu file in the record format
+	 */
+	private void loadLegacyMenu()
 	{
 		FileInputStream fis = null;
 		ObjectInputStream in = null;
@@ -111,6 +236,7 @@ public class MenuMgr
 			in = new ObjectInputStream(fis);
 			
 			Object obj = in.readObject();
+			List<MenuItem> menu = new ArrayList<MenuItem>();
 
 			if (obj instanceof ArrayList<?>)
 			{
@@ -126,7 +252,7 @@ public class MenuMgr
 						// to the menu
 						if (childObj instanceof MenuItem)
 						{
-							_menu.add(((MenuItem) childObj));
+							menu.add(((MenuItem) childObj));
 						}
 					}
 				}
@@ -134,9 +260,15 @@ public class MenuMgr
 
 			in.close();
 			
+			addLoadedItems(menu);
+			_snapshot = new MenuSnapshot(0, _menu);
+			
 			if(!_menu.isEmpty())
 				System.out.println("'Menu' data loaded successfully!");
 			
+			writeMenuFile();
+			System.out.println("'Menu' data migrated to the new format!");
+			
 		} catch (FileNotFoundException ex) {
 			System.out.println("Unable to load 'Menu' data!");
 		} catch (IOException ex) {
@@ -148,30 +280,144 @@ public class MenuMgr
 		}
 	}
 	
+	/**
+	 * Adds the menu items loaded from the menu file to the menu and to the
+	 * catalog<br>
+	 * Menu items without an item ID are given one, in the order of the menu
+	 * 
+	 * @param menu The menu items loaded, sorted by item type
+	 */
+	private void addLoadedItems(List<MenuItem> menu)
+	{
+		for(MenuItem menuItem : menu)
+		{
+			if(menuItem.getItemID() == MenuItem.NO_ITEM_ID)
+				menuItem = copyWithItemID(menuItem);
+			
+			_catalog.add(menuItem);
+			_menu.add(menuItem);
+		}
+		
+		for(MenuItem menuItem : _menu)
+		{
+			if(menuItem instanceof SetPackage)
+				resolvePackageItems((SetPackage) menuItem);
+		}
+	}
+	
+	/**
+	 * Replaces the saved copies of the menu items of a loaded set package
+	 * with<br>the menu items on the menu of the same item ID, so that the
+	 * set package<br>is priced from the current menu<p>
+	 * 
+	 * A saved menu item that is no longer on the menu is kept as it is
+	 * 
+	 * @param setPackage The set package loaded from the menu file
+	 */
+	private void resolvePackageItems(SetPackage setPackage)
+	{
+		List<MenuItem> packageItems = setPackage.getPackageItems();
+		int packageSize = packageItems.size();
+		
+		for(int currItem = 0; currItem < packageSize; currItem++)
+		{
+			MenuItem catalogItem = _catalog.getItem(
+					packageItems.get(currItem).getItemID());
+			
+			if(catalogItem != null && !(catalogItem instanceof SetPackage))
+				packageItems.set(currItem, catalogItem);
+		}
+		
+		setPackage.invalidatePrice();
+	}
+	
+	/**
+	 * Copies a menu item saved before menu items had item IDs, giving it
+	 * the<br>next item ID<p>
+	 * 
+	 * The menu items of a set package are matched by name with the menu
+	 * items<br>already in the catalog, and take their item ID. Menu items
+	 * that are no longer<br>on the menu are given an item ID of their own
+	 * 
+	 * @param menuItem The menu item without an item ID
+	 * 
+	 * @return A copy of the menu item, with an item ID
+	 */
+	private MenuItem copyWithItemID(MenuItem menuItem)
+	{
+		if(!(menuItem instanceof SetPackage))
+		{
+			return new MenuItem(_catalog.nextItemID(), menuItem.getItemType(),
+					menuItem.getName(), menuItem.getDesc(), menuItem.getPrice());
+		}
+		
+		List<MenuItem> packageItems = new ArrayList<MenuItem>();
+		
+		for(MenuItem packageItem : ((SetPackage) menuItem).getPackageItems())
+		{
+			MenuItem catalogItem = _catalog.findItem(packageItem.getName());
+			
+			if(catalogItem == null || catalogItem instanceof SetPackage)
+			{
+				packageItems.add(copyWithItemID(packageItem));
+			}
+			else
+			{
+				packageItems.add(new MenuItem(catalogItem.getItemID(),
+						packageItem.getItemType(), packageItem.getName(),
+						packageItem.getDesc(), packageItem.getPrice()));
+			}
+		}
+		
+		return new SetPackage(_catalog.nextItemID(), menuItem.getItemType(),
+				menuItem.getName(), menuItem.getDesc(), menuItem.getPrice(),
+				packageItems);
+	}
+	
 	/**
 	 * Saves the menu information to the menu file<br>
 	 * Should be called before exiting the application
 	 */
 	public void saveMenu() {
-		FileOutputStream fos = null;
-		ObjectOutputStream out = null;
-
+		long startNanos = SAVE_TIMER.start();
 		try {
-			fos = new FileOutputStream(MENU_FILE_PATH);
-			out = new ObjectOutputStream(fos);
-			out.writeObject(_menu);
-			out.close();
+			writeMenuFile();
 		} catch (FileNotFoundException ex) {
 			System.out.println("Unable to save 'Menu' data!");
 		} catch (IOException ex) {
 			System.out.println("Unable to save 'Menu' data!");
 		} catch (Exception ex) {
 			System.out.println("Unable to save 'Menu' data!");
+		} finally {
+			SAVE_TIMER.stop(startNanos);
 		}
 
 		System.out.println("Saved 'Menu' data successfully!");
 	}
 	
+	/**
+	 * Writes the menu information to the menu file, in the record format
+	 * <br>The last snapshot of the menu is written, together with its
+	 * version
+	 * 
+	 * @throws IOException If the menu file cannot be written
+	 */
+	private void writeMenuFile() throws IOException
+	{
+		MenuSnapshot snapshot = _snapshot;
+		RecordOutput out = DataFile.create(MENU_FILE_PATH, DataFile.MENU);
+		
+		try {
+			MenuCodec.writeMenu(out, snapshot.getMenu(),
+					_catalog.getNextItemID(), snapshot.getVersion());
+		} catch (IOException ex) {
+			out.abort();
+			throw ex;
+		}
+		
+		out.close();
+	}
+	
 	/**
 	 * Displays the list of options for this menu submenu
 	 */
@@ -273,11 +519,14 @@ public class MenuMgr
 	/**
 	 * Displays the complete menu, with the information of each menu item
 	 * <p>
-	 * The menu is sorted by the item type
+	 * The menu is sorted by the item type, and taken from the last
+	 * snapshot
 	 */
 	private void displayMenu()
 	{
-		if(_menu.isEmpty())
+		List<MenuItem> menu = _snapshot.getMenu();
+		
+		if(menu.isEmpty())
 		{
 			System.out.print("\nWell, the Menu is empty right now!");
 			System.out.println(" Try adding new menu items? :-)");
@@ -291,18 +540,18 @@ public class MenuMgr
 			
 			MenuItem.ItemType currItemType = null;
 			
-			int menuSize = _menu.size();
+			int menuSize = menu.size();
 			
 			// Display menu items
 			for(int currItem = 0; currItem < menuSize; currItem++)
 			{
-				if(_menu.get(currItem).getItemType() != currItemType)
+				if(menu.get(currItem).getItemType() != currItemType)
 				{
-					currItemType = _menu.get(currItem).getItemType();
+					currItemType = menu.get(currItem).getItemType();
 					displayMenuItemType(currItemType);
 				}
 				
-				_menu.get(currItem).displayItemDetails();
+				menu.get(currItem).displayItemDetails();
 				System.out.println();
 			}
 			
@@ -366,7 +615,7 @@ public class MenuMgr
 			System.out.print("Enter the name of the item: ");
 			String itemName = sc.nextLine();
 			
-			if(isDuplicateItem(itemName))
+			if(MenuService.getMenuService().isDuplicateItem(itemName))
 			{
 				System.out.print("\nSorry, a menu item with the given"
 						+ " name exists in the system. No duplicate item"
@@ -392,12 +641,8 @@ public class MenuMgr
 				return;
 			}
 			
-			newMenuItem = new MenuItem(itemType, itemName,
-					itemDesc, itemPrice);
-			_menu.add(newMenuItem);
-			
-			// Keep the menu sorted according to the item type
-			Collections.sort(_menu);
+			newMenuItem = MenuService.getMenuService().addMenuItem(itemType,
+					itemName, itemDesc, itemPrice);
 		}
 		catch(InputMismatchException ex)
 		{
@@ -445,27 +690,7 @@ public class MenuMgr
 			
 			try
 			{
-				System.out.printf("%n%5s%-30s", "", "Item Name");
-				System.out.printf("%-17s", "Item Type");
-				System.out.printf("%15s%n", "Item Price");
-				
-				int menuSize = _menu.size();
-				
-				// Actual menu size, excluding set packages
-				int actualMenuSize = 0;
-				
-				// Display menu items
-				for(int currItem = 0; currItem < menuSize; currItem++)
-				{
-					// Do not include set packages as valid option
-					if(_menu.get(currItem).getItemType() ==
-							MenuItem.ItemType.SetPackage)
-						break;
-					
-					System.out.printf("%-5s", "(" + (currItem + 1) + ")");
-					_menu.get(currItem).displayItemSummary();		
-					actualMenuSize = currItem + 1;
-				}
+				int[] itemIDs = displayAlaCarteItems();
 				
 				System.out.printf("%nPlease select an item to update "
 						+ "(0 to cancel): ");
@@ -480,33 +705,19 @@ public class MenuMgr
 					return;
 				}
 				
-				// Valid itemTypeValues from 1 to actualMenuSize
-				if (itemIndex < 1 || itemIndex > actualMenuSize) {
+				MenuItem updatingItem = getChosenItem(itemIDs, itemIndex);
+				
+				// Valid values from 1 to the number of items displayed
+				if (updatingItem == null) {
 					System.out.print("\nInvalid input! ");
 					System.out.println("Failed to update menu item,"
 							+ " please try again..");
 					return;
 				}
-				
-				MenuItem updatingItem = _menu.get(itemIndex - 1);
 				updateItemInfo(updatingItem);
 				
 				System.out.printf("%nSuccessfully updated \"%s\"!%n",
 						updatingItem.getName());
-				
-				// Update Set Packages (if any)
-				for(int currItem = 0; currItem < menuSize; currItem++)
-				{
-					MenuItem menuItem = _menu.get(currItem);
-					
-					// If this item is a set package
-					if(menuItem.getItemType() == MenuItem.ItemType.SetPackage)
-					{
-						// Explicit downcasting - menuItem is of SetPackage type
-						// Makes the set package recalculate its price
-						((SetPackage) menuItem).recalculatePackagePrice();
-					}
-				}	
 			}
 			catch(InputMismatchException ex)
 			{
@@ -552,27 +763,7 @@ public class MenuMgr
 			
 			try
 			{
-				System.out.printf("%n%5s%-30s", "", "Item Name");
-				System.out.printf("%-17s", "Item Type");
-				System.out.printf("%15s%n", "Item Price");
-				
-				int menuSize = _menu.size();
-				
-				// Actual menu size, excludes set packages
-				int actualMenuSize = 0;
-				
-				// Display menu items
-				for(int currItem = 0; currItem < menuSize; currItem++)
-				{
-					// Do not include set packages as valid option
-					if(_menu.get(currItem).getItemType() ==
-							MenuItem.ItemType.SetPackage)
-						break;
-					
-					System.out.printf("%-5s", "(" + (currItem + 1) + ")");
-					_menu.get(currItem).displayItemSummary();
-					actualMenuSize = currItem + 1;
-				}
+				int[] itemIDs = displayAlaCarteItems();
 				
 				System.out.printf("%nPlease select an item to remove "
 						+ "(0 to cancel): ");
@@ -586,51 +777,20 @@ public class MenuMgr
 					return;
 				}
 				
-				// Valid itemTypeValues from 1 to actualMenuSize
-				if (itemIndex < 1 || itemIndex > actualMenuSize) {
+				// Menu item to be removed
+				MenuItem removedItem = getChosenItem(itemIDs, itemIndex);
+				
+				// Valid values from 1 to the number of items displayed
+				if (removedItem == null) {
 					System.out.print("\nInvalid input! ");
 					System.out.println("Failed to remove menu item,"
 							+ " please try again..");
 					return;
 				}
 				
-				// Menu item to be removed
-				MenuItem removedItem = _menu.get(itemIndex - 1);
-				
-				Iterator<MenuItem> menuIter = _menu.iterator();
-				MenuItem menuItem = null;
-				
-				// Update Set Packages (if any)
-				while(menuIter.hasNext()) {
-					
-					menuItem = menuIter.next();
-					
-					// If this item is a set package
-					if(menuItem.getItemType() == MenuItem.ItemType.SetPackage)
-					{
-						// Explicit downcasting - menuItem is of SetPackage type
-						if(((SetPackage) menuItem).findInPackage(removedItem))
-						{
-							// Remove it from the set package
-							((SetPackage) menuItem).removeItemFromPackage(
-									removedItem);
-							
-							// Makes the set package recalculate its price
-							((SetPackage) menuItem).recalculatePackagePrice();
-							
-							if(((SetPackage) menuItem).getPackageSize() == 0)
-							{
-								// Cannot have a set package with no items
-								// Add to list of set packages pending removal
-								menuIter.remove();
-							}
-						}
-					}
-				}
-				
-				// Remove it from the menu
+				// Remove it from the menu, and from any set packages
 				removedItemName = removedItem.getName();
-				_menu.remove(removedItem);
+				MenuService.getMenuService().removeMenuItem(removedItem);
 				
 				System.out.printf("%nSuccessfully removed \"%s\" from the menu!%n",
 						removedItemName);
@@ -671,14 +831,16 @@ public class MenuMgr
 		}
 		else
 		{
-			SetPackage newSetPackage = null;
+			String newPackageName = null;
+			String newPackageDesc = null;
+			List<MenuItem> newPackageItems = new ArrayList<MenuItem>();
 			
 			try
 			{
 				System.out.print("Enter a name for the set package: ");
-				String newPackageName = sc.nextLine();
+				newPackageName = sc.nextLine();
 				
-				if(isDuplicateItem(newPackageName))
+				if(MenuService.getMenuService().isDuplicateItem(newPackageName))
 				{
 					System.out.print("\nSorry, a set package with the given"
 							+ " name exists in the system. No duplicate item"
@@ -690,10 +852,7 @@ public class MenuMgr
 				
 				System.out.print("Enter a description for"
 						+ " the set package: ");
-				String newPackageDesc = sc.nextLine();
-				
-				newSetPackage = new SetPackage(MenuItem.ItemType.SetPackage,
-						newPackageName, newPackageDesc, 0);
+				newPackageDesc = sc.nextLine();
 			}
 			catch(InputMismatchException ex1)
 			{
@@ -717,27 +876,7 @@ public class MenuMgr
 			{
 				try
 				{
-					System.out.printf("%n%5s%-30s", "", "Item Name");
-					System.out.printf("%-17s", "Item Type");
-					System.out.printf("%15s%n", "Item Price");
-					
-					int menuSize = _menu.size();
-					
-					// Actual menu size, excludes set packages
-					int actualMenuSize = 0;
-					
-					// Display menu items
-					for(int currItem = 0; currItem < menuSize; currItem++)
-					{
-						// Do not include set packages as valid option
-						if(_menu.get(currItem).getItemType() ==
-								MenuItem.ItemType.SetPackage)
-							break;
-						
-						System.out.printf("%-5s", "(" + (currItem + 1) + ")");
-						_menu.get(currItem).displayItemSummary();
-						actualMenuSize = currItem + 1;
-					}
+					int[] itemIDs = displayAlaCarteItems();
 					
 					System.out.printf("%nSelect item to be added "
 							+ "to the set package (0 to end): ");
@@ -749,16 +888,17 @@ public class MenuMgr
 					if(itemIndex == 0)
 						continue;
 					
-					// Valid itemTypeValues from 1 to actualMenuSize
-					if (itemIndex < 1 || itemIndex > actualMenuSize) {
+					MenuItem selectedItem = getChosenItem(itemIDs, itemIndex);
+					
+					// Valid values from 1 to the number of items displayed
+					if (selectedItem == null) {
 						System.out.print("\nInvalid input! ");
 						System.out.println("Failed to add menu item,"
 								+ " please try again..");
 						continue;
 					}
 					
-					MenuItem selectedItem = _menu.get(itemIndex - 1);
-					newSetPackage.addItemToPackage(selectedItem);
+					newPackageItems.add(selectedItem);
 					
 					System.out.printf("\"%s\" has been added to the "
 							+ "set package!%n", selectedItem.getName());
@@ -779,7 +919,7 @@ public class MenuMgr
 				
 			} while(itemIndex != 0);
 			
-			if(newSetPackage.getPackageSize() == 0)
+			if(newPackageItems.isEmpty())
 			{
 				System.out.println("\nHow can there be a set package"
 						+ " with nothing inside? Failed to create set"
@@ -787,15 +927,21 @@ public class MenuMgr
 			}
 			else
 			{
-				System.out.printf("\nSuccessfully created new \"%s\" "
-						+ "set package!%n%n", newSetPackage.getName());
-				newSetPackage.displayItemDetails();
-				
-				// Add the newly created set package to the menu
-				_menu.add(newSetPackage);
-				
-				// Keep the menu sorted according to the item type
-				Collections.sort(_menu);
+				try
+				{
+					SetPackage newSetPackage = MenuService.getMenuService().
+							addSetPackage(newPackageName, newPackageDesc,
+									newPackageItems);
+					
+					System.out.printf("\nSuccessfully created new \"%s\" "
+							+ "set package!%n%n", newSetPackage.getName());
+					newSetPackage.displayItemDetails();
+				}
+				catch(Exception ex)
+				{
+					System.out.println("\nFailed to create set package,"
+							+ " please try again..");
+				}
 			}
 		}
 	}
@@ -816,41 +962,8 @@ public class MenuMgr
 		}
 		else
 		{
-			int startingSetIndex = -1;
-			int currSet = 0, totalSets = 0;
-			
-			int menuSize = _menu.size();
-			
-			// Display set packages (if any)
-			for(int currItem = 0; currItem < menuSize; currItem++)
-			{
-				MenuItem menuItem = _menu.get(currItem);
-				
-				// Only include set packages as valid options
-				if(menuItem.getItemType() == MenuItem.ItemType.SetPackage)
-				{
-					if(startingSetIndex == -1)
-					{
-						startingSetIndex = currItem;
-						currSet = 0;
-						totalSets = 1;
-						
-						System.out.printf("%n%5s%-30s", "",
-								"Set Package Name");
-						System.out.printf("%-30s",
-								"Set Package Description");
-						System.out.printf("%12s%n", "Item Price");
-					}
-					else
-					{
-						currSet++;
-						totalSets++;
-					}
-					
-					System.out.printf("%-5s", "(" + (currSet + 1) + ")");
-					((SetPackage) menuItem).displayItemSummary();
-				}
-			}
+			int[] setPackageIDs = displaySetPackages();
+			int totalSets = setPackageIDs.length;
 			
 			if(totalSets == 0)
 			{
@@ -880,18 +993,17 @@ public class MenuMgr
 						return;
 					}
 					
+					MenuItem updatingPackage = getChosenItem(setPackageIDs,
+							itemIndex);
+					
 					// Valid values from 1 to totalSets
-					if (itemIndex < 1 || itemIndex > totalSets) {
+					if (updatingPackage == null) {
 						System.out.print("\nInvalid input! ");
 						System.out.println("Failed to update set package,"
 								+ " please try again..");
 						return;
 					}
 					
-					// Calculate actual index
-					itemIndex = (startingSetIndex + itemIndex - 1);
-					
-					MenuItem updatingPackage = _menu.get(itemIndex);
 					updatedPackageName = updatingPackage.getName();
 					
 					int updateOption = -1;
@@ -938,14 +1050,11 @@ public class MenuMgr
 						}
 						else
 						{
-							removeItemFromPackage(updatingPackage);
-							
-							if(((SetPackage) updatingPackage).isEmpty())
+							if(removeItemFromPackage(updatingPackage))
 							{
 								System.out.print("\nEmpty set package!");
 								System.out.printf("\"%s\" has been " +
 										"deleted..%n", updatedPackageName);
-								_menu.remove(updatingPackage);
 								
 								return;
 							}
@@ -989,41 +1098,8 @@ public class MenuMgr
 		}
 		else
 		{
-			int startingSetIndex = -1;
-			int currSet = 0, totalSets = 0;
-			
-			int menuSize = _menu.size();
-			
-			// Display set packages (if any)
-			for(int currItem = 0; currItem < menuSize; currItem++)
-			{
-				MenuItem menuItem = _menu.get(currItem);
-				
-				// Only include set packages as valid options
-				if(menuItem.getItemType() == MenuItem.ItemType.SetPackage)
-				{
-					if(startingSetIndex == -1)
-					{
-						startingSetIndex = currItem;
-						currSet = 0;
-						totalSets = 1;
-						
-						System.out.printf("%n%5s%-30s", "",
-								"Set Package Name");
-						System.out.printf("%-30s",
-								"Set Package Description");
-						System.out.printf("%12s%n", "Item Price");
-					}
-					else
-					{
-						currSet++;
-						totalSets++;
-					}
-					
-					System.out.printf("%-5s", "(" + (currSet + 1) + ")");
-					((SetPackage) menuItem).displayItemSummary();
-				}
-			}
+			int[] setPackageIDs = displaySetPackages();
+			int totalSets = setPackageIDs.length;
 			
 			if(totalSets == 0)
 			{
@@ -1053,20 +1129,20 @@ public class MenuMgr
 						return;
 					}
 					
+					SetPackage removedPackage = (SetPackage) getChosenItem(
+							setPackageIDs, itemIndex);
+					
 					// Valid values from 1 to totalSets
-					if (itemIndex < 1 || itemIndex > totalSets) {
+					if (removedPackage == null) {
 						System.out.print("\nInvalid input! ");
 						System.out.println("Failed to remove set package,"
 								+ " please try again..");
 						return;
 					}
 					
-					// Calculate actual index
-					itemIndex = (startingSetIndex + itemIndex - 1);
-					
 					// Remove it from the menu
-					removedItemName = _menu.get(itemIndex).getName();
-					_menu.remove(itemIndex);
+					removedItemName = removedPackage.getName();
+					MenuService.getMenuService().removeSetPackage(removedPackage);
 					
 					System.out.printf("%nSuccessfully removed \"%s\" from"
 							+ " the menu!%n", removedItemName);
@@ -1122,13 +1198,16 @@ public class MenuMgr
 			sc.nextLine();
 		}
 		
-		updatingItem.setName(newItemName);
-		updatingItem.setDesc(newItemDesc);
-		
 		// Do not allow user to set package price
-		if(! (updatingItem instanceof SetPackage))
+		if(updatingItem instanceof SetPackage)
 		{
-			updatingItem.setPrice(newItemPrice);
+			MenuService.getMenuService().updateSetPackage(
+					(SetPackage) updatingItem, newItemName, newItemDesc);
+		}
+		else
+		{
+			MenuService.getMenuService().updateMenuItem(updatingItem,
+					newItemName, newItemDesc, newItemPrice);
 		}
 	}
 	
@@ -1143,27 +1222,7 @@ public class MenuMgr
 	private void addItemToPackage(MenuItem updatingSetPackage)
 			throws InputMismatchException, Exception
 	{
-		System.out.printf("%n%5s%-30s", "", "Item Name");
-		System.out.printf("%-17s", "Item Type");
-		System.out.printf("%15s%n", "Item Price");
-		
-		int menuSize = _menu.size();
-		
-		// Actual menu size, excludes set packages
-		int actualMenuSize = 0;
-		
-		// Display menu items
-		for(int currItem = 0; currItem < menuSize; currItem++)
-		{
-			// Do not include set packages as valid option
-			if(_menu.get(currItem).getItemType() ==
-					MenuItem.ItemType.SetPackage)
-				break;
-			
-			System.out.printf("%-5s", "(" + (currItem + 1) + ")");
-			_menu.get(currItem).displayItemSummary();
-			actualMenuSize = currItem + 1;
-		}
+		int[] itemIDs = displayAlaCarteItems();
 		
 		System.out.printf("%nSelect item to be added "
 				+ "to the set package (0 to cancel): ");
@@ -1175,30 +1234,35 @@ public class MenuMgr
 		if(itemIndex == 0)
 			return;
 		
-		// Valid itemTypeValues from 1 to actualMenuSize
-		if (itemIndex < 1 || itemIndex > actualMenuSize) {
+		MenuItem selectedItem = getChosenItem(itemIDs, itemIndex);
+		
+		// Valid values from 1 to the number of items displayed
+		if (selectedItem == null) {
 			System.out.print("\nInvalid input! ");
 			System.out.println("Failed to add menu item,"
 					+ " please try again..");
 			return;
 		}
 		
-		MenuItem selectedItem = _menu.get(itemIndex - 1);
-		((SetPackage) updatingSetPackage).addItemToPackage(selectedItem);
+		MenuService.getMenuService().addItemToPackage(
+				(SetPackage) updatingSetPackage, selectedItem);
 		
 		System.out.printf("\"%s\" has been added to the "
 				+ "set package!%n", selectedItem.getName());
 	}
 	
 	/**
-	 * Removes a menu item from the set package
+	 * Removes a menu item from the set package<br>
+	 * The set package is removed from the menu if it becomes empty
 	 * 
 	 * @param updatingSetPackage The set package to remove the menu item from
 	 * 
+	 * @return True if the set package has been removed from the menu
+	 * 
 	 * @throws InputMismatchException Exception thrown for input mismatch
 	 * @throws Exception General exception thrown
 	 */
-	private void removeItemFromPackage(MenuItem updatingSetPackage)
+	private boolean removeItemFromPackage(MenuItem updatingSetPackage)
 			throws InputMismatchException, Exception
 	{
 		System.out.printf("%n%5s%-30s", "", "Item Name");
@@ -1233,56 +1297,42 @@ public class MenuMgr
 		
 		// User decides not to remove any item from set package
 		if(itemIndex == 0)
-			return;
+			return false;
 		
 		// Valid itemTypeValues from 1 to packageSize
 		if (itemIndex < 1 || itemIndex > packageSize) {
 			System.out.print("\nInvalid input! ");
 			System.out.println("Failed to remove menu item,"
 					+ " please try again..");
-			return;
+			return false;
 		}
 		
 		MenuItem selectedItem = packageItems.get(itemIndex - 1);
-		((SetPackage) updatingSetPackage).removeItemFromPackage(selectedItem);
+		boolean isPackageRemoved = MenuService.getMenuService().
+				removeItemFromPackage((SetPackage) updatingSetPackage,
+						selectedItem);
 		
 		System.out.printf("\"%s\" has been removed from the "
 				+ "set package!%n", selectedItem.getName());
-	}
-	
-	/**
-	 * Checks whether a given menu item name already exists in the menu
-	 * 
-	 * @param menuItemName The name of the new menu item to be created
-	 * 
-	 * @return True if it is a duplicate menu item name
-	 */
-	private boolean isDuplicateItem(String menuItemName)
-	{
-		if(_menu.isEmpty())
-			return false;
 		
-		for(MenuItem menuItem : _menu)
-		{
-			if(menuItem.getName().equalsIgnoreCase(menuItemName))
-			{
-				return true;
-			}
-		}
-		
-		return false;
+		return isPackageRemoved;
 	}
 	
 	/**
 	 * Gets a selected menu item based on a list of menu items<br>
 	 * Displays a list of existing menu items to allow the user to choose
-	 * from
+	 * from<p>
+	 * 
+	 * The menu items are taken from the last snapshot of the menu, without
+	 * locking
 	 * 
-	 * @return The selected menu item
+	 * @return The selected menu item, from the snapshot
 	 */
 	public MenuItem selectMenuItem()
 	{
-		if(_menu.isEmpty())
+		MenuSnapshot menu = _snapshot;
+		
+		if(menu.isEmpty())
 		{
 			System.out.print("\nWell, the Menu is empty right now!");
 			System.out.println(" Try adding new menu items? :-)");
@@ -1292,7 +1342,10 @@ public class MenuMgr
 		else
 		{
 			int menuChoice = 0;
-			int menuSize = _menu.size();
+			int menuSize = menu.getMenu().size();
+			
+			// Item IDs of the menu items, in the order they are numbered
+			int[] itemIDs = new int[menuSize];
 			
 			do
 			{
@@ -1303,11 +1356,13 @@ public class MenuMgr
 					System.out.println();
 					
 					// Display menu items
-					for(MenuItem menuItem : _menu)
+					for(MenuItem menuItem : menu.getMenu())
 					{
 						if(menuItem.getItemType() == ItemType.SetPackage)
 							System.out.println("\n[Set Package]");
 						
+						itemIDs[currItemIndex] = menuItem.getItemID();
+						
 						System.out.printf("%-4s ", "(" + (++currItemIndex) + ")");
 						menuItem.displayItemSummary();
 					}
@@ -1349,7 +1404,88 @@ public class MenuMgr
 
 			} while(menuChoice < 1 || menuChoice > menuSize);
 
-			return _menu.get(menuChoice - 1);
+			return menu.getItem(itemIDs[menuChoice - 1]);
 		}
 	}
+	
+	/**
+	 * Displays the menu items that are not set packages, numbered from 1,
+	 * for the<br>user to choose from
+	 * 
+	 * @return The item IDs of the menu items displayed, in the order they
+	 * 		   are numbered
+	 */
+	private int[] displayAlaCarteItems()
+	{
+		System.out.printf("%n%5s%-30s", "", "Item Name");
+		System.out.printf("%-17s", "Item Type");
+		System.out.printf("%15s%n", "Item Price");
+		
+		List<MenuItem> alaCarteItems =
+				MenuService.getMenuService().getAlaCarteItems();
+		int[] itemIDs = new int[alaCarteItems.size()];
+		
+		// Display menu items
+		for(int currItem = 0; currItem < itemIDs.length; currItem++)
+		{
+			MenuItem menuItem = alaCarteItems.get(currItem);
+			
+			System.out.printf("%-5s", "(" + (currItem + 1) + ")");
+			menuItem.displayItemSummary();
+			itemIDs[currItem] = menuItem.getItemID();
+		}
+		
+		return itemIDs;
+	}
+	
+	/**
+	 * Displays the set packages in the menu, numbered from 1, for the user
+	 * to choose<br>from. Nothing is displayed if there are no set packages
+	 * 
+	 * @return The item IDs of the set packages displayed, in the order they
+	 * 		   are numbered
+	 */
+	private int[] displaySetPackages()
+	{
+		List<SetPackage> setPackages =
+				MenuService.getMenuService().getSetPackages();
+		int[] setPackageIDs = new int[setPackages.size()];
+		
+		// Display set packages (if any)
+		for(int currSet = 0; currSet < setPackageIDs.length; currSet++)
+		{
+			SetPackage setPackage = setPackages.get(currSet);
+			
+			if(currSet == 0)
+			{
+				System.out.printf("%n%5s%-30s", "", "Set Package Name");
+				System.out.printf("%-30s", "Set Package Description");
+				System.out.printf("%12s%n", "Item Price");
+			}
+			
+			System.out.printf("%-5s", "(" + (currSet + 1) + ")");
+			setPackage.displayItemSummary();
+			setPackageIDs[currSet] = setPackage.getItemID();
+		}
+		
+		return setPackageIDs;
+	}
+	
+	/**
+	 * Gets the menu item that the user has chosen from a numbered list
+	 * 
+	 * @param itemIDs The item IDs of the menu items, in the order they
+	 * 		  are numbered
+	 * @param choice The number chosen by the user
+	 * 
+	 * @return The menu item chosen, null if the number is not on the list
+	 * 		   or the<br>menu item is no longer on the menu
+	 */
+	private MenuItem getChosenItem(int[] itemIDs, int choice)
+	{
+		if(choice < 1 || choice > itemIDs.length)
+			return null;
+		
+		return MenuService.getMenuService().getMenuItem(itemIDs[choice - 1]);
+	}
 }
\ No newline at end of file
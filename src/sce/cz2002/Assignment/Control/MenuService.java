@@ -0,0 +1,482 @@
+package sce.cz2002.Assignment.Control;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import sce.cz2002.Assignment.Classes.MenuItem;
+import sce.cz2002.Assignment.Classes.SetPackage;
+
+/**
+ * A singleton class that provides the menu functionality without any
+ * user interaction<p>
+ * 
+ * Functionalities include looking up menu items, adding/updating/removing
+ * menu items<br>and adding/updating/removing set packages. The menu itself
+ * is kept by the menu manager,<br>which is a console client of this service
+ * <p>
+ * 
+ * Menu items are looked up by item ID or by name through the catalog of
+ * the menu<br>manager, without going through the menu. These are the menu
+ * items being edited,<br>for the menu manager<p>
+ * 
+ * Changes to the menu are made one at a time, and each change publishes a
+ * new<br>{@link MenuSnapshot} of the menu. Order taking reads the snapshot
+ * without locking,<br>so it never sees a change that is half made<p>
+ * 
+ * Invalid arguments are rejected with an {@link IllegalArgumentException}
+ * which<br>describes the problem
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class MenuService
+{
+	/**
+	 * A static instance of this menu service
+	 */
+	private static MenuService _menuService = null;
+	
+	/**
+	 * Private constructor used to support the Singleton design pattern
+	 */
+	private MenuService()
+	{
+	}
+	
+	/**
+	 * Public static function used to get hold of the menu service
+	 * 
+	 * @return The static instance of the menu service
+	 */
+	public static MenuService getMenuService()
+	{
+		if(_menuService == null)
+		{
+			_menuService = new MenuService();
+		}
+		
+		return _menuService;
+	}
+	
+	/**
+	 * Gets the list of menu items kept by the menu manager
+	 * 
+	 * @return The list of menu items
+	 */
+	private List<MenuItem> menu() {
+		return MenuMgr.getMenuMgr().getMenuItems();
+	}
+	
+	/**
+	 * Gets the catalog of menu items kept by the menu manager
+	 * 
+	 * @return The catalog of menu items
+	 */
+	private MenuCatalog catalog() {
+		return MenuMgr.getMenuMgr().getCatalog();
+	}
+	
+	/**
+	 * Publishes a snapshot of the menu after a change to the menu
+	 */
+	private void publish() {
+		MenuMgr.getMenuMgr().publishMenu();
+	}
+	
+	/**
+	 * Gets the snapshot published after the last change to the menu<br>
+	 * The snapshot does not change, and can be read without locking
+	 * 
+	 * @return The snapshot of the menu
+	 */
+	public MenuSnapshot getMenuSnapshot() {
+		return MenuMgr.getMenuMgr().getMenuSnapshot();
+	}
+	
+	/**
+	 * Gets all menu items in the menu, sorted by item type<br>
+	 * Set packages are at the end of the menu
+	 * 
+	 * @return A read-only list of all menu items
+	 */
+	public List<MenuItem> getMenu() {
+		return Collections.unmodifiableList(menu());
+	}
+	
+	/**
+	 * Gets the menu items that are not set packages, i.e. the menu items
+	 * <br>that can be added to a set package
+	 * 
+	 * @return The list of menu items that are not set packages
+	 */
+	public List<MenuItem> getAlaCarteItems()
+	{
+		List<MenuItem> alaCarteItems = new ArrayList<MenuItem>();
+		
+		for(MenuItem menuItem : menu())
+		{
+			// Set packages are sorted to the end of the menu
+			if(menuItem.getItemType() == MenuItem.ItemType.SetPackage)
+				break;
+			
+			alaCarteItems.add(menuItem);
+		}
+		
+		return alaCarteItems;
+	}
+	
+	/**
+	 * Gets the set packages in the menu
+	 * 
+	 * @return The list of set packages
+	 */
+	public List<SetPackage> getSetPackages()
+	{
+		List<SetPackage> setPackages = new ArrayList<SetPackage>();
+		
+		for(MenuItem menuItem : menu())
+		{
+			if(menuItem.getItemType() == MenuItem.ItemType.SetPackage)
+				setPackages.add((SetPackage) menuItem);
+		}
+		
+		return setPackages;
+	}
+	
+	/**
+	 * Finds a menu item by its name, ignoring case
+	 * 
+	 * @param itemName The name of the menu item
+	 * 
+	 * @return The menu item, null if there is no menu item with the name
+	 */
+	public MenuItem findMenuItem(String itemName) {
+		return catalog().findItem(itemName);
+	}
+	
+	/**
+	 * Gets a menu item by its item ID
+	 * 
+	 * @param itemID The item ID of the menu item
+	 * 
+	 * @return The menu item, null if there is no menu item with the item ID
+	 * 		   <br>on the menu
+	 */
+	public MenuItem getMenuItem(int itemID) {
+		return catalog().getItem(itemID);
+	}
+	
+	/**
+	 * Checks whether a given menu item name already exists in the menu
+	 * 
+	 * @param itemName The name of the new menu item to be created
+	 * 
+	 * @return True if it is a duplicate menu item name
+	 */
+	public boolean isDuplicateItem(String itemName) {
+		return findMenuItem(itemName) != null;
+	}
+	
+	/**
+	 * Adds a new menu item to the menu<br>
+	 * The menu is kept sorted according to the item type
+	 * 
+	 * @param itemType The item type, cannot be a set package
+	 * @param itemName The name of the item, must not exist in the menu
+	 * @param itemDesc The description of the item
+	 * @param itemPrice The price of the item, must be non-negative
+	 * 
+	 * @return The menu item added
+	 */
+	public synchronized MenuItem addMenuItem(MenuItem.ItemType itemType,
+			String itemName, String itemDesc, double itemPrice)
+	{
+		if(itemType == null || itemType == MenuItem.ItemType.SetPackage)
+			throw new IllegalArgumentException("Invalid item type: " + itemType);
+		
+		checkNewItemName(itemName);
+		checkItemPrice(itemPrice);
+		
+		MenuItem newMenuItem = new MenuItem(catalog().nextItemID(), itemType,
+				itemName, itemDesc, itemPrice);
+		catalog().add(newMenuItem);
+		menu().add(newMenuItem);
+		
+		// Keep the menu sorted according to the item type
+		Collections.sort(menu());
+		publish();
+		
+		return newMenuItem;
+	}
+	
+	/**
+	 * Updates the name, description and price of an existing menu item<br>
+	 * Set packages containing the menu item are re-priced
+	 * 
+	 * @param menuItem The menu item to be updated, cannot be a set package
+	 * @param newItemName The new name of the item, must not be the name of
+	 * 		  another item<br>in the menu
+	 * @param newItemDesc The new description of the item
+	 * @param newItemPrice The new price of the item, must be non-negative
+	 */
+	public synchronized void updateMenuItem(MenuItem menuItem,
+			String newItemName, String newItemDesc, double newItemPrice)
+	{
+		checkOnMenu(menuItem);
+		
+		if(menuItem instanceof SetPackage)
+			throw new IllegalArgumentException("\"" + menuItem.getName()
+					+ "\" is a set package");
+		
+		checkItemName(newItemName);
+		checkItemPrice(newItemPrice);
+		
+		catalog().rename(menuItem, newItemName);
+		menuItem.setDesc(newItemDesc);
+		menuItem.setPrice(newItemPrice);
+		
+		// Update Set Packages (if any)
+		catalog().invalidatePackagePrices(menuItem.getItemID());
+		publish();
+	}
+	
+	/**
+	 * Removes an existing menu item from the menu<p>
+	 * The menu item is also removed from any set package containing it,
+	 * <br>and a set package which becomes empty is removed from the menu
+	 * 
+	 * @param menuItem The menu item to be removed, cannot be a set package
+	 */
+	public synchronized void removeMenuItem(MenuItem menuItem)
+	{
+		checkOnMenu(menuItem);
+		
+		if(menuItem instanceof SetPackage)
+			throw new IllegalArgumentException("\"" + menuItem.getName()
+					+ "\" is a set package");
+		
+		// Update Set Packages (if any)
+		for(SetPackage setPackage :
+			catalog().getPackagesContaining(menuItem.getItemID()))
+		{
+			while(setPackage.findInPackage(menuItem))
+				setPackage.removeItemFromPackage(menuItem);
+			
+			catalog().removePackageItem(setPackage, menuItem);
+			
+			// Cannot have a set package with no items
+			if(setPackage.getPackageSize() == 0)
+			{
+				menu().remove(setPackage);
+				catalog().remove(setPackage);
+			}
+		}
+		
+		menu().remove(menuItem);
+		catalog().remove(menuItem);
+		publish();
+	}
+	
+	/**
+	 * Creates a new set package and adds it to the menu
+	 * 
+	 * @param packageName The name of the set package, must not exist in
+	 * 		  the menu
+	 * @param packageDesc The description of the set package
+	 * @param packageItems The menu items in the set package, there must be
+	 * 		  at least one<br>and none of them can be a set package
+	 * 
+	 * @return The set package added
+	 */
+	public synchronized SetPackage addSetPackage(String packageName,
+			String packageDesc, List<MenuItem> packageItems)
+	{
+		checkNewItemName(packageName);
+		
+		if(packageItems == null || packageItems.isEmpty())
+			throw new IllegalArgumentException("A set package must contain"
+					+ " at least one menu item");
+		
+		for(MenuItem packageItem : packageItems)
+		{
+			checkPackageItem(packageItem);
+		}
+		
+		SetPackage newSetPackage = new SetPackage(catalog().nextItemID(),
+				MenuItem.ItemType.SetPackage, packageName, packageDesc, 0);
+		
+		for(MenuItem packageItem : packageItems)
+		{
+			newSetPackage.addItemToPackage(packageItem);
+		}
+		
+		catalog().add(newSetPackage);
+		menu().add(newSetPackage);
+		
+		// Keep the menu sorted according to the item type
+		Collections.sort(menu());
+		publish();
+		
+		return newSetPackage;
+	}
+	
+	/**
+	 * Updates the name and description of an existing set package<br>
+	 * The price of a set package is always calculated from its menu items
+	 * 
+	 * @param setPackage The set package to be updated
+	 * @param newPackageName The new name of the set package, must not be
+	 * 		  the name of<br>another item in the menu
+	 * @param newPackageDesc The new description of the set package
+	 */
+	public synchronized void updateSetPackage(SetPackage setPackage,
+			String newPackageName, String newPackageDesc)
+	{
+		checkOnMenu(setPackage);
+		checkItemName(newPackageName);
+		
+		catalog().rename(setPackage, newPackageName);
+		setPackage.setDesc(newPackageDesc);
+		publish();
+	}
+	
+	/**
+	 * Adds a menu item to an existing set package
+	 * 
+	 * @param setPackage The set package that the menu item is added to
+	 * @param menuItem The menu item to be added, cannot be a set package
+	 */
+	public synchronized void addItemToPackage(SetPackage setPackage,
+			MenuItem menuItem)
+	{
+		checkOnMenu(setPackage);
+		checkPackageItem(menuItem);
+		
+		setPackage.addItemToPackage(menuItem);
+		catalog().addPackageItem(setPackage, menuItem);
+		publish();
+	}
+	
+	/**
+	 * Removes a menu item from an existing set package<br>
+	 * If the set package becomes empty, it is removed from the menu
+	 * 
+	 * @param setPackage The set package to remove the menu item from
+	 * @param menuItem The menu item to be removed
+	 * 
+	 * @return True if the set package was removed from the menu
+	 */
+	public synchronized boolean removeItemFromPackage(SetPackage setPackage,
+			MenuItem menuItem)
+	{
+		checkOnMenu(setPackage);
+		
+		if(!setPackage.findInPackage(menuItem))
+			throw new IllegalArgumentException("\"" + setPackage.getName()
+					+ "\" does not contain the menu item");
+		
+		setPackage.removeItemFromPackage(menuItem);
+		catalog().removePackageItem(setPackage, menuItem);
+		
+		boolean isPackageRemoved = setPackage.isEmpty();
+		
+		if(isPackageRemoved)
+		{
+			menu().remove(setPackage);
+			catalog().remove(setPackage);
+		}
+		
+		publish();
+		
+		return isPackageRemoved;
+	}
+	
+	/**
+	 * Removes an existing set package from the menu
+	 * 
+	 * @param setPackage The set package to be removed
+	 */
+	public synchronized void removeSetPackage(SetPackage setPackage)
+	{
+		checkOnMenu(setPackage);
+		
+		menu().remove(setPackage);
+		catalog().remove(setPackage);
+		publish();
+	}
+	
+	/**
+	 * Checks that a menu item is on the menu
+	 * 
+	 * @param menuItem The menu item to check
+	 * 
+	 * @throws IllegalArgumentException If the menu item is not on the menu
+	 */
+	private void checkOnMenu(MenuItem menuItem)
+	{
+		if(menuItem == null || catalog().getItem(menuItem.getItemID()) != menuItem)
+			throw new IllegalArgumentException("Menu item is not on the menu");
+	}
+	
+	/**
+	 * Checks that a menu item can be added to a set package
+	 * 
+	 * @param menuItem The menu item to check
+	 * 
+	 * @throws IllegalArgumentException If the menu item is not on the menu,
+	 * 		   or is a set package
+	 */
+	private void checkPackageItem(MenuItem menuItem)
+	{
+		checkOnMenu(menuItem);
+		
+		if(menuItem.getItemType() == MenuItem.ItemType.SetPackage)
+			throw new IllegalArgumentException("A set package cannot contain"
+					+ " another set package");
+	}
+	
+	/**
+	 * Checks that a name can be used for a new menu item
+	 * 
+	 * @param itemName The name of the new menu item
+	 * 
+	 * @throws IllegalArgumentException If the name is missing, or a menu item
+	 * 		   with the name exists
+	 */
+	private void checkNewItemName(String itemName)
+	{
+		checkItemName(itemName);
+		
+		if(isDuplicateItem(itemName))
+			throw new IllegalArgumentException("A menu item named \""
+					+ itemName + "\" already exists");
+	}
+	
+	/**
+	 * Checks that a menu item name is given
+	 * 
+	 * @param itemName The name of the menu item
+	 * 
+	 * @throws IllegalArgumentException If the name is missing
+	 */
+	private void checkItemName(String itemName)
+	{
+		if(itemName == null)
+			throw new IllegalArgumentException("Menu item name is missing");
+	}
+	
+	/**
+	 * Checks that a menu item price is non-negative
+	 * 
+	 * @param itemPrice The price to check
+	 * 
+	 * @throws IllegalArgumentException If the price is negative
+	 */
+	private void checkItemPrice(double itemPrice)
+	{
+		if(itemPrice < 0)
+			throw new IllegalArgumentException("Item price must be"
+					+ " non-negative: " + itemPrice);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,191 @@
+package sce.cz2002.Assignment.Control;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import sce.cz2002.Assignment.Classes.MenuItem;
+import sce.cz2002.Assignment.Classes.SetPackage;
+
+/**
+ * A read-only version of the menu, which order taking reads without
+ * locking<p>
+ * 
+ * Each change to the menu publishes a new snapshot with the next version
+ * number,<br>built from copies of the menu items, so a snapshot never
+ * changes once it has<br>been published. A terminal that takes the
+ * snapshot sees either the whole of a<br>change or none of it, however
+ * many terminals read the menu at the same time<p>
+ * 
+ * Menu items are kept in an array indexed by item ID and in a hash index by
+ * name<br>in lower case, like the catalog of the menu manager. The menu
+ * items of a snapshot<br>must not be changed
+ * 
+ * @author Jin Yao
+ * 
+ */
+public final class MenuSnapshot
+{
+	/**
+	 * The version of this snapshot, counting the changes to the menu
+	 */
+	private final long _version;
+	
+	/**
+	 * The menu items, sorted by item type
+	 */
+	private final List<MenuItem> _menu;
+	
+	/**
+	 * The menu items, indexed by item ID<br>
+	 * Item IDs that are not on the menu are null
+	 */
+	private final MenuItem[] _itemsByID;
+	
+	/**
+	 * The menu items, keyed by their name in lower case
+	 */
+	private final Map<String, MenuItem> _itemsByName;
+	
+	/**
+	 * Creates a snapshot of the menu, from copies of its menu items<br>
+	 * The set packages of the snapshot contain the copies of their menu
+	 * items, and<br>are priced before the snapshot is published
+	 * 
+	 * @param version The version of the snapshot
+	 * @param menu The menu items on the menu, sorted by item type, each
+	 * 		  with an item ID<br>from 1
+	 */
+	MenuSnapshot(long version, List<MenuItem> menu)
+	{
+		int maxItemID = 0;
+		for(MenuItem menuItem : menu)
+		{
+			maxItemID = Math.max(maxItemID, menuItem.getItemID());
+		}
+		
+		List<MenuItem> items = new ArrayList<MenuItem>(menu.size());
+		
+		_version = version;
+		_itemsByID = new MenuItem[maxItemID + 1];
+		_itemsByName = new HashMap<String, MenuItem>(menu.size() * 2);
+		
+		// Set packages are sorted to the end, after the items they contain
+		for(MenuItem menuItem : menu)
+		{
+			MenuItem copiedItem = copyOf(menuItem);
+			items.add(copiedItem);
+			
+			_itemsByID[copiedItem.getItemID()] = copiedItem;
+			
+			String nameKey = MenuCatalog.toNameKey(copiedItem.getName());
+			if(!_itemsByName.containsKey(nameKey))
+				_itemsByName.put(nameKey, copiedItem);
+		}
+		
+		_menu = Collections.unmodifiableList(items);
+	}
+	
+	/**
+	 * Copies a menu item for this snapshot<br>
+	 * The menu items of a set package are the copies already in this
+	 * snapshot, or<br>copied on their own if they are not on the menu
+	 * 
+	 * @param menuItem The menu item to be copied
+	 * 
+	 * @return The copy of the menu item
+	 */
+	private MenuItem copyOf(MenuItem menuItem)
+	{
+		if(!(menuItem instanceof SetPackage))
+		{
+			return new MenuItem(menuItem.getItemID(), menuItem.getItemType(),
+					menuItem.getName(), menuItem.getDesc(), menuItem.getPrice());
+		}
+		
+		SetPackage setPackage = (SetPackage) menuItem;
+		List<MenuItem> packageItems = new ArrayList<MenuItem>(
+				setPackage.getPackageSize());
+		
+		for(MenuItem packageItem : setPackage.getPackageItems())
+		{
+			MenuItem copiedItem = getItem(packageItem.getItemID());
+			
+			if(copiedItem == null || copiedItem instanceof SetPackage)
+				copiedItem = copyOf(packageItem);
+			
+			packageItems.add(copiedItem);
+		}
+		
+		SetPackage copiedPackage = new SetPackage(setPackage.getItemID(),
+				setPackage.getItemType(), setPackage.getName(),
+				setPackage.getDesc(), setPackage.getPrice(), packageItems);
+		
+		// Priced now, so that the published copy is never written to
+		copiedPackage.getPrice();
+		
+		return copiedPackage;
+	}
+	
+	/**
+	 * Gets the version of this snapshot<br>
+	 * A later snapshot has a higher version
+	 * 
+	 * @return The version of this snapshot
+	 */
+	public long getVersion() {
+		return _version;
+	}
+	
+	/**
+	 * Gets all menu items in this snapshot, sorted by item type<br>
+	 * Set packages are at the end of the menu
+	 * 
+	 * @return A read-only list of all menu items
+	 */
+	public List<MenuItem> getMenu() {
+		return _menu;
+	}
+	
+	/**
+	 * Checks whether the menu of this snapshot is empty
+	 * 
+	 * @return True if there are no menu items
+	 */
+	public boolean isEmpty() {
+		return _menu.isEmpty();
+	}
+	
+	/**
+	 * Gets a menu item by its item ID
+	 * 
+	 * @param itemID The item ID
+	 * 
+	 * @return The menu item, null if there is no menu item with the item ID
+	 * 		   <br>in this snapshot
+	 */
+	public MenuItem getItem(int itemID)
+	{
+		if(itemID < 0 || itemID >= _itemsByID.length)
+			return null;
+		
+		return _itemsByID[itemID];
+	}
+	
+	/**
+	 * Finds a menu item by its name, ignoring case
+	 * 
+	 * @param itemName The name of the menu item
+	 * 
+	 * @return The menu item, null if there is no menu item with the name
+	 */
+	public MenuItem findItem(String itemName)
+	{
+		if(itemName == null)
+			return null;
+		
+		return _itemsByName.get(MenuCatalog.toNameKey(itemName));
+	}
+}
\ No newline at end of file
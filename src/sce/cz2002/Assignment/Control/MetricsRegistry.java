@@ -0,0 +1,609 @@
+package sce.cz2002.Assignment.Control;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A singleton registry of the timers and counters of the application<p>
+ * 
+ * A {@link Timer} records how long each call of an operation takes into a
+ * <br>{@link LatencyHistogram}, and a {@link Counter} counts events in a
+ * {@link StripedCounter}.<br>Both are looked up by name once, and kept in
+ * a static field of the class that<br>uses them, so timing a call is only
+ * 2 clock reads and a few uncontended atomic<br>adds, without any
+ * locking<p>
+ * 
+ * Timing a call costs about as much as a sub-microsecond operation itself,
+ * so the<br>timers of operations on the hot path only time 1 in every
+ * {@link #SAMPLE_INTERVAL_PROPERTY}<br>calls, 64 by default. Their counts
+ * and sums are scaled back up when written.<br>Operations that take well
+ * under a microsecond even then are only timed once<br>turned on with
+ * {@link #FINE_GRAINED_PROPERTY}. Operations that are started by hand,<br>
+ * such as loading, saving and reports, time every call<p>
+ * 
+ * A snapshot of every timer and counter can be written in the Prometheus
+ * text<br>format at any time. Timers are written as a summary of the
+ * operation's duration<br>in seconds, labelled by operation. Metrics can be
+ * turned off with the system<br>property, or at runtime, after which
+ * calls are not timed or counted
+ * 
+ * @author Jin Yao
+ * 
+ */
+public final class MetricsRegistry
+{
+	/**
+	 * System property used to turn metrics off, when set to false
+	 */
+	public static final String METRICS_ENABLED_PROPERTY =
+			"rrpss.metrics.enabled";
+	
+	/**
+	 * System property used to set how many calls of a hot-path operation
+	 * there are<br>for every call timed, a power of 2, or 0 to time none
+	 * of them
+	 */
+	public static final String SAMPLE_INTERVAL_PROPERTY =
+			"rrpss.metrics.sampleInterval";
+	
+	/**
+	 * System property used to time sub-microsecond operations too, when set
+	 * to true
+	 */
+	public static final String FINE_GRAINED_PROPERTY =
+			"rrpss.metrics.fineGrained";
+	
+	/**
+	 * Default number of calls of a hot-path operation for every call timed
+	 */
+	private static final int DEFAULT_SAMPLE_INTERVAL = 64;
+	
+	/**
+	 * Prefix of the name of every metric written
+	 */
+	private static final String METRIC_PREFIX = "rrpss_";
+	
+	/**
+	 * Name of the summary that the timers are written as
+	 */
+	private static final String DURATION_METRIC =
+			METRIC_PREFIX + "operation_duration_seconds";
+	
+	/**
+	 * The quantiles written for each timer
+	 */
+	private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+	
+	/**
+	 * Start time returned by a timer while metrics are turned off
+	 */
+	private static final long NOT_TIMED = Long.MIN_VALUE;
+	
+	/**
+	 * Number of nanoseconds in a second
+	 */
+	private static final double NANOS_PER_SECOND = 1e9;
+	
+	/**
+	 * A static instance of this registry
+	 */
+	private static final MetricsRegistry _metricsRegistry =
+			new MetricsRegistry();
+	
+	/**
+	 * Whether calls are being timed and counted
+	 */
+	private static volatile boolean _isEnabled = !"false".equalsIgnoreCase(
+			System.getProperty(METRICS_ENABLED_PROPERTY));
+	
+	/**
+	 * Number of calls of a hot-path operation for every call timed, 0 if
+	 * none are
+	 */
+	private static final int SAMPLE_INTERVAL = getSampleInterval();
+	
+	/**
+	 * Whether sub-microsecond operations are timed
+	 */
+	private static final boolean IS_FINE_GRAINED = Boolean.getBoolean(
+			FINE_GRAINED_PROPERTY);
+	
+	/**
+	 * The timers, keyed by operation
+	 */
+	private final ConcurrentMap<String, Timer> _timers;
+	
+	/**
+	 * The counters, keyed by name
+	 */
+	private final ConcurrentMap<String, Counter> _counters;
+	
+	/**
+	 * Times the calls of an operation
+	 * 
+	 * @author Jin Yao
+	 * 
+	 */
+	public static final class Timer
+	{
+		/**
+		 * The name of the operation timed
+		 */
+		private final String _operation;
+		
+		/**
+		 * The duration of each call timed, in nanoseconds
+		 */
+		private final LatencyHistogram _durations;
+		
+		/**
+		 * Number of calls for every call timed, a power of 2, or 0 if no
+		 * call is timed
+		 */
+		private final int _sampleInterval;
+		
+		/**
+		 * The number of calls started, which picks the calls timed<br>
+		 * Not atomic, as losing a call now and then when threads race
+		 * only shifts<br>which calls are timed
+		 */
+		private int _numOfCalls;
+		
+		/**
+		 * Creates a new timer, with no calls timed
+		 * 
+		 * @param operation The name of the operation
+		 * @param sampleInterval Number of calls for every call timed, a
+		 * 		  power of 2,<br>or 0 to time none
+		 */
+		private Timer(String operation, int sampleInterval)
+		{
+			_operation = operation;
+			_durations = new LatencyHistogram();
+			_sampleInterval = sampleInterval;
+		}
+		
+		/**
+		 * Starts timing a call, if it is one of the calls timed<br>
+		 * Should be followed by {@link #stop(long)} in a finally block
+		 * 
+		 * @return The start time of the call, to be passed to stop
+		 */
+		public long start()
+		{
+			if(_sampleInterval == 0 || !_isEnabled ||
+					(_numOfCalls++ & (_sampleInterval - 1)) != 0)
+				return NOT_TIMED;
+			
+			return System.nanoTime();
+		}
+		
+		/**
+		 * Stops timing a call, and records its duration
+		 * 
+		 * @param startNanos The start time returned by {@link #start()}
+		 */
+		public void stop(long startNanos)
+		{
+			if(startNanos != NOT_TIMED)
+				_durations.record(System.nanoTime() - startNanos);
+		}
+		
+		/**
+		 * Gets the name of the operation timed
+		 * 
+		 * @return The name of the operation
+		 */
+		public String getOperation() {
+			return _operation;
+		}
+		
+		/**
+		 * Gets the duration of each call timed
+		 * 
+		 * @return The durations, in nanoseconds
+		 */
+		public LatencyHistogram getDurations() {
+			return _durations;
+		}
+		
+		/**
+		 * Gets the number of calls for every call timed
+		 * 
+		 * @return The sample interval, 1 if every call is timed, 0 if none
+		 * 		   are
+		 */
+		public int getSampleInterval() {
+			return _sampleInterval;
+		}
+	}
+	
+	/**
+	 * Counts the events of a kind
+	 * 
+	 * @author Jin Yao
+	 * 
+	 */
+	public static final class Counter
+	{
+		/**
+		 * The name of the counter
+		 */
+		private final String _name;
+		
+		/**
+		 * What the counter counts
+		 */
+		private final String _help;
+		
+		/**
+		 * The count
+		 */
+		private final StripedCounter _count;
+		
+		/**
+		 * Creates a new counter, starting from 0
+		 * 
+		 * @param name The name of the counter
+		 * @param help What the counter counts
+		 */
+		private Counter(String name, String help)
+		{
+			_name = name;
+			_help = help;
+			_count = new StripedCounter();
+		}
+		
+		/**
+		 * Adds 1 to this counter
+		 */
+		public void increment()
+		{
+			if(_isEnabled)
+				_count.increment();
+		}
+		
+		/**
+		 * Adds an amount to this counter
+		 * 
+		 * @param amount The amount to be added, at least 0
+		 */
+		public void add(long amount)
+		{
+			if(_isEnabled)
+				_count.add(amount);
+		}
+		
+		/**
+		 * Gets the name of this counter
+		 * 
+		 * @return The name of the counter
+		 */
+		public String getName() {
+			return _name;
+		}
+		
+		/**
+		 * Gets the count
+		 * 
+		 * @return The count
+		 */
+		public long getCount() {
+			return _count.sum();
+		}
+	}
+	
+	/**
+	 * Private constructor used to support the Singleton design pattern
+	 */
+	private MetricsRegistry()
+	{
+		_timers = new ConcurrentHashMap<String, Timer>();
+		_counters = new ConcurrentHashMap<String, Counter>();
+	}
+	
+	/**
+	 * Public static function used to get hold of the metrics registry
+	 * 
+	 * @return The static instance of the metrics registry
+	 */
+	public static MetricsRegistry getMetricsRegistry() {
+		return _metricsRegistry;
+	}
+	
+	/**
+	 * Checks whether calls are being timed and counted
+	 * 
+	 * @return True if metrics are turned on
+	 */
+	public static boolean isEnabled() {
+		return _isEnabled;
+	}
+	
+	/**
+	 * Turns metrics on or off<br>
+	 * Calls that have already started are still recorded
+	 * 
+	 * @param isEnabled Whether calls are timed and counted
+	 */
+	public static void setEnabled(boolean isEnabled) {
+		_isEnabled = isEnabled;
+	}
+	
+	/**
+	 * Gets the number of calls of a hot-path operation for every call
+	 * timed, from<br>the system property
+	 * 
+	 * @return The sample interval, rounded up to a power of 2, or 0 if no
+	 * 		   call is timed
+	 */
+	private static int getSampleInterval()
+	{
+		String sampleInterval = System.getProperty(SAMPLE_INTERVAL_PROPERTY);
+		
+		if(sampleInterval != null)
+		{
+			try {
+				int interval = Integer.parseInt(sampleInterval.trim());
+				
+				if(interval == 0)
+					return 0;
+				
+				if(interval > 0 && interval <= 1 << 30)
+					return Integer.highestOneBit(interval * 2 - 1);
+			} catch (NumberFormatException ex) {
+				// Falls back to the default below
+			}
+		}
+		
+		return DEFAULT_SAMPLE_INTERVAL;
+	}
+	
+	/**
+	 * Gets the timer of an operation which times every call, creating it
+	 * if there<br>is none yet
+	 * 
+	 * @param operation The name of the operation, in lower case letters,
+	 * 		  digits<br>and underscores
+	 * 
+	 * @return The timer of the operation
+	 * 
+	 * @throws IllegalArgumentException If the name is invalid
+	 */
+	public Timer getTimer(String operation) {
+		return getTimer(operation, 1);
+	}
+	
+	/**
+	 * Gets the timer of a hot-path operation, which only times 1 in every
+	 * <br>{@link #SAMPLE_INTERVAL_PROPERTY} calls, creating it if there is
+	 * none yet
+	 * 
+	 * @param operation The name of the operation, in lower case letters,
+	 * 		  digits<br>and underscores
+	 * 
+	 * @return The timer of the operation
+	 * 
+	 * @throws IllegalArgumentException If the name is invalid
+	 */
+	public Timer getSampledTimer(String operation) {
+		return getTimer(operation, SAMPLE_INTERVAL);
+	}
+	
+	/**
+	 * Gets the timer of a sub-microsecond operation, creating it if there
+	 * is none yet<br>
+	 * The timer is sampled like {@link #getSampledTimer(String)}, but only
+	 * times any<br>call once turned on with {@link #FINE_GRAINED_PROPERTY}
+	 * 
+	 * @param operation The name of the operation, in lower case letters,
+	 * 		  digits<br>and underscores
+	 * 
+	 * @return The timer of the operation
+	 * 
+	 * @throws IllegalArgumentException If the name is invalid
+	 */
+	public Timer getFineGrainedTimer(String operation) {
+		return getTimer(operation, IS_FINE_GRAINED ? SAMPLE_INTERVAL : 0);
+	}
+	
+	/**
+	 * Gets the timer of an operation, creating it if there is none yet
+	 * 
+	 * @param operation The name of the operation
+	 * @param sampleInterval Number of calls for every call timed, used if
+	 * 		  the timer<br>is created
+	 * 
+	 * @return The timer of the operation
+	 * 
+	 * @throws IllegalArgumentException If the name is invalid
+	 */
+	private Timer getTimer(String operation, int sampleInterval)
+	{
+		Timer timer = _timers.get(operation);
+		
+		if(timer == null)
+		{
+			checkName(operation);
+			
+			timer = new Timer(operation, sampleInterval);
+			Timer existingTimer = _timers.putIfAbsent(operation, timer);
+			
+			if(existingTimer != null)
+				timer = existingTimer;
+		}
+		
+		return timer;
+	}
+	
+	/**
+	 * Gets a counter, creating it if there is none yet<br>
+	 * The name of a counter should end in _total
+	 * 
+	 * @param name The name of the counter, in lower case letters, digits
+	 * 		  and<br>underscores
+	 * @param help What the counter counts
+	 * 
+	 * @return The counter
+	 * 
+	 * @throws IllegalArgumentException If the name is invalid
+	 */
+	public Counter getCounter(String name, String help)
+	{
+		Counter counter = _counters.get(name);
+		
+		if(counter == null)
+		{
+			checkName(name);
+			
+			counter = new Counter(name, help);
+			Counter existingCounter = _counters.putIfAbsent(name, counter);
+			
+			if(existingCounter != null)
+				counter = existingCounter;
+		}
+		
+		return counter;
+	}
+	
+	/**
+	 * Checks that a name can be used in a metric
+	 * 
+	 * @param name The name
+	 * 
+	 * @throws IllegalArgumentException If the name is invalid
+	 */
+	private static void checkName(String name)
+	{
+		if(name == null || !name.matches("[a-z_][a-z0-9_]*"))
+			throw new IllegalArgumentException("Invalid metric name: "
+					+ name);
+	}
+	
+	/**
+	 * Writes a snapshot of every timer and counter in the Prometheus text
+	 * format<br>
+	 * Timers and counters are written sorted by name, leaving out timers
+	 * which are<br>turned off
+	 * 
+	 * @param out The writer that the snapshot is written to
+	 * 
+	 * @throws IOException If the snapshot cannot be written
+	 */
+	public void writePrometheus(Writer out) throws IOException
+	{
+		Map<String, Timer> timers = new TreeMap<String, Timer>();
+		for(Timer timer : _timers.values())
+		{
+			// Timers that never time a call have nothing to show
+			if(timer.getSampleInterval() > 0)
+				timers.put(timer.getOperation(), timer);
+		}
+		
+		Map<String, Counter> counters = new TreeMap<String, Counter>(
+				_counters);
+		
+		if(!timers.isEmpty())
+		{
+			out.write("# HELP " + DURATION_METRIC
+					+ " Time taken by each call of an operation\n");
+			out.write("# TYPE " + DURATION_METRIC + " summary\n");
+			
+			// Counts and sums of sampled timers are estimated from the
+			// calls timed
+			for(Timer timer : timers.values())
+			{
+				LatencyHistogram durations = timer.getDurations();
+				String label = "operation=\"" + timer.getOperation() + "\"";
+				boolean isTimed = durations.getCount() > 0;
+				long scale = Math.max(timer.getSampleInterval(), 1);
+				
+				// Quantiles of an operation which has not been called are
+				// unknown
+				for(double quantile : QUANTILES)
+				{
+					out.write(DURATION_METRIC + "{" + label + ",quantile=\""
+							+ quantile + "\"} " + (isTimed ? toSeconds(
+							durations.getValueAtPercentile(quantile * 100))
+							: Double.NaN) + "\n");
+				}
+				
+				out.write(DURATION_METRIC + "_sum{" + label + "} "
+						+ toSeconds(durations.getSum() * scale) + "\n");
+				out.write(DURATION_METRIC + "_count{" + label + "} "
+						+ durations.getCount() * scale + "\n");
+			}
+			
+			out.write("# HELP " + DURATION_METRIC + "_max"
+					+ " Longest call of an operation\n");
+			out.write("# TYPE " + DURATION_METRIC + "_max gauge\n");
+			
+			for(Timer timer : timers.values())
+			{
+				out.write(DURATION_METRIC + "_max{operation=\""
+						+ timer.getOperation() + "\"} "
+						+ toSeconds(timer.getDurations().getMax()) + "\n");
+			}
+		}
+		
+		for(Counter counter : counters.values())
+		{
+			String metric = METRIC_PREFIX + counter.getName();
+			
+			out.write("# HELP " + metric + " " + counter._help + "\n");
+			out.write("# TYPE " + metric + " counter\n");
+			out.write(metric + " " + counter.getCount() + "\n");
+		}
+		
+		out.flush();
+	}
+	
+	/**
+	 * Exports a snapshot of every timer and counter to a file, in the
+	 * Prometheus<br>text format<br>
+	 * The snapshot is written to a temporary file first, so that the file
+	 * is never<br>seen half written
+	 * 
+	 * @param filePath The path of the file
+	 * 
+	 * @throws IOException If the file cannot be written
+	 */
+	public void exportTo(String filePath) throws IOException
+	{
+		File targetFile = new File(filePath);
+		File tempFile = new File(filePath + ".tmp");
+		
+		Writer out = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(tempFile), Charset.forName("UTF-8")));
+		try {
+			writePrometheus(out);
+		} finally {
+			out.close();
+		}
+		
+		Files.move(tempFile.toPath(), targetFile.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+	}
+	
+	/**
+	 * Converts nanoseconds to seconds
+	 * 
+	 * @param nanos The number of nanoseconds
+	 * 
+	 * @return The number of seconds
+	 */
+	private static double toSeconds(long nanos) {
+		return nanos / NANOS_PER_SECOND;
+	}
+}
\ No newline at end of file
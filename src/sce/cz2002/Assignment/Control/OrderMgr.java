@@ -2,28 +2,31 @@ package sce.cz2002.Assignment.Control;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.sql.Timestamp;
-import java.text.DecimalFormat;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.GregorianCalendar;
 import java.util.InputMismatchException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import sce.cz2002.Assignment.Classes.Customer;
+import sce.cz2002.Assignment.Classes.DateTimeFormat;
+import sce.cz2002.Assignment.Classes.DateTimes;
 import sce.cz2002.Assignment.Classes.MenuItem;
 import sce.cz2002.Assignment.Classes.Order;
 import sce.cz2002.Assignment.Classes.OrderItem;
 import sce.cz2002.Assignment.Classes.Staff;
 import sce.cz2002.Assignment.Classes.Table;
+import sce.cz2002.Assignment.Persistence.DataFile;
+import sce.cz2002.Assignment.Persistence.Journal;
+import sce.cz2002.Assignment.Persistence.OrderHistory;
+import sce.cz2002.Assignment.Persistence.OrderJournal;
+import sce.cz2002.Assignment.Persistence.OrderSnapshot;
 
 /**
  * A singleton class that takes care of all order-related functionality<p>
@@ -33,7 +36,13 @@ import sce.cz2002.Assignment.Classes.Table;
  * making payment for the order<p>
  * 
  * The order manager also takes care of displaying past sale revenue reports, which can
- * <br>be broken down by day/month
+ * <br>be broken down by day/month<p>
+ * 
+ * Every change to an order is written to the order journal as it happens,
+ * so orders<br>survive the application exiting without saving, or crashing<p>
+ * 
+ * The order manager is the console client of the {@link OrderService}, which
+ * makes<br>the actual changes to the orders
  * 
  * @author Jin Yao
  *
@@ -62,20 +71,118 @@ public class OrderMgr
 	 */
 	private static final String ORDER_FILE_PATH = "order.dat";
 	
+	/**
+	 * The file path indicating where the order journal is saved
+	 */
+	private static final String ORDER_JOURNAL_FILE_PATH = "order.log";
+	
+	/**
+	 * The directory path indicating where the monthly partitions of completed
+	 * <br>transactions are saved
+	 */
+	private static final String ORDER_HISTORY_PATH = "order.archive";
+	
+	/**
+	 * Times loading the orders
+	 */
+	private static final MetricsRegistry.Timer LOAD_TIMER =
+			MetricsRegistry.getMetricsRegistry().getTimer("orders_load");
+	
+	/**
+	 * Times saving the orders
+	 */
+	private static final MetricsRegistry.Timer SAVE_TIMER =
+			MetricsRegistry.getMetricsRegistry().getTimer("orders_save");
+	
+	/**
+	 * System property used to choose when the order journal is synced<br>
+	 * Valid values are the names of {@link Journal.SyncPolicy}
+	 */
+	private static final String JOURNAL_SYNC_POLICY_PROPERTY =
+			"rrpss.orderJournal.syncPolicy";
+	
+	/**
+	 * How often the order journal is synced, when using
+	 * {@link Journal.SyncPolicy#Interval}
+	 */
+	private static final long JOURNAL_SYNC_INTERVAL_MILLIS = 1000;
+	
+	/**
+	 * System property used to choose how many months of completed
+	 * transactions<br>are kept open at once
+	 */
+	private static final String MAX_OPEN_PARTITIONS_PROPERTY =
+			"rrpss.orderHistory.maxOpenPartitions";
+	
+	/**
+	 * How many months of completed transactions are kept open at once,
+	 * <br>unless chosen by the system property
+	 */
+	private static final int DEFAULT_MAX_OPEN_PARTITIONS = 3;
+	
+	/**
+	 * System property used to choose how many consumer threads each
+	 * kitchen<br>station has
+	 */
+	private static final String KITCHEN_CONSUMERS_PROPERTY =
+			"rrpss.kitchen.consumersPerStation";
+	
+	/**
+	 * How many consumer threads each kitchen station has, unless chosen by
+	 * <br>the system property
+	 */
+	private static final int DEFAULT_KITCHEN_CONSUMERS = 1;
+	
+	/**
+	 * The number of tickets that each kitchen station can hold
+	 */
+	private static final int KITCHEN_RING_CAPACITY = 4096;
+	
+	/**
+	 * The largest number of tickets handed to a kitchen station at once
+	 */
+	private static final int KITCHEN_BATCH_SIZE = 64;
+	
+	/**
+	 * How long a terminal waits for room at a full kitchen station
+	 */
+	private static final long KITCHEN_SEND_TIMEOUT_MILLIS = 100;
+	
 	/**
 	 * A static instance of this order manager
 	 */
 	private static OrderMgr _orderMgr = null;
 	
 	/**
-	 * A static list of ongoing orders (Not yet paid for)
+	 * A static map of ongoing orders (Not yet paid for), keyed by order ID
+	 * <br>Ongoing orders are changed by many terminals at once
+	 */
+	private static ConcurrentMap<String, Order> _currentOrders;
+	
+	/**
+	 * The journal that every order change is written to
 	 */
-	private static List<Order> _currentOrders;
+	private static OrderJournal _orderJournal;
 	
 	/**
-	 * A static list of completed transactions (Orders that have been paid for)
+	 * The completed transactions, partitioned by month
 	 */
-	private static List<Order> _completedOrders;
+	private static OrderHistory _orderHistory;
+	
+	/**
+	 * Sale revenue of the completed transactions, by day
+	 */
+	private static RevenueCube _revenueCube;
+	
+	/**
+	 * Aggregates the completed transactions over any range of days
+	 */
+	private static ReportEngine _reportEngine;
+	
+	/**
+	 * Sends the lines of the orders to the kitchen stations
+	 */
+	private static KitchenPipeline _kitchenPipeline;
 	
 	/**
 	 * Standard Java Scanner used for processing user inputs
@@ -86,15 +193,101 @@ public class OrderMgr
 	 * Private constructor used to support the Singleton design pattern
 	 * <br>
 	 * Creates a new Java Scanner object, and creates a new
-	 * arraylist of current orders as well a <br>new arraylist
-	 * of completed orders
+	 * map of current orders as well as<br>the order journal and
+	 * order history, and starts the kitchen pipeline
 	 */
 	private OrderMgr()
 	{
 		sc = new Scanner(System.in);
 		
-		_currentOrders = new ArrayList<Order>();
-		_completedOrders = new ArrayList<Order>();
+		_currentOrders = new ConcurrentHashMap<String, Order>();
+		
+		_orderHistory = new OrderHistory(ORDER_HISTORY_PATH,
+				getMaxOpenPartitions());
+		_revenueCube = new RevenueCube(_orderHistory);
+		_reportEngine = new ReportEngine(_orderHistory);
+		
+		_orderJournal = new OrderJournal(ORDER_FILE_PATH,
+				ORDER_JOURNAL_FILE_PATH, _orderHistory, getJournalSyncPolicy(),
+				JOURNAL_SYNC_INTERVAL_MILLIS);
+		
+		_kitchenPipeline = new KitchenPipeline(KITCHEN_RING_CAPACITY,
+				getKitchenConsumers(), KITCHEN_BATCH_SIZE,
+				KITCHEN_SEND_TIMEOUT_MILLIS);
+		_kitchenPipeline.start();
+	}
+	
+	/**
+	 * Gets the sync policy of the order journal, as chosen by the system
+	 * <br>property (if any). Defaults to syncing on every commit
+	 * 
+	 * @return The sync policy of the order journal
+	 */
+	private static Journal.SyncPolicy getJournalSyncPolicy()
+	{
+		String syncPolicy = System.getProperty(JOURNAL_SYNC_POLICY_PROPERTY);
+		
+		if(syncPolicy != null)
+		{
+			try {
+				return Journal.SyncPolicy.valueOf(syncPolicy);
+			} catch (IllegalArgumentException ex) {
+				System.out.println("Unknown order journal sync policy '"
+						+ syncPolicy + "', syncing on every commit..");
+			}
+		}
+		
+		return Journal.SyncPolicy.EveryCommit;
+	}
+	
+	/**
+	 * Gets how many months of completed transactions are kept open at once,
+	 * <br>as chosen by the system property (if any)
+	 * 
+	 * @return The largest number of open partitions of the order history
+	 */
+	private static int getMaxOpenPartitions()
+	{
+		String maxOpenPartitions = System.getProperty(
+				MAX_OPEN_PARTITIONS_PROPERTY);
+		
+		if(maxOpenPartitions != null)
+		{
+			try {
+				return Math.max(Integer.parseInt(maxOpenPartitions), 1);
+			} catch (NumberFormatException ex) {
+				System.out.println("Invalid number of open order history"
+						+ " partitions '" + maxOpenPartitions + "', keeping "
+						+ DEFAULT_MAX_OPEN_PARTITIONS + " open..");
+			}
+		}
+		
+		return DEFAULT_MAX_OPEN_PARTITIONS;
+	}
+	
+	/**
+	 * Gets how many consumer threads each kitchen station has, as chosen
+	 * by<br>the system property (if any)
+	 * 
+	 * @return The number of consumer threads of each kitchen station
+	 */
+	private static int getKitchenConsumers()
+	{
+		String kitchenConsumers = System.getProperty(
+				KITCHEN_CONSUMERS_PROPERTY);
+		
+		if(kitchenConsumers != null)
+		{
+			try {
+				return Math.max(Integer.parseInt(kitchenConsumers), 1);
+			} catch (NumberFormatException ex) {
+				System.out.println("Invalid number of kitchen consumers '"
+						+ kitchenConsumers + "', using "
+						+ DEFAULT_KITCHEN_CONSUMERS + "..");
+			}
+		}
+		
+		return DEFAULT_KITCHEN_CONSUMERS;
 	}
 	
 	/**
@@ -115,8 +308,78 @@ public class OrderMgr
 	/**
 	 * Loads the order-related information from the order file, if it exists
 	 * <br>Should be called at the start of the application
+	 * <p>
+	 * Orders are rebuilt from the order file, followed by the changes
+	 * recorded in<br>the order journal since the order file was written.
+	 * Tables of ongoing orders<br>are marked as occupied again. The sale
+	 * revenue is read from the monthly summaries<br>of the completed
+	 * transactions<p>
+	 * 
+	 * An order file saved in the old Java serialization format is
+	 * <br>migrated to the record format first
 	 */
 	public void loadOrders()
+	{
+		long startNanos = LOAD_TIMER.start();
+		try
+		{
+			recoverOrders();
+		}
+		finally
+		{
+			LOAD_TIMER.stop(startNanos);
+		}
+	}
+	
+	/**
+	 * Rebuilds the orders from the order file and the order journal
+	 */
+	private void recoverOrders()
+	{
+		if(DataFile.isLegacyFormat(ORDER_FILE_PATH))
+			migrateLegacyOrders();
+		
+		try
+		{
+			OrderSnapshot recoveredOrders = _orderJournal.open();
+			
+			for(Order order : recoveredOrders.getCurrentOrders())
+			{
+				_currentOrders.put(order.getOrderID(), order);
+			}
+			
+			for(Order order : _currentOrders.values())
+			{
+				Outlet outlet = RestaurantMgr.getRestaurantMgr().getOutlet(
+						order.getOutletIndex());
+				
+				// The outlet may have been taken out of the floor plan file
+				if(outlet != null)
+					outlet.getReservationService().occupyTable(
+							order.getTableNumber(), order.getCustomerID());
+			}
+			
+			if(_orderHistory.getNumOfOrders() > 0)
+				System.out.println("'Transactions' data loaded successfully!");
+			
+			if(!_currentOrders.isEmpty())
+				System.out.println("'Orders' data recovered successfully!");
+			
+		} catch (FileNotFoundException ex) {
+			System.out.println("Unable to load 'Transactions' data!");
+		} catch (IOException ex) {
+			System.out.println("Unable to load 'Transactions' data!");
+		} catch (Exception ex) {
+			System.out.println("Unable to load 'Transactions' data!");
+		}
+	}
+	
+	/**
+	 * Reads the completed transactions from an order file saved
+	 * <br>using Java serialization, and rewrites the order file in the
+	 * <br>record format
+	 */
+	private void migrateLegacyOrders()
 	{
 		FileInputStream fis = null;
 		ObjectInputStream in = null;
@@ -125,6 +388,7 @@ public class OrderMgr
 			fis = new FileInputStream(ORDER_FILE_PATH);
 			in = new ObjectInputStream(fis);
 			
+			List<Order> legacyOrders = new ArrayList<Order>();
 			Object obj = in.readObject();
 
 			if (obj instanceof ArrayList<?>) {
@@ -136,7 +400,7 @@ public class OrderMgr
 						Object childObj = al.get(objIndex);
 
 						if (childObj instanceof Order) {
-							_completedOrders.add(((Order) childObj));
+							legacyOrders.add(((Order) childObj));
 						}
 					}
 				}
@@ -144,8 +408,10 @@ public class OrderMgr
 
 			in.close();
 			
-			if(!_completedOrders.isEmpty())
-				System.out.println("'Transactions' data loaded successfully!");
+			OrderJournal.writeSnapshot(ORDER_FILE_PATH, new OrderSnapshot(
+					legacyOrders, new ArrayList<Order>(), 0));
+			System.out.println("'Transactions' data migrated to the"
+					+ " new format!");
 			
 		} catch (FileNotFoundException ex) {
 			System.out.println("Unable to load 'Transactions' data!");
@@ -161,30 +427,100 @@ public class OrderMgr
 	/**
 	 * Saves the all order-related information to the order file<br>
 	 * Should be called before exiting the application
+	 * <p>
+	 * Every change is already in the order journal, the journal is
+	 * compacted<br>into the order file so that the next start up is faster
 	 */
 	public void saveOrders()
 	{
-		FileOutputStream fos = null;
-		ObjectOutputStream out = null;
-
+		long startNanos = SAVE_TIMER.start();
 		try {
-			fos = new FileOutputStream(ORDER_FILE_PATH);
-			out = new ObjectOutputStream(fos);
-			
-			out.writeObject(_completedOrders);
-			
-			out.close();
+			_orderJournal.checkpoint();
 		} catch (FileNotFoundException ex) {
 			System.out.println("Unable to save 'Transactions' data!");
 		} catch (IOException ex) {
 			System.out.println("Unable to save 'Transactions' data!");
 		} catch (Exception ex) {
 			System.out.println("Unable to save 'Transactions' data!");
+		} finally {
+			SAVE_TIMER.stop(startNanos);
 		}
 		
 		System.out.println("Saved 'Transactions' data successfully!");
 	}
 	
+	/**
+	 * Closes the order journal and the order history, and stops the
+	 * <br>report engine and the kitchen pipeline<br>
+	 * Should be called before exiting the application, whether or not
+	 * <br>the orders have been saved
+	 */
+	public void closeOrders()
+	{
+		try {
+			_orderJournal.close();
+		} catch (IOException ex) {
+			System.out.println("Unable to save 'Transactions' data!");
+		} finally {
+			_reportEngine.shutdown();
+			_kitchenPipeline.stop();
+		}
+	}
+	
+	/**
+	 * Gets the ongoing orders keyed by order ID, for the {@link OrderService}
+	 * 
+	 * @return The map of ongoing orders
+	 */
+	ConcurrentMap<String, Order> getCurrentOrderMap() {
+		return _currentOrders;
+	}
+	
+	/**
+	 * Gets the completed transactions, for the {@link OrderService}
+	 * 
+	 * @return The completed transactions, partitioned by month
+	 */
+	OrderHistory getOrderHistory() {
+		return _orderHistory;
+	}
+	
+	/**
+	 * Gets the order journal, for the {@link OrderService}
+	 * 
+	 * @return The journal that every order change is written to
+	 */
+	OrderJournal getOrderJournal() {
+		return _orderJournal;
+	}
+	
+	/**
+	 * Gets the sale revenue by day, for the {@link OrderService}
+	 * 
+	 * @return The sale revenue of the completed transactions
+	 */
+	RevenueCube getRevenueCube() {
+		return _revenueCube;
+	}
+	
+	/**
+	 * Gets the report engine, for the {@link OrderService}
+	 * 
+	 * @return The engine aggregating the completed transactions
+	 */
+	ReportEngine getReportEngine() {
+		return _reportEngine;
+	}
+	
+	/**
+	 * Gets the kitchen pipeline, for the {@link OrderService}
+	 * 
+	 * @return The pipeline sending the lines of the orders to the kitchen
+	 */
+	KitchenPipeline getKitchenPipeline() {
+		return _kitchenPipeline;
+	}
+	
 	/**
 	 * Displays the list of options for this Order submenu
 	 */
@@ -281,7 +617,10 @@ public class OrderMgr
 	 */
 	private void viewCurrentOrders()
 	{
-		if(_currentOrders.isEmpty())
+		List<Order> currentOrders =
+				OrderService.getOrderService().getCurrentOrders();
+		
+		if(currentOrders.isEmpty())
 		{
 			System.out.print("\nWell, there are no orders"
 					+ " taken at the moment!");
@@ -290,22 +629,27 @@ public class OrderMgr
 			return;
 		}
 		
-		System.out.print("\n" + new String(new char[40]).replace("\0", "*"));
-		System.out.print(" Orders ");
-		System.out.println(new String(new char[39]).replace("\0", "*"));
+		ReportWriter out = ReportWriter.toConsole();
 		
-		int currOrderNo = 1;
-		
-		for(Order order : _currentOrders)
+		try
 		{
-			System.out.printf("%n%-5s", "(" + (currOrderNo++) + ")");
-			order.displayOrderDetails();
+			out.line().repeat('*', 40).text(" Orders ").repeat('*', 39).line();
+			
+			int currOrderNo = 1;
+			
+			for(Order order : currentOrders)
+			{
+				out.line().text('(').number(currOrderNo++).text(')').left(5);
+				order.writeOrderDetails(out);
+			}
+			
+			out.line().repeat('*', 40).text(" Orders ").repeat('*', 39).line();
+			out.flush();
+		}
+		catch(IOException ex)
+		{
+			System.out.println("Unable to display the orders!");
 		}
-		
-		System.out.print("\n" + new String(new char[40]).replace("\0", "*"));
-		System.out.print(" Orders ");
-		System.out.println(new String(new char[39]).replace("\0", "*"));
-		
 	}
 	
 	/**
@@ -315,14 +659,15 @@ public class OrderMgr
 	 * <br>selecting a customer and checking if there is an existing reservation for this
 	 * customer at<br>this point of time.<p>
 	 * 
-	 * If there is a reserved table, the customer will be assigned the reserved table.
-	 * <br>Else, the system will ask for the number of people and attempt to allocate
-	 * any available table that<br>accomodate the indicated number of people.<p>
+	 * If there is no reserved table, the system will ask for the number of people.
+	 * <br>The system will then allow the user to select from a list of menu items for
+	 * the order.<br>The order will be submitted only if there are 1 or more item in
+	 * the order.<p>
 	 * 
-	 * If there are no available tables at the moment, an error message will be shown.
-	 * <br>Once the customer has been assigned a table, the system will allow the user
-	 * <br>to select from a list of menu items for the order. The order will be submitted
-	 * <br>only if there are 1 or more item in the order.
+	 * The customer is only seated when the order is submitted, at the reserved table
+	 * <br>or else at any available table that accomodate the indicated number of
+	 * people, so<br>no table is held while the items are being selected. If there
+	 * are no available tables<br>at the moment, an error message will be shown.
 	 */
 	private void createOrder()
 	{	
@@ -344,69 +689,45 @@ public class OrderMgr
 				return;
 			}
 			
-			Table table;
+			ReservationService reservationService =
+					ReservationService.getReservationService();
 			
 			System.out.print("\nChecking for reservations..");
-			table = RestaurantMgr.getRestaurantMgr().getReservedTable(
+			
+			// The table is only claimed once the order is submitted
+			int numOfPeople = reservationService.getPaxFromReservation(
 					selectedCustomer.getCustomerID());
 			
-			int numOfPeople = 0;
-			if(table == null)
+			if(numOfPeople == 0)
 			{
 				System.out.println(" No reserved table found for this customer..");
 				
 				System.out.print("\nWe'll try to look for an empty table for you!");
-				System.out.print(" Enter number of people (1-10): ");
+				int maxNumOfPeople = reservationService.getMaxNumOfPeople();
+				System.out.print(" Enter number of people (1-" + maxNumOfPeople
+						+ "): ");
 				
 				numOfPeople = sc.nextInt();
 				sc.nextLine();
 				
-				if(numOfPeople < 1 || numOfPeople > 10)
+				if(numOfPeople < 1 || numOfPeople > maxNumOfPeople)
 				{
-					System.out.println("\nInvalid input, only 1-10 people allowed!");
+					System.out.println("\nInvalid input, only 1-" + maxNumOfPeople
+							+ " people allowed!");
 					System.out.println(" Failed to create order,"
 							+ " please try again..");
 					return;
 				}
-				
-				table = RestaurantMgr.getRestaurantMgr().getAvailableTable(
-						selectedCustomer.getCustomerID(), numOfPeople);
-				
-				if(table == null)
-				{
-					System.out.println("\nUnable to find an empty table"
-							+ " right now! Failed to create order,"
-							+ " please try again later..");
-					return;
-				}
-				else
-				{
-					System.out.printf("\nFound an empty table.. Please go"
-							+ " to Table '%d'!%n", table.getTableNumber());
-				}
 			}
 			else
 			{
-				System.out.printf(" Found an reserved table.."
-						+ " Please go to Table '%d'!%n", table.getTableNumber());
-				
-				numOfPeople = RestaurantMgr.getRestaurantMgr().
-						getPaxFromReservation(selectedCustomer.getCustomerID());
+				System.out.println(" Found an reserved table for this"
+						+ " customer..");
 			}
 			
-			Calendar currentInstant = GregorianCalendar.getInstance();
-        	Date currentDateTime = currentInstant.getTime();
-        	currentInstant.setTime(currentDateTime);
-        	
-        	Timestamp timestamp = new Timestamp(currentDateTime.getTime());
-        	String timestampStr = timestamp.toString();
-        	timestampStr = timestampStr.replaceAll("[^0-9]", "");
-        	
-        	String orderID = timestampStr + table.getTableNumber();
-        	
-        	Order newOrder = new Order(selectedWaiter.getStaffID(),
-        			selectedCustomer.getCustomerID(), table.getTableNumber(),
-        			numOfPeople, 0, 0, currentInstant, orderID);
+			// Quantities of the selected menu items, in the order selected
+			Map<MenuItem, Integer> orderItems =
+					new LinkedHashMap<MenuItem, Integer>();
         	
         	System.out.println("\nWhat would you like to have?");
         	
@@ -426,23 +747,45 @@ public class OrderMgr
         				continue;
         			}
         			
-        			newOrder.addItemToOrder(selectedItem, itemQuantity);
+        			Integer currQuantity = orderItems.get(selectedItem);
+        			orderItems.put(selectedItem, (currQuantity == null) ?
+        					itemQuantity : currQuantity + itemQuantity);
         		}
         		
         	} while(selectedItem != null);
         	
-        	if(newOrder.getNumberOfOrderItems() == 0)
+        	if(orderItems.isEmpty())
         	{
         		System.out.print("\nCannot create an order with 0 items!");
     			System.out.println(" Failed to create order,"
     					+ " please try again..");
     			return;
         	}
-        	else
+
+        	// Seats the customer, and gives the table back if that fails
+        	Order newOrder = OrderService.getOrderService().createOrder(
+        			selectedWaiter.getStaffID(),
+        			selectedCustomer.getCustomerID(), numOfPeople, orderItems);
+
+        	if(newOrder == null)
         	{
-        		_currentOrders.add(newOrder);    		
-        		System.out.println("\nSucessfully created new order!!");
+        		System.out.println("\nNo available tables!");
+        		System.out.println("\nUnable to find an empty table"
+        				+ " right now! Failed to create order,"
+        				+ " please try again later..");
+        		return;
         	}
+
+        	System.out.printf("\nPlease go to Table '%d'!%n",
+        			newOrder.getTableNumber());
+        	System.out.println("\nSucessfully created new order!!");
+		}
+		catch(IOException ex)
+		{
+			System.out.print("\nUnable to save 'Transactions' data! ");
+			System.out.println("Failed to create order,"
+					+ " please try again..");
+			return;
 		}
 		catch(InputMismatchException ex)
 		{
@@ -469,7 +812,10 @@ public class OrderMgr
 	 */
 	private void addItemToOrder() 
 	{
-		if(_currentOrders.isEmpty())
+		List<Order> currentOrders =
+				OrderService.getOrderService().getCurrentOrders();
+		
+		if(currentOrders.isEmpty())
 		{
 			System.out.print("\nWell, there are no orders"
 					+ " taken at the moment!");
@@ -481,7 +827,7 @@ public class OrderMgr
 		try
 		{
         	int orderIndex = 0;
-        	int maxOrders = _currentOrders.size();
+        	int maxOrders = currentOrders.size();
         	
         	System.out.println();
         	System.out.printf("%5s%-25s", "", "Order ID");
@@ -489,7 +835,7 @@ public class OrderMgr
     		System.out.printf("%-15s", "Customer ID");
     		System.out.printf("%-15s%n", "Table Number");
     		
-        	for(Order order : _currentOrders)
+        	for(Order order : currentOrders)
         	{
         		System.out.printf("%-5s", "(" + (++orderIndex) + ")");
         		order.displayOrderSummary();
@@ -514,7 +860,7 @@ public class OrderMgr
 				return;
 			}
 			
-			Order updatingOrder = _currentOrders.get(selectedOrderIndex - 1);			
+			Order updatingOrder = currentOrders.get(selectedOrderIndex - 1);			
 			System.out.println("\nWhat would you like to add to the order?");
 			
         	MenuItem selectedItem = null;
@@ -531,13 +877,23 @@ public class OrderMgr
         		}
         		else
         		{
-        			updatingOrder.addItemToOrder(selectedItem, itemQuantity);
+        			OrderService.getOrderService().addItem(
+        					updatingOrder.getOrderID(), selectedItem,
+        					itemQuantity);
+
         			System.out.printf("%nSuccessfully added \"%dx"
         					+ " %s\" to the order!%n", itemQuantity,
         					selectedItem.getName());
         		}
         	}
 		}
+		catch(IOException ex)
+		{
+			System.out.print("\nUnable to save 'Transactions' data! ");
+			System.out.println("Failed to add item to order,"
+					+ " please try again..");
+			return;
+		}
 		catch(InputMismatchException ex)
 		{
 			System.out.print("\nInvalid input! ");
@@ -564,7 +920,10 @@ public class OrderMgr
 	 */
 	private void removeItemFromOrder()
 	{
-		if(_currentOrders.isEmpty())
+		List<Order> currentOrders =
+				OrderService.getOrderService().getCurrentOrders();
+		
+		if(currentOrders.isEmpty())
 		{
 			System.out.print("\nWell, there are no orders"
 					+ " taken at the moment!");
@@ -576,7 +935,7 @@ public class OrderMgr
 		try
 		{
         	int orderIndex = 0;
-        	int maxOrders = _currentOrders.size();
+        	int maxOrders = currentOrders.size();
         	
         	System.out.println();
         	System.out.printf("%5s%-25s", "", "Order ID");
@@ -584,7 +943,7 @@ public class OrderMgr
     		System.out.printf("%-15s", "Customer ID");
     		System.out.printf("%-15s%n", "Table Number");
     		
-        	for(Order order : _currentOrders)
+        	for(Order order : currentOrders)
         	{
         		System.out.printf("%-5s", "(" + (++orderIndex) + ")");
         		order.displayOrderSummary();
@@ -609,7 +968,7 @@ public class OrderMgr
 				return;
 			}
 			
-			Order updatingOrder = _currentOrders.get(selectedOrderIndex - 1);			
+			Order updatingOrder = currentOrders.get(selectedOrderIndex - 1);			
 			System.out.println("\nWhat would you like to remove from the order?");
 			
 			List<OrderItem> orderItems = updatingOrder.getOrderItems();
@@ -650,7 +1009,7 @@ public class OrderMgr
         	if(removedOrderItem != null)
         	{
         		int maxItemQuantity = updatingOrder.getOrderItemQuantity(
-        				removedOrderItem.getName());
+        				removedOrderItem.getItemID());
         		
         		System.out.print("Enter the quantity to be removed: ");
         		int itemQuantity = sc.nextInt();
@@ -671,24 +1030,31 @@ public class OrderMgr
         		}
         		else
         		{
-        			updatingOrder.removeItemFromOrder(
-        					removedOrderItem.getName(), itemQuantity);
+        			boolean isOrderCancelled = OrderService.getOrderService().
+        					removeItem(updatingOrder.getOrderID(),
+        							removedOrderItem.getItemID(), itemQuantity);
+
         			System.out.printf("%nSuccessfully removed \"%dx"
         					+ " %s\" from the order!%n", itemQuantity,
         					removedOrderItem.getName());
         			
-        			if(updatingOrder.getNumberOfOrderItems() == 0)
+        			if(isOrderCancelled)
                 	{
                 		System.out.print("\nThe order is now empty! Cannot"
                 				+ " have an order with 0 items,");
             			System.out.println(" removing order..");
-            			
-            			_currentOrders.remove(updatingOrder);
             			return;
                 	}
         		}
         	}
 		}
+		catch(IOException ex)
+		{
+			System.out.print("\nUnable to save 'Transactions' data! ");
+			System.out.println("Failed to remove item from order,"
+					+ " please try again..");
+			return;
+		}
 		catch(InputMismatchException ex)
 		{
 			System.out.print("\nInvalid input! ");
@@ -717,7 +1083,10 @@ public class OrderMgr
 	 */
 	private void makePaymentForOrder()
 	{
-		if(_currentOrders.isEmpty())
+		List<Order> currentOrders =
+				OrderService.getOrderService().getCurrentOrders();
+		
+		if(currentOrders.isEmpty())
 		{
 			System.out.print("\nWell, there are no orders"
 					+ " taken at the moment!");
@@ -729,7 +1098,7 @@ public class OrderMgr
 		try
 		{
         	int orderIndex = 0;
-        	int maxOrders = _currentOrders.size();
+        	int maxOrders = currentOrders.size();
         	
         	System.out.println();
         	System.out.printf("%5s%-25s", "", "Order ID");
@@ -737,7 +1106,7 @@ public class OrderMgr
     		System.out.printf("%-15s", "Customer ID");
     		System.out.printf("%-15s%n", "Table Number");
     		
-        	for(Order order : _currentOrders)
+        	for(Order order : currentOrders)
         	{
         		System.out.printf("%-5s", "(" + (++orderIndex) + ")");
         		order.displayOrderSummary();
@@ -762,24 +1131,28 @@ public class OrderMgr
 				return;
 			}
 			
+			Order payingOrder = OrderService.getOrderService().payOrder(
+					currentOrders.get(selectedOrderIndex - 1).getOrderID());
+			
 			// Display the order invoice
-			Order payingOrder = _currentOrders.get(selectedOrderIndex - 1);
 			payingOrder.displayOrderInvoice();
 			
-			// Free the occupied table
-			Table occupiedTable = RestaurantMgr.getRestaurantMgr().
-					getTableByNumber(payingOrder.getTableNumber());
-			if(occupiedTable != null)
+			Outlet outlet = RestaurantMgr.getRestaurantMgr().getOutlet(
+					payingOrder.getOutletIndex());
+			Table freedTable = (outlet == null) ? null :
+					outlet.getTable(payingOrder.getTableNumber());
+			if(freedTable != null)
 			{
-				occupiedTable.freeTable();
 				System.out.printf("%nTable \'%d\' is now available!%n",
-						occupiedTable.getTableNumber());
+						freedTable.getTableNumber());
 			}
-			
-			// Remove it from the list of current orders
-			// Add it to the list of completed transactions
-			_currentOrders.remove(payingOrder);
-			_completedOrders.add(payingOrder);
+		}
+		catch(IOException ex)
+		{
+			System.out.print("\nUnable to save 'Transactions' data! ");
+			System.out.println("Failed to make payment,"
+					+ " please try again..");
+			return;
 		}
 		catch(InputMismatchException ex)
 		{
@@ -805,7 +1178,7 @@ public class OrderMgr
 	 */
 	public void displaySaleRevenue()
 	{
-		if(_completedOrders.isEmpty())
+		if(!OrderService.getOrderService().hasCompletedOrders())
 		{
 			System.out.println("\nNo completed orders!"
 					+ " Nothing to be displayed..");
@@ -876,25 +1249,14 @@ public class OrderMgr
 	{
 		try
 		{	
-			SimpleDateFormat sdf = new SimpleDateFormat();
-        	sdf.applyPattern("dd/MM/yyyy");
-        	sdf.setLenient(false);
-        	
         	System.out.println("\nDisplaying sale revenue report by day..");
         	System.out.print("Enter date (dd/mm/yyyy): ");
         	String saleRevenueDateStr = sc.next();
 
-        	Date saleRevenueDate = sdf.parse(saleRevenueDateStr);
-        	Calendar saleRevenueCal = GregorianCalendar.getInstance();
-        	saleRevenueCal.setTime(saleRevenueDate);
+        	long saleRevenueMillis = DateTimeFormat.DATE.parse(saleRevenueDateStr);
+        	int saleRevenueDay = DateTimes.toEpochDay(saleRevenueMillis);
         	
-			Calendar currentInstant = GregorianCalendar.getInstance();
-        	Date currentDateTime = currentInstant.getTime();
-        	currentInstant.setTime(currentDateTime);
-        	currentInstant.set(Calendar.HOUR_OF_DAY, 23);
-        	currentInstant.set(Calendar.MINUTE, 59);
-        	
-        	if(saleRevenueCal.after(currentInstant))
+        	if(saleRevenueDay > DateTimes.toEpochDay(System.currentTimeMillis()))
         	{
         		System.out.print("\nInvalid date! ");
     			System.out.println("Failed to check sale revenue report,"
@@ -906,39 +1268,36 @@ public class OrderMgr
         	
         	double overallRevenue = 0.0;
         	
-        	for(Order order : _completedOrders)
+        	RevenueCube.DayRevenue dayRevenue = OrderService.getOrderService().
+        			getDayRevenue(saleRevenueDay);
+
+        	// Every invoice of the day is streamed through one buffer
+        	ReportWriter out = ReportWriter.toConsole();
+
+        	if(dayRevenue != null)
         	{
-        		Calendar orderDateTime = order.getOrderDateTime();
-        		
-        		if( (orderDateTime.get(Calendar.YEAR) == 
-        				saleRevenueCal.get(Calendar.YEAR)) &&
-        				(orderDateTime.get(Calendar.MONTH) ==
-        				saleRevenueCal.get(Calendar.MONTH)) &&
-        				(orderDateTime.get(Calendar.DAY_OF_MONTH) ==
-        				saleRevenueCal.get(Calendar.DAY_OF_MONTH)) )
+        		for(Order order : dayRevenue.getOrders())
         		{
-        			overallRevenue += order.getNettTotalPrice();
-        			order.displayOrderInvoice();
+        			order.writeOrderInvoice(out);
         		}
+
+        		overallRevenue = dayRevenue.getRevenue();
         	}
         	
-        	SimpleDateFormat saleRevenueDateFormat;
-        	saleRevenueDateFormat = new SimpleDateFormat("E, dd/MM/yyyy");
-        	
         	if(overallRevenue == 0.0)
         	{
-        		System.out.println("\nThere are no sales made on the selected"
-        				+ " day, \"" + saleRevenueDateFormat.
-        				format(saleRevenueDate) + "\"");
+        		out.line().text("There are no sales made on the selected day, \"");
+        		out.dateTime(saleRevenueMillis, DateTimeFormat.DAY);
+        		out.text('"').line();
         	}
         	else
         	{
-        		System.out.println("\nTotal sales for"
-        				+ " \"" + saleRevenueDateFormat.
-        				format(saleRevenueDate) + "\": " +
-        				new DecimalFormat("$###,##0.00").
-        				format(overallRevenue) );
+        		out.line().text("Total sales for \"");
+        		out.dateTime(saleRevenueMillis, DateTimeFormat.DAY);
+        		out.text("\": ").money(dayRevenue.getRevenueCents()).line();
         	}
+
+        	out.flush();
 		}
 		catch(ParseException ex)
         {
@@ -983,25 +1342,15 @@ public class OrderMgr
 	{
 		try
 		{
-			SimpleDateFormat sdf = new SimpleDateFormat();
-        	sdf.applyPattern("MM/yyyy");
-        	sdf.setLenient(false);
-        	
         	System.out.println("\nDisplaying sale revenue report by month..");
         	System.out.print("Enter month (mm/yyyy): ");
         	String saleRevenueDateStr = sc.next();
 
-        	Date saleRevenueMonth = sdf.parse(saleRevenueDateStr);
-        	Calendar saleRevenueCal = GregorianCalendar.getInstance();
-        	saleRevenueCal.setTime(saleRevenueMonth);
-        	
-			Calendar currentInstant = GregorianCalendar.getInstance();
-        	Date currentDateTime = currentInstant.getTime();
-        	currentInstant.setTime(currentDateTime);
-        	currentInstant.set(Calendar.DAY_OF_MONTH, 0);
+        	int saleRevenueMonth = DateTimes.toEpochMonth(
+        			DateTimeFormat.MONTH.parse(saleRevenueDateStr));
         	
-			if (saleRevenueCal.get(Calendar.YEAR) > currentInstant
-					.get(Calendar.YEAR))
+			if (saleRevenueMonth > DateTimes.toEpochMonth(
+					System.currentTimeMillis()))
 			{
 				System.out.print("\nInvalid month! ");
 				System.out.println("Failed to check sale revenue report,"
@@ -1010,48 +1359,31 @@ public class OrderMgr
 						+ " reports for previous/current month!");
 				return;
 			}
-			if (saleRevenueCal.get(Calendar.YEAR) == currentInstant
-					.get(Calendar.YEAR))
-			{
-				if ((saleRevenueCal.get(Calendar.MONTH) - 1) > 
-					currentInstant.get(Calendar.MONTH))
-				{
-					System.out.print("\nInvalid month! ");
-					System.out.println("Failed to check sale revenue report,"
-							+ " please try again..");
-					System.out.println("NOTE: You can only check sale revenue"
-							+ " reports for previous/current month!");
-					return;
-				}
-			}
         	
         	double[] overallRevenue = new double[31];
         	double totalRevenue = 0.0;
         	
-        	for(Order order : _completedOrders)
+        	// Only the days of the selected month are looked at
+        	int firstEpochDay = DateTimes.getFirstDayOfMonth(saleRevenueMonth);
+        	int numOfDays = DateTimes.getLengthOfMonth(saleRevenueMonth);
+
+        	for(int currDay = 0; currDay < numOfDays; currDay++)
         	{
-        		Calendar orderDateTime = order.getOrderDateTime();
+        		RevenueCube.DayRevenue dayRevenue = OrderService.
+        				getOrderService().getDayRevenue(firstEpochDay + currDay);
         		
-        		if( (orderDateTime.get(Calendar.YEAR) == 
-        				saleRevenueCal.get(Calendar.YEAR)) &&
-        				(orderDateTime.get(Calendar.MONTH) ==
-        				saleRevenueCal.get(Calendar.MONTH)) )
+        		if(dayRevenue != null)
         		{
-        			overallRevenue[orderDateTime.get(Calendar.DAY_OF_MONTH) - 1]
-        					+= order.getNettTotalPrice();
-        			
-        			totalRevenue += order.getNettTotalPrice();
+        			overallRevenue[currDay] = dayRevenue.getRevenue();
+        			totalRevenue += dayRevenue.getRevenue();
         		}
         	}
         	
-        	SimpleDateFormat saleRevenueDateFormat;
-        	saleRevenueDateFormat = new SimpleDateFormat("MMMM yyyy");
-        	
         	if(totalRevenue == 0.0)
         	{
         		System.out.println("\nThere are no sales made on the selected"
-        				+ " month, \"" + saleRevenueDateFormat.
-        				format(saleRevenueCal.getTime()) + "\"!");
+        				+ " month, \"" + DateTimeFormat.FULL_MONTH_NAME.format(
+        				DateTimes.toStartMillis(firstEpochDay)) + "\"!");
         		return;
         	}
         	
@@ -1076,23 +1408,24 @@ public class OrderMgr
         		}
         	}
         	
-        	saleRevenueDateFormat = new SimpleDateFormat("dd/MM/yyyy");
-        	saleRevenueCal.set(Calendar.DAY_OF_MONTH, maxDay + 1);
-        	System.out.printf("%nHighest sales for the month: \"%s\"\t",
-        			saleRevenueDateFormat.format(saleRevenueCal.getTime()));
-        	System.out.printf("Revenue for the day: %s%n",
-        			new DecimalFormat("$###,##0.00").format(maxDayRevenue));
+        	ReportWriter out = ReportWriter.toConsole();
+
+        	out.line().text("Highest sales for the month: \"");
+        	out.dateTime(DateTimes.toStartMillis(firstEpochDay + maxDay),
+        			DateTimeFormat.DATE);
+        	out.text("\"\tRevenue for the day: ").money(maxDayRevenue).line();
         	
-        	saleRevenueCal.set(Calendar.DAY_OF_MONTH, minDay + 1);
-        	System.out.printf("Lowest sales for the month: \"%s\"\t",
-        			saleRevenueDateFormat.format(saleRevenueCal.getTime()));
-        	System.out.printf("Revenue for the day: %s%n",
-        			new DecimalFormat("$###,##0.00").format(minDayRevenue));
+        	out.text("Lowest sales for the month: \"");
+        	out.dateTime(DateTimes.toStartMillis(firstEpochDay + minDay),
+        			DateTimeFormat.DATE);
+        	out.text("\"\tRevenue for the day: ").money(minDayRevenue).line();
         	
-        	saleRevenueDateFormat = new SimpleDateFormat("MMM yyyy");
-        	System.out.printf("%nTotal sales for the month \"%s\": %s%n",
-        			saleRevenueDateFormat.format(saleRevenueCal.getTime()),
-        			new DecimalFormat("$###,##0.00").format(totalRevenue));
+        	out.line().text("Total sales for the month \"");
+        	out.dateTime(DateTimes.toStartMillis(firstEpochDay),
+        			DateTimeFormat.MONTH_NAME);
+        	out.text("\": ").money(totalRevenue).line();
+
+        	out.flush();
 		}
 		catch(ParseException ex)
         {
@@ -0,0 +1,1050 @@
+package sce.cz2002.Assignment.Control;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import sce.cz2002.Assignment.Classes.DateTimeFormat;
+import sce.cz2002.Assignment.Classes.DateTimes;
+import sce.cz2002.Assignment.Classes.MenuItem;
+import sce.cz2002.Assignment.Classes.Order;
+import sce.cz2002.Assignment.Classes.Reservation;
+import sce.cz2002.Assignment.Classes.Staff;
+import sce.cz2002.Assignment.Classes.Table;
+
+/**
+ * A singleton class that provides the order functionality without any
+ * user interaction<p>
+ * 
+ * Functionalities include creating new orders, adding/removing menu items
+ * from an order,<br>making payment for an order and looking up the sale
+ * revenue. Orders are identified<br>by their order IDs, and are kept by the
+ * order manager, which is a console client of<br>this service<p>
+ * 
+ * Every change to an order is written to the order journal before the
+ * change is<br>reported as done. If the order journal cannot be written,
+ * an {@link IOException} is thrown<p>
+ * 
+ * Invalid arguments are rejected with an {@link IllegalArgumentException}
+ * which<br>describes the problem<p>
+ * 
+ * This service can be used by many terminals at once. Ongoing orders are
+ * kept in a<br>concurrent map, and changes to the same order are
+ * serialized by one of a fixed set<br>of striped locks, picked by the
+ * order ID. Changes to different orders rarely share<br>a lock, so they
+ * can be made in parallel
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class OrderService
+{
+	/**
+	 * Number of striped order locks, must be a power of 2
+	 */
+	private static final int NUM_OF_ORDER_LOCKS = 64;
+	
+	/**
+	 * Format of the date/time at the start of an order ID, down to the
+	 * second
+	 */
+	private static final DateTimeFormat ORDER_ID_FORMAT =
+			new DateTimeFormat("yyyyMMddHHmmss");
+	
+	/**
+	 * Orders ongoing orders by order date/time, then by order ID
+	 */
+	private static final Comparator<Order> ORDER_DATE_TIME_ORDER =
+			new Comparator<Order>() {
+		
+		@Override
+		public int compare(Order orderA, Order orderB)
+		{
+			long orderMillisA = orderA.getOrderTimeInMillis();
+			long orderMillisB = orderB.getOrderTimeInMillis();
+			
+			if(orderMillisA != orderMillisB)
+				return (orderMillisA < orderMillisB) ? -1 : 1;
+			
+			return orderA.getOrderID().compareTo(orderB.getOrderID());
+		}
+	};
+	
+	/**
+	 * Times creating orders, 1 in every few calls
+	 */
+	private static final MetricsRegistry.Timer CREATE_ORDER_TIMER =
+			MetricsRegistry.getMetricsRegistry().getSampledTimer(
+					"order_create");
+	
+	/**
+	 * Times adding menu items to orders, 1 in every few calls
+	 */
+	private static final MetricsRegistry.Timer ADD_ITEM_TIMER =
+			MetricsRegistry.getMetricsRegistry().getSampledTimer(
+					"order_add_item");
+	
+	/**
+	 * Times making payments for orders, 1 in every few calls
+	 */
+	private static final MetricsRegistry.Timer PAYMENT_TIMER =
+			MetricsRegistry.getMetricsRegistry().getSampledTimer(
+					"order_payment");
+	
+	/**
+	 * Times looking up the sale revenue of a day
+	 */
+	private static final MetricsRegistry.Timer DAY_REVENUE_TIMER =
+			MetricsRegistry.getMetricsRegistry().getTimer(
+			"report_day_revenue");
+	
+	/**
+	 * Times looking up the sale revenue of a range of days
+	 */
+	private static final MetricsRegistry.Timer REVENUE_TIMER =
+			MetricsRegistry.getMetricsRegistry().getTimer("report_revenue");
+	
+	/**
+	 * Times writing the invoices of a day
+	 */
+	private static final MetricsRegistry.Timer DAY_INVOICES_TIMER =
+			MetricsRegistry.getMetricsRegistry().getTimer(
+			"report_day_invoices");
+	
+	/**
+	 * Times aggregating the completed transactions of a range of days
+	 */
+	private static final MetricsRegistry.Timer AGGREGATE_TIMER =
+			MetricsRegistry.getMetricsRegistry().getTimer("report_aggregate");
+	
+	/**
+	 * Times aggregating the completed transactions by staff or by table
+	 */
+	private static final MetricsRegistry.Timer GROUPED_AGGREGATE_TIMER =
+			MetricsRegistry.getMetricsRegistry().getTimer(
+			"report_aggregate_grouped");
+	
+	/**
+	 * Counts the menu items ordered, by quantity
+	 */
+	private static final MetricsRegistry.Counter ORDERED_ITEMS_COUNTER =
+			MetricsRegistry.getMetricsRegistry().getCounter(
+			"order_items_total", "Number of menu items ordered");
+	
+	/**
+	 * A static instance of this order service
+	 */
+	private static volatile OrderService _orderService = null;
+	
+	/**
+	 * Striped locks which serialize the changes made to an order
+	 */
+	private final ReentrantLock[] _orderLocks;
+	
+	/**
+	 * Serializes payments, so that orders are archived in the order their
+	 * <br>payments were written to the order journal
+	 */
+	private final ReentrantLock _paymentLock;
+	
+	/**
+	 * The order date/time (in epoch milliseconds) of the last order created
+	 * <br>Every new order gets a later date/time, so order IDs never repeat
+	 */
+	private final AtomicLong _lastOrderMillis;
+	
+	/**
+	 * Private constructor used to support the Singleton design pattern
+	 */
+	private OrderService()
+	{
+		_orderLocks = new ReentrantLock[NUM_OF_ORDER_LOCKS];
+		for(int lockIndex = 0; lockIndex < NUM_OF_ORDER_LOCKS; lockIndex++)
+		{
+			_orderLocks[lockIndex] = new ReentrantLock();
+		}
+		
+		_paymentLock = new ReentrantLock();
+		_lastOrderMillis = new AtomicLong();
+	}
+	
+	/**
+	 * Public static function used to get hold of the order service
+	 * 
+	 * @return The static instance of the order service
+	 */
+	public static OrderService getOrderService()
+	{
+		if(_orderService == null)
+		{
+			synchronized(OrderService.class)
+			{
+				if(_orderService == null)
+					_orderService = new OrderService();
+			}
+		}
+		
+		return _orderService;
+	}
+	
+	/**
+	 * Gets the ongoing orders (i.e. orders that have not been paid for)
+	 * 
+	 * @return A new list of the ongoing orders, in the order they
+	 * 		   were created
+	 */
+	public List<Order> getCurrentOrders()
+	{
+		List<Order> currentOrders = new ArrayList<Order>(
+				OrderMgr.getOrderMgr().getCurrentOrderMap().values());
+		
+		Collections.sort(currentOrders, ORDER_DATE_TIME_ORDER);
+		
+		return currentOrders;
+	}
+	
+	/**
+	 * Gets an ongoing order by order ID
+	 * 
+	 * @param orderID The order ID of the order
+	 * 
+	 * @return The order, null if there is no ongoing order with the order ID
+	 */
+	public Order getCurrentOrder(String orderID)
+	{
+		if(orderID == null)
+			return null;
+		
+		return OrderMgr.getOrderMgr().getCurrentOrderMap().get(orderID);
+	}
+	
+	/**
+	 * Creates a new order for a customer who has not been seated yet, at
+	 * the outlet<br>served by this console
+	 * 
+	 * @param staffID The staff ID of the waiter taking the order
+	 * @param customerID The customer ID of the customer
+	 * @param numOfPeople The number of people, used when there is no
+	 * 		  reservation
+	 * @param orderItems The menu items ordered, with their quantities
+	 * 
+	 * @return The order created, null if there are no tables available
+	 * 		   at the moment
+	 * 
+	 * @throws IOException If the order cannot be written to the
+	 * 		   order journal
+	 * 
+	 * @see #createOrder(Outlet, int, int, int, Map)
+	 */
+	public Order createOrder(int staffID, int customerID, int numOfPeople,
+			Map<MenuItem, Integer> orderItems) throws IOException
+	{
+		return createOrder(RestaurantMgr.getRestaurantMgr().getOutlet(),
+				staffID, customerID, numOfPeople, orderItems);
+	}
+	
+	/**
+	 * Creates a new order for a customer who has not been seated yet, at
+	 * an outlet<p>
+	 * 
+	 * If there is a table of the outlet reserved for the customer, the
+	 * customer is seated<br>at the reserved table, and the number of people
+	 * is taken from the reservation.<br>Else, the customer is seated at any
+	 * available table of the outlet that<br>accommodates the number of
+	 * people
+	 * 
+	 * @param outlet The outlet that the customer is seated at
+	 * @param staffID The staff ID of the waiter taking the order
+	 * @param customerID The customer ID of the customer
+	 * @param numOfPeople The number of people, used when there is no
+	 * 		  reservation
+	 * @param orderItems The menu items ordered, with their quantities
+	 * 
+	 * @return The order created, null if there are no tables available
+	 * 		   at the moment
+	 * 
+	 * @throws IOException If the order cannot be written to the
+	 * 		   order journal
+	 */
+	public Order createOrder(Outlet outlet, int staffID, int customerID,
+			int numOfPeople, Map<MenuItem, Integer> orderItems)
+			throws IOException
+	{
+		long startNanos = CREATE_ORDER_TIMER.start();
+		try
+		{
+			return seatAndCreateOrder(outlet, staffID, customerID, numOfPeople,
+					orderItems);
+		}
+		finally
+		{
+			CREATE_ORDER_TIMER.stop(startNanos);
+		}
+	}
+	
+	/**
+	 * Seats a customer who has not been seated yet, and creates the order
+	 * 
+	 * @param outlet The outlet that the customer is seated at
+	 * @param staffID The staff ID of the waiter taking the order
+	 * @param customerID The customer ID of the customer
+	 * @param numOfPeople The number of people, used when there is no
+	 * 		  reservation
+	 * @param orderItems The menu items ordered, with their quantities
+	 * 
+	 * @return The order created, null if there are no tables available
+	 * 		   at the moment
+	 * 
+	 * @throws IOException If the order cannot be written to the
+	 * 		   order journal
+	 */
+	private Order seatAndCreateOrder(Outlet outlet, int staffID,
+			int customerID, int numOfPeople, Map<MenuItem, Integer> orderItems)
+			throws IOException
+	{
+		checkOrder(staffID, customerID, orderItems,
+				MenuService.getMenuService().getMenuSnapshot());
+		
+		ReservationService reservationService = outlet.getReservationService();
+		
+		Reservation reservation = reservationService.claimReservation(
+				customerID);
+		Table table;
+		
+		if(reservation != null)
+		{
+			numOfPeople = reservation.getNumOfPeople();
+			table = reservationService.getTable(
+					reservation.getReservedTableNo());
+		}
+		else
+		{
+			table = reservationService.claimAvailableTable(customerID,
+					numOfPeople);
+		}
+		
+		if(table == null)
+			return null;
+		
+		try {
+			return createSeatedOrder(outlet, staffID, customerID, table,
+					numOfPeople, orderItems);
+		} catch (IOException ex) {
+			unseat(reservationService, table, reservation);
+			throw ex;
+		} catch (RuntimeException ex) {
+			// E.g. a menu item has been removed from the menu in the meantime
+			unseat(reservationService, table, reservation);
+			throw ex;
+		}
+	}
+	
+	/**
+	 * Gives back the table of a customer whose order could not be created
+	 * <br>A reserved table is reserved for the customer again, and any other
+	 * table is<br>freed
+	 * 
+	 * @param reservationService The reservation service of the outlet
+	 * @param table The table which the customer was seated at
+	 * @param reservation The reservation claimed for the table, null if the
+	 * 		  customer<br>walked in
+	 */
+	private static void unseat(ReservationService reservationService,
+			Table table, Reservation reservation)
+	{
+		if(reservation != null)
+			reservationService.restoreReservation(reservation);
+		else
+			reservationService.freeTable(table.getTableNumber());
+	}
+	
+	/**
+	 * Creates a new order for a customer who has already been seated
+	 * <br>using the {@link ReservationService} of the outlet served by this
+	 * console
+	 * 
+	 * @param staffID The staff ID of the waiter taking the order
+	 * @param customerID The customer ID of the customer
+	 * @param table The table which the customer is seated at
+	 * @param numOfPeople The number of people at the table
+	 * @param orderItems The menu items ordered, with their quantities
+	 * 
+	 * @return The order created
+	 * 
+	 * @throws IOException If the order cannot be written to the
+	 * 		   order journal
+	 */
+	public Order createOrder(int staffID, int customerID, Table table,
+			int numOfPeople, Map<MenuItem, Integer> orderItems)
+			throws IOException
+	{
+		long startNanos = CREATE_ORDER_TIMER.start();
+		try
+		{
+			return createSeatedOrder(RestaurantMgr.getRestaurantMgr().getOutlet(),
+					staffID, customerID, table, numOfPeople, orderItems);
+		}
+		finally
+		{
+			CREATE_ORDER_TIMER.stop(startNanos);
+		}
+	}
+	
+	/**
+	 * Creates the order of a customer who has already been seated
+	 * 
+	 * @param outlet The outlet that the customer is seated at
+	 * @param staffID The staff ID of the waiter taking the order
+	 * @param customerID The customer ID of the customer
+	 * @param table The table which the customer is seated at
+	 * @param numOfPeople The number of people at the table
+	 * @param orderItems The menu items ordered, with their quantities
+	 * 
+	 * @return The order created
+	 * 
+	 * @throws IOException If the order cannot be written to the
+	 * 		   order journal
+	 */
+	private Order createSeatedOrder(Outlet outlet, int staffID,
+			int customerID, Table table, int numOfPeople,
+			Map<MenuItem, Integer> orderItems) throws IOException
+	{
+		MenuSnapshot menu = MenuService.getMenuService().getMenuSnapshot();
+		checkOrder(staffID, customerID, orderItems, menu);
+		
+		if(table == null || !table.isOccupied() ||
+				table.getCustomerID() != customerID ||
+				outlet.getTable(table.getTableNumber()) != table)
+			throw new IllegalArgumentException("Customer is not seated at"
+					+ " the table");
+		
+		long orderMillis = nextOrderMillis();
+		
+		Order newOrder = new Order(staffID, customerID, table.getTableNumber(),
+				numOfPeople, 0, 0, orderMillis,
+				generateOrderID(orderMillis, table));
+		
+		for(Map.Entry<MenuItem, Integer> orderItem : orderItems.entrySet())
+		{
+			newOrder.addItemToOrder(findOnMenu(menu, orderItem.getKey()),
+					orderItem.getValue());
+		}
+		
+		newOrder.setMenuVersion(menu.getVersion());
+		newOrder.setOutletIndex(outlet.getOutletIndex());
+		
+		OrderMgr orderMgr = OrderMgr.getOrderMgr();
+		
+		// Only visible to other terminals once it has been journaled
+		orderMgr.getOrderJournal().orderCreated(newOrder);
+		orderMgr.getCurrentOrderMap().put(newOrder.getOrderID(), newOrder);
+		
+		for(Map.Entry<MenuItem, Integer> orderItem : orderItems.entrySet())
+		{
+			orderMgr.getKitchenPipeline().sendLine(newOrder,
+					findOnMenu(menu, orderItem.getKey()), orderItem.getValue());
+			ORDERED_ITEMS_COUNTER.add(orderItem.getValue());
+		}
+		
+		return newOrder;
+	}
+	
+	/**
+	 * Adds a menu item to an ongoing order<p>
+	 * The quantity of the menu item is incremented if it is already
+	 * in the order<br>
+	 * The menu item is priced from the last snapshot of the menu, whose
+	 * version is<br>recorded with the order
+	 * 
+	 * @param orderID The order ID of the order
+	 * @param menuItem The menu item to be added
+	 * @param quantity The quantity to be added, at least 1
+	 * 
+	 * @return The order updated
+	 * 
+	 * @throws IOException If the change cannot be written to the
+	 * 		   order journal
+	 */
+	public Order addItem(String orderID, MenuItem menuItem, int quantity)
+			throws IOException
+	{
+		long startNanos = ADD_ITEM_TIMER.start();
+		try
+		{
+			return addOrderItem(orderID, menuItem, quantity);
+		}
+		finally
+		{
+			ADD_ITEM_TIMER.stop(startNanos);
+		}
+	}
+	
+	/**
+	 * Adds a menu item to an ongoing order, under the lock of the order
+	 * 
+	 * @param orderID The order ID of the order
+	 * @param menuItem The menu item to be added
+	 * @param quantity The quantity to be added, at least 1
+	 * 
+	 * @return The order updated
+	 * 
+	 * @throws IOException If the change cannot be written to the
+	 * 		   order journal
+	 */
+	private Order addOrderItem(String orderID, MenuItem menuItem, int quantity)
+			throws IOException
+	{
+		MenuSnapshot menu = MenuService.getMenuService().getMenuSnapshot();
+		MenuItem pricedItem = findOnMenu(menu, menuItem);
+		checkQuantity(quantity);
+		
+		ReentrantLock orderLock = getOrderLock(orderID);
+		Order order;
+		
+		orderLock.lock();
+		try
+		{
+			order = findCurrentOrder(orderID);
+			
+			order.addItemToOrder(pricedItem, quantity);
+			order.setMenuVersion(menu.getVersion());
+			OrderMgr.getOrderMgr().getOrderJournal().itemAdded(order);
+			ORDERED_ITEMS_COUNTER.add(quantity);
+		}
+		finally
+		{
+			orderLock.unlock();
+		}
+		
+		// Not under the order lock, as the kitchen may push back
+		OrderMgr.getOrderMgr().getKitchenPipeline().sendLine(order,
+				pricedItem, quantity);
+		
+		return order;
+	}
+	
+	/**
+	 * Removes a quantity of an item from an ongoing order<p>
+	 * An order with 0 items cannot exist, so the order is cancelled and its
+	 * <br>table becomes available when its last item is removed
+	 * 
+	 * @param orderID The order ID of the order
+	 * @param itemID The item ID of the item in the order
+	 * @param quantity The quantity to be removed, from 1 to the quantity
+	 * 		  in the order
+	 * 
+	 * @return True if the order is now empty and has been cancelled
+	 * 
+	 * @throws IOException If the change cannot be written to the
+	 * 		   order journal
+	 */
+	public boolean removeItem(String orderID, int itemID, int quantity)
+			throws IOException
+	{
+		ReentrantLock orderLock = getOrderLock(orderID);
+		
+		orderLock.lock();
+		try
+		{
+			Order order = findCurrentOrder(orderID);
+			
+			int maxItemQuantity = order.getOrderItemQuantity(itemID);
+			
+			if(maxItemQuantity == 0)
+				throw new IllegalArgumentException("Item ID " + itemID
+						+ " is not in the order");
+			
+			checkQuantity(quantity);
+			
+			if(quantity > maxItemQuantity)
+				throw new IllegalArgumentException("Maximum quantity is "
+						+ maxItemQuantity);
+			
+			order.removeItemFromOrder(itemID, quantity);
+			
+			OrderMgr orderMgr = OrderMgr.getOrderMgr();
+			
+			if(order.getNumberOfOrderItems() == 0)
+			{
+				orderMgr.getOrderJournal().orderCancelled(order);
+				orderMgr.getCurrentOrderMap().remove(orderID);
+				
+				freeTable(order);
+				
+				return true;
+			}
+			
+			orderMgr.getOrderJournal().itemRemoved(order);
+			
+			return false;
+		}
+		finally
+		{
+			orderLock.unlock();
+		}
+	}
+	
+	/**
+	 * Frees the table of an order, at the outlet that the order was taken at
+	 * 
+	 * @param order The order
+	 */
+	private static void freeTable(Order order)
+	{
+		Outlet outlet = RestaurantMgr.getRestaurantMgr().getOutlet(
+				order.getOutletIndex());
+		
+		// The outlet may have been taken out of the floor plan file
+		if(outlet != null)
+			outlet.getReservationService().freeTable(order.getTableNumber());
+	}
+	
+	/**
+	 * Makes payment for an ongoing order<p>
+	 * Once the payment has been made, the table becomes available and
+	 * <br>the order is added to the completed transactions of its month
+	 * 
+	 * @param orderID The order ID of the order
+	 * 
+	 * @return The order paid for
+	 * 
+	 * @throws IOException If the payment cannot be written to the
+	 * 		   order journal or the archive
+	 */
+	public Order payOrder(String orderID) throws IOException
+	{
+		long startNanos = PAYMENT_TIMER.start();
+		try
+		{
+			return completePayment(orderID);
+		}
+		finally
+		{
+			PAYMENT_TIMER.stop(startNanos);
+		}
+	}
+	
+	/**
+	 * Makes payment for an ongoing order, under the lock of the order
+	 * 
+	 * @param orderID The order ID of the order
+	 * 
+	 * @return The order paid for
+	 * 
+	 * @throws IOException If the payment cannot be written to the
+	 * 		   order journal or the archive
+	 */
+	private Order completePayment(String orderID) throws IOException
+	{
+		ReentrantLock orderLock = getOrderLock(orderID);
+		
+		orderLock.lock();
+		try
+		{
+			Order order = findCurrentOrder(orderID);
+			OrderMgr orderMgr = OrderMgr.getOrderMgr();
+			
+			_paymentLock.lock();
+			try
+			{
+				// Record the payment before anything else
+				long paidSequenceNumber =
+						orderMgr.getOrderJournal().orderPaid(order);
+				
+				// Remove it from the list of current orders
+				orderMgr.getCurrentOrderMap().remove(orderID);
+				
+				// Free the occupied table
+				freeTable(order);
+				
+				// Add it to the completed transactions of its month
+				// If this fails, it is archived again from the journal on
+				// start up
+				orderMgr.getOrderHistory().append(order, paidSequenceNumber);
+			}
+			finally
+			{
+				_paymentLock.unlock();
+			}
+			
+			return order;
+		}
+		finally
+		{
+			orderLock.unlock();
+		}
+	}
+	
+	/**
+	 * Checks the membership of a customer again for each of the customer's
+	 * <br>ongoing orders, so that the membership discount follows a change
+	 * in membership<p>
+	 * Completed transactions keep the discount they were paid with
+	 * 
+	 * @param customerID The customer ID of the customer
+	 * 
+	 * @return The number of ongoing orders whose price has changed
+	 * 
+	 * @throws IOException If a change cannot be written to the
+	 * 		   order journal
+	 */
+	public int refreshMembership(int customerID) throws IOException
+	{
+		OrderMgr orderMgr = OrderMgr.getOrderMgr();
+		int numOfOrders = 0;
+		
+		for(Order order : orderMgr.getCurrentOrderMap().values())
+		{
+			if(order.getCustomerID() != customerID)
+				continue;
+			
+			ReentrantLock orderLock = getOrderLock(order.getOrderID());
+			
+			orderLock.lock();
+			try
+			{
+				// Skip orders paid or cancelled in the meantime
+				if(orderMgr.getCurrentOrderMap().get(order.getOrderID()) != order)
+					continue;
+				
+				if(order.refreshMembership())
+				{
+					orderMgr.getOrderJournal().orderRepriced(order);
+					numOfOrders++;
+				}
+			}
+			finally
+			{
+				orderLock.unlock();
+			}
+		}
+		
+		return numOfOrders;
+	}
+	
+	/**
+	 * Checks whether there are any completed transactions
+	 * 
+	 * @return True if at least one order has been paid for
+	 */
+	public boolean hasCompletedOrders() {
+		return OrderMgr.getOrderMgr().getOrderHistory().getNumOfOrders() > 0;
+	}
+	
+	/**
+	 * Gets the sale revenue of a single day
+	 * 
+	 * @param epochDay The day, as a number of days since 1970-01-01
+	 * 
+	 * @return The sale revenue of the day, null if there are no sales
+	 * 		   on the day
+	 * 
+	 * @see DateTimes#toEpochDay(long)
+	 */
+	public RevenueCube.DayRevenue getDayRevenue(int epochDay)
+	{
+		long startNanos = DAY_REVENUE_TIMER.start();
+		try
+		{
+			return OrderMgr.getOrderMgr().getRevenueCube().getDayRevenue(
+					epochDay);
+		}
+		finally
+		{
+			DAY_REVENUE_TIMER.stop(startNanos);
+		}
+	}
+	
+	/**
+	 * Gets the total sale revenue of a range of days
+	 * 
+	 * @param firstEpochDay The first day of the range
+	 * @param lastEpochDay The last day of the range, inclusive
+	 * 
+	 * @return The total sale revenue of the range of days
+	 */
+	public double getRevenue(int firstEpochDay, int lastEpochDay)
+	{
+		long startNanos = REVENUE_TIMER.start();
+		try
+		{
+			return OrderMgr.getOrderMgr().getRevenueCube().getRevenue(
+					firstEpochDay, lastEpochDay);
+		}
+		finally
+		{
+			REVENUE_TIMER.stop(startNanos);
+		}
+	}
+	
+	/**
+	 * Writes the invoice of every order paid for on a day to a report,
+	 * <br>followed by the total sales of the day<br>
+	 * The invoices are streamed one at a time, so a day of any size can be
+	 * <br>written to a file
+	 * 
+	 * @param epochDay The day, as a number of days since 1970-01-01
+	 * @param out The report being written
+	 * 
+	 * @return The number of invoices written
+	 * 
+	 * @throws IOException If the order history cannot be read or the
+	 * 		   report cannot be written
+	 */
+	public int writeDayInvoices(int epochDay, ReportWriter out)
+			throws IOException
+	{
+		long startNanos = DAY_INVOICES_TIMER.start();
+		try
+		{
+			RevenueCube.DayRevenue dayRevenue = getDayRevenue(epochDay);
+			
+			if(dayRevenue == null)
+				return 0;
+			
+			for(Order order : dayRevenue.getOrders())
+			{
+				order.writeOrderInvoice(out);
+			}
+			
+			out.line().text("Total sales: ").money(
+					dayRevenue.getRevenueCents());
+			out.line();
+			
+			return dayRevenue.getNumOfOrders();
+		}
+		finally
+		{
+			DAY_INVOICES_TIMER.stop(startNanos);
+		}
+	}
+	
+	/**
+	 * Aggregates the completed transactions of a range of days, in parallel
+	 * 
+	 * @param firstEpochDay The first day of the range
+	 * @param lastEpochDay The last day of the range, inclusive
+	 * 
+	 * @return The revenue, order count, smallest and largest order, and
+	 * 		   <br>revenue by day of the range
+	 * 
+	 * @throws IOException If the order history cannot be read
+	 */
+	public RevenueAccumulator aggregateRevenue(int firstEpochDay,
+			int lastEpochDay) throws IOException
+	{
+		long startNanos = AGGREGATE_TIMER.start();
+		try
+		{
+			return OrderMgr.getOrderMgr().getReportEngine().aggregate(
+					firstEpochDay, lastEpochDay);
+		}
+		finally
+		{
+			AGGREGATE_TIMER.stop(startNanos);
+		}
+	}
+	
+	/**
+	 * Aggregates the completed transactions of a range of days by staff,
+	 * <br>by outlet or by table, in parallel
+	 * 
+	 * @param firstEpochDay The first day of the range
+	 * @param lastEpochDay The last day of the range, inclusive
+	 * @param groupBy How the transactions are grouped
+	 * 
+	 * @return The aggregate of each staff ID, outlet index or table key
+	 * 		   (see<br>{@link ReportEngine#toTableKey(int, int)}) with
+	 * 		   transactions in the range
+	 * 
+	 * @throws IOException If the order history cannot be read
+	 */
+	public Map<Integer, RevenueAccumulator> aggregateRevenue(int firstEpochDay,
+			int lastEpochDay, ReportEngine.GroupBy groupBy) throws IOException
+	{
+		long startNanos = GROUPED_AGGREGATE_TIMER.start();
+		try
+		{
+			return OrderMgr.getOrderMgr().getReportEngine().aggregate(
+					firstEpochDay, lastEpochDay, groupBy);
+		}
+		finally
+		{
+			GROUPED_AGGREGATE_TIMER.stop(startNanos);
+		}
+	}
+	
+	/**
+	 * Gets the striped lock which serializes the changes made to an order
+	 * 
+	 * @param orderID The order ID of the order
+	 * 
+	 * @return The lock for the order
+	 */
+	private ReentrantLock getOrderLock(String orderID)
+	{
+		int hash = (orderID == null) ? 0 : orderID.hashCode();
+		
+		// Spread the higher bits, as order IDs share a long common prefix
+		hash ^= (hash >>> 16);
+		
+		return _orderLocks[hash & (NUM_OF_ORDER_LOCKS - 1)];
+	}
+	
+	/**
+	 * Gets the order date/time of a new order<br>
+	 * Normally the current time, but always later than the last order
+	 * created, so<br>that two orders created within the same millisecond
+	 * still get different order IDs
+	 * 
+	 * @return The order date/time, in epoch milliseconds
+	 */
+	private long nextOrderMillis()
+	{
+		long currentMillis = System.currentTimeMillis();
+		
+		while(true)
+		{
+			long lastOrderMillis = _lastOrderMillis.get();
+			long orderMillis = Math.max(currentMillis, lastOrderMillis + 1);
+			
+			if(_lastOrderMillis.compareAndSet(lastOrderMillis, orderMillis))
+				return orderMillis;
+		}
+	}
+	
+	/**
+	 * Generates the order ID of a new order, from the order date/time
+	 * <br>and the table number<p>
+	 * 
+	 * The order ID holds the digits of the date/time, e.g. 20141114134635
+	 * for<br>14/11/2014 13:46:35, followed by the 3 digits of the
+	 * millisecond, and the table<br>number. The millisecond is always 3
+	 * digits long, so that no two tables<br>share an order ID within the
+	 * same second<p>
+	 * 
+	 * Order IDs given out before left out the trailing zeros of the
+	 * millisecond,<br>they are kept as they were
+	 * 
+	 * @param orderMillis The date/time that the order was taken, in epoch
+	 * 		  milliseconds
+	 * @param table The table that the order is for
+	 * 
+	 * @return The order ID
+	 */
+	private String generateOrderID(long orderMillis, Table table)
+	{
+		StringBuilder orderID = ORDER_ID_FORMAT.format(orderMillis,
+				new StringBuilder(24));
+		
+		int millisOfSecond = DateTimes.getMillisOfDay(orderMillis) % 1000;
+		
+		if(millisOfSecond < 100)
+			orderID.append('0');
+		if(millisOfSecond < 10)
+			orderID.append('0');
+		
+		return orderID.append(millisOfSecond).append(table.getTableNumber())
+				.toString();
+	}
+	
+	/**
+	 * Gets an ongoing order by order ID
+	 * 
+	 * @param orderID The order ID of the order
+	 * 
+	 * @return The order
+	 * 
+	 * @throws IllegalArgumentException If there is no ongoing order with
+	 * 		   the order ID
+	 */
+	private Order findCurrentOrder(String orderID)
+	{
+		Order order = getCurrentOrder(orderID);
+		
+		if(order == null)
+			throw new IllegalArgumentException("Unknown order ID: " + orderID);
+		
+		return order;
+	}
+	
+	/**
+	 * Checks the information needed to create a new order
+	 * 
+	 * @param staffID The staff ID of the waiter taking the order
+	 * @param customerID The customer ID of the customer
+	 * @param orderItems The menu items ordered, with their quantities
+	 * @param menu The snapshot of the menu that the order is priced against
+	 * 
+	 * @throws IllegalArgumentException If the staff is not a waiter, the
+	 * 		   customer does not exist<br>or there are no valid order items
+	 */
+	private void checkOrder(int staffID, int customerID,
+			Map<MenuItem, Integer> orderItems, MenuSnapshot menu)
+	{
+		Staff staff = HumanResourceMgr.getHRMgr().getStaffByID(staffID);
+		
+		if(staff == null || staff.getJobTitle() != Staff.JobTitle.Waiter)
+			throw new IllegalArgumentException("Staff ID " + staffID
+					+ " is not a waiter");
+		
+		if(HumanResourceMgr.getHRMgr().getCustomerByID(customerID) == null)
+			throw new IllegalArgumentException("Unknown customer ID: "
+					+ customerID);
+		
+		if(orderItems == null || orderItems.isEmpty())
+			throw new IllegalArgumentException("Cannot create an order"
+					+ " with 0 items");
+		
+		for(Map.Entry<MenuItem, Integer> orderItem : orderItems.entrySet())
+		{
+			findOnMenu(menu, orderItem.getKey());
+			
+			if(orderItem.getValue() == null)
+				throw new IllegalArgumentException("Quantity is missing");
+			
+			checkQuantity(orderItem.getValue());
+		}
+	}
+	
+	/**
+	 * Finds a menu item in a snapshot of the menu, by its item ID
+	 * 
+	 * @param menu The snapshot of the menu
+	 * @param menuItem The menu item, from this or an earlier snapshot
+	 * 
+	 * @return The menu item as it is in the snapshot
+	 * 
+	 * @throws IllegalArgumentException If the menu item is not on the menu
+	 */
+	private MenuItem findOnMenu(MenuSnapshot menu, MenuItem menuItem)
+	{
+		MenuItem pricedItem = null;
+		
+		if(menuItem != null)
+			pricedItem = menu.getItem(menuItem.getItemID());
+		
+		if(pricedItem == null)
+			throw new IllegalArgumentException("Menu item is not on the menu");
+		
+		return pricedItem;
+	}
+	
+	/**
+	 * Checks that a quantity of an item is at least 1
+	 * 
+	 * @param quantity The quantity to check
+	 * 
+	 * @throws IllegalArgumentException If the quantity is less than 1
+	 */
+	private void checkQuantity(int quantity)
+	{
+		if(quantity < 1)
+			throw new IllegalArgumentException("Minimum quantity is 1");
+	}
+}
\ No newline at end of file
@@ -0,0 +1,209 @@
+package sce.cz2002.Assignment.Control;
+
+import java.util.List;
+
+import sce.cz2002.Assignment.Classes.FloorPlan;
+import sce.cz2002.Assignment.Classes.Table;
+
+/**
+ * An outlet of the restaurant, set up from its floor plan<p>
+ * 
+ * Each outlet has its own tables, reservations, table allocator and
+ * reservation service,<br>so several outlets can take reservations and
+ * seat customers in the same process.<br>Tables are kept in an array
+ * indexed by table number, so a table is found by its<br>number without
+ * going through the tables
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class Outlet
+{
+	/**
+	 * The largest table number allowed in a floor plan
+	 */
+	public static final int MAX_TABLE_NUMBER = 65535;
+	
+	/**
+	 * The index of this outlet, in the order of the floor plan file<br>
+	 * Orders are kept with the index of the outlet they were taken at
+	 */
+	private final int _outletIndex;
+	
+	/**
+	 * The name of this outlet
+	 */
+	private final String _name;
+	
+	/**
+	 * The tables of this outlet, in the order of the floor plan
+	 */
+	private final List<Table> _tables;
+	
+	/**
+	 * The tables of this outlet, indexed by table number<br>
+	 * Table numbers that are not in the floor plan are null
+	 */
+	private final Table[] _tablesByNumber;
+	
+	/**
+	 * The index of all reservations made for this outlet
+	 */
+	private final ReservationIndex _reservationIndex;
+	
+	/**
+	 * Picks the available table that a walk-in customer is seated at
+	 */
+	private final TableAllocator _tableAllocator;
+	
+	/**
+	 * Makes the reservations and seats the customers of this outlet
+	 */
+	private final ReservationService _reservationService;
+	
+	/**
+	 * Sets up a new outlet from its floor plan, with no reservations
+	 * 
+	 * @param outletIndex The index of the outlet, in the order of the
+	 * 		  floor plan file
+	 * @param floorPlan The floor plan of the outlet
+	 * @param allocationPolicy The policy used to pick a table for a
+	 * 		  walk-in customer
+	 * 
+	 * @throws IllegalArgumentException If a table number is not from 1 to
+	 * 		   {@link #MAX_TABLE_NUMBER},<br>is used twice, or a table has no
+	 * 		   seats or is in a negative zone
+	 */
+	public Outlet(int outletIndex, FloorPlan floorPlan,
+			TableAllocator.Policy allocationPolicy)
+	{
+		_outletIndex = outletIndex;
+		_name = floorPlan.getOutletName();
+		_tables = floorPlan.getTables();
+		
+		int maxTableNumber = 0;
+		for(Table table : _tables)
+		{
+			checkTable(table);
+			maxTableNumber = Math.max(maxTableNumber, table.getTableNumber());
+		}
+		
+		_tablesByNumber = new Table[maxTableNumber + 1];
+		_reservationIndex = new ReservationIndex();
+		_tableAllocator = new TableAllocator(allocationPolicy);
+		
+		for(Table table : _tables)
+		{
+			if(_tablesByNumber[table.getTableNumber()] != null)
+				throw new IllegalArgumentException("Table "
+						+ table.getTableNumber() + " is in the floor plan of '"
+						+ _name + "' twice");
+			
+			_tablesByNumber[table.getTableNumber()] = table;
+			_reservationIndex.addTable(table.getTableNumber(),
+					table.getNumOfSeats());
+			_tableAllocator.addTable(table);
+		}
+		
+		_reservationService = new ReservationService(this);
+	}
+	
+	/**
+	 * Checks that a table of the floor plan can be set up
+	 * 
+	 * @param table The table
+	 * 
+	 * @throws IllegalArgumentException If the table number is not from 1 to
+	 * 		   {@link #MAX_TABLE_NUMBER},<br>or the table has no seats or is
+	 * 		   in a negative zone
+	 */
+	private void checkTable(Table table)
+	{
+		if(table.getTableNumber() < 1 ||
+				table.getTableNumber() > MAX_TABLE_NUMBER)
+			throw new IllegalArgumentException("Invalid table number in the"
+					+ " floor plan of '" + _name + "': "
+					+ table.getTableNumber());
+		
+		if(table.getNumOfSeats() < 1)
+			throw new IllegalArgumentException("Table "
+					+ table.getTableNumber() + " of '" + _name
+					+ "' has no seats");
+		
+		if(table.getZone() < 0)
+			throw new IllegalArgumentException("Table "
+					+ table.getTableNumber() + " of '" + _name
+					+ "' is in an invalid zone: " + table.getZone());
+	}
+	
+	/**
+	 * Gets the index of this outlet
+	 * 
+	 * @return The index of the outlet, in the order of the floor plan file
+	 */
+	public int getOutletIndex() {
+		return _outletIndex;
+	}
+	
+	/**
+	 * Gets the name of this outlet
+	 * 
+	 * @return The outlet's name
+	 */
+	public String getName() {
+		return _name;
+	}
+	
+	/**
+	 * Gets the tables of this outlet
+	 * 
+	 * @return A read-only list of the tables, in the order of the floor plan
+	 */
+	public List<Table> getTables() {
+		return _tables;
+	}
+	
+	/**
+	 * Gets a table by the specified table number
+	 * 
+	 * @param tableNumber The table's table number
+	 * 
+	 * @return The table that matches the specified table number,
+	 * 		   null if there isn't one
+	 */
+	public Table getTable(int tableNumber)
+	{
+		if(tableNumber < 0 || tableNumber >= _tablesByNumber.length)
+			return null;
+		
+		return _tablesByNumber[tableNumber];
+	}
+	
+	/**
+	 * Gets the reservation service of this outlet
+	 * 
+	 * @return The service which makes the reservations and seats the
+	 * 		   customers<br>of this outlet
+	 */
+	public ReservationService getReservationService() {
+		return _reservationService;
+	}
+	
+	/**
+	 * Gets the index of reservations, for the {@link ReservationService}
+	 * 
+	 * @return The index of all reservations made for this outlet
+	 */
+	ReservationIndex getReservationIndex() {
+		return _reservationIndex;
+	}
+	
+	/**
+	 * Gets the table allocator, for the {@link ReservationService}
+	 * 
+	 * @return The allocator of the available tables
+	 */
+	TableAllocator getTableAllocator() {
+		return _tableAllocator;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,398 @@
+package sce.cz2002.Assignment.Control;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import sce.cz2002.Assignment.Classes.Customer;
+import sce.cz2002.Assignment.Classes.Person;
+import sce.cz2002.Assignment.Classes.Staff;
+
+/**
+ * A singleton class that provides the staff and customer functionality
+ * without any<br>user interaction<p>
+ * 
+ * Functionalities include hiring/updating/firing staff and
+ * registering/updating/removing<br>customers. Staff and customers are
+ * identified by their IDs, and are kept by the human<br>resource manager,
+ * which is a console client of this service<p>
+ * 
+ * Invalid arguments are rejected with an {@link IllegalArgumentException}
+ * which<br>describes the problem
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class PeopleService
+{
+	/**
+	 * A static instance of this people service
+	 */
+	private static PeopleService _peopleService = null;
+	
+	/**
+	 * Private constructor used to support the Singleton design pattern
+	 */
+	private PeopleService()
+	{
+	}
+	
+	/**
+	 * Public static function used to get hold of the people service
+	 * 
+	 * @return The static instance of the people service
+	 */
+	public static PeopleService getPeopleService()
+	{
+		if(_peopleService == null)
+		{
+			_peopleService = new PeopleService();
+		}
+		
+		return _peopleService;
+	}
+	
+	/**
+	 * Gets all staff working in the restaurant
+	 * 
+	 * @return A read-only list of all staff
+	 */
+	public List<Staff> getStaff() {
+		return Collections.unmodifiableList(
+				HumanResourceMgr.getHRMgr().getStaffList());
+	}
+	
+	/**
+	 * Gets the staff who are waiters, i.e. the staff who can take orders
+	 * 
+	 * @return The list of waiters
+	 */
+	public List<Staff> getWaiters()
+	{
+		List<Staff> waiters = new ArrayList<Staff>();
+		
+		for(Staff staff : HumanResourceMgr.getHRMgr().getStaffList())
+		{
+			if(staff.getJobTitle() == Staff.JobTitle.Waiter)
+				waiters.add(staff);
+		}
+		
+		return waiters;
+	}
+	
+	/**
+	 * Gets a staff by staff ID
+	 * 
+	 * @param staffID The staff ID of the staff
+	 * 
+	 * @return The staff, null if no staff has the staff ID
+	 */
+	public Staff getStaff(int staffID) {
+		return HumanResourceMgr.getHRMgr().getStaffByID(staffID);
+	}
+	
+	/**
+	 * Hires a new staff, who is given the next staff ID
+	 * 
+	 * @param name The name of the staff
+	 * @param age The age of the staff
+	 * @param gender The gender of the staff
+	 * @param jobTitle The job title of the staff
+	 * @param salary The salary of the staff
+	 * 
+	 * @return The staff hired
+	 */
+	public Staff hireStaff(String name, int age, Person.Gender gender,
+			Staff.JobTitle jobTitle, double salary)
+	{
+		checkPerson(name, gender);
+		
+		if(jobTitle == null)
+			throw new IllegalArgumentException("Job title is missing");
+		
+		HumanResourceMgr hrMgr = HumanResourceMgr.getHRMgr();
+		
+		Staff newStaff = new Staff(name, age, gender, hrMgr.nextStaffID(),
+				jobTitle, salary);
+		
+		hrMgr.getStaffList().add(newStaff);
+		hrMgr.indexStaff(newStaff);
+		
+		return newStaff;
+	}
+	
+	/**
+	 * Updates the name, age and gender of an existing staff
+	 * 
+	 * @param staffID The staff ID of the staff
+	 * @param newName The new name of the staff
+	 * @param newAge The new age of the staff
+	 * @param newGender The new gender of the staff
+	 * 
+	 * @return The staff updated
+	 */
+	public Staff updateStaff(int staffID, String newName, int newAge,
+			Person.Gender newGender)
+	{
+		checkPerson(newName, newGender);
+		
+		Staff staff = findStaff(staffID);
+		
+		staff.setName(newName);
+		staff.setAge(newAge);
+		staff.setGender(newGender);
+		
+		return staff;
+	}
+	
+	/**
+	 * Updates the job title and salary of an existing staff
+	 * 
+	 * @param staffID The staff ID of the staff
+	 * @param newJobTitle The new job title of the staff
+	 * @param newSalary The new salary of the staff
+	 * 
+	 * @return The staff updated
+	 */
+	public Staff updateStaffJob(int staffID, Staff.JobTitle newJobTitle,
+			double newSalary)
+	{
+		if(newJobTitle == null)
+			throw new IllegalArgumentException("Job title is missing");
+		
+		Staff staff = findStaff(staffID);
+		
+		staff.setJobTitle(newJobTitle);
+		staff.setSalary(newSalary);
+		
+		return staff;
+	}
+	
+	/**
+	 * Fires an existing staff
+	 * 
+	 * @param staffID The staff ID of the staff
+	 * 
+	 * @return The staff fired
+	 */
+	public Staff fireStaff(int staffID)
+	{
+		Staff staff = findStaff(staffID);
+		HumanResourceMgr hrMgr = HumanResourceMgr.getHRMgr();
+		
+		hrMgr.getStaffList().remove(staff);
+		hrMgr.unindexStaff(staff);
+		
+		return staff;
+	}
+	
+	/**
+	 * Gets all customers registered in the system
+	 * 
+	 * @return A read-only list of all customers
+	 */
+	public List<Customer> getCustomers() {
+		return Collections.unmodifiableList(
+				HumanResourceMgr.getHRMgr().getCustomerList());
+	}
+	
+	/**
+	 * Gets a customer by customer ID
+	 * 
+	 * @param customerID The customer ID of the customer
+	 * 
+	 * @return The customer, null if no customer has the customer ID
+	 */
+	public Customer getCustomer(int customerID) {
+		return HumanResourceMgr.getHRMgr().getCustomerByID(customerID);
+	}
+	
+	/**
+	 * Finds the customers whose name, a word of whose name, or whose
+	 * contact number<br>starts with a search text, e.g. "tan" finds
+	 * "Tan Ah Kow" and "Jason Tan"
+	 * 
+	 * @param text The beginning of the name or contact number, in any case
+	 * @param maxResults The largest number of customers to be returned,
+	 * 		  at least 1
+	 * 
+	 * @return The first matching customers, in the order of the matching
+	 * 		   name or<br>contact number
+	 */
+	public List<Customer> searchCustomers(String text, int maxResults)
+	{
+		if(maxResults < 1)
+			throw new IllegalArgumentException("Invalid number of results: "
+					+ maxResults);
+		
+		return HumanResourceMgr.getHRMgr().searchCustomers(text, maxResults);
+	}
+	
+	/**
+	 * Checks whether a customer is a member
+	 * 
+	 * @param customerID The customer ID of the customer
+	 * 
+	 * @return True if the customer is a member
+	 */
+	public boolean isMember(int customerID) {
+		return HumanResourceMgr.getHRMgr().isMember(customerID);
+	}
+	
+	/**
+	 * Registers a new customer, who is given the next customer ID
+	 * 
+	 * @param name The name of the customer
+	 * @param age The age of the customer
+	 * @param gender The gender of the customer
+	 * @param contactNumber The contact number of the customer
+	 * @param isMember Whether the customer is a member
+	 * 
+	 * @return The customer registered
+	 */
+	public Customer registerCustomer(String name, int age,
+			Person.Gender gender, int contactNumber, boolean isMember)
+	{
+		checkPerson(name, gender);
+		
+		HumanResourceMgr hrMgr = HumanResourceMgr.getHRMgr();
+		
+		Customer newCustomer = new Customer(name, age, gender,
+				hrMgr.nextCustomerID(), contactNumber, isMember);
+		
+		hrMgr.getCustomerList().add(newCustomer);
+		hrMgr.indexCustomer(newCustomer);
+		
+		return newCustomer;
+	}
+	
+	/**
+	 * Updates the name, age and gender of an existing customer
+	 * 
+	 * @param customerID The customer ID of the customer
+	 * @param newName The new name of the customer
+	 * @param newAge The new age of the customer
+	 * @param newGender The new gender of the customer
+	 * 
+	 * @return The customer updated
+	 */
+	public Customer updateCustomer(int customerID, String newName, int newAge,
+			Person.Gender newGender)
+	{
+		checkPerson(newName, newGender);
+		
+		Customer customer = findCustomer(customerID);
+		
+		customer.setName(newName);
+		customer.setAge(newAge);
+		customer.setGender(newGender);
+		HumanResourceMgr.getHRMgr().indexCustomer(customer);
+		
+		return customer;
+	}
+	
+	/**
+	 * Updates the contact number and membership status of an existing
+	 * customer<br>
+	 * A change in membership is applied to the customer's ongoing orders
+	 * 
+	 * @param customerID The customer ID of the customer
+	 * @param newContactNumber The new contact number of the customer
+	 * @param isMember Whether the customer is a member
+	 * 
+	 * @return The customer updated
+	 * 
+	 * @throws IOException If the repriced ongoing orders cannot be written
+	 * 		   to the order journal
+	 */
+	public Customer updateCustomerContact(int customerID, int newContactNumber,
+			boolean isMember) throws IOException
+	{
+		Customer customer = findCustomer(customerID);
+		boolean membershipChanged = (customer.checkMembership() != isMember);
+		
+		customer.setContactNumber(newContactNumber);
+		customer.setMembership(isMember);
+		HumanResourceMgr.getHRMgr().indexCustomer(customer);
+		
+		if(membershipChanged)
+			OrderService.getOrderService().refreshMembership(customerID);
+		
+		return customer;
+	}
+	
+	/**
+	 * Removes an existing customer from the system
+	 * 
+	 * @param customerID The customer ID of the customer
+	 * 
+	 * @return The customer removed
+	 */
+	public Customer removeCustomer(int customerID)
+	{
+		Customer customer = findCustomer(customerID);
+		HumanResourceMgr hrMgr = HumanResourceMgr.getHRMgr();
+		
+		hrMgr.getCustomerList().remove(customer);
+		hrMgr.unindexCustomer(customer);
+		
+		return customer;
+	}
+	
+	/**
+	 * Gets an existing staff by staff ID
+	 * 
+	 * @param staffID The staff ID of the staff
+	 * 
+	 * @return The staff
+	 * 
+	 * @throws IllegalArgumentException If no staff has the staff ID
+	 */
+	private Staff findStaff(int staffID)
+	{
+		Staff staff = getStaff(staffID);
+		
+		if(staff == null)
+			throw new IllegalArgumentException("Unknown staff ID: " + staffID);
+		
+		return staff;
+	}
+	
+	/**
+	 * Gets an existing customer by customer ID
+	 * 
+	 * @param customerID The customer ID of the customer
+	 * 
+	 * @return The customer
+	 * 
+	 * @throws IllegalArgumentException If no customer has the customer ID
+	 */
+	private Customer findCustomer(int customerID)
+	{
+		Customer customer = getCustomer(customerID);
+		
+		if(customer == null)
+			throw new IllegalArgumentException("Unknown customer ID: "
+					+ customerID);
+		
+		return customer;
+	}
+	
+	/**
+	 * Checks the information common to staff and customers
+	 * 
+	 * @param name The name of the person
+	 * @param gender The gender of the person
+	 * 
+	 * @throws IllegalArgumentException If the name or gender is missing
+	 */
+	private void checkPerson(String name, Person.Gender gender)
+	{
+		if(name == null)
+			throw new IllegalArgumentException("Name is missing");
+		
+		if(gender == null)
+			throw new IllegalArgumentException("Gender is missing");
+	}
+}
\ No newline at end of file
@@ -0,0 +1,353 @@
+package sce.cz2002.Assignment.Control;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import sce.cz2002.Assignment.Classes.DateTimes;
+import sce.cz2002.Assignment.Persistence.OrderArchive;
+import sce.cz2002.Assignment.Persistence.OrderHistory;
+
+/**
+ * Aggregates the sale revenue of the completed transactions over any
+ * range of days,<br>using every core<p>
+ * 
+ * Only the months that overlap the range are read. The archive rows of
+ * each month<br>are split into chunks, and each chunk is reduced into
+ * {@link RevenueAccumulator}s by<br>a task of a fork-join pool. The
+ * accumulators of the chunks are then merged,<br>pairwise, into the
+ * result<p>
+ * 
+ * Reports can be grouped by staff, by outlet or by table, giving an
+ * accumulator for<br>each. Table numbers are only unique within an outlet,
+ * so tables are keyed by<br>{@link #toTableKey(int, int)}, which is the
+ * table number itself for the first outlet
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class ReportEngine
+{
+	/**
+	 * An enumeration type used to determine how a report is grouped
+	 */
+	public enum GroupBy {None, Staff, Outlet, Table};
+	
+	/**
+	 * Number of bits of a table key taken up by the table number
+	 */
+	private static final int TABLE_NUMBER_BITS = 16;
+	
+	/**
+	 * Largest number of archive rows reduced by a single task
+	 */
+	private static final int CHUNK_SIZE = 16384;
+	
+	/**
+	 * Reduces a range of archive rows of a month into accumulators
+	 * 
+	 * @author Jin Yao
+	 * 
+	 */
+	@SuppressWarnings("serial")
+	private static class AggregateTask
+			extends RecursiveTask<Map<Integer, RevenueAccumulator>>
+	{
+		/**
+		 * The archive of the month
+		 */
+		private final OrderArchive _orderArchive;
+		
+		/**
+		 * The first archive row
+		 */
+		private final int _fromRow;
+		
+		/**
+		 * The archive row after the last one
+		 */
+		private final int _toRow;
+		
+		/**
+		 * The start of the report, in epoch milliseconds
+		 */
+		private final long _fromMillis;
+		
+		/**
+		 * The end of the report (exclusive), in epoch milliseconds
+		 */
+		private final long _toMillis;
+		
+		/**
+		 * How the report is grouped
+		 */
+		private final GroupBy _groupBy;
+		
+		/**
+		 * Creates a task over a range of archive rows
+		 * 
+		 * @param orderArchive The archive of the month
+		 * @param fromRow The first archive row
+		 * @param toRow The archive row after the last one
+		 * @param fromMillis The start of the report
+		 * @param toMillis The end of the report (exclusive)
+		 * @param groupBy How the report is grouped
+		 */
+		private AggregateTask(OrderArchive orderArchive, int fromRow, int toRow,
+				long fromMillis, long toMillis, GroupBy groupBy)
+		{
+			_orderArchive = orderArchive;
+			_fromRow = fromRow;
+			_toRow = toRow;
+			_fromMillis = fromMillis;
+			_toMillis = toMillis;
+			_groupBy = groupBy;
+		}
+		
+		@Override
+		protected Map<Integer, RevenueAccumulator> compute()
+		{
+			if(_toRow - _fromRow > CHUNK_SIZE)
+			{
+				int middleRow = (_fromRow + _toRow) >>> 1;
+				
+				AggregateTask firstHalf = new AggregateTask(_orderArchive,
+						_fromRow, middleRow, _fromMillis, _toMillis, _groupBy);
+				AggregateTask secondHalf = new AggregateTask(_orderArchive,
+						middleRow, _toRow, _fromMillis, _toMillis, _groupBy);
+				
+				firstHalf.fork();
+				Map<Integer, RevenueAccumulator> result = secondHalf.compute();
+				
+				return merge(firstHalf.join(), result);
+			}
+			
+			Map<Integer, RevenueAccumulator> result =
+					new HashMap<Integer, RevenueAccumulator>();
+			
+			for(int row = _fromRow; row < _toRow; row++)
+			{
+				long orderMillis = _orderArchive.getOrderDateTimeMillis(row);
+				
+				if(orderMillis < _fromMillis || orderMillis >= _toMillis)
+					continue;
+				
+				int group = getGroup(row);
+				RevenueAccumulator accumulator = result.get(group);
+				
+				if(accumulator == null)
+				{
+					accumulator = new RevenueAccumulator();
+					result.put(group, accumulator);
+				}
+				
+				accumulator.addOrder(DateTimes.toEpochDay(orderMillis),
+						_orderArchive.getNettTotalCents(row));
+			}
+			
+			return result;
+		}
+		
+		/**
+		 * Gets the group of an archived order
+		 * 
+		 * @param row The archive row of the order
+		 * 
+		 * @return The staff ID, outlet index or table key, 0 if the report
+		 * 		   is not<br>grouped
+		 */
+		private int getGroup(int row)
+		{
+			switch(_groupBy)
+			{
+				case Staff:
+					return _orderArchive.getStaffID(row);
+				case Outlet:
+					return _orderArchive.getOutletIndex(row);
+				case Table:
+					return toTableKey(_orderArchive.getOutletIndex(row),
+							_orderArchive.getTableNumber(row));
+				default:
+					return 0;
+			}
+		}
+	}
+	
+	/**
+	 * Reduces the months of a report, and merges their results
+	 * 
+	 * @author Jin Yao
+	 * 
+	 */
+	@SuppressWarnings("serial")
+	private static class ReportTask
+			extends RecursiveTask<Map<Integer, RevenueAccumulator>>
+	{
+		/**
+		 * A task for each month of the report
+		 */
+		private final List<AggregateTask> _monthTasks;
+		
+		/**
+		 * Creates a task over the months of a report
+		 * 
+		 * @param monthTasks A task for each month
+		 */
+		private ReportTask(List<AggregateTask> monthTasks) {
+			_monthTasks = monthTasks;
+		}
+		
+		@Override
+		protected Map<Integer, RevenueAccumulator> compute()
+		{
+			Map<Integer, RevenueAccumulator> result =
+					new HashMap<Integer, RevenueAccumulator>();
+			
+			for(AggregateTask monthTask : invokeAll(_monthTasks))
+			{
+				result = merge(result, monthTask.join());
+			}
+			
+			return result;
+		}
+	}
+	
+	/**
+	 * The order history holding the completed transactions
+	 */
+	private final OrderHistory _orderHistory;
+	
+	/**
+	 * The pool that runs the tasks of every report
+	 */
+	private final ForkJoinPool _pool;
+	
+	/**
+	 * Creates a report engine using every core
+	 * 
+	 * @param orderHistory The order history holding the completed transactions
+	 */
+	public ReportEngine(OrderHistory orderHistory) {
+		this(orderHistory, Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Creates a report engine using a given number of threads
+	 * 
+	 * @param orderHistory The order history holding the completed transactions
+	 * @param parallelism The number of threads reducing chunks at once
+	 */
+	public ReportEngine(OrderHistory orderHistory, int parallelism)
+	{
+		_orderHistory = orderHistory;
+		_pool = new ForkJoinPool(parallelism);
+	}
+	
+	/**
+	 * Merges the accumulators of one result into another
+	 * 
+	 * @param result The result merged into
+	 * @param other The other result
+	 * 
+	 * @return The merged result, whichever map is larger
+	 */
+	private static Map<Integer, RevenueAccumulator> merge(
+			Map<Integer, RevenueAccumulator> result,
+			Map<Integer, RevenueAccumulator> other)
+	{
+		if(other.size() > result.size())
+		{
+			Map<Integer, RevenueAccumulator> smaller = result;
+			result = other;
+			other = smaller;
+		}
+		
+		for(Map.Entry<Integer, RevenueAccumulator> entry : other.entrySet())
+		{
+			RevenueAccumulator accumulator = result.get(entry.getKey());
+			
+			if(accumulator == null)
+				result.put(entry.getKey(), entry.getValue());
+			else
+				accumulator.merge(entry.getValue());
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Aggregates the sale revenue over a range of days
+	 * 
+	 * @param firstEpochDay The first epoch day of the range
+	 * @param lastEpochDay The last epoch day of the range (inclusive)
+	 * 
+	 * @return The accumulated revenue of the range
+	 * 
+	 * @throws IOException If the archive of a month cannot be opened
+	 */
+	public RevenueAccumulator aggregate(int firstEpochDay, int lastEpochDay)
+			throws IOException
+	{
+		RevenueAccumulator result = aggregate(firstEpochDay, lastEpochDay,
+				GroupBy.None).get(0);
+		
+		return (result == null) ? new RevenueAccumulator() : result;
+	}
+	
+	/**
+	 * Aggregates the sale revenue over a range of days, grouped by staff,
+	 * <br>by outlet or by table
+	 * 
+	 * @param firstEpochDay The first epoch day of the range
+	 * @param lastEpochDay The last epoch day of the range (inclusive)
+	 * @param groupBy How the report is grouped
+	 * 
+	 * @return The accumulated revenue of each staff ID, outlet index or
+	 * 		   table key<br>with orders in the range, or of 0 if the report
+	 * 		   is not grouped
+	 * 
+	 * @throws IOException If the archive of a month cannot be opened
+	 */
+	public Map<Integer, RevenueAccumulator> aggregate(int firstEpochDay,
+			int lastEpochDay, GroupBy groupBy) throws IOException
+	{
+		long fromMillis = DateTimes.toStartMillis(firstEpochDay);
+		long toMillis = DateTimes.toStartMillis(lastEpochDay + 1);
+		
+		List<AggregateTask> monthTasks = new ArrayList<AggregateTask>();
+		
+		for(int epochMonth : _orderHistory.getEpochMonths(fromMillis, toMillis))
+		{
+			OrderArchive orderArchive = _orderHistory.getOrderArchive(epochMonth);
+			
+			monthTasks.add(new AggregateTask(orderArchive, 0,
+					orderArchive.getNumOfOrders(), fromMillis, toMillis, groupBy));
+		}
+		
+		return _pool.invoke(new ReportTask(monthTasks));
+	}
+	
+	/**
+	 * Gets the key that a table is grouped by, unique across the outlets
+	 * 
+	 * @param outletIndex The index of the outlet of the table
+	 * @param tableNumber The table number, from 1 to
+	 * 		  {@link Outlet#MAX_TABLE_NUMBER}
+	 * 
+	 * @return The table key, the table number for the first outlet
+	 */
+	public static int toTableKey(int outletIndex, int tableNumber) {
+		return (outletIndex << TABLE_NUMBER_BITS) | tableNumber;
+	}
+	
+	/**
+	 * Stops the threads of the engine once the running reports are done
+	 */
+	public void shutdown() {
+		_pool.shutdown();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,422 @@
+package sce.cz2002.Assignment.Control;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+
+import sce.cz2002.Assignment.Classes.DateTimeFormat;
+
+/**
+ * Streams a report, such as a day of order invoices, into one buffered
+ * writer<p>
+ * 
+ * Text is written a cell at a time. The parts of a cell are gathered
+ * with<br>{@link #text(CharSequence)}, {@link #number(long)},
+ * {@link #money(long)} and {@link #dateTime(long, DateTimeFormat)},
+ * <br>and the cell is then written padded on the
+ * right by {@link #left(int)} or on the left by {@link #right(int)},
+ * <br>just as the <code>%-ns</code> and <code>%ns</code> formats of
+ * printf would. A cell that is not<br>padded is written as it is by
+ * {@link #cell()}, {@link #line()} or {@link #repeat(char, int)}<p>
+ * 
+ * Padding and separators are copied from cached arrays, and money is
+ * formatted<br>as <code>$###,##0.00</code> from whole cents into a
+ * reusable buffer, so nothing is<br>allocated once the cell buffer has
+ * grown. A writer is not thread-safe, and should<br>be used by one thread
+ * at a time
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class ReportWriter implements Closeable, Flushable
+{
+	/**
+	 * Number of cents in a dollar
+	 */
+	private static final int CENTS_PER_DOLLAR = 100;
+	
+	/**
+	 * Length of each cached run of a separator character
+	 */
+	private static final int SEPARATOR_LENGTH = 128;
+	
+	/**
+	 * Cached run of spaces
+	 */
+	private static final char[] SPACES = newSeparator(' ');
+	
+	/**
+	 * Cached run of dashes
+	 */
+	private static final char[] DASHES = newSeparator('-');
+	
+	/**
+	 * Cached run of equal signs
+	 */
+	private static final char[] EQUALS = newSeparator('=');
+	
+	/**
+	 * The end of a line, as written by println
+	 */
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+	
+	/**
+	 * The buffered writer that the report is streamed into
+	 */
+	private final Writer _writer;
+	
+	/**
+	 * Whether the writer is closed along with this report writer
+	 */
+	private final boolean _closeWriter;
+	
+	/**
+	 * The parts of the cell being gathered
+	 */
+	private final StringBuilder _cell;
+	
+	/**
+	 * Buffer that the cell is copied into before being written
+	 */
+	private char[] _cellBuffer;
+	
+	/**
+	 * Buffer that money is formatted into, from the last character
+	 */
+	private final char[] _moneyBuffer;
+	
+	/**
+	 * Creates a report writer streaming into a writer
+	 * 
+	 * @param writer The writer, which should be buffered
+	 * @param closeWriter Whether the writer is closed when this report
+	 * 		  writer is closed
+	 */
+	public ReportWriter(Writer writer, boolean closeWriter)
+	{
+		_writer = writer;
+		_closeWriter = closeWriter;
+		_cell = new StringBuilder(128);
+		_cellBuffer = new char[128];
+		_moneyBuffer = new char[32];
+	}
+	
+	/**
+	 * Creates a report writer streaming to the console<br>
+	 * Closing the report writer flushes it, but leaves the console open
+	 * 
+	 * @return The new report writer
+	 */
+	public static ReportWriter toConsole() {
+		return new ReportWriter(new BufferedWriter(
+				new OutputStreamWriter(System.out)), false);
+	}
+	
+	/**
+	 * Creates a report writer streaming to a file, replacing its contents
+	 * 
+	 * @param filePath The path of the file
+	 * 
+	 * @return The new report writer
+	 * 
+	 * @throws IOException If the file cannot be created
+	 */
+	public static ReportWriter toFile(String filePath) throws IOException {
+		return new ReportWriter(new BufferedWriter(
+				new FileWriter(filePath)), true);
+	}
+	
+	/**
+	 * Creates a cached run of a separator character
+	 * 
+	 * @param separator The separator character
+	 * 
+	 * @return The run of the character
+	 */
+	private static char[] newSeparator(char separator)
+	{
+		char[] run = new char[SEPARATOR_LENGTH];
+		Arrays.fill(run, separator);
+		
+		return run;
+	}
+	
+	/**
+	 * Adds text to the cell being gathered
+	 * 
+	 * @param text The text
+	 * 
+	 * @return This report writer
+	 */
+	public ReportWriter text(CharSequence text)
+	{
+		_cell.append(text);
+		return this;
+	}
+	
+	/**
+	 * Adds a character to the cell being gathered
+	 * 
+	 * @param character The character
+	 * 
+	 * @return This report writer
+	 */
+	public ReportWriter text(char character)
+	{
+		_cell.append(character);
+		return this;
+	}
+	
+	/**
+	 * Adds a whole number to the cell being gathered
+	 * 
+	 * @param number The number
+	 * 
+	 * @return This report writer
+	 */
+	public ReportWriter number(long number)
+	{
+		_cell.append(number);
+		return this;
+	}
+	
+	/**
+	 * Adds an amount of money to the cell being gathered, formatted
+	 * <br>as <code>$###,##0.00</code>
+	 * 
+	 * @param cents The amount, in whole cents
+	 * 
+	 * @return This report writer
+	 */
+	public ReportWriter money(long cents)
+	{
+		int index = _moneyBuffer.length;
+		boolean isNegative = cents < 0;
+		
+		// Long.MIN_VALUE cannot be negated, so work with negative amounts
+		long remaining = isNegative ? cents : -cents;
+		
+		for(int decimal = 0; decimal < 2; decimal++)
+		{
+			_moneyBuffer[--index] = (char) ('0' - remaining % 10);
+			remaining /= 10;
+		}
+		_moneyBuffer[--index] = '.';
+		
+		int numOfDigits = 0;
+		do
+		{
+			if(numOfDigits > 0 && numOfDigits % 3 == 0)
+				_moneyBuffer[--index] = ',';
+			
+			_moneyBuffer[--index] = (char) ('0' - remaining % 10);
+			remaining /= 10;
+			numOfDigits++;
+		} while(remaining != 0);
+		
+		_moneyBuffer[--index] = '$';
+		if(isNegative)
+			_moneyBuffer[--index] = '-';
+		
+		_cell.append(_moneyBuffer, index, _moneyBuffer.length - index);
+		return this;
+	}
+	
+	/**
+	 * Adds a date/time to the cell being gathered
+	 * 
+	 * @param instantMillis The instant, in epoch milliseconds
+	 * @param format The format of the date/time
+	 * 
+	 * @return This report writer
+	 */
+	public ReportWriter dateTime(long instantMillis, DateTimeFormat format)
+	{
+		format.format(instantMillis, _cell);
+		return this;
+	}
+	
+	/**
+	 * Adds an amount of money to the cell being gathered, formatted
+	 * <br>as <code>$###,##0.00</code>
+	 * 
+	 * @param amount The amount, in dollars
+	 * 
+	 * @return This report writer
+	 */
+	public ReportWriter money(double amount) {
+		return money(Math.round(amount * CENTS_PER_DOLLAR));
+	}
+	
+	/**
+	 * Writes the cell, padded with spaces on the right
+	 * 
+	 * @param width The smallest width of the cell
+	 * 
+	 * @return This report writer
+	 * 
+	 * @throws IOException If the report cannot be written
+	 */
+	public ReportWriter left(int width) throws IOException
+	{
+		int padding = width - _cell.length();
+		
+		writeCell();
+		writeRun(' ', padding);
+		
+		return this;
+	}
+	
+	/**
+	 * Writes the cell, padded with spaces on the left
+	 * 
+	 * @param width The smallest width of the cell
+	 * 
+	 * @return This report writer
+	 * 
+	 * @throws IOException If the report cannot be written
+	 */
+	public ReportWriter right(int width) throws IOException
+	{
+		writeRun(' ', width - _cell.length());
+		writeCell();
+		
+		return this;
+	}
+	
+	/**
+	 * Writes the cell as it is, without padding
+	 * 
+	 * @return This report writer
+	 * 
+	 * @throws IOException If the report cannot be written
+	 */
+	public ReportWriter cell() throws IOException
+	{
+		writeCell();
+		return this;
+	}
+	
+	/**
+	 * Writes the cell, followed by a run of a character
+	 * 
+	 * @param character The character, such as a separator
+	 * @param length The number of times the character is written
+	 * 
+	 * @return This report writer
+	 * 
+	 * @throws IOException If the report cannot be written
+	 */
+	public ReportWriter repeat(char character, int length) throws IOException
+	{
+		writeCell();
+		writeRun(character, length);
+		
+		return this;
+	}
+	
+	/**
+	 * Writes the cell, followed by the end of the line
+	 * 
+	 * @return This report writer
+	 * 
+	 * @throws IOException If the report cannot be written
+	 */
+	public ReportWriter line() throws IOException
+	{
+		writeCell();
+		_writer.write(LINE_SEPARATOR);
+		
+		return this;
+	}
+	
+	/**
+	 * Writes the cell gathered so far, and starts a new one
+	 * 
+	 * @throws IOException If the report cannot be written
+	 */
+	private void writeCell() throws IOException
+	{
+		int length = _cell.length();
+		
+		if(length > _cellBuffer.length)
+			_cellBuffer = new char[Math.max(length, _cellBuffer.length * 2)];
+		
+		_cell.getChars(0, length, _cellBuffer, 0);
+		_writer.write(_cellBuffer, 0, length);
+		_cell.setLength(0);
+	}
+	
+	/**
+	 * Writes a run of a character, from the cached runs where possible
+	 * 
+	 * @param character The character
+	 * @param length The number of times the character is written,
+	 * 		  nothing if not positive
+	 * 
+	 * @throws IOException If the report cannot be written
+	 */
+	private void writeRun(char character, int length) throws IOException
+	{
+		char[] run;
+		
+		switch(character)
+		{
+			case ' ':
+				run = SPACES;
+				break;
+			case '-':
+				run = DASHES;
+				break;
+			case '=':
+				run = EQUALS;
+				break;
+			default:
+				for(int count = 0; count < length; count++)
+				{
+					_writer.write(character);
+				}
+				return;
+		}
+		
+		while(length > 0)
+		{
+			int chunkLength = Math.min(length, run.length);
+			
+			_writer.write(run, 0, chunkLength);
+			length -= chunkLength;
+		}
+	}
+	
+	/**
+	 * Writes the cell, and flushes the report to its destination
+	 * 
+	 * @throws IOException If the report cannot be written
+	 */
+	@Override
+	public void flush() throws IOException
+	{
+		writeCell();
+		_writer.flush();
+	}
+	
+	/**
+	 * Flushes the report, and closes the writer if it belongs to this
+	 * <br>report writer
+	 * 
+	 * @throws IOException If the report cannot be written
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		flush();
+		
+		if(_closeWriter)
+			_writer.close();
+	}
+}
\ No newline at end of file
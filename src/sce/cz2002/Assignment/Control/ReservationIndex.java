@@ -0,0 +1,561 @@
+package sce.cz2002.Assignment.Control;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import sce.cz2002.Assignment.Classes.DateTimes;
+import sce.cz2002.Assignment.Classes.Reservation;
+
+/**
+ * An index over all the reservations made for the restaurant<p>
+ *
+ * Each table keeps its own interval index of reservations, keyed by the
+ * <br>reservation start time in epoch milliseconds. As a table can never
+ * have two<br>overlapping reservations, the only reservation that can
+ * clash with a new time slot<br>is the one that starts last before the
+ * new slot ends, which is found in logarithmic time<p>
+ *
+ * Tables are also grouped by their number of seats, and each day that
+ * free tables are<br>found for keeps the tables that are free in each of
+ * its slots in {@link DaySlotTables},<br>from the first time the day is
+ * asked for. The first free table that can<br>accommodate a number of
+ * people is then found by ANDing the bitmaps of the slots<br>of the
+ * reservation, 64 tables at a time. Time slots that do not start and end
+ * on<br>slot boundaries only check the interval index of the tables that
+ * the bitmaps<br>cannot rule in or out<p>
+ *
+ * All reservations are additionally kept in chronological order, and
+ * by customer so that<br>the reservation of a customer is found without
+ * going through all the reservations<p>
+ * 
+ * The free start times of a day are found from the {@link DayOccupancy}
+ * of the day,<br>which is kept until a reservation of that day is added
+ * or removed
+ *
+ * @author Jin Yao
+ *
+ */
+public class ReservationIndex
+{
+	/**
+	 * The largest number of days whose occupancy is kept at once
+	 */
+	private static final int MAX_CACHED_DAYS = 31;
+	
+	/**
+	 * The largest number of words in the free table bitmaps of the days
+	 * that are<br>kept at once, 8 MB
+	 */
+	private static final int MAX_CACHED_WORDS = 1 << 20;
+	
+	/**
+	 * Orders reservations by start date/time, then by table number and
+	 * <br>customer ID so that reservations starting at the same time
+	 * can co-exist
+	 */
+	private static final Comparator<Reservation> CHRONOLOGICAL_ORDER =
+			new Comparator<Reservation>() {
+
+		@Override
+		public int compare(Reservation resA, Reservation resB)
+		{
+			long startA = resA.getStartTimeInMillis();
+			long startB = resB.getStartTimeInMillis();
+
+			if(startA != startB)
+				return (startA < startB) ? -1 : 1;
+
+			if(resA.getReservedTableNo() != resB.getReservedTableNo())
+				return (resA.getReservedTableNo() <
+						resB.getReservedTableNo()) ? -1 : 1;
+
+			if(resA.getCustomerID() != resB.getCustomerID())
+				return (resA.getCustomerID() < resB.getCustomerID()) ? -1 : 1;
+
+			return 0;
+		}
+	};
+
+	/**
+	 * Per-table interval index<br>
+	 * Maps a table number to the reservations of that table, keyed by the
+	 * reservation start time
+	 */
+	private final Map<Integer, TreeMap<Long, Reservation>> _tableIndex;
+
+	/**
+	 * Table numbers grouped by the number of seats of the table<br>
+	 * Table numbers within each group are kept in ascending order
+	 */
+	private final TreeMap<Integer, TreeSet<Integer>> _tablesBySeats;
+
+	/**
+	 * All reservations, in chronological order
+	 */
+	private final TreeSet<Reservation> _reservations;
+
+	/**
+	 * Maps a customer ID to the reservations made by the customer, in
+	 * <br>chronological order
+	 */
+	private final IntHashMap<TreeSet<Reservation>> _customerIndex;
+	
+	/**
+	 * The occupancy of the days that free start times were found for,
+	 * keyed by<br>epoch day, from least to most recently used
+	 */
+	private final LinkedHashMap<Integer, DayOccupancy> _dayOccupancies;
+	
+	/**
+	 * The free tables of the days that free tables were found for, keyed by
+	 * <br>epoch day, from least to most recently used
+	 */
+	private final LinkedHashMap<Integer, DaySlotTables> _daySlotTables;
+	
+	/**
+	 * The table numbers in order of rank, by number of seats and then table
+	 * <br>number, null until tables are ranked again
+	 */
+	private List<Integer> _rankedTables;
+	
+	/**
+	 * The reservations of each table, keyed by start time, in order of rank
+	 */
+	private List<TreeMap<Long, Reservation>> _rankedTableReservations;
+	
+	/**
+	 * Maps a table number to the rank of the table
+	 */
+	private IntHashMap<Integer> _tableRanks;
+	
+	/**
+	 * Maps a number of seats to the rank of the first table with that many
+	 * seats
+	 */
+	private TreeMap<Integer, Integer> _firstRanksBySeats;
+	
+	/**
+	 * Creates a new, empty reservation index with no tables
+	 */
+	public ReservationIndex()
+	{
+		_tableIndex = new HashMap<Integer, TreeMap<Long, Reservation>>();
+		_tablesBySeats = new TreeMap<Integer, TreeSet<Integer>>();
+		_reservations = new TreeSet<Reservation>(CHRONOLOGICAL_ORDER);
+		_customerIndex = new IntHashMap<TreeSet<Reservation>>();
+		_dayOccupancies = new LinkedHashMap<Integer, DayOccupancy>(16, 0.75f,
+				true);
+		_daySlotTables = new LinkedHashMap<Integer, DaySlotTables>(16, 0.75f,
+				true);
+	}
+
+	/**
+	 * Registers a table so that reservations can be made for it
+	 *
+	 * @param tableNumber The table number of the table
+	 * @param numOfSeats The number of seats that the table has
+	 */
+	public void addTable(int tableNumber, int numOfSeats)
+	{
+		if(_tableIndex.containsKey(tableNumber))
+			return;
+
+		_tableIndex.put(tableNumber, new TreeMap<Long, Reservation>());
+
+		TreeSet<Integer> tables = _tablesBySeats.get(numOfSeats);
+		if(tables == null)
+		{
+			tables = new TreeSet<Integer>();
+			_tablesBySeats.put(numOfSeats, tables);
+		}
+
+		tables.add(tableNumber);
+		_dayOccupancies.clear();
+		
+		// Ranks of the tables after the new one have moved up
+		_daySlotTables.clear();
+		_rankedTables = null;
+	}
+
+	/**
+	 * Adds a reservation to the index<p>
+	 *
+	 * The caller is expected to have checked that the reserved table is free
+	 * <br>for the duration of the reservation
+	 *
+	 * @param reservation The reservation to be added
+	 *
+	 * @return True if the reservation was added, false if the reserved table
+	 * 		   is unknown<br>or already has a reservation starting at the
+	 * 		   same time
+	 */
+	public boolean add(Reservation reservation)
+	{
+		TreeMap<Long, Reservation> tableReservations =
+				_tableIndex.get(reservation.getReservedTableNo());
+
+		if(tableReservations == null)
+			return false;
+
+		long startMillis = reservation.getStartTimeInMillis();
+		if(tableReservations.containsKey(startMillis))
+			return false;
+
+		tableReservations.put(startMillis, reservation);
+		_reservations.add(reservation);
+
+		TreeSet<Reservation> customerReservations =
+				_customerIndex.get(reservation.getCustomerID());
+		if(customerReservations == null)
+		{
+			customerReservations = new TreeSet<Reservation>(CHRONOLOGICAL_ORDER);
+			_customerIndex.put(reservation.getCustomerID(),
+					customerReservations);
+		}
+		
+		customerReservations.add(reservation);
+		invalidateDays(reservation);
+		updateDaySlots(reservation, tableReservations);
+		
+		return true;
+	}
+
+	/**
+	 * Removes a reservation from the index
+	 *
+	 * @param reservation The reservation to be removed
+	 *
+	 * @return True if the reservation was in the index
+	 */
+	public boolean remove(Reservation reservation)
+	{
+		if(!_reservations.remove(reservation))
+			return false;
+
+		TreeMap<Long, Reservation> tableReservations =
+				_tableIndex.get(reservation.getReservedTableNo());
+
+		if(tableReservations != null)
+		{
+			tableReservations.remove(reservation.getStartTimeInMillis());
+			updateDaySlots(reservation, tableReservations);
+		}
+		
+		TreeSet<Reservation> customerReservations =
+				_customerIndex.get(reservation.getCustomerID());
+		customerReservations.remove(reservation);
+		if(customerReservations.isEmpty())
+			_customerIndex.remove(reservation.getCustomerID());
+		
+		invalidateDays(reservation);
+
+		return true;
+	}
+
+	/**
+	 * Removes a collection of reservations from the index
+	 *
+	 * @param reservations The reservations to be removed
+	 */
+	public void removeAll(Collection<Reservation> reservations)
+	{
+		for(Reservation reservation : reservations)
+			remove(reservation);
+	}
+
+	/**
+	 * Checks whether a table is free during the time slot [start, end)
+	 * <p>
+	 * Assumption: Edges overlapping is not allowed, a reservation ending
+	 * <br>exactly when the time slot starts does not clash with it
+	 *
+	 * @param tableNumber The table number of the table to check
+	 * @param startMillis The start of the time slot, in epoch milliseconds
+	 * @param endMillis The end of the time slot, in epoch milliseconds
+	 *
+	 * @return True if the table has no reservation overlapping the time slot
+	 */
+	public boolean isTableFree(int tableNumber, long startMillis, long endMillis)
+	{
+		TreeMap<Long, Reservation> tableReservations =
+				_tableIndex.get(tableNumber);
+
+		if(tableReservations == null)
+			return false;
+
+		return isFree(tableReservations, startMillis, endMillis);
+	}
+	
+	/**
+	 * Checks whether a table is free during the time slot [start, end),
+	 * from its<br>reservations
+	 * 
+	 * @param tableReservations The reservations of the table, keyed by
+	 * 		  start time
+	 * @param startMillis The start of the time slot, in epoch milliseconds
+	 * @param endMillis The end of the time slot, in epoch milliseconds
+	 * 
+	 * @return True if no reservation overlaps the time slot
+	 * 
+	 * @see #isTableFree(int, long, long)
+	 */
+	static boolean isFree(TreeMap<Long, Reservation> tableReservations,
+			long startMillis, long endMillis)
+	{
+		/* Overlapping occurs when (StartA < EndB) and (EndA > StartB)
+		 *
+		 * Reservations of the same table never overlap, so the only
+		 * candidate is the latest reservation that starts before EndA
+		 */
+		Map.Entry<Long, Reservation> candidate =
+				tableReservations.lowerEntry(endMillis);
+
+		if(candidate == null)
+			return true;
+
+		return candidate.getValue().getEndTimeInMillis() <= startMillis;
+	}
+
+	/**
+	 * Finds the first table that is free during the time slot [start, end)
+	 * <br>and has enough seats for the given number of people<p>
+	 *
+	 * Tables with fewer seats are preferred, followed by tables with a
+	 * smaller table number<p>
+	 * 
+	 * A time slot that starts and ends on slot boundaries takes one AND of
+	 * the bitmaps<br>of its slots per 64 tables. Any other time slot also
+	 * checks, in logarithmic<br>time each, the tables that are free in the
+	 * slots it fully covers but not in<br>the slots it partly covers
+	 *
+	 * @param numOfPeople The number of people that the table has to accommodate
+	 * @param startMillis The start of the time slot, in epoch milliseconds
+	 * @param endMillis The end of the time slot, in epoch milliseconds
+	 *
+	 * @return The table number of the free table, 0 if there isn't one
+	 */
+	public int findFreeTable(int numOfPeople, long startMillis, long endMillis)
+	{
+		DaySlotTables daySlotTables = getDaySlotTables(
+				DateTimes.toEpochDay(startMillis));
+		
+		Map.Entry<Integer, Integer> firstRank =
+				_firstRanksBySeats.ceilingEntry(numOfPeople);
+		
+		if(firstRank == null)
+			return 0;
+		
+		int rank = daySlotTables.findFreeTable(firstRank.getValue(),
+				startMillis, endMillis, _rankedTableReservations);
+		
+		return (rank < 0) ? 0 : _rankedTables.get(rank);
+	}
+
+	/**
+	 * Finds the start times of a day at which a table is free for a whole
+	 * reservation<br>and has enough seats for the given number of people<p>
+	 * 
+	 * Start times are on the slots of {@link DayOccupancy#SLOT_MINUTES}
+	 * minutes from opening,<br>and a reservation has to end by closing
+	 * 
+	 * @param numOfPeople The number of people that the table has to accommodate
+	 * @param openingMillis The opening time of the day, in epoch milliseconds
+	 * @param numOfSlots The number of slots from opening to closing, at most
+	 * 		  {@link DayOccupancy#MAX_NUM_OF_SLOTS}
+	 * @param slotsPerReservation The number of slots that a reservation
+	 * 		  takes up
+	 * 
+	 * @return A bitmap with a bit set for every free start slot, the slot
+	 * 		   at opening<br>being the lowest bit
+	 */
+	public long findFreeStarts(int numOfPeople, long openingMillis,
+			int numOfSlots, int slotsPerReservation)
+	{
+		int epochDay = DateTimes.toEpochDay(openingMillis);
+		DayOccupancy dayOccupancy = _dayOccupancies.get(epochDay);
+		
+		if(dayOccupancy == null ||
+				!dayOccupancy.isFor(openingMillis, numOfSlots,
+						slotsPerReservation))
+		{
+			dayOccupancy = new DayOccupancy(openingMillis, numOfSlots,
+					slotsPerReservation, _tableIndex, _tablesBySeats);
+			_dayOccupancies.put(epochDay, dayOccupancy);
+			evictLeastRecentlyUsed(_dayOccupancies, MAX_CACHED_DAYS);
+		}
+		
+		return dayOccupancy.getFreeStarts(numOfPeople);
+	}
+	
+	/**
+	 * Gets the free tables of a day, working them out the first time the day
+	 * is<br>asked for
+	 * 
+	 * @param epochDay The day
+	 * 
+	 * @return The free tables of the day
+	 */
+	private DaySlotTables getDaySlotTables(int epochDay)
+	{
+		// Any table added since has changed the ranks
+		if(_rankedTables == null)
+			rankTables();
+		
+		DaySlotTables daySlotTables = _daySlotTables.get(epochDay);
+		if(daySlotTables != null)
+			return daySlotTables;
+		
+		daySlotTables = new DaySlotTables(epochDay, _rankedTableReservations);
+		_daySlotTables.put(epochDay, daySlotTables);
+		
+		// The bitmaps of small floor plans are small enough to keep many days
+		evictLeastRecentlyUsed(_daySlotTables, Math.max(MAX_CACHED_DAYS,
+				MAX_CACHED_WORDS / Math.max(daySlotTables.getNumOfWords(), 1)));
+		
+		return daySlotTables;
+	}
+	
+	/**
+	 * Ranks the tables by number of seats, and then by table number
+	 */
+	private void rankTables()
+	{
+		_rankedTables = new ArrayList<Integer>(_tableIndex.size());
+		_rankedTableReservations = new ArrayList<TreeMap<Long, Reservation>>(
+				_tableIndex.size());
+		_tableRanks = new IntHashMap<Integer>();
+		_firstRanksBySeats = new TreeMap<Integer, Integer>();
+		
+		for(Map.Entry<Integer, TreeSet<Integer>> tables :
+			_tablesBySeats.entrySet())
+		{
+			_firstRanksBySeats.put(tables.getKey(), _rankedTables.size());
+			
+			for(int tableNumber : tables.getValue())
+			{
+				_tableRanks.put(tableNumber, _rankedTables.size());
+				_rankedTables.add(tableNumber);
+				_rankedTableReservations.add(_tableIndex.get(tableNumber));
+			}
+		}
+	}
+	
+	/**
+	 * Marks the slots of the table of a reservation again, on the days that
+	 * the<br>reservation falls on and whose free tables are kept
+	 * 
+	 * @param reservation The reservation that was added or removed
+	 * @param tableReservations The reservations of the table, keyed by
+	 * 		  start time
+	 */
+	private void updateDaySlots(Reservation reservation,
+			TreeMap<Long, Reservation> tableReservations)
+	{
+		if(_daySlotTables.isEmpty())
+			return;
+		
+		int rank = _tableRanks.get(reservation.getReservedTableNo());
+		
+		int lastDay = DateTimes.toEpochDay(reservation.getEndTimeInMillis() - 1);
+		for(int epochDay = DateTimes.toEpochDay(
+				reservation.getStartTimeInMillis()); epochDay <= lastDay;
+				epochDay++)
+		{
+			DaySlotTables daySlotTables = _daySlotTables.get(epochDay);
+			if(daySlotTables != null)
+				daySlotTables.update(rank, tableReservations);
+		}
+	}
+	
+	/**
+	 * Drops the least recently used days of a map, once it keeps more than
+	 * <br>a number of days
+	 * 
+	 * @param days The map keyed by epoch day, in access order
+	 * @param maxNumOfDays The largest number of days to keep
+	 */
+	private static void evictLeastRecentlyUsed(LinkedHashMap<Integer, ?> days,
+			int maxNumOfDays)
+	{
+		Iterator<?> leastRecentlyUsed = days.values().iterator();
+		while(days.size() > maxNumOfDays)
+		{
+			leastRecentlyUsed.next();
+			leastRecentlyUsed.remove();
+		}
+	}
+	
+	/**
+	 * Drops the occupancy of the days that a reservation falls on
+	 * 
+	 * @param reservation The reservation that was added or removed
+	 */
+	private void invalidateDays(Reservation reservation)
+	{
+		if(_dayOccupancies.isEmpty())
+			return;
+		
+		int lastDay = DateTimes.toEpochDay(reservation.getEndTimeInMillis() - 1);
+		for(int epochDay = DateTimes.toEpochDay(
+				reservation.getStartTimeInMillis()); epochDay <= lastDay;
+				epochDay++)
+		{
+			_dayOccupancies.remove(epochDay);
+		}
+	}
+	
+	/**
+	 * Gets the first reservation (in chronological order) made by
+	 * a customer
+	 *
+	 * @param customerID The customer ID of the customer that made the
+	 * 		  reservation
+	 *
+	 * @return The reservation made by the customer, null if there isn't one
+	 */
+	public Reservation getByCustomer(int customerID)
+	{
+		TreeSet<Reservation> customerReservations =
+				_customerIndex.get(customerID);
+
+		if(customerReservations == null)
+			return null;
+		
+		return customerReservations.first();
+	}
+
+	/**
+	 * Gets all the reservations in the index, in chronological order
+	 *
+	 * @return A new list containing all the reservations
+	 */
+	public List<Reservation> getReservations() {
+		return new ArrayList<Reservation>(_reservations);
+	}
+
+	/**
+	 * Gets the total number of reservations in the index
+	 *
+	 * @return The number of reservations
+	 */
+	public int size() {
+		return _reservations.size();
+	}
+
+	/**
+	 * Checks whether there are no reservations in the index
+	 *
+	 * @return True if there are no reservations
+	 */
+	public boolean isEmpty() {
+		return _reservations.isEmpty();
+	}
+}
@@ -0,0 +1,860 @@
+package sce.cz2002.Assignment.Control;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import sce.cz2002.Assignment.Classes.Customer;
+import sce.cz2002.Assignment.Classes.DateTimes;
+import sce.cz2002.Assignment.Classes.Reservation;
+import sce.cz2002.Assignment.Classes.Table;
+
+/**
+ * Provides the reservation and table functionality of an {@link Outlet}
+ * without any<br>user interaction<p>
+ * 
+ * Functionalities include making/cancelling reservations, removing expired
+ * reservations,<br>finding the free reservation times of a day and
+ * seating customers at a reserved or<br>available table. Tables and
+ * reservations are kept by the outlet, and the restaurant<br>manager is a
+ * console client of this service<p>
+ * 
+ * The restaurant is open from 0900 to 2200, and a reservation is cancelled
+ * if the<br>customer does not show up within 5 minutes of the reservation
+ * date/time<p>
+ * 
+ * Invalid arguments are rejected with an {@link IllegalArgumentException}
+ * which<br>describes the problem<p>
+ * 
+ * Reservations are started and expired by a background scheduler, which
+ * fires once<br>at the reservation date/time to reserve the table, and
+ * once more 5 minutes later<br>to release the table and remove the
+ * reservation if the customer has not shown up.<br>The scheduler keeps
+ * its pending events in a priority queue, so seating a customer<br>never
+ * looks at the reservations, however many are booked<p>
+ * 
+ * This service can be used by many terminals at once. Seating a customer
+ * changes the<br>status of a single table atomically, so two customers
+ * are never seated at the same<br>table and no lock is needed. The
+ * reservations themselves are guarded by a lock,<br>which is taken by
+ * the scheduler whenever a reservation starts or expires
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class ReservationService
+{
+	/**
+	 * The default reservation duration, in hours
+	 */
+	public static final int RESERVATION_DURATION = 2;
+	
+	/**
+	 * Number of milliseconds after the reservation date/time before
+	 * <br>a reservation expires (5 minutes)
+	 */
+	private static final long RESERVATION_GRACE_PERIOD = 5 * 60 * 1000L;
+	
+	/**
+	 * Restaurant opening hour
+	 */
+	private static final int RESTAURANT_OPENING_HOUR = 9;
+	
+	/**
+	 * Restaurant closing hour
+	 */
+	private static final int RESTAURANT_CLOSING_HOUR = 22;
+	
+	/**
+	 * Fires the start and expiry of the reservations of all outlets, on a
+	 * single<br>daemon thread
+	 */
+	private static final ScheduledThreadPoolExecutor SCHEDULER =
+			createScheduler();
+	
+	/**
+	 * Times making reservations, 1 in every few calls
+	 */
+	private static final MetricsRegistry.Timer RESERVATION_TIMER =
+			MetricsRegistry.getMetricsRegistry().getSampledTimer(
+					"reservation_add");
+	
+	/**
+	 * Times seating walk-in customers at an available table, only when
+	 * fine-grained<br>timing is turned on
+	 */
+	private static final MetricsRegistry.Timer AVAILABLE_TABLE_TIMER =
+			MetricsRegistry.getMetricsRegistry().getFineGrainedTimer(
+					"table_available");
+	
+	/**
+	 * The outlet whose reservations and tables this service looks after
+	 */
+	private final Outlet _outlet;
+	
+	/**
+	 * Guards the reservations, so that checking for a free table and
+	 * adding<br>the reservation happen as one step
+	 */
+	private final ReentrantLock _reservationLock;
+	
+	/**
+	 * The next event of each reservation that is waiting to start or
+	 * expire<br>Guarded by the reservation lock
+	 */
+	private final Map<Reservation, ScheduledFuture<?>> _pendingEvents;
+	
+	/**
+	 * Creates a new reservation service, for the {@link Outlet}
+	 * 
+	 * @param outlet The outlet whose reservations and tables this service
+	 * 		  looks after
+	 */
+	ReservationService(Outlet outlet)
+	{
+		_outlet = outlet;
+		_reservationLock = new ReentrantLock();
+		_pendingEvents = new HashMap<Reservation, ScheduledFuture<?>>();
+	}
+	
+	/**
+	 * Creates the scheduler shared by the reservation services of all outlets
+	 * 
+	 * @return The scheduler, whose thread is started with the first event
+	 */
+	private static ScheduledThreadPoolExecutor createScheduler()
+	{
+		ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(
+				1, new ThreadFactory() {
+			
+			@Override
+			public Thread newThread(Runnable task)
+			{
+				Thread schedulerThread = new Thread(task,
+						"Reservation scheduler");
+				schedulerThread.setDaemon(true);
+				
+				return schedulerThread;
+			}
+		});
+		
+		// Cancelled reservations must not stay in the queue until they fire
+		scheduler.setRemoveOnCancelPolicy(true);
+		
+		return scheduler;
+	}
+	
+	/**
+	 * Public static function used to get hold of the reservation service
+	 * <br>of the outlet served by the restaurant manager
+	 * 
+	 * @return The reservation service of the restaurant manager's outlet
+	 */
+	public static ReservationService getReservationService() {
+		return RestaurantMgr.getRestaurantMgr().getOutlet().
+				getReservationService();
+	}
+	
+	/**
+	 * Gets the index of reservations kept by the outlet
+	 * 
+	 * @return The index of reservations
+	 */
+	private ReservationIndex reservations() {
+		return _outlet.getReservationIndex();
+	}
+	
+	/**
+	 * Gets the outlet that this service looks after
+	 * 
+	 * @return The outlet, with its tables and reservations
+	 */
+	Outlet getOutlet() {
+		return _outlet;
+	}
+	
+	/**
+	 * Gets the table allocator kept by the outlet
+	 * 
+	 * @return The allocator of the available tables
+	 */
+	private TableAllocator tableAllocator() {
+		return _outlet.getTableAllocator();
+	}
+	
+	/**
+	 * Gets the largest number of people that a table in the outlet can
+	 * <br>accommodate
+	 * 
+	 * @return The number of seats of the largest table
+	 */
+	public int getMaxNumOfPeople() {
+		return tableAllocator().getMaxNumOfSeats();
+	}
+	
+	/**
+	 * Gets all tables in the outlet, with their current status
+	 * 
+	 * @return A read-only list of all tables
+	 */
+	public List<Table> getTables() {
+		return _outlet.getTables();
+	}
+	
+	/**
+	 * Gets a table by the specified table number
+	 * 
+	 * @param tableNumber The table's table number
+	 * 
+	 * @return The table, null if there isn't one
+	 */
+	public Table getTable(int tableNumber) {
+		return _outlet.getTable(tableNumber);
+	}
+	
+	/**
+	 * Gets all valid reservations, in chronological order
+	 * 
+	 * @return The list of reservations
+	 */
+	public List<Reservation> getReservations()
+	{
+		_reservationLock.lock();
+		try
+		{
+			return reservations().getReservations();
+		}
+		finally
+		{
+			_reservationLock.unlock();
+		}
+	}
+	
+	/**
+	 * Checks whether a reservation starting at the given date/time
+	 * <br>falls within the restaurant's opening hours
+	 * 
+	 * @param startMillis The reservation date/time, in epoch milliseconds
+	 * 
+	 * @return True if the whole reservation is within the opening hours
+	 */
+	public boolean isWithinOpeningHours(long startMillis)
+	{
+		int startMinute = DateTimes.getMinuteOfDay(startMillis);
+		int endMinute = startMinute + RESERVATION_DURATION * 60;
+		
+		return startMinute >= RESTAURANT_OPENING_HOUR * 60 &&
+				endMinute <= RESTAURANT_CLOSING_HOUR * 60;
+	}
+	
+	/**
+	 * Checks whether a reservation date/time is in advance, i.e.
+	 * not in the past
+	 * 
+	 * @param startMillis The reservation date/time, in epoch milliseconds
+	 * 
+	 * @return True if the reservation date/time is not in the past
+	 */
+	public boolean isInAdvance(long startMillis) {
+		return startMillis >= System.currentTimeMillis();
+	}
+	
+	/**
+	 * Finds every reservation date/time of a day at which a table is free
+	 * for the<br>number of people<p>
+	 * 
+	 * Times are every 15 minutes from opening, for reservations that end by
+	 * closing.<br>Times that have passed are left out. The free times of a
+	 * day are worked out<br>once, and again only after a reservation of the
+	 * day is made or removed
+	 * 
+	 * @param dateMillis Any time of the day, in epoch milliseconds
+	 * @param numOfPeople The number of people, from 1 to 10
+	 * 
+	 * @return The free reservation date/times in epoch milliseconds, in
+	 * 		   chronological order
+	 */
+	public List<Long> findAvailableStartTimes(long dateMillis, int numOfPeople)
+	{
+		checkNumOfPeople(numOfPeople);
+		
+		long openingMillis = DateTimes.toStartMillis(
+				DateTimes.toEpochDay(dateMillis))
+				+ RESTAURANT_OPENING_HOUR * DateTimes.MILLIS_PER_HOUR;
+		
+		// Days with a daylight saving change before opening are shorter
+		// or longer
+		openingMillis += (RESTAURANT_OPENING_HOUR * 60
+				- DateTimes.getMinuteOfDay(openingMillis))
+				* DateTimes.MILLIS_PER_MINUTE;
+		
+		int numOfSlots = (RESTAURANT_CLOSING_HOUR - RESTAURANT_OPENING_HOUR)
+				* 60 / DayOccupancy.SLOT_MINUTES;
+		int slotsPerReservation = RESERVATION_DURATION * 60
+				/ DayOccupancy.SLOT_MINUTES;
+		
+		long freeStarts;
+		
+		_reservationLock.lock();
+		try
+		{
+			freeStarts = reservations().findFreeStarts(numOfPeople,
+					openingMillis, numOfSlots, slotsPerReservation);
+		}
+		finally
+		{
+			_reservationLock.unlock();
+		}
+		
+		List<Long> startTimes = new ArrayList<Long>(Long.bitCount(freeStarts));
+		
+		for(; freeStarts != 0; freeStarts &= freeStarts - 1)
+		{
+			long startMillis = openingMillis
+					+ Long.numberOfTrailingZeros(freeStarts)
+					* DayOccupancy.SLOT_MILLIS;
+			
+			if(isInAdvance(startMillis))
+				startTimes.add(startMillis);
+		}
+		
+		return startTimes;
+	}
+	
+	/**
+	 * Makes a new reservation, allocating a table which is free for the
+	 * whole<br>reservation duration
+	 * 
+	 * @param customerID The customer ID of the customer making the
+	 * 		  reservation
+	 * @param numOfPeople The number of people, from 1 to 10
+	 * @param startMillis The reservation date/time in epoch milliseconds,
+	 * 		  in advance<br>and within the opening hours
+	 * 
+	 * @return The reservation made, null if there are no tables available
+	 * 		   at the<br>reservation date/time for the number of people
+	 */
+	public Reservation makeReservation(int customerID, int numOfPeople,
+			long startMillis)
+	{
+		long startNanos = RESERVATION_TIMER.start();
+		try
+		{
+			return allocateReservation(customerID, numOfPeople, startMillis);
+		}
+		finally
+		{
+			RESERVATION_TIMER.stop(startNanos);
+		}
+	}
+	
+	/**
+	 * Checks a new reservation, and allocates a table for it
+	 * 
+	 * @param customerID The customer ID of the customer making the
+	 * 		  reservation
+	 * @param numOfPeople The number of people, from 1 to 10
+	 * @param startMillis The reservation date/time in epoch milliseconds,
+	 * 		  in advance<br>and within the opening hours
+	 * 
+	 * @return The reservation made, null if there are no tables available
+	 * 		   at the<br>reservation date/time for the number of people
+	 */
+	private Reservation allocateReservation(int customerID, int numOfPeople,
+			long startMillis)
+	{
+		Customer customer = HumanResourceMgr.getHRMgr().getCustomerByID(
+				customerID);
+		
+		if(customer == null)
+			throw new IllegalArgumentException("Unknown customer ID: "
+					+ customerID);
+		
+		checkNumOfPeople(numOfPeople);
+		
+		if(!isWithinOpeningHours(startMillis))
+			throw new IllegalArgumentException("The restaurant is only open"
+					+ " from 0900 - 2200");
+		
+		if(!isInAdvance(startMillis))
+			throw new IllegalArgumentException("Reservation can only be made"
+					+ " in advance");
+		
+		long endMillis = startMillis
+				+ RESERVATION_DURATION * DateTimes.MILLIS_PER_HOUR;
+		
+		_reservationLock.lock();
+		try
+		{
+			// Attempt to allocate a available table
+			int availableTableNumber = reservations().findFreeTable(
+					numOfPeople, startMillis, endMillis);
+			
+			if(availableTableNumber == 0)
+				return null;
+			
+			Reservation newReservation = new Reservation(availableTableNumber,
+					customer.getCustomerID(), customer.getName(),
+					customer.getContactNumber(), numOfPeople,
+					startMillis, RESERVATION_DURATION);
+			
+			reservations().add(newReservation);
+			scheduleReservation(newReservation);
+			
+			return newReservation;
+		}
+		finally
+		{
+			_reservationLock.unlock();
+		}
+	}
+	
+	/**
+	 * Cancels an existing reservation<br>
+	 * The reserved table is released if it is being held for the reservation
+	 * 
+	 * @param reservation The reservation to be cancelled
+	 * 
+	 * @return True if the reservation was cancelled, false if there is no
+	 * 		   such reservation
+	 */
+	public boolean cancelReservation(Reservation reservation)
+	{
+		if(reservation == null)
+			return false;
+		
+		_reservationLock.lock();
+		try
+		{
+			if(!reservations().remove(reservation))
+				return false;
+			
+			cancelPendingEvent(reservation);
+		}
+		finally
+		{
+			_reservationLock.unlock();
+		}
+		
+		Table table = getTable(reservation.getReservedTableNo());
+		
+		if(table != null && table.tryReleaseTable(reservation.getCustomerID()))
+			tableAllocator().update(table);
+		
+		return true;
+	}
+	
+	/**
+	 * Schedules the start and expiry of all reservations in the index<br>
+	 * Should be called once the reservations have been loaded
+	 * <p>
+	 * Reservations that have already expired are removed, and the tables
+	 * of<br>ongoing reservations are reserved straight away
+	 */
+	void scheduleReservations()
+	{
+		_reservationLock.lock();
+		try
+		{
+			for(Reservation reservation : reservations().getReservations())
+			{
+				if(!_pendingEvents.containsKey(reservation))
+					scheduleReservation(reservation);
+			}
+		}
+		finally
+		{
+			_reservationLock.unlock();
+		}
+	}
+	
+	/**
+	 * Schedules a reservation to start at its reservation date/time, or
+	 * starts<br>it now if that has passed<br>
+	 * The reservation lock must be held
+	 * 
+	 * @param reservation The reservation, which is in the index
+	 */
+	private void scheduleReservation(Reservation reservation)
+	{
+		long startMillis = reservation.getStartTimeInMillis();
+		
+		if(startMillis > System.currentTimeMillis())
+			schedulePendingEvent(reservation, startMillis, false);
+		else
+			startReservation(reservation);
+	}
+	
+	/**
+	 * Reserves the table of a reservation that has started, and schedules
+	 * the<br>reservation to expire 5 minutes after its date/time<br>
+	 * The reservation is removed if it has already expired, or if the
+	 * table is<br>occupied<br>
+	 * The reservation lock must be held
+	 * 
+	 * @param reservation The reservation, which is in the index
+	 */
+	private void startReservation(Reservation reservation)
+	{
+		// The reservation has expired once its grace period is over
+		long expiryMillis = reservation.getStartTimeInMillis()
+				+ RESERVATION_GRACE_PERIOD + 1;
+		
+		if(expiryMillis <= System.currentTimeMillis())
+		{
+			expireReservation(reservation);
+			return;
+		}
+		
+		Table table = getTable(reservation.getReservedTableNo());
+		
+		if(table.tryReserveTable(reservation.getCustomerID()))
+			tableAllocator().update(table);
+		
+		if(table.isOccupied())
+			reservations().remove(reservation);
+		else
+			schedulePendingEvent(reservation, expiryMillis, true);
+	}
+	
+	/**
+	 * Releases the table of a reservation that the customer has not shown
+	 * up for,<br>and removes the reservation<br>
+	 * The reservation lock must be held
+	 * 
+	 * @param reservation The reservation, which is in the index
+	 */
+	private void expireReservation(Reservation reservation)
+	{
+		Table table = getTable(reservation.getReservedTableNo());
+		
+		if(table.tryReleaseTable(reservation.getCustomerID()))
+			tableAllocator().update(table);
+		
+		reservations().remove(reservation);
+	}
+	
+	/**
+	 * Schedules the next event of a reservation<br>
+	 * The reservation lock must be held
+	 * 
+	 * @param reservation The reservation
+	 * @param eventMillis When the event fires, in epoch milliseconds
+	 * @param isExpiry True if the reservation expires at the event,
+	 * 		  false if it starts
+	 */
+	private void schedulePendingEvent(Reservation reservation,
+			long eventMillis, boolean isExpiry)
+	{
+		long delayMillis = eventMillis - System.currentTimeMillis();
+		
+		_pendingEvents.put(reservation, SCHEDULER.schedule(
+				new ReservationEvent(reservation, isExpiry),
+				delayMillis, TimeUnit.MILLISECONDS));
+	}
+	
+	/**
+	 * Cancels the next event of a reservation, if there is one<br>
+	 * The reservation lock must be held
+	 * 
+	 * @param reservation The reservation
+	 */
+	private void cancelPendingEvent(Reservation reservation)
+	{
+		ScheduledFuture<?> pendingEvent = _pendingEvents.remove(reservation);
+		
+		if(pendingEvent != null)
+			pendingEvent.cancel(false);
+	}
+	
+	/**
+	 * The start or expiry of a reservation, run by the scheduler
+	 * 
+	 * @author Jin Yao
+	 * 
+	 */
+	private class ReservationEvent implements Runnable
+	{
+		/**
+		 * The reservation that starts or expires
+		 */
+		private final Reservation _reservation;
+		
+		/**
+		 * True if the reservation expires, false if it starts
+		 */
+		private final boolean _isExpiry;
+		
+		/**
+		 * Creates a new event of a reservation
+		 * 
+		 * @param reservation The reservation that starts or expires
+		 * @param isExpiry True if the reservation expires, false if
+		 * 		  it starts
+		 */
+		public ReservationEvent(Reservation reservation, boolean isExpiry)
+		{
+			_reservation = reservation;
+			_isExpiry = isExpiry;
+		}
+		
+		@Override
+		public void run()
+		{
+			_reservationLock.lock();
+			try
+			{
+				// The reservation was cancelled or claimed while this
+				// event was waiting for the lock
+				if(_pendingEvents.remove(_reservation) == null)
+					return;
+				
+				if(_isExpiry)
+					expireReservation(_reservation);
+				else
+					startReservation(_reservation);
+			}
+			finally
+			{
+				_reservationLock.unlock();
+			}
+		}
+	}
+	
+	/**
+	 * Seats a customer at the table reserved for the customer, if any
+	 * 
+	 * @param customerID The customer ID of the customer that
+	 *        made the reservation
+	 *
+	 * @return The reserved table which the customer is now seated at,
+	 * 		   null if<br>there is no table reserved for this customer
+	 */
+	public Table claimReservedTable(int customerID)
+	{
+		Reservation reservation = claimReservation(customerID);
+		
+		if(reservation == null)
+			return null;
+		
+		return getTable(reservation.getReservedTableNo());
+	}
+	
+	/**
+	 * Seats a customer at the table reserved for the customer, if any, and
+	 * <br>removes the reservation
+	 * 
+	 * @param customerID The customer ID of the customer that
+	 * 		  made the reservation
+	 * 
+	 * @return The reservation, whose table the customer is now seated at,
+	 * 		   null if<br>there is no table reserved for this customer
+	 */
+	Reservation claimReservation(int customerID)
+	{
+		_reservationLock.lock();
+		try
+		{
+			// Started reservations come first, as expired ones are removed
+			Reservation reservation = reservations().getByCustomer(customerID);
+			
+			if(reservation == null || reservation.getStartTimeInMillis() >
+					System.currentTimeMillis())
+				return null;
+			
+			Table table = getTable(reservation.getReservedTableNo());
+			
+			if(!table.tryClaimTable(customerID))
+				return null;
+			
+			// The reservation is fulfilled, so it no longer expires
+			reservations().remove(reservation);
+			cancelPendingEvent(reservation);
+			
+			return reservation;
+		}
+		finally
+		{
+			_reservationLock.unlock();
+		}
+	}
+	
+	/**
+	 * Gives back a reservation whose table was claimed, when the customer
+	 * could<br>not be seated after all. The table is reserved for the
+	 * customer again, until<br>the reservation expires
+	 * 
+	 * @param reservation The reservation returned by
+	 * 		  {@link #claimReservation(int)}
+	 */
+	void restoreReservation(Reservation reservation)
+	{
+		Table table = getTable(reservation.getReservedTableNo());
+		
+		_reservationLock.lock();
+		try
+		{
+			table.freeTable();
+			
+			// Reserves the table again, or releases it if the reservation
+			// has expired in the meantime
+			reservations().add(reservation);
+			scheduleReservation(reservation);
+		}
+		finally
+		{
+			_reservationLock.unlock();
+		}
+		
+		tableAllocator().update(table);
+	}
+	
+	/**
+	 * Gets the number of people that this reservation is for,
+	 * based on the specified customer ID
+	 * 
+	 * @param customerID The customer ID of the customer that made this reservation
+	 * 
+	 * @return The number of people that this reservation is for, 0 if there
+	 * 		   is no reservation<br>that the customer can be seated at now
+	 */
+	public int getPaxFromReservation(int customerID)
+	{
+		Reservation reservation;
+		
+		_reservationLock.lock();
+		try
+		{
+			reservation = reservations().getByCustomer(customerID);
+		}
+		finally
+		{
+			_reservationLock.unlock();
+		}
+		
+		if(reservation == null || reservation.getStartTimeInMillis() >
+				System.currentTimeMillis())
+			return 0;
+		
+		return reservation.getNumOfPeople();
+	}
+	
+	/**
+	 * Seats a walk-in customer (No reservations made) at an available table
+	 * <br>The table is picked by the {@link TableAllocator}, by default the
+	 * smallest<br>table that fits
+	 * 
+	 * @param customerID The customerID of the customer
+	 * @param numOfPeople The number of people that the table has to
+	 * 		  accommodate, from 1 to 10
+	 * 
+	 * @return The table which the customer is now seated at, null if there
+	 * 		   are no<br>tables available at the moment
+	 */
+	public Table claimAvailableTable(int customerID, int numOfPeople)
+	{
+		long startNanos = AVAILABLE_TABLE_TIMER.start();
+		try
+		{
+			return allocateTable(customerID, numOfPeople);
+		}
+		finally
+		{
+			AVAILABLE_TABLE_TIMER.stop(startNanos);
+		}
+	}
+	
+	/**
+	 * Picks an available table for a walk-in customer, and seats the
+	 * customer at it
+	 * 
+	 * @param customerID The customerID of the customer
+	 * @param numOfPeople The number of people that the table has to
+	 * 		  accommodate, from 1 to 10
+	 * 
+	 * @return The table which the customer is now seated at, null if there
+	 * 		   are no<br>tables available at the moment
+	 */
+	private Table allocateTable(int customerID, int numOfPeople)
+	{
+		checkNumOfPeople(numOfPeople);
+		
+		TableAllocator tableAllocator = tableAllocator();
+		Table table;
+		
+		while((table = tableAllocator.allocate(numOfPeople)) != null)
+		{
+			// Fails if the table has just been reserved, in which case the
+			// allocator catches up with its status and another is picked
+			if(table.tryAssignTable(customerID))
+				return table;
+			
+			tableAllocator.update(table);
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Seats a customer whose ongoing order has been recovered at the table
+	 * <br>of the order
+	 * 
+	 * @param tableNumber The table number of the order's table
+	 * @param customerID The customer ID of the customer
+	 * 
+	 * @return The table, null if there isn't one
+	 */
+	Table occupyTable(int tableNumber, int customerID)
+	{
+		Table table = getTable(tableNumber);
+		
+		if(table != null && !table.isOccupied())
+		{
+			table.assignTable(customerID);
+			tableAllocator().update(table);
+		}
+		
+		return table;
+	}
+	
+	/**
+	 * Frees an occupied table, once the customer has left
+	 * 
+	 * @param tableNumber The table number of the table
+	 * 
+	 * @return The table freed, null if there isn't one
+	 */
+	public Table freeTable(int tableNumber)
+	{
+		Table table = getTable(tableNumber);
+		
+		if(table != null)
+		{
+			table.freeTable();
+			tableAllocator().update(table);
+		}
+		
+		return table;
+	}
+	
+	/**
+	 * Checks that a number of people can be seated at a table
+	 * 
+	 * @param numOfPeople The number of people
+	 * 
+	 * @throws IllegalArgumentException If the number of people is not from
+	 * 		   1 to the number of seats of the largest table
+	 */
+	private void checkNumOfPeople(int numOfPeople)
+	{
+		if(numOfPeople < 1 || numOfPeople > getMaxNumOfPeople())
+			throw new IllegalArgumentException("Invalid number of people: "
+					+ numOfPeople);
+	}
+}
\ No newline at end of file
@@ -1,26 +1,27 @@
 package sce.cz2002.Assignment.Control;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Collections;
-import java.util.Date;
-import java.util.GregorianCalendar;
 import java.util.InputMismatchException;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Scanner;
 
 import sce.cz2002.Assignment.Classes.Customer;
+import sce.cz2002.Assignment.Classes.DateTimeFormat;
+import sce.cz2002.Assignment.Classes.FloorPlan;
 import sce.cz2002.Assignment.Classes.Reservation;
 import sce.cz2002.Assignment.Classes.Table;
+import sce.cz2002.Assignment.Persistence.DataFile;
+import sce.cz2002.Assignment.Persistence.FloorPlanCodec;
+import sce.cz2002.Assignment.Persistence.RecordInput;
+import sce.cz2002.Assignment.Persistence.RecordOutput;
+import sce.cz2002.Assignment.Persistence.ReservationCodec;
 
 /**
  * A singleton class that takes care of all restaurant-related functionality<p>
@@ -29,10 +30,13 @@ import sce.cz2002.Assignment.Classes.Table;
  * <br>table availability, viewing the list of all reservations, adding a new reservation and
  * <br> removing existing reservations<p>
  * 
- * The restaurant manager also automatically removes expired reservations through a check
- * reservations function<p>
+ * The restaurant manager is the console client of the {@link ReservationService}, which
+ * <br>makes the actual reservations and also automatically removes expired reservations<p>
  * 
- * The restaurant only has total of 5 tables, with sizes 2, 4, 4, 6 and 10.<br>
+ * The restaurant can have several outlets, each set up from its floor plan
+ * in the floor plan<br>file. The console serves one of the outlets. Without
+ * a floor plan file, the restaurant<br>has a single outlet with a total of
+ * 5 tables, with sizes 2, 4, 4, 6 and 10.<br>
  * The opening hours are from 0900 to 2200.
  * 
  * @author Jin Yao
@@ -52,78 +56,197 @@ public class RestaurantMgr
 		ViewTableAvailability,
 		ViewReservations,
 		AddReservation,
-		RemoveReservation
+		RemoveReservation,
+		FindAvailableTimes
 	}
 	
 	/**
-	 * A list of all the table sizes
+	 * A list of all the table sizes of the default floor plan
 	 */
 	private static final int[] TABLE_SIZES = {2, 4, 4, 6, 10};
 	
 	/**
-	 * The default reservation duration
+	 * The zone of each table of the default floor plan, the front (0) or
+	 * the back (1)<br>of the restaurant
 	 */
-	private static final int RESERVATION_DURATION = 2;
+	private static final int[] TABLE_ZONES = {0, 0, 1, 1, 1};
 	
 	/**
-	 * Restaurant opening hour
+	 * The outlet name of the default floor plan
 	 */
-	private static final int RESTAURANT_OPENING_HOUR = 9;
+	private static final String DEFAULT_OUTLET_NAME = "Main";
 	
 	/**
-	 * Restaurant closing hour
+	 * The system property which chooses how walk-in customers are given
+	 * a table,<br>one of the {@link TableAllocator.Policy} names
 	 */
-	private static final int RESTAURANT_CLOSING_HOUR = 22;
+	private static final String ALLOCATION_POLICY_PROPERTY =
+			"rrpss.tables.allocationPolicy";
+	
+	/**
+	 * The system property which chooses the outlet served by this console,
+	 * <br>by outlet name
+	 */
+	private static final String OUTLET_PROPERTY = "rrpss.outlet";
+	
+	/**
+	 * The file path indicating where the floor plans of the outlets are
+	 * saved
+	 */
+	private static final String FLOOR_PLAN_FILE_PATH = "floorPlan.dat";
 	
 	/**
 	 * The file path indicating where the file used to store reservation
-	 * information is saved
+	 * information is saved<br>
+	 * The reservations of the other outlets are saved next to it, with
+	 * the outlet number<br>added to the file name
 	 */
 	private static final String RESTAURANT_FILE_PATH = "restaurant.dat";
 	
+	/**
+	 * Times loading the reservations
+	 */
+	private static final MetricsRegistry.Timer LOAD_TIMER =
+			MetricsRegistry.getMetricsRegistry().getTimer("restaurant_load");
+	
+	/**
+	 * Times saving the reservations
+	 */
+	private static final MetricsRegistry.Timer SAVE_TIMER =
+			MetricsRegistry.getMetricsRegistry().getTimer("restaurant_save");
+	
 	/**
 	 * A static instance of this Restaurant manager
 	 */
 	private static RestaurantMgr _restaurantMgr = null;
 	
 	/**
-	 * A list of physical tables within this restaurant
+	 * The outlets of the restaurant, in the order of the floor plan file
 	 */
-	private static List<Table> _tables;
+	private static List<Outlet> _outlets;
 	
 	/**
-	 * A list of all reservations made for this restaurant
+	 * The outlet served by this console, with its tables and reservations
 	 */
-	private static List<Reservation> _reservations;
+	private static Outlet _outlet;
 	
 	/**
 	 * Standard Java Scaner used for processing user input
 	 */
 	private static Scanner sc;
 	
-	/**
-	 * A simple date format used to format date/time related information
-	 */
-	private static SimpleDateFormat _dateFormatter = null;
-	
 	/**
 	 * Private constructor used to support the Singleton design pattern
 	 * <br>
-	 * Creates a new Java Scanner object, and creates a new
-	 * arraylist of tables as well a <br>new arraylist
-	 * of reservations<p>
-	 * Calls an internal function to create the tables
+	 * Creates a new Java Scanner object, and sets up the outlets from
+	 * their floor plans<p>
+	 * The floor plans are loaded from the floor plan file if it exists,
+	 * otherwise<br>the restaurant has a single outlet with 5 tables, with
+	 * sizes 2, 4, 4, 6 and 10
 	 */
 	private RestaurantMgr()
 	{
 		sc = new Scanner(System.in);
 		
-		_tables = new ArrayList<Table>();
-		_reservations = new ArrayList<Reservation>();
+		TableAllocator.Policy allocationPolicy = getAllocationPolicy();
+		
+		_outlets = new ArrayList<Outlet>();
+		for(FloorPlan floorPlan : loadFloorPlans())
+		{
+			_outlets.add(new Outlet(_outlets.size(), floorPlan,
+					allocationPolicy));
+		}
+		
+		_outlet = findServedOutlet();
+	}
+	
+	/**
+	 * Gets the table allocation policy, as chosen by the system property
+	 * <br>(if any). Defaults to seating customers at the smallest table
+	 * that fits
+	 * 
+	 * @return The table allocation policy
+	 */
+	private static TableAllocator.Policy getAllocationPolicy()
+	{
+		String allocationPolicy = System.getProperty(
+				ALLOCATION_POLICY_PROPERTY);
 		
-		_dateFormatter = new SimpleDateFormat("E, dd/MM/yyyy, HH:mm");
+		if(allocationPolicy != null)
+		{
+			try {
+				return TableAllocator.Policy.valueOf(allocationPolicy);
+			} catch (IllegalArgumentException ex) {
+				System.out.println("Unknown table allocation policy '"
+						+ allocationPolicy + "', seating customers at the"
+						+ " smallest table..");
+			}
+		}
 		
-		setUpTables();
+		return TableAllocator.Policy.BestFit;
+	}
+	
+	/**
+	 * Loads the floor plans of the outlets from the floor plan file, if it
+	 * exists
+	 * 
+	 * @return The floor plans, the default floor plan if there is no valid
+	 * 		   floor plan file
+	 */
+	private static List<FloorPlan> loadFloorPlans()
+	{
+		if(new File(FLOOR_PLAN_FILE_PATH).isFile())
+		{
+			try
+			{
+				RecordInput in = DataFile.open(FLOOR_PLAN_FILE_PATH,
+						DataFile.FLOOR_PLAN);
+				List<FloorPlan> floorPlans;
+				
+				try {
+					floorPlans = FloorPlanCodec.readFloorPlans(in);
+				} finally {
+					in.close();
+				}
+				
+				if(!floorPlans.isEmpty())
+				{
+					System.out.println("'Floor plan' data loaded successfully!");
+					return floorPlans;
+				}
+				
+			} catch (IOException ex) {
+				System.out.println("Unable to load 'Floor plan' data!");
+			}
+		}
+		
+		return Collections.singletonList(new FloorPlan(DEFAULT_OUTLET_NAME,
+				TABLE_SIZES, TABLE_ZONES));
+	}
+	
+	/**
+	 * Finds the outlet served by this console, as chosen by the system
+	 * property<br>(if any). Defaults to the first outlet
+	 * 
+	 * @return The outlet served by this console
+	 */
+	private static Outlet findServedOutlet()
+	{
+		String outletName = System.getProperty(OUTLET_PROPERTY);
+		
+		if(outletName != null)
+		{
+			for(Outlet outlet : _outlets)
+			{
+				if(outlet.getName().equalsIgnoreCase(outletName))
+					return outlet;
+			}
+			
+			System.out.println("Unknown outlet '" + outletName
+					+ "', serving '" + _outlets.get(0).getName() + "'..");
+		}
+		
+		return _outlets.get(0);
 	}
 	
 	/**
@@ -142,17 +265,153 @@ public class RestaurantMgr
 	}
 	
 	/**
-	 * Loads the reservation related information from the reservation file,
-	 *  if it exists
+	 * Gets the outlet served by this console
+	 * 
+	 * @return The outlet, with its tables and reservations
+	 */
+	public Outlet getOutlet() {
+		return _outlet;
+	}
+	
+	/**
+	 * Gets an outlet by its index
+	 * 
+	 * @param outletIndex The index of the outlet, in the order of the floor
+	 * 		  plan file
+	 * 
+	 * @return The outlet, null if the floor plan file no longer has it
+	 */
+	public Outlet getOutlet(int outletIndex)
+	{
+		if(outletIndex < 0 || outletIndex >= _outlets.size())
+			return null;
+		
+		return _outlets.get(outletIndex);
+	}
+	
+	/**
+	 * Gets all the outlets of the restaurant
+	 * 
+	 * @return A read-only list of the outlets, in the order of the floor
+	 * 		   plan file
+	 */
+	public List<Outlet> getOutlets() {
+		return Collections.unmodifiableList(_outlets);
+	}
+	
+	/**
+	 * Gets the path of the reservation file of an outlet
+	 * 
+	 * @param outletIndex The index of the outlet, in the order of the floor
+	 * 		  plan file
+	 * 
+	 * @return The path of the reservation file
+	 */
+	private static String getRestaurantFilePath(int outletIndex)
+	{
+		if(outletIndex == 0)
+			return RESTAURANT_FILE_PATH;
+		
+		return RESTAURANT_FILE_PATH.replace(".dat", "_" + (outletIndex + 1)
+				+ ".dat");
+	}
+	
+	/**
+	 * Loads the reservation related information of every outlet from its
+	 * reservation file,<br>if it exists
 	 * <br>Should be called at the start of the application
+	 * <p>
+	 * A reservation file saved in the old Java serialization format is
+	 * <br>migrated to the record format once it has been loaded<p>
+	 * 
+	 * The loaded reservations are then handed to the reservation scheduler,
+	 * <br>which starts and expires them from then on
 	 */
 	public void loadRestaurant()
+	{
+		long startNanos = LOAD_TIMER.start();
+		try
+		{
+			loadRestaurantFiles();
+		}
+		finally
+		{
+			LOAD_TIMER.stop(startNanos);
+		}
+	}
+	
+	/**
+	 * Loads the reservations of every outlet from its reservation file
+	 */
+	private void loadRestaurantFiles()
+	{
+		boolean isLoaded = false;
+		
+		for(int outletIndex = 0; outletIndex < _outlets.size(); outletIndex++)
+		{
+			Outlet outlet = _outlets.get(outletIndex);
+			String filePath = getRestaurantFilePath(outletIndex);
+			
+			if(DataFile.isLegacyFormat(filePath))
+				loadLegacyRestaurant(outlet, filePath);
+			else if(outletIndex == 0 || new File(filePath).isFile())
+				loadRecordRestaurant(outlet, filePath);
+			
+			isLoaded |= !outlet.getReservationIndex().isEmpty();
+			
+			outlet.getReservationService().scheduleReservations();
+		}
+		
+		if(isLoaded)
+			System.out.println("'Reservations' data loaded successfully!");
+	}
+	
+	/**
+	 * Loads the reservation related information of an outlet from a
+	 * <br>reservation file in the record format
+	 * 
+	 * @param outlet The outlet that the reservations are made for
+	 * @param filePath The path of the reservation file
+	 */
+	private void loadRecordRestaurant(Outlet outlet, String filePath)
+	{
+		RecordInput in = null;
+		try
+		{
+			in = DataFile.open(filePath, DataFile.RESTAURANT);
+			
+			for(Reservation reservation :
+				ReservationCodec.readReservations(in))
+			{
+				outlet.getReservationIndex().add(reservation);
+			}
+			
+			in.close();
+			
+		} catch (FileNotFoundException ex) {
+			System.out.println("Unable to load 'Reservations' data!");
+		} catch (IOException ex) {
+			System.out.println("Unable to load 'Reservations' data!");
+		} catch (Exception ex) {
+			System.out.println("Unable to load 'Reservations' data!");
+		}
+	}
+	
+	/**
+	 * Loads the reservation related information of an outlet from a
+	 * reservation file saved<br>using Java serialization, and rewrites the
+	 * reservation file in the record format
+	 * 
+	 * @param outlet The outlet that the reservations are made for
+	 * @param filePath The path of the reservation file
+	 */
+	private void loadLegacyRestaurant(Outlet outlet, String filePath)
 	{
 		FileInputStream fis = null;
 		ObjectInputStream in = null;
 		try
 		{
-			fis = new FileInputStream(RESTAURANT_FILE_PATH);
+			fis = new FileInputStream(filePath);
 			in = new ObjectInputStream(fis);
 			
 			Object obj = in.readObject();
@@ -165,7 +424,8 @@ public class RestaurantMgr
 						Object childObj = al.get(objIndex);
 
 						if (childObj instanceof Reservation) {
-							_reservations.add(((Reservation) childObj));
+							outlet.getReservationIndex().add(
+									(Reservation) childObj);
 						}
 					}
 				}
@@ -173,8 +433,9 @@ public class RestaurantMgr
 
 			in.close();
 			
-			if(!_reservations.isEmpty())
-				System.out.println("'Reservations' data loaded successfully!");
+			writeRestaurantFile(outlet, filePath);
+			System.out.println("'Reservations' data migrated to the"
+					+ " new format!");
 			
 		} catch (FileNotFoundException ex) {
 			System.out.println("Unable to load 'Reservations' data!");
@@ -188,46 +449,56 @@ public class RestaurantMgr
 	}
 	
 	/**
-	 * Saves the all reservation related information to the reservation file<br>
+	 * Saves the all reservation related information of every outlet to
+	 * its reservation file<br>
 	 * Should be called before exiting the application
 	 */
 	public void saveRestaurant()
 	{
-		FileOutputStream fos = null;
-		ObjectOutputStream out = null;
-
+		long startNanos = SAVE_TIMER.start();
 		try {
-			fos = new FileOutputStream(RESTAURANT_FILE_PATH);
-			out = new ObjectOutputStream(fos);
-			
-			out.writeObject(_reservations);
-			
-			out.close();
+			for(int outletIndex = 0; outletIndex < _outlets.size();
+					outletIndex++)
+			{
+				writeRestaurantFile(_outlets.get(outletIndex),
+						getRestaurantFilePath(outletIndex));
+			}
 		} catch (FileNotFoundException ex) {
 			System.out.println("Unable to save 'Reservations' data!");
 		} catch (IOException ex) {
 			System.out.println("Unable to save 'Reservations' data!");
 		} catch (Exception ex) {
 			System.out.println("Unable to save 'Reservations' data!");
+		} finally {
+			SAVE_TIMER.stop(startNanos);
 		}
 
 		System.out.println("Saved 'Reservations' data successfully!");
 	}
 	
 	/**
-	 * Creates the list of tables with the indicated sizes
+	 * Writes the reservation related information of an outlet to a
+	 * reservation file,<br>in the record format
+	 * 
+	 * @param outlet The outlet that the reservations are made for
+	 * @param filePath The path of the reservation file
+	 * 
+	 * @throws IOException If the reservation file cannot be written
 	 */
-	private void setUpTables()
+	private void writeRestaurantFile(Outlet outlet, String filePath)
+			throws IOException
 	{
-		int tableNumber = 1;
-		for(int tableSize : TABLE_SIZES)
-		{		
-			Table newTable;
-			newTable = new Table(tableNumber++, tableSize, false,
-					false, 0);
-			
-			_tables.add(newTable);
+		RecordOutput out = DataFile.create(filePath, DataFile.RESTAURANT);
+		
+		try {
+			ReservationCodec.writeReservations(out,
+					outlet.getReservationService().getReservations());
+		} catch (IOException ex) {
+			out.abort();
+			throw ex;
 		}
+		
+		out.close();
 	}
 
 	/**
@@ -246,6 +517,7 @@ public class RestaurantMgr
 		System.out.println("2. View reservations");
 		System.out.println("3. Add a new reservation");
 		System.out.println("4. Remove a existing reservation");
+		System.out.println("5. Find available reservation times");
 	}
 	
 	/**
@@ -309,6 +581,10 @@ public class RestaurantMgr
 			case RemoveReservation:
 				removeReservation();
 				break;
+			
+			case FindAvailableTimes:
+				findAvailableTimes();
+				break;
 			}
 		}
 		
@@ -320,19 +596,20 @@ public class RestaurantMgr
 	 * <p>
 	 * Shows the CustomerID if the table is reserved/occupied at the moment
 	 * <p>
-	 * Internal function checkReservations is called to ensure that
-	 * expired reservations are removed <br> and the table is released
+	 * Expired reservations are removed by the reservation service,
+	 * <br>and the table is released
 	 */
 	private void viewTableAvailability()
 	{
-		checkReservations();
+		List<Table> tables = ReservationService.getReservationService().
+				getTables();
 		
 		System.out.printf("%n%-20s", "Table Number");
 		System.out.printf("%-20s", "Number of Seats");
 		System.out.printf("%-20s", "Table Status");
 		System.out.printf("%-20s%n", "Customer ID");
 		
-		for(Table table : _tables)
+		for(Table table : tables)
 		{
 			table.displayStatus();
 		}
@@ -341,14 +618,14 @@ public class RestaurantMgr
 	/**
 	 * Displays the list of all the valid reservations in the restaurant
 	 * <p>
-	 * Internal function checkReservations is called to ensure that
-	 * expired reservations are removed
+	 * Expired reservations are removed by the reservation service
 	 */
 	private void viewReservations()
 	{
-		checkReservations();
+		List<Reservation> reservations = ReservationService.
+				getReservationService().getReservations();
 		
-		if(_reservations.isEmpty())
+		if(reservations.isEmpty())
 		{
 			System.out.print("\nWell, there are no reservations"
 					+ " made at the moment!");
@@ -363,7 +640,7 @@ public class RestaurantMgr
 		
 		int currReservationNo = 1;
 		
-		for(Reservation reservation : _reservations)
+		for(Reservation reservation : reservations)
 		{
 			System.out.printf("%n%-5s", "(" + (currReservationNo++) + ")");
 			reservation.displayReservationDetails();
@@ -374,6 +651,69 @@ public class RestaurantMgr
 		System.out.println(new String(new char[43]).replace("\0", "*"));
 	}
 
+	/**
+	 * Allows the user to find the times of a day at which a reservation can
+	 * be made<p>
+	 * The user has to select a date and indicate the number of people
+	 * <br>The system will list every time (every 15 minutes) at which a
+	 * table is free for<br>the whole reservation duration
+	 */
+	private void findAvailableTimes()
+	{
+		ReservationService reservationService =
+				ReservationService.getReservationService();
+		
+		try
+		{
+			System.out.print("\nEnter reservation date (dd/mm/yyyy): ");
+			long dateMillis = DateTimeFormat.DATE.parse(sc.next());
+			
+			int maxNumOfPeople = reservationService.getMaxNumOfPeople();
+			
+			System.out.print("Enter number of people (1-" + maxNumOfPeople
+					+ "): ");
+			int numOfPeople = sc.nextInt();
+			
+			if(numOfPeople < 1 || numOfPeople > maxNumOfPeople)
+			{
+				System.out.println("Invalid number of people!");
+				return;
+			}
+			
+			List<Long> startTimes = reservationService.findAvailableStartTimes(
+					dateMillis, numOfPeople);
+			
+			if(startTimes.isEmpty())
+			{
+				System.out.printf("\nSorry, there are no tables available"
+						+ " on %s that can accommodate %d people!%n",
+						DateTimeFormat.DAY.format(dateMillis), numOfPeople);
+				return;
+			}
+			
+			System.out.printf("%nAvailable reservation times on %s"
+					+ " for %d people:%n",
+					DateTimeFormat.DAY.format(dateMillis), numOfPeople);
+			
+			for(int timeIndex = 0; timeIndex < startTimes.size(); timeIndex++)
+			{
+				System.out.print(DateTimeFormat.TIME.format(
+						startTimes.get(timeIndex)));
+				System.out.print((timeIndex % 8 == 7 ||
+						timeIndex == startTimes.size() - 1) ? "\n" : "  ");
+			}
+		}
+		catch(ParseException ex)
+		{
+			System.out.println("\nInvalid reservation date! Reservation date"
+					+ " should be in dd/mm/yyyy, e.g. 25/12/2014!");
+		}
+		catch(InputMismatchException ex)
+		{
+			System.out.println("\nInvalid input! Please try again..");
+		}
+	}
+	
 	/**
 	 * Allows the user to add a new reservation<p>
 	 * The user has to select a valid date/time (within the restaurant's
@@ -384,7 +724,8 @@ public class RestaurantMgr
 	 */
 	private void addReservation()
 	{
-		checkReservations();
+		ReservationService reservationService =
+				ReservationService.getReservationService();
 		
 		System.out.println("\nRestaurant's opening hours: "
     					+ "0900 - 2200, Reservation Duration: 2 Hours");
@@ -393,10 +734,6 @@ public class RestaurantMgr
 		
         try
         {
-        	SimpleDateFormat sdf = new SimpleDateFormat();
-        	sdf.applyPattern("dd/MM/yyyy HH:mm");
-        	sdf.setLenient(false);
-        	
         	System.out.print("\nEnter reservation date (dd/mm/yyyy): ");
         	String reservationDateStr = sc.next();
 
@@ -404,27 +741,11 @@ public class RestaurantMgr
         			+ " in 24-hour format (hh:mm): ");
         	String reservationTimeStr = sc.next();
 
-        	Date reservationDateTime = sdf.parse(reservationDateStr 
-        			+ " " + reservationTimeStr);
-        	
-        	Calendar startDateTime = GregorianCalendar.getInstance();
-        	startDateTime.setTime(reservationDateTime);
-        	
-        	Calendar endDateTime = (Calendar) startDateTime.clone();
-        	endDateTime.add(Calendar.HOUR_OF_DAY, RESERVATION_DURATION);
-        	
-        	Calendar restOpeningTime = (Calendar) startDateTime.clone();
-        	restOpeningTime.set(Calendar.HOUR_OF_DAY, 
-        			(RESTAURANT_OPENING_HOUR - 1) );
-        	restOpeningTime.set(Calendar.MINUTE, 59);
-        	
-        	Calendar restClosingTime = (Calendar) restOpeningTime.clone();
-        	restClosingTime.set(Calendar.HOUR_OF_DAY, RESTAURANT_CLOSING_HOUR);
-        	restClosingTime.set(Calendar.MINUTE, 1);
+        	long startMillis = DateTimeFormat.DATE_TIME_INPUT.parse(
+        			reservationDateStr + " " + reservationTimeStr);
         	
         	// Only allow reservations from 0900 - 2200
-        	if( !(startDateTime.after(restOpeningTime)) ||
-        		!(endDateTime.before(restClosingTime)) )
+        	if(!reservationService.isWithinOpeningHours(startMillis))
         	{
         		System.out.print("\nInvalid reservation date/time! ");
     			System.out.println("Failed to add new reservation,"
@@ -435,11 +756,7 @@ public class RestaurantMgr
     			return;
         	}
         	
-        	Calendar currentInstant = GregorianCalendar.getInstance();
-        	Date currentDateTime = currentInstant.getTime();
-        	currentInstant.setTime(currentDateTime);
-        	
-        	if(startDateTime.before(currentInstant))
+        	if(!reservationService.isInAdvance(startMillis))
         	{
         		System.out.print("\nInvalid reservation date/time! ");
     			System.out.println("Failed to add new reservation,"
@@ -458,10 +775,13 @@ public class RestaurantMgr
             	return;
             }
             	
-        	System.out.print("Enter number of people (1-10): ");
+        	int maxNumOfPeople = reservationService.getMaxNumOfPeople();
+
+        	System.out.print("Enter number of people (1-" + maxNumOfPeople
+        			+ "): ");
         	int numOfPeople = sc.nextInt();
         	
-        	if(numOfPeople < 1 || numOfPeople > 10)
+        	if(numOfPeople < 1 || numOfPeople > maxNumOfPeople)
             {
             	System.out.println("Invalid number of people, failed to"
             			+ " add new reservation!");
@@ -469,82 +789,25 @@ public class RestaurantMgr
             }
         	
         	// Attempt to allocate a available table
-        	int availableTableNumber = 0;
-        	int tableNumber = 1;
-        	
-    		for(int tableSize : TABLE_SIZES)
-    		{
-    			if(tableSize >= numOfPeople)
-    			{
-    				boolean isReserved = false;
-    				
-    				for(Reservation reservation : _reservations)
-    	    		{
-    					Calendar resStartDateTime =
-    							reservation.getStartDateTime();
-    					
-    					Calendar resEndDateTime = 
-    							(Calendar) resStartDateTime.clone();
-    					resEndDateTime.add(Calendar.HOUR_OF_DAY, 
-    							reservation.getDuration());
-    					
-    					// Check for existing reservation for this table number
-    	    			if(reservation.getReservedTableNo() == tableNumber)
-    	    			{
-    	    				/* Assumption: Edges overlapping is not allowed
-        					 * 
-        					 * Therefore, overlapping occurs when
-        					 * (StartA <= EndB) and (EndA >= StartB)
-        					 * 
-        					 * Let StartA be startDateTime, EndA be endDateTime
-        					 * Let StartB be resStartDateTime,
-        					 * 	   EndB   be resEndDateTime
-        					 */
-    	    				
-    	    				if(startDateTime.before(resEndDateTime) &&
-    	    				 endDateTime.after(resStartDateTime))
-	    	    			{
-	    	    				isReserved = true;
-	    	    				break;
-	    	    			}
-    	    			}
-    	    		} // End reservations for loop
-    				
-    				if(!isReserved)
-    				{
-    					availableTableNumber = tableNumber;
-    					break;
-    				}
-    			}
-    			
-    			tableNumber++;
-    		} // End tables for loop
+        	Reservation newReservation = reservationService.makeReservation(
+        			customer.getCustomerID(), numOfPeople, startMillis);
     		
-    		if(availableTableNumber == 0)
+    		if(newReservation == null)
     		{
     			System.out.printf("\nSorry, there are no tables available"
     					+ " at the selected date/time that can accommodate"
     					+ " %d people!%n", numOfPeople);
     		}
     		else
-    		{	
-    			Reservation newReservation;
-    			newReservation = new Reservation(availableTableNumber,
-    					customer.getCustomerID(), customer.getName(),
-    					customer.getContactNumber(), numOfPeople,
-    					startDateTime, RESERVATION_DURATION);
-    			
-    			_reservations.add(newReservation);
-    			
-    			Collections.sort(_reservations);
-    			
+    		{
     			System.out.printf("\nSuccessfully allocated Table"
-    					+ " '%d' to '%s'!%n", availableTableNumber, 
+    					+ " '%d' to '%s'!%n",
+    					newReservation.getReservedTableNo(),
     					customer.getName());
     			System.out.printf("Reservation Date/Time: %s,"
     					+ " Reservation Duration: %d Hours%n",
-    					_dateFormatter.format(startDateTime.getTime()),
-    					RESERVATION_DURATION);
+    					DateTimeFormat.DATE_TIME.format(startMillis),
+    					newReservation.getDuration());
     		}
         }
         catch(ParseException ex)
@@ -580,9 +843,10 @@ public class RestaurantMgr
 	 */
 	private void removeReservation()
 	{
-		checkReservations();
+		List<Reservation> reservations = ReservationService.
+				getReservationService().getReservations();
 		
-		if(_reservations.isEmpty())
+		if(reservations.isEmpty())
 		{
 			System.out.print("\nWell, there are no reservations"
 					+ " made at the moment!");
@@ -602,7 +866,7 @@ public class RestaurantMgr
 			System.out.printf("%-20s%n", "Reservation Duration");
 
 			// Display reservations
-			for(Reservation reservation : _reservations)
+			for(Reservation reservation : reservations)
 			{
 				System.out.printf("%-5s", "(" + (++numOfReservations) + ")");
 				reservation.displayReservationSummary();
@@ -631,24 +895,14 @@ public class RestaurantMgr
 			}
 
 			Reservation removedReservation = 
-					_reservations.get(reservationIndex - 1);
+					reservations.get(reservationIndex - 1);
 
-			if(removedReservation != null)
+			if(ReservationService.getReservationService().cancelReservation(
+					removedReservation))
 			{
-				Table table = getTableByNumber(
-						removedReservation.getReservedTableNo());
-				
-				if(table.isReserved() && (table.getCustomerID() == 
-						removedReservation.getCustomerID()) )
-				{
-					table.releaseTable();
-				}
-				
 				System.out.printf("%nSuccessfully removed reservation made by"
 						+ " \"%s\"!%n", removedReservation.getCustomerName());
 			}
-			
-			_reservations.remove(removedReservation);
 		}
 		catch(InputMismatchException ex)
 		{
@@ -669,69 +923,6 @@ public class RestaurantMgr
 		}
 	}
 	
-	/**
-	 * An internal function used to remove expired reservations
-	 * <p>
-	 * This function also reserves the tables which has ongoing reservations!
-	 */
-	private void checkReservations()
-	{
-		if(_reservations.isEmpty())
-			return;
-		
-		Calendar currentInstant = GregorianCalendar.getInstance();
-		Date currentDateTime = currentInstant.getTime();
-		currentInstant.setTime(currentDateTime);
-
-		Iterator<Reservation> resIter = _reservations.iterator();
-		Reservation reservation = null;
-		
-		while(resIter.hasNext()) {
-			
-			reservation = resIter.next();
-			
-			Calendar restStartDateTime = reservation.getStartDateTime();
-			Calendar restClone = (Calendar) restStartDateTime.clone();
-			restClone.add(Calendar.MINUTE, 5);
-
-			// If currentInstant is after restStartDateTime + 5 mins
-			if(restClone.before(currentInstant))
-			{
-				Table table = 
-						getTableByNumber(reservation.getReservedTableNo());
-				
-				if( (!table.isOccupied()) && table.isReserved()
-						&& (table.getCustomerID() == 
-						reservation.getCustomerID()) )
-				{
-					table.releaseTable();
-				}
-				
-				// Remove expired reservation
-				resIter.remove();
-			}
-			else
-			{
-				// If reservationTime <= currentInstant & not expired
-				// Set table as reserved
-				restStartDateTime = reservation.getStartDateTime();
-				if(restStartDateTime.before(currentInstant))
-				{
-					Table table = 
-							getTableByNumber(reservation.getReservedTableNo());
-					
-					if(!table.isReserved())
-						table.reserveTable(reservation.getCustomerID());
-					
-					if(table.isOccupied()) {
-						// Remove expired reservation
-						resIter.remove();
-					}
-				}
-			}
-		}
-	}
-	
 	/**
 	 * Gets a table by the specified table number
 	 * 
@@ -740,98 +931,7 @@ public class RestaurantMgr
 	 * @return The table that matches the specified table number,
 	 * 		   null if there isn't one
 	 */
-	public Table getTableByNumber(int tableNumber)
-	{
-		for(Table table : _tables)
-		{
-			if(table.getTableNumber() == tableNumber)
-				return table;
-		}
-		
-		return null;
-	}
-	
-	/**
-	 * Returns the table reserved by a customer specified
-	 * 
-	 * @param customerID The customer ID of the customer that
-	 *        made the reservation
-	 *        
-	 * @return The reserved table, if any and null if there
-	 * 		   is no table reserved for this customer
-	 */
-	public Table getReservedTable(int customerID)
-	{
-		checkReservations();
-		
-		for(Table table : _tables)
-		{
-			if(table.isReserved())
-			{
-				if(table.getCustomerID() == customerID)
-				{
-					table.assignTable(customerID);
-					return table;
-				}
-			}
-		}
-		
-		return null;
-	}
-	
-	/**
-	 * Gets the number of people that this reservation is for,
-	 * based on the specified customer ID
-	 * 
-	 * @param customerID The customer ID of the customer that made this reservation
-	 * 
-	 * @return The number of people that this reservation is for
-	 */
-	public int getPaxFromReservation(int customerID)
-	{
-		if(_reservations.isEmpty())
-			return 0;
-		
-		for(Reservation reservation : _reservations)
-		{
-			if(reservation.getCustomerID() == customerID)
-			{
-				return reservation.getNumOfPeople();
-			}
-		}
-		
-		return 0;
-	}
-	
-	/**
-	 * Gets an available table for walk-in customers (No reservations made)
-	 * 
-	 * @param customerID The customerID of the customer
-	 * @param numOfPeople The number of people that the table has to accomodate
-	 * 
-	 * @return The available table, if any and null if there are no
-	 * 		   tables available at the moment
-	 */
-	public Table getAvailableTable(int customerID, int numOfPeople)
-	{
-		checkReservations();
-		
-		for(Table table : _tables)
-		{
-			if(!table.isOccupied())
-			{
-				if(!table.isReserved())
-				{
-					if(table.getNumOfSeats() >= numOfPeople)
-					{
-						table.assignTable(customerID);
-						return table;
-					}
-				}
-			}
-		}
-		
-		System.out.println("\nNo available tables!");
-		return null;
+	public Table getTableByNumber(int tableNumber) {
+		return _outlet.getTable(tableNumber);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,222 @@
+package sce.cz2002.Assignment.Control;
+
+import java.util.Arrays;
+
+/**
+ * Running totals of the sale revenue of a set of completed transactions<p>
+ * 
+ * Keeps the total revenue, the number of orders, the smallest and largest
+ * order<br>and the revenue of each day. The day revenues only cover the days
+ * seen so far,<br>so an accumulator of a few days stays small however long
+ * the report is<p>
+ * 
+ * Accumulators are filled by a single thread each, then merged into one
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class RevenueAccumulator
+{
+	/**
+	 * Total nett revenue, in cents
+	 */
+	private long _revenueCents;
+	
+	/**
+	 * Number of orders
+	 */
+	private int _numOfOrders;
+	
+	/**
+	 * Nett price of the smallest order, in cents
+	 */
+	private long _minOrderCents;
+	
+	/**
+	 * Nett price of the largest order, in cents
+	 */
+	private long _maxOrderCents;
+	
+	/**
+	 * The epoch day stored at index 0 of the day revenues
+	 */
+	private int _firstEpochDay;
+	
+	/**
+	 * Nett revenue of each day in cents, indexed by
+	 * (epoch day - first epoch day)
+	 */
+	private long[] _dayRevenueCents;
+	
+	/**
+	 * Creates an accumulator with no orders
+	 */
+	public RevenueAccumulator()
+	{
+		_minOrderCents = Long.MAX_VALUE;
+		_maxOrderCents = Long.MIN_VALUE;
+		_dayRevenueCents = new long[0];
+	}
+	
+	/**
+	 * Adds a completed order
+	 * 
+	 * @param epochDay The epoch day the order was made on
+	 * @param nettTotalCents The nett price of the order, in cents
+	 */
+	public void addOrder(int epochDay, long nettTotalCents)
+	{
+		_revenueCents += nettTotalCents;
+		_numOfOrders++;
+		_minOrderCents = Math.min(_minOrderCents, nettTotalCents);
+		_maxOrderCents = Math.max(_maxOrderCents, nettTotalCents);
+		
+		ensureDays(epochDay, epochDay);
+		_dayRevenueCents[epochDay - _firstEpochDay] += nettTotalCents;
+	}
+	
+	/**
+	 * Adds the orders of another accumulator to this one
+	 * 
+	 * @param other The other accumulator, which is left unchanged
+	 */
+	public void merge(RevenueAccumulator other)
+	{
+		if(other._numOfOrders == 0)
+			return;
+		
+		_revenueCents += other._revenueCents;
+		_numOfOrders += other._numOfOrders;
+		_minOrderCents = Math.min(_minOrderCents, other._minOrderCents);
+		_maxOrderCents = Math.max(_maxOrderCents, other._maxOrderCents);
+		
+		ensureDays(other._firstEpochDay, other.getLastEpochDay());
+		
+		int offset = other._firstEpochDay - _firstEpochDay;
+		for(int dayIndex = 0; dayIndex < other._dayRevenueCents.length; dayIndex++)
+		{
+			_dayRevenueCents[offset + dayIndex] += other._dayRevenueCents[dayIndex];
+		}
+	}
+	
+	/**
+	 * Makes room for a range of days in the day revenues
+	 * 
+	 * @param firstEpochDay The first epoch day of the range
+	 * @param lastEpochDay The last epoch day of the range (inclusive)
+	 */
+	private void ensureDays(int firstEpochDay, int lastEpochDay)
+	{
+		if(_dayRevenueCents.length == 0)
+		{
+			_firstEpochDay = firstEpochDay;
+			_dayRevenueCents = new long[lastEpochDay - firstEpochDay + 1];
+			return;
+		}
+		
+		int newFirstEpochDay = Math.min(_firstEpochDay, firstEpochDay);
+		int newLastEpochDay = Math.max(getLastEpochDay(), lastEpochDay);
+		
+		if(newFirstEpochDay == _firstEpochDay &&
+				newLastEpochDay == getLastEpochDay())
+			return;
+		
+		long[] dayRevenueCents = new long[newLastEpochDay - newFirstEpochDay + 1];
+		System.arraycopy(_dayRevenueCents, 0, dayRevenueCents,
+				_firstEpochDay - newFirstEpochDay, _dayRevenueCents.length);
+		
+		_firstEpochDay = newFirstEpochDay;
+		_dayRevenueCents = dayRevenueCents;
+	}
+	
+	/**
+	 * Gets the total nett revenue
+	 * 
+	 * @return The total nett revenue
+	 */
+	public double getRevenue() {
+		return _revenueCents / 100.0;
+	}
+	
+	/**
+	 * Gets the total nett revenue in cents
+	 * 
+	 * @return The total nett revenue, in cents
+	 */
+	public long getRevenueCents() {
+		return _revenueCents;
+	}
+	
+	/**
+	 * Gets the number of orders
+	 * 
+	 * @return The number of orders
+	 */
+	public int getNumOfOrders() {
+		return _numOfOrders;
+	}
+	
+	/**
+	 * Gets the nett price of the smallest order
+	 * 
+	 * @return The nett price in cents, 0 if there are no orders
+	 */
+	public long getMinOrderCents() {
+		return (_numOfOrders == 0) ? 0 : _minOrderCents;
+	}
+	
+	/**
+	 * Gets the nett price of the largest order
+	 * 
+	 * @return The nett price in cents, 0 if there are no orders
+	 */
+	public long getMaxOrderCents() {
+		return (_numOfOrders == 0) ? 0 : _maxOrderCents;
+	}
+	
+	/**
+	 * Gets the first day with orders
+	 * 
+	 * @return The epoch day, only meaningful if there are orders
+	 */
+	public int getFirstEpochDay() {
+		return _firstEpochDay;
+	}
+	
+	/**
+	 * Gets the last day with orders
+	 * 
+	 * @return The epoch day, only meaningful if there are orders
+	 */
+	public int getLastEpochDay() {
+		return _firstEpochDay + _dayRevenueCents.length - 1;
+	}
+	
+	/**
+	 * Gets the nett revenue of a day
+	 * 
+	 * @param epochDay The epoch day
+	 * 
+	 * @return The nett revenue in cents, 0 if there were no orders
+	 */
+	public long getDayRevenueCents(int epochDay)
+	{
+		int dayIndex = epochDay - _firstEpochDay;
+		
+		if(dayIndex < 0 || dayIndex >= _dayRevenueCents.length)
+			return 0;
+		
+		return _dayRevenueCents[dayIndex];
+	}
+	
+	/**
+	 * Gets the nett revenue of every day from the first to the last day
+	 * with orders
+	 * 
+	 * @return A new array of the nett revenues in cents, indexed by
+	 * 		   <br>(epoch day - first epoch day)
+	 */
+	public long[] getDayRevenueCents() {
+		return Arrays.copyOf(_dayRevenueCents, _dayRevenueCents.length);
+	}
+}
\ No newline at end of file
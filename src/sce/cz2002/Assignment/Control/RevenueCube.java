@@ -0,0 +1,225 @@
+package sce.cz2002.Assignment.Control;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import sce.cz2002.Assignment.Classes.DateTimes;
+import sce.cz2002.Assignment.Classes.Order;
+import sce.cz2002.Assignment.Persistence.OrderHistory;
+
+/**
+ * Pre-aggregated sale revenue of the completed transactions, by day<p>
+ * 
+ * Days are identified by their epoch day (number of days since 01/01/1970
+ * in the local<br>time zone). The revenue of each day is read from the
+ * summary of its month in the<br>{@link OrderHistory}, so the revenue of
+ * a day or a month is found without opening<br>any archive. Only the
+ * orders of a day are read back from the archive of its month<p>
+ * 
+ * The order history is updated as each order is archived, so the cube
+ * itself holds<br>no state and is safe to use from many terminals at once
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class RevenueCube
+{
+	/**
+	 * Sale revenue of a single day
+	 * 
+	 * @author Jin Yao
+	 * 
+	 */
+	public static class DayRevenue
+	{
+		/**
+		 * The order history holding the orders of the day
+		 */
+		private final OrderHistory _orderHistory;
+		
+		/**
+		 * The start of the day, in epoch milliseconds
+		 */
+		private final long _fromMillis;
+		
+		/**
+		 * The start of the next day, in epoch milliseconds
+		 */
+		private final long _toMillis;
+		
+		/**
+		 * Total nett revenue of the day, in cents
+		 */
+		private final long _revenueCents;
+		
+		/**
+		 * Number of orders paid for on the day
+		 */
+		private final int _numOfOrders;
+		
+		/**
+		 * Creates the sale revenue of a day, as read from its month summary
+		 * 
+		 * @param orderHistory The order history holding the orders of the day
+		 * @param fromMillis The start of the day
+		 * @param toMillis The start of the next day
+		 * @param revenueCents Total nett revenue of the day, in cents
+		 * @param numOfOrders Number of orders paid for on the day
+		 */
+		private DayRevenue(OrderHistory orderHistory, long fromMillis,
+				long toMillis, long revenueCents, int numOfOrders)
+		{
+			_orderHistory = orderHistory;
+			_fromMillis = fromMillis;
+			_toMillis = toMillis;
+			_revenueCents = revenueCents;
+			_numOfOrders = numOfOrders;
+		}
+		
+		/**
+		 * Gets the total nett revenue of this day
+		 * 
+		 * @return The total nett revenue
+		 */
+		public double getRevenue() {
+			return _revenueCents / 100.0;
+		}
+		
+		/**
+		 * Gets the total nett revenue of this day in cents
+		 * 
+		 * @return The total nett revenue, in cents
+		 */
+		public long getRevenueCents() {
+			return _revenueCents;
+		}
+		
+		/**
+		 * Gets the number of orders paid for on this day
+		 * 
+		 * @return The number of orders
+		 */
+		public int getNumOfOrders() {
+			return _numOfOrders;
+		}
+		
+		/**
+		 * Gets the total quantity sold of an item on this day
+		 * 
+		 * @param itemName The name of the item
+		 * 
+		 * @return The quantity sold, 0 if the item was not sold
+		 * 
+		 * @throws IOException If the archive of the month cannot be read
+		 */
+		public int getItemQuantity(String itemName) throws IOException
+		{
+			Integer quantity = getItemQuantities().get(itemName);
+			return (quantity == null) ? 0 : quantity;
+		}
+		
+		/**
+		 * Gets the total quantity sold of every menu item on this day, by
+		 * item ID<br>
+		 * Use {@link MenuService#getMenuItem(int)} to join the item IDs back
+		 * to the menu
+		 * 
+		 * @return A new array of quantity sold, indexed by item ID. Item IDs
+		 * 		   past the end<br>of the array were not sold
+		 * 
+		 * @throws IOException If the archive of the month cannot be read
+		 */
+		public int[] getQuantitiesByItemID() throws IOException {
+			return _orderHistory.getQuantitiesByItemID(_fromMillis, _toMillis);
+		}
+		
+		/**
+		 * Gets the total quantity sold of every item sold on this day
+		 * 
+		 * @return A read-only map of item name to quantity sold
+		 * 
+		 * @throws IOException If the archive of the month cannot be read
+		 */
+		public Map<String, Integer> getItemQuantities() throws IOException
+		{
+			return Collections.unmodifiableMap(
+					_orderHistory.getItemQuantities(_fromMillis, _toMillis));
+		}
+		
+		/**
+		 * Gets the orders paid for on this day, read back from the archive
+		 * of the month
+		 * 
+		 * @return A read-only list of the orders, in the order
+		 * 		   they were paid for
+		 * 
+		 * @throws IOException If the archive of the month cannot be read
+		 */
+		public List<Order> getOrders() throws IOException
+		{
+			return Collections.unmodifiableList(
+					_orderHistory.getOrders(_fromMillis, _toMillis));
+		}
+	}
+	
+	/**
+	 * The order history holding the completed transactions
+	 */
+	private final OrderHistory _orderHistory;
+	
+	/**
+	 * Creates a revenue cube over an order history
+	 * 
+	 * @param orderHistory The order history holding the completed transactions
+	 */
+	public RevenueCube(OrderHistory orderHistory) {
+		_orderHistory = orderHistory;
+	}
+	
+	/**
+	 * Gets the sale revenue of a day
+	 * 
+	 * @param epochDay The epoch day
+	 * 
+	 * @return The sale revenue of the day, null if there were no sales
+	 */
+	public DayRevenue getDayRevenue(int epochDay)
+	{
+		int epochMonth = DateTimes.toEpochMonthOfDay(epochDay);
+		int dayOfMonth = DateTimes.getDayOfMonth(epochDay);
+		
+		int numOfOrders = _orderHistory.getDayNumOfOrders(epochMonth, dayOfMonth);
+		
+		if(numOfOrders == 0)
+			return null;
+		
+		return new DayRevenue(_orderHistory, DateTimes.toStartMillis(epochDay),
+				DateTimes.toStartMillis(epochDay + 1),
+				_orderHistory.getDayRevenueCents(epochMonth, dayOfMonth),
+				numOfOrders);
+	}
+	
+	/**
+	 * Gets the total nett revenue over a range of days
+	 * 
+	 * @param firstEpochDay The first epoch day of the range
+	 * @param lastEpochDay The last epoch day of the range (inclusive)
+	 * 
+	 * @return The total nett revenue
+	 */
+	public double getRevenue(int firstEpochDay, int lastEpochDay)
+	{
+		long revenueCents = 0;
+		
+		for(int epochDay = firstEpochDay; epochDay <= lastEpochDay; epochDay++)
+		{
+			revenueCents += _orderHistory.getDayRevenueCents(
+					DateTimes.toEpochMonthOfDay(epochDay),
+					DateTimes.getDayOfMonth(epochDay));
+		}
+		
+		return revenueCents / 100.0;
+	}
+}
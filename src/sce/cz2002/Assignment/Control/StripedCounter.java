@@ -0,0 +1,92 @@
+package sce.cz2002.Assignment.Control;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter which many threads can add to at once, without locking and
+ * without<br>fighting over one memory location<p>
+ * 
+ * The count is split over a fixed number of cells, each on a cache line of
+ * its own.<br>A thread always adds to the cell picked by its thread ID,
+ * so threads on different<br>cores rarely share a cell. Reading the count
+ * adds up the cells, and is only exact<br>while nothing is being added
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class StripedCounter
+{
+	/**
+	 * Number of longs between two cells, so that each cell is on a pair of
+	 * cache<br>lines of its own
+	 */
+	private static final int CELL_SPACING = 16;
+	
+	/**
+	 * Largest number of cells of a counter
+	 */
+	private static final int MAX_NUM_OF_CELLS = 64;
+	
+	/**
+	 * Number of cells of every counter, the number of processors rounded up
+	 * to<br>a power of 2
+	 */
+	private static final int NUM_OF_CELLS = Math.min(MAX_NUM_OF_CELLS,
+			Integer.highestOneBit(
+			Runtime.getRuntime().availableProcessors() * 2 - 1));
+	
+	/**
+	 * The cells, each {@link #CELL_SPACING} longs apart
+	 */
+	private final AtomicLongArray _cells;
+	
+	/**
+	 * Creates a new counter, starting from 0
+	 */
+	public StripedCounter() {
+		_cells = new AtomicLongArray(NUM_OF_CELLS * CELL_SPACING);
+	}
+	
+	/**
+	 * Adds 1 to this counter
+	 */
+	public void increment() {
+		_cells.getAndIncrement(getCell());
+	}
+	
+	/**
+	 * Adds an amount to this counter
+	 * 
+	 * @param amount The amount to be added
+	 */
+	public void add(long amount) {
+		_cells.getAndAdd(getCell(), amount);
+	}
+	
+	/**
+	 * Gets the count, by adding up the cells
+	 * 
+	 * @return The count
+	 */
+	public long sum()
+	{
+		long sum = 0;
+		for(int cell = 0; cell < NUM_OF_CELLS; cell++)
+			sum += _cells.get(cell * CELL_SPACING);
+		
+		return sum;
+	}
+	
+	/**
+	 * Gets the index of the cell that the current thread adds to
+	 * 
+	 * @return The index of the cell in the array of cells
+	 */
+	private static int getCell()
+	{
+		// Spreads consecutive thread IDs over the cells
+		long hash = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+		
+		return ((int) (hash >>> 32) & (NUM_OF_CELLS - 1)) * CELL_SPACING;
+	}
+}
\ No newline at end of file
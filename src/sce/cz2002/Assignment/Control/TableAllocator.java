@@ -0,0 +1,566 @@
+package sce.cz2002.Assignment.Control;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import sce.cz2002.Assignment.Classes.Table;
+
+/**
+ * Picks the table that a walk-in customer is seated at<p>
+ * 
+ * Available tables are kept in buckets by their number of seats, each
+ * bucket being<br>a bit set of the tables in it that are available. Only
+ * buckets with an available<br>table are in the tree of buckets, so the
+ * smallest bucket that fits a number of<br>people is found in logarithmic
+ * time, and a couple is never seated at a 10-seat<br>table while a 2-seat
+ * table is available<p>
+ * 
+ * Within the smallest bucket that fits, the table is picked by the
+ * allocation policy.<br>Apart from the first-fit policy (which behaves as
+ * tables used to be picked, in<br>table order), a policy never picks a
+ * larger table while a smaller one fits. Each<br>bucket also queues its
+ * available tables by zone, in the order they were made<br>available, so
+ * the least recently used and zone balanced policies only compare<br>the
+ * first table of each zone instead of going through the bucket<p>
+ * 
+ * The allocator does not change the status of a table. Whoever changes
+ * the status<br>calls {@link #update(Table)} afterwards, which re-reads
+ * the status, so the allocator<br>always catches up with the last change
+ * even when tables change from many<br>threads at once<p>
+ * 
+ * The tables of an outlet are kept under a single lock. A party falls
+ * through to the<br>next bucket when a bucket runs out, and the zone loads
+ * are shared by every bucket,<br>so locking by bucket would take several
+ * locks for a single pick. The lock is only<br>held for a constant number
+ * of steps per zone, and the times that it had to be<br>waited for are
+ * counted by {@value #LOCK_WAITS_COUNTER_NAME}, which the
+ * <br>concurrency stress check reports
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class TableAllocator
+{
+	/**
+	 * An enumeration type used to determine how a table is picked
+	 * 
+	 * @author Jin Yao
+	 * 
+	 */
+	public enum Policy
+	{
+		/**
+		 * The first available table in table order that fits, whatever
+		 * its size
+		 */
+		FirstFit,
+		
+		/**
+		 * The smallest table that fits, with the smallest table number
+		 */
+		BestFit,
+		
+		/**
+		 * The smallest table that fits, which has been available for
+		 * the longest
+		 */
+		LeastRecentlyUsed,
+		
+		/**
+		 * The smallest table that fits, in the zone with the fewest
+		 * tables in use
+		 */
+		ZoneBalanced
+	}
+	
+	/**
+	 * The available tables with a number of seats
+	 * 
+	 * @author Jin Yao
+	 * 
+	 */
+	private static final class Bucket
+	{
+		/**
+		 * The available tables, by position
+		 */
+		private final BitSet _tables = new BitSet();
+		
+		/**
+		 * The position of the table of each zone which has been available
+		 * for the<br>longest, -1 if no table of the zone is available
+		 */
+		private int[] _firstInZones = new int[0];
+		
+		/**
+		 * The position of the table of each zone which was made available
+		 * last,<br>-1 if no table of the zone is available
+		 */
+		private int[] _lastInZones = new int[0];
+	}
+	
+	/**
+	 * Counts the times that the lock of an allocator was taken
+	 */
+	private static final MetricsRegistry.Counter LOCKS_COUNTER =
+			MetricsRegistry.getMetricsRegistry().getCounter(
+			"table_allocator_locks_total",
+			"Number of times a table allocator was locked");
+	
+	/**
+	 * Counts the times that the lock of an allocator was held by another
+	 * thread
+	 */
+	private static final MetricsRegistry.Counter LOCK_WAITS_COUNTER =
+			MetricsRegistry.getMetricsRegistry().getCounter(
+			"table_allocator_lock_waits_total",
+			"Number of times a table allocator was locked by another thread");
+	
+	/**
+	 * The policy used to pick a table
+	 */
+	private final Policy _policy;
+	
+	/**
+	 * The tables, in the order they were added<br>
+	 * The position of a table is its bit in the bit sets
+	 */
+	private final List<Table> _tables;
+	
+	/**
+	 * Maps a table number to the position of the table
+	 */
+	private final IntHashMap<Integer> _positions;
+	
+	/**
+	 * The zone of each table, by position
+	 */
+	private int[] _zones;
+	
+	/**
+	 * When each table was last made available, by position
+	 */
+	private long[] _availableSince;
+	
+	/**
+	 * The position of the next table in the queue of its bucket and zone,
+	 * by<br>position, -1 for the last table
+	 */
+	private int[] _nextInZones;
+	
+	/**
+	 * The position of the previous table in the queue of its bucket and
+	 * zone,<br>by position, -1 for the first table
+	 */
+	private int[] _previousInZones;
+	
+	/**
+	 * Number of tables in use (reserved or occupied) in each zone
+	 */
+	private int[] _zoneLoads;
+	
+	/**
+	 * The available tables, by position
+	 */
+	private final BitSet _availableTables;
+	
+	/**
+	 * The bucket of each number of seats, holding the available tables
+	 * <br>with that many seats
+	 */
+	private final TreeMap<Integer, Bucket> _buckets;
+	
+	/**
+	 * The buckets which hold at least one available table, by number
+	 * of seats
+	 */
+	private final TreeMap<Integer, Bucket> _availableBuckets;
+	
+	/**
+	 * The number of seats of the largest table, which is the highest key
+	 * of<br>the buckets
+	 */
+	private volatile int _maxNumOfSeats;
+	
+	/**
+	 * Counts the changes of table status, to order the tables by when
+	 * they<br>were made available
+	 */
+	private long _clock;
+	
+	/**
+	 * Guards the tables and buckets
+	 */
+	private final ReentrantLock _lock;
+	
+	/**
+	 * Creates a new table allocator with no tables
+	 * 
+	 * @param policy The policy used to pick a table
+	 */
+	public TableAllocator(Policy policy)
+	{
+		_policy = policy;
+		
+		_tables = new ArrayList<Table>();
+		_positions = new IntHashMap<Integer>();
+		_zones = new int[16];
+		_availableSince = new long[16];
+		_nextInZones = new int[16];
+		_previousInZones = new int[16];
+		_zoneLoads = new int[1];
+		
+		_availableTables = new BitSet();
+		_buckets = new TreeMap<Integer, Bucket>();
+		_availableBuckets = new TreeMap<Integer, Bucket>();
+		_maxNumOfSeats = 0;
+		_clock = 0;
+		
+		_lock = new ReentrantLock();
+	}
+	
+	/**
+	 * Gets the policy used to pick a table
+	 * 
+	 * @return The allocation policy
+	 */
+	public Policy getPolicy() {
+		return _policy;
+	}
+	
+	/**
+	 * Adds a table that customers can be seated at, in the zone of the
+	 * table
+	 * 
+	 * @param table The table
+	 */
+	public void addTable(Table table)
+	{
+		lock();
+		try
+		{
+			int zone = table.getZone();
+			
+			if(_positions.containsKey(table.getTableNumber()))
+				return;
+			
+			int position = _tables.size();
+			
+			if(position == _zones.length)
+			{
+				_zones = Arrays.copyOf(_zones, position * 2);
+				_availableSince = Arrays.copyOf(_availableSince, position * 2);
+				_nextInZones = Arrays.copyOf(_nextInZones, position * 2);
+				_previousInZones = Arrays.copyOf(_previousInZones,
+						position * 2);
+			}
+			
+			if(zone >= _zoneLoads.length)
+				_zoneLoads = Arrays.copyOf(_zoneLoads, zone + 1);
+			
+			_tables.add(table);
+			_positions.put(table.getTableNumber(), position);
+			_zones[position] = zone;
+			
+			Bucket bucket = _buckets.get(table.getNumOfSeats());
+			
+			if(bucket == null)
+			{
+				bucket = new Bucket();
+				_buckets.put(table.getNumOfSeats(), bucket);
+				_maxNumOfSeats = _buckets.lastKey();
+			}
+			
+			if(zone >= bucket._firstInZones.length)
+			{
+				int numOfZones = bucket._firstInZones.length;
+				
+				bucket._firstInZones = Arrays.copyOf(bucket._firstInZones,
+						zone + 1);
+				bucket._lastInZones = Arrays.copyOf(bucket._lastInZones,
+						zone + 1);
+				
+				Arrays.fill(bucket._firstInZones, numOfZones, zone + 1, -1);
+				Arrays.fill(bucket._lastInZones, numOfZones, zone + 1, -1);
+			}
+			
+			// Counted as in use until it is found to be available
+			_zoneLoads[zone]++;
+			update(table);
+		}
+		finally
+		{
+			_lock.unlock();
+		}
+	}
+	
+	/**
+	 * Picks an available table for a number of people, and takes it out of
+	 * the<br>available tables<p>
+	 * 
+	 * The status of the table is not changed, the caller is expected to
+	 * seat the<br>customer and call {@link #update(Table)} if that fails
+	 * 
+	 * @param numOfPeople The number of people that the table has to
+	 * 		  accommodate
+	 * 
+	 * @return The table picked, null if no available table fits
+	 */
+	public Table allocate(int numOfPeople)
+	{
+		lock();
+		try
+		{
+			int position = findAvailableTable(numOfPeople);
+			
+			if(position < 0)
+				return null;
+			
+			setAvailable(position, false);
+			
+			return _tables.get(position);
+		}
+		finally
+		{
+			_lock.unlock();
+		}
+	}
+	
+	/**
+	 * Catches up with a change of status of a table
+	 * 
+	 * @param table The table, whose status may have changed
+	 */
+	public void update(Table table)
+	{
+		lock();
+		try
+		{
+			Integer position = _positions.get(table.getTableNumber());
+			
+			if(position != null)
+				setAvailable(position, table.isAvailable());
+		}
+		finally
+		{
+			_lock.unlock();
+		}
+	}
+	
+	/**
+	 * Gets the number of seats of the largest table, which is the largest
+	 * <br>number of people that can be seated together
+	 * 
+	 * @return The number of seats of the largest table, 0 if there are no
+	 * 		   tables
+	 */
+	public int getMaxNumOfSeats() {
+		return _maxNumOfSeats;
+	}
+	
+	/**
+	 * Gets the number of tables that are available
+	 * 
+	 * @return The number of available tables
+	 */
+	public int getNumOfAvailableTables()
+	{
+		lock();
+		try {
+			return _availableTables.cardinality();
+		} finally {
+			_lock.unlock();
+		}
+	}
+	
+	/**
+	 * Gets the number of times that the lock of any table allocator was
+	 * taken
+	 * 
+	 * @return The number of times, while metrics are enabled
+	 */
+	public static long getNumOfLocks() {
+		return LOCKS_COUNTER.getCount();
+	}
+	
+	/**
+	 * Gets the number of times that the lock of any table allocator was
+	 * held by<br>another thread, and had to be waited for
+	 * 
+	 * @return The number of times, while metrics are enabled
+	 */
+	public static long getNumOfLockWaits() {
+		return LOCK_WAITS_COUNTER.getCount();
+	}
+	
+	/**
+	 * Takes the lock, counting whether it had to be waited for
+	 */
+	private void lock()
+	{
+		if(!_lock.tryLock())
+		{
+			LOCK_WAITS_COUNTER.increment();
+			_lock.lock();
+		}
+		
+		LOCKS_COUNTER.increment();
+	}
+	
+	/**
+	 * Finds the available table that the policy picks for a number of people
+	 * 
+	 * @param numOfPeople The number of people that the table has to
+	 * 		  accommodate
+	 * 
+	 * @return The position of the table, -1 if no available table fits
+	 */
+	private int findAvailableTable(int numOfPeople)
+	{
+		if(_policy == Policy.FirstFit)
+		{
+			for(int position = _availableTables.nextSetBit(0); position >= 0;
+					position = _availableTables.nextSetBit(position + 1))
+			{
+				if(_tables.get(position).getNumOfSeats() >= numOfPeople)
+					return position;
+			}
+			
+			return -1;
+		}
+		
+		Map.Entry<Integer, Bucket> bucket =
+				_availableBuckets.ceilingEntry(numOfPeople);
+		
+		if(bucket == null)
+			return -1;
+		
+		if(_policy == Policy.BestFit)
+			return bucket.getValue()._tables.nextSetBit(0);
+		
+		// Only the table of each zone available for the longest can be picked
+		int[] firstInZones = bucket.getValue()._firstInZones;
+		int bestPosition = -1;
+		
+		for(int zone = 0; zone < firstInZones.length; zone++)
+		{
+			int position = firstInZones[zone];
+			
+			if(position >= 0 &&
+					(bestPosition < 0 || isPreferred(position, bestPosition)))
+				bestPosition = position;
+		}
+		
+		return bestPosition;
+	}
+	
+	/**
+	 * Checks whether the policy prefers one available table over another
+	 * <br>of the same size
+	 * 
+	 * @param position The position of the table
+	 * @param otherPosition The position of the other table
+	 * 
+	 * @return True if the table is preferred
+	 */
+	private boolean isPreferred(int position, int otherPosition)
+	{
+		if(_policy == Policy.ZoneBalanced)
+		{
+			int zoneLoad = _zoneLoads[_zones[position]];
+			int otherZoneLoad = _zoneLoads[_zones[otherPosition]];
+			
+			if(zoneLoad != otherZoneLoad)
+				return zoneLoad < otherZoneLoad;
+		}
+		
+		return _availableSince[position] < _availableSince[otherPosition];
+	}
+	
+	/**
+	 * Marks a table as available or in use
+	 * 
+	 * @param position The position of the table
+	 * @param isAvailable True if the table is available
+	 */
+	private void setAvailable(int position, boolean isAvailable)
+	{
+		if(_availableTables.get(position) == isAvailable)
+			return;
+		
+		Table table = _tables.get(position);
+		Bucket bucket = _buckets.get(table.getNumOfSeats());
+		
+		_availableTables.set(position, isAvailable);
+		bucket._tables.set(position, isAvailable);
+		
+		if(isAvailable)
+		{
+			_availableSince[position] = ++_clock;
+			_zoneLoads[_zones[position]]--;
+			
+			addToZone(bucket, position);
+			_availableBuckets.put(table.getNumOfSeats(), bucket);
+		}
+		else
+		{
+			_zoneLoads[_zones[position]]++;
+			
+			removeFromZone(bucket, position);
+			if(bucket._tables.isEmpty())
+				_availableBuckets.remove(table.getNumOfSeats());
+		}
+	}
+	
+	/**
+	 * Queues a table that has just been made available, after the other
+	 * <br>available tables of its bucket and zone
+	 * 
+	 * @param bucket The bucket of the table
+	 * @param position The position of the table
+	 */
+	private void addToZone(Bucket bucket, int position)
+	{
+		int zone = _zones[position];
+		int lastPosition = bucket._lastInZones[zone];
+		
+		_previousInZones[position] = lastPosition;
+		_nextInZones[position] = -1;
+		
+		if(lastPosition < 0)
+			bucket._firstInZones[zone] = position;
+		else
+			_nextInZones[lastPosition] = position;
+		
+		bucket._lastInZones[zone] = position;
+	}
+	
+	/**
+	 * Takes a table that is no longer available out of the queue of its
+	 * <br>bucket and zone
+	 * 
+	 * @param bucket The bucket of the table
+	 * @param position The position of the table
+	 */
+	private void removeFromZone(Bucket bucket, int position)
+	{
+		int zone = _zones[position];
+		int previousPosition = _previousInZones[position];
+		int nextPosition = _nextInZones[position];
+		
+		if(previousPosition < 0)
+			bucket._firstInZones[zone] = nextPosition;
+		else
+			_nextInZones[previousPosition] = nextPosition;
+		
+		if(nextPosition < 0)
+			bucket._lastInZones[zone] = previousPosition;
+		else
+			_previousInZones[nextPosition] = previousPosition;
+	}
+}
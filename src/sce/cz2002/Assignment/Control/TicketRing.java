@@ -0,0 +1,208 @@
+package sce.cz2002.Assignment.Control;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import sce.cz2002.Assignment.Classes.KitchenTicket;
+
+/**
+ * A bounded ring buffer of kitchen tickets, which any number of terminals
+ * can send<br>to and any number of station consumers can take from,
+ * without locking<p>
+ * 
+ * Each slot has a sequence number, which tells whether the slot is free for
+ * the<br>ticket sent at a position, or holds the ticket to be taken at a
+ * position. Senders<br>and takers claim a position by moving the tail or
+ * the head on, and then publish<br>the slot by moving its sequence number
+ * on. Nothing is allocated once the<br>ring has been created
+ * 
+ * @author Jin Yao
+ * 
+ */
+class TicketRing
+{
+	/**
+	 * The tickets in the ring, null when a slot is free
+	 */
+	private final KitchenTicket[] _slots;
+	
+	/**
+	 * The sequence number of each slot<br>
+	 * Equal to the position of the next ticket to be sent into the slot when
+	 * it is<br>free, and to that position plus 1 once the ticket is in it
+	 */
+	private final AtomicLongArray _sequences;
+	
+	/**
+	 * The capacity minus 1, to turn a position into a slot index
+	 */
+	private final int _mask;
+	
+	/**
+	 * The position of the next ticket to be sent
+	 */
+	private final AtomicLong _tail;
+	
+	/**
+	 * The position of the next ticket to be taken
+	 */
+	private final AtomicLong _head;
+	
+	/**
+	 * Creates a new, empty ring
+	 * 
+	 * @param capacity The number of tickets that the ring can hold, a power
+	 * 		  of 2
+	 * 
+	 * @throws IllegalArgumentException If the capacity is not a power of 2
+	 */
+	public TicketRing(int capacity)
+	{
+		if(capacity < 2 || Integer.bitCount(capacity) != 1)
+			throw new IllegalArgumentException("Invalid ring capacity: "
+					+ capacity);
+		
+		_slots = new KitchenTicket[capacity];
+		_sequences = new AtomicLongArray(capacity);
+		_mask = capacity - 1;
+		_tail = new AtomicLong();
+		_head = new AtomicLong();
+		
+		for(int index = 0; index < capacity; index++)
+			_sequences.set(index, index);
+	}
+	
+	/**
+	 * Sends a ticket into the ring, if there is room for it
+	 * 
+	 * @param ticket The ticket to be sent
+	 * 
+	 * @return False if the ring is full
+	 */
+	public boolean offer(KitchenTicket ticket)
+	{
+		long position = _tail.get();
+		
+		while(true)
+		{
+			int index = (int) (position & _mask);
+			long gap = _sequences.get(index) - position;
+			
+			if(gap == 0)
+			{
+				if(_tail.compareAndSet(position, position + 1))
+				{
+					_slots[index] = ticket;
+					_sequences.lazySet(index, position + 1);
+					return true;
+				}
+				
+				position = _tail.get();
+			}
+			else if(gap < 0)
+			{
+				// The slot still holds the ticket from a lap ago
+				return false;
+			}
+			else
+			{
+				position = _tail.get();
+			}
+		}
+	}
+	
+	/**
+	 * Takes the oldest ticket out of the ring
+	 * 
+	 * @return The ticket, null if the ring is empty
+	 */
+	public KitchenTicket poll()
+	{
+		long position = _head.get();
+		
+		while(true)
+		{
+			int index = (int) (position & _mask);
+			long gap = _sequences.get(index) - (position + 1);
+			
+			if(gap == 0)
+			{
+				if(_head.compareAndSet(position, position + 1))
+				{
+					KitchenTicket ticket = _slots[index];
+					_slots[index] = null;
+					_sequences.lazySet(index, position + _mask + 1);
+					return ticket;
+				}
+				
+				position = _head.get();
+			}
+			else if(gap < 0)
+			{
+				// The ticket for the position has not been sent yet
+				return null;
+			}
+			else
+			{
+				position = _head.get();
+			}
+		}
+	}
+	
+	/**
+	 * Takes up to a number of the oldest tickets out of the ring
+	 * 
+	 * @param tickets The list that the tickets are added to
+	 * @param maxTickets The largest number of tickets to be taken
+	 * 
+	 * @return The number of tickets taken
+	 */
+	public int drainTo(List<KitchenTicket> tickets, int maxTickets)
+	{
+		int numOfTickets = 0;
+		
+		while(numOfTickets < maxTickets)
+		{
+			KitchenTicket ticket = poll();
+			if(ticket == null)
+				break;
+			
+			tickets.add(ticket);
+			numOfTickets++;
+		}
+		
+		return numOfTickets;
+	}
+	
+	/**
+	 * Gets the number of tickets in the ring<br>
+	 * Only an estimate while tickets are being sent or taken
+	 * 
+	 * @return The number of tickets, from 0 to the capacity
+	 */
+	public int size()
+	{
+		long size = _tail.get() - _head.get();
+		
+		return (int) Math.max(0, Math.min(size, _mask + 1));
+	}
+	
+	/**
+	 * Checks whether the ring is empty
+	 * 
+	 * @return True if there are no tickets to be taken
+	 */
+	public boolean isEmpty() {
+		return _tail.get() == _head.get();
+	}
+	
+	/**
+	 * Gets the number of tickets that the ring can hold
+	 * 
+	 * @return The capacity of the ring
+	 */
+	public int getCapacity() {
+		return _mask + 1;
+	}
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package sce.cz2002.Assignment.Control;
 
+import java.io.IOException;
 import java.util.InputMismatchException;
 import java.util.Scanner;
 
@@ -29,9 +30,16 @@ public class rrpssApplication
 		RestaurantManagement,
 		HRManagement,
 		SaleRevenueReport,
-		ExitApplication
+		ExitApplication,
+		ExportMetrics
 	}
 	
+	/**
+	 * The file path for the file that the performance metrics are
+	 * exported to
+	 */
+	private static final String METRICS_FILE_PATH = "metrics.prom";
+	
 	/**
 	 * A private static application state indicating
 	 * the current application state
@@ -114,6 +122,13 @@ public class rrpssApplication
 			case ExitApplication:
 				currAppState = ApplicationState.ExitApplication;
 				break;
+			
+			case ExportMetrics:
+				exportMetrics();
+				
+				// Return to main menu
+				currAppState = ApplicationState.values()[0];
+				break;
 			}
 			
 		} while (currAppState != ApplicationState.ExitApplication);
@@ -126,7 +141,9 @@ public class rrpssApplication
 	/**
 	 * Displays the list of available submenus<p>
 	 * List of submenus include "Menu", "Order", "Restaurant Managment",
-	 * <br>"Human Resource Management" and "Sales Revenue Report"
+	 * <br>"Human Resource Management" and "Sales Revenue Report"<br>
+	 * Exporting the performance metrics comes last, after exiting, so that
+	 * the<br>existing choices keep their numbers
 	 */
 	public static void displayMainMenu()
 	{
@@ -142,6 +159,24 @@ public class rrpssApplication
 		System.out.println("4. View the 'Human Resource Management' submenu");
 		System.out.println("5. View the 'Sales Revenue Report' submenu");
 		System.out.println("6. Exit the application");
+		System.out.println("7. Export the performance metrics");
+	}
+	
+	/**
+	 * Exports how long each operation has taken so far to the metrics file,
+	 * <br>in the Prometheus text format
+	 */
+	private static void exportMetrics()
+	{
+		try {
+			MetricsRegistry.getMetricsRegistry().exportTo(METRICS_FILE_PATH);
+		} catch (IOException ex) {
+			System.out.println("\nUnable to export the performance metrics!");
+			return;
+		}
+		
+		System.out.println("\nExported the performance metrics to '"
+				+ METRICS_FILE_PATH + "'!");
 	}
 	
 	/**
@@ -201,7 +236,8 @@ public class rrpssApplication
 	 * Save all the necessary data files<br>
 	 * Task is delegated to the different managers<p>
 	 * 
-	 * User is given the option to save/not save the current session
+	 * User is given the option to save/not save the current session<br>
+	 * Orders are journaled as they are made, and are kept either way
 	 */
 	private static void saveSystemState()
 	{
@@ -244,5 +280,7 @@ public class rrpssApplication
 			RestaurantMgr.getRestaurantMgr().saveRestaurant();
 			OrderMgr.getOrderMgr().saveOrders();
 		}
+		
+		OrderMgr.getOrderMgr().closeOrders();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,226 @@
+package sce.cz2002.Assignment.Persistence;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Creates and opens the data files used by the managers<p>
+ * 
+ * Every data file starts with a header made up of a 4-byte magic number,
+ * <br>a 2-byte schema version and a 1-byte file kind, followed by the
+ * records<br>written by the codec for that file kind<p>
+ * 
+ * Data files written before the record format was introduced used Java
+ * serialization,<br>and can be detected with {@link #isLegacyFormat}
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class DataFile
+{
+	/**
+	 * Magic number identifying a data file, "RRPS" in ASCII
+	 */
+	private static final int MAGIC = 0x52525053;
+	
+	/**
+	 * Magic number at the start of a Java serialization stream
+	 */
+	private static final short JAVA_SERIALIZATION_MAGIC = (short) 0xACED;
+	
+	/**
+	 * The schema version written by this version of the application<p>
+	 * 
+	 * Version 1: Initial record format<br>
+	 * Version 2: Order files hold ongoing orders and a journal position<br>
+	 * Version 3: Order files hold the journal position of each completed
+	 * order's payment<br>
+	 * Version 4: Menu items and order items hold the item ID of the menu
+	 * item<br>
+	 * Version 5: Menu files and orders hold the version of the menu<br>
+	 * Version 6: Orders hold whether the customer was a member<br>
+	 * Version 7: Orders hold the outlet that they were taken at
+	 */
+	public static final int CURRENT_SCHEMA_VERSION = 7;
+	
+	/**
+	 * File kind for the menu data file
+	 */
+	public static final int MENU = 1;
+	
+	/**
+	 * File kind for the staff/customer data file
+	 */
+	public static final int PEOPLE = 2;
+	
+	/**
+	 * File kind for the reservation data file
+	 */
+	public static final int RESTAURANT = 3;
+	
+	/**
+	 * File kind for the order data file
+	 */
+	public static final int ORDERS = 4;
+	
+	/**
+	 * File kind for the header file of the order archive
+	 */
+	public static final int ARCHIVE = 5;
+	
+	/**
+	 * File kind for the summary file of an order history partition
+	 */
+	public static final int PARTITION_SUMMARY = 6;
+	
+	/**
+	 * File kind for the floor plan data file
+	 */
+	public static final int FLOOR_PLAN = 7;
+	
+	/**
+	 * Creates a data file of the given kind, and writes its header<p>
+	 * 
+	 * The existing data file (if any) is only replaced once the returned
+	 * <br>record output is closed
+	 * 
+	 * @param filePath The path of the data file
+	 * @param fileKind The kind of data file
+	 * 
+	 * @return The record output used to write the records
+	 * 
+	 * @throws IOException If the data file cannot be created
+	 */
+	public static RecordOutput create(String filePath, int fileKind)
+			throws IOException
+	{
+		RecordOutput out = new RecordOutput(new File(filePath));
+		
+		try
+		{
+			out.writeInt(MAGIC);
+			out.writeShort(CURRENT_SCHEMA_VERSION);
+			out.writeByte(fileKind);
+		}
+		catch(IOException ex)
+		{
+			out.abort();
+			throw ex;
+		}
+		
+		return out;
+	}
+	
+	/**
+	 * Opens a data file of the given kind, and reads its header
+	 * 
+	 * @param filePath The path of the data file
+	 * @param fileKind The expected kind of data file
+	 * 
+	 * @return The record input used to read the records
+	 * 
+	 * @throws IOException If the data file cannot be opened, is not of the
+	 * 		   expected kind<br>or was written by a newer version of the
+	 * 		   application
+	 */
+	public static RecordInput open(String filePath, int fileKind)
+			throws IOException
+	{
+		RecordInput in = new RecordInput(new FileInputStream(filePath), 0);
+		
+		try
+		{
+			if(in.readInt() != MAGIC)
+				throw new IOException("Not a data file: " + filePath);
+			
+			int schemaVersion = in.readShort();
+			if(schemaVersion < 1 || schemaVersion > CURRENT_SCHEMA_VERSION)
+			{
+				throw new IOException("Unsupported schema version "
+						+ schemaVersion + ": " + filePath);
+			}
+			
+			int actualFileKind = in.readByte();
+			if(actualFileKind != fileKind)
+			{
+				throw new IOException("Unexpected file kind "
+						+ actualFileKind + ": " + filePath);
+			}
+			
+			in.setSchemaVersion(schemaVersion);
+		}
+		catch(IOException ex)
+		{
+			in.close();
+			throw ex;
+		}
+		
+		return in;
+	}
+	
+	/**
+	 * Checks whether a data file was written using Java serialization,
+	 * <br>and has to be migrated to the record format
+	 * 
+	 * @param filePath The path of the data file
+	 * 
+	 * @return True if the data file exists and uses Java serialization
+	 */
+	public static boolean isLegacyFormat(String filePath)
+	{
+		File file = new File(filePath);
+		if(!file.isFile() || file.length() < 2)
+			return false;
+		
+		DataInputStream in = null;
+		try
+		{
+			in = new DataInputStream(new FileInputStream(file));
+			return in.readShort() == JAVA_SERIALIZATION_MAGIC;
+		}
+		catch(IOException ex)
+		{
+			return false;
+		}
+		finally
+		{
+			if(in != null)
+			{
+				try {
+					in.close();
+				} catch (IOException ex) {
+					// Nothing was written, safe to ignore
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Forces the entries of a directory to the storage device, so that files
+	 * <br>created, renamed or deleted in it survive a crash<p>
+	 * 
+	 * Windows cannot open a directory, and makes directory entries durable
+	 * on its own,<br>so nothing is done there
+	 * 
+	 * @param directory The directory
+	 * 
+	 * @throws IOException If the directory cannot be synced
+	 */
+	static void syncDirectory(File directory) throws IOException
+	{
+		if(System.getProperty("os.name", "").startsWith("Windows"))
+			return;
+		
+		FileChannel channel = FileChannel.open(directory.toPath(),
+				StandardOpenOption.READ);
+		try {
+			channel.force(true);
+		} finally {
+			channel.close();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+package sce.cz2002.Assignment.Persistence;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+
+/**
+ * A dictionary for an enumeration type, stored in the header section of
+ * a data file<p>
+ * 
+ * The dictionary lists the names of the enumeration constants when the file
+ * was written,<br>and records only store the single byte index of a constant.
+ * Constants are matched back<br>by name when reading, so re-ordering or adding
+ * constants does not break old files
+ * 
+ * @author Jin Yao
+ * 
+ * @param <E> The enumeration type
+ */
+public class EnumDictionary<E extends Enum<E>>
+{
+	/**
+	 * The enumeration constants, indexed by the index used in the file
+	 */
+	private final E[] _constants;
+	
+	/**
+	 * The name of the enumeration type, used in error messages
+	 */
+	private final String _typeName;
+	
+	/**
+	 * Creates a new dictionary with the given constants
+	 * 
+	 * @param constants The enumeration constants, indexed by the index
+	 * 		  used in the file
+	 * @param typeName The name of the enumeration type
+	 */
+	private EnumDictionary(E[] constants, String typeName)
+	{
+		_constants = constants;
+		_typeName = typeName;
+	}
+	
+	/**
+	 * Writes the dictionary of an enumeration type<br>
+	 * The index of each constant is its ordinal, as used by
+	 * {@link RecordOutput#writeEnum}
+	 * 
+	 * @param out The record output to write to
+	 * @param enumType The enumeration type
+	 * 
+	 * @throws IOException If the dictionary cannot be written
+	 */
+	public static <E extends Enum<E>> void write(RecordOutput out,
+			Class<E> enumType) throws IOException
+	{
+		E[] constants = enumType.getEnumConstants();
+		
+		out.writeByte(constants.length);
+		for(E constant : constants)
+		{
+			out.writeString(constant.name());
+		}
+	}
+	
+	/**
+	 * Reads the dictionary of an enumeration type
+	 * 
+	 * @param in The record input to read from
+	 * @param enumType The enumeration type
+	 * 
+	 * @return The dictionary read
+	 * 
+	 * @throws IOException If the dictionary cannot be read, or it contains a
+	 * 		   constant<br>that no longer exists
+	 */
+	public static <E extends Enum<E>> EnumDictionary<E> read(RecordInput in,
+			Class<E> enumType) throws IOException
+	{
+		int numOfConstants = in.readByte();
+		
+		@SuppressWarnings("unchecked")
+		E[] constants = (E[]) Array.newInstance(
+				enumType, numOfConstants);
+		
+		for(int index = 0; index < numOfConstants; index++)
+		{
+			String name = in.readString();
+			
+			try {
+				constants[index] = Enum.valueOf(enumType, name);
+			} catch (IllegalArgumentException ex) {
+				throw new IOException("Unknown " + enumType.getSimpleName()
+						+ " '" + name + "'");
+			}
+		}
+		
+		return new EnumDictionary<E>(constants, enumType.getSimpleName());
+	}
+	
+	/**
+	 * Gets the enumeration constant for an index used in the file
+	 * 
+	 * @param index The index read from the file
+	 * 
+	 * @return The enumeration constant
+	 * 
+	 * @throws IOException If the index is not in the dictionary
+	 */
+	public E decode(int index) throws IOException
+	{
+		if(index < 0 || index >= _constants.length)
+			throw new IOException("Invalid " + _typeName + " index: " + index);
+		
+		return _constants[index];
+	}
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package sce.cz2002.Assignment.Persistence;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import sce.cz2002.Assignment.Classes.FloorPlan;
+import sce.cz2002.Assignment.Classes.Table;
+
+/**
+ * Reads and writes the floor plans of the outlets using the record format<p>
+ * 
+ * Layout: number of outlets followed by one record per outlet, which holds
+ * the<br>outlet name, the number of tables and one record per table (table
+ * number,<br>number of seats and zone). Only the layout is stored, tables
+ * are always loaded<br>as available
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class FloorPlanCodec
+{
+	/**
+	 * Writes the floor plans of all outlets
+	 * 
+	 * @param out The record output to write to
+	 * @param floorPlans The floor plans, one per outlet
+	 * 
+	 * @throws IOException If the floor plans cannot be written
+	 */
+	public static void writeFloorPlans(RecordOutput out,
+			List<FloorPlan> floorPlans) throws IOException
+	{
+		out.writeInt(floorPlans.size());
+		for(FloorPlan floorPlan : floorPlans)
+		{
+			out.writeString(floorPlan.getOutletName());
+			
+			List<Table> tables = floorPlan.getTables();
+			out.writeInt(tables.size());
+			for(Table table : tables)
+			{
+				out.writeInt(table.getTableNumber());
+				out.writeInt(table.getNumOfSeats());
+				out.writeInt(table.getZone());
+			}
+		}
+	}
+	
+	/**
+	 * Reads the floor plans of all outlets
+	 * 
+	 * @param in The record input to read from
+	 * 
+	 * @return The floor plans, one per outlet
+	 * 
+	 * @throws IOException If the floor plans cannot be read
+	 */
+	public static List<FloorPlan> readFloorPlans(RecordInput in)
+			throws IOException
+	{
+		int numOfOutlets = in.readInt();
+		List<FloorPlan> floorPlans = new ArrayList<FloorPlan>(numOfOutlets);
+		
+		for(int currOutlet = 0; currOutlet < numOfOutlets; currOutlet++)
+		{
+			FloorPlan floorPlan = new FloorPlan(in.readString());
+			
+			int numOfTables = in.readInt();
+			for(int currTable = 0; currTable < numOfTables; currTable++)
+			{
+				int tableNumber = in.readInt();
+				int numOfSeats = in.readInt();
+				int zone = in.readInt();
+				
+				floorPlan.addTable(tableNumber, numOfSeats, zone);
+			}
+			
+			floorPlans.add(floorPlan);
+		}
+		
+		return floorPlans;
+	}
+}
\ No newline at end of file
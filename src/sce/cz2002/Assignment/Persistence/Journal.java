@@ -0,0 +1,819 @@
+package sce.cz2002.Assignment.Persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal file made up of checksummed records<p>
+ * 
+ * Every record is framed by its length and a CRC-32 checksum, and is given
+ * an increasing<br>sequence number. A record that was only partially written
+ * (e.g. the application crashed<br>halfway) fails its checksum, and is
+ * discarded together with anything after it<p>
+ * 
+ * Records are appended to an in-memory buffer, and written to the file when
+ * they are<br>committed. Threads committing at the same time share a single
+ * write (and fsync),<br>so the cost of syncing the file is spread across
+ * all the records of the group
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class Journal implements Closeable
+{
+	/**
+	 * Determines when committed records are forced to the storage device
+	 * 
+	 * @author Jin Yao
+	 * 
+	 */
+	public enum SyncPolicy
+	{
+		/**
+		 * Every commit waits for the file to be synced<br>
+		 * No committed record is lost, even if the machine crashes
+		 */
+		EveryCommit,
+		
+		/**
+		 * Commits return once written, and the file is synced periodically
+		 * <br>At most one sync interval worth of records is lost if the
+		 * machine crashes
+		 */
+		Interval,
+		
+		/**
+		 * The file is never synced explicitly, the operating system decides
+		 * <br>when it reaches the storage device
+		 */
+		Never
+	}
+	
+	/**
+	 * Handles the records read back from a journal file
+	 * 
+	 * @author Jin Yao
+	 * 
+	 */
+	public interface RecordHandler
+	{
+		/**
+		 * Handles a single record
+		 * 
+		 * @param sequenceNumber The sequence number of the record
+		 * @param record The record input used to read the record's content
+		 * 
+		 * @throws IOException If the record cannot be handled
+		 */
+		void handleRecord(long sequenceNumber, RecordInput record)
+				throws IOException;
+	}
+	
+	/**
+	 * Magic number identifying a journal file, "RRPJ" in ASCII
+	 */
+	private static final int MAGIC = 0x5252504A;
+	
+	/**
+	 * Size of the journal file header (magic number and schema version)
+	 */
+	private static final int HEADER_SIZE = 4 + 2;
+	
+	/**
+	 * Size of the frame placed before every record (length and checksum)
+	 */
+	private static final int FRAME_SIZE = 4 + 4;
+	
+	/**
+	 * Size of the sequence number at the start of every record
+	 */
+	private static final int SEQUENCE_NUMBER_SIZE = 8;
+	
+	/**
+	 * Largest record accepted when reading, anything larger is treated
+	 * as corruption
+	 */
+	private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+	
+	/**
+	 * Initial size of the in-memory record buffers
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	/**
+	 * The journal file
+	 */
+	private final File _file;
+	
+	/**
+	 * When committed records are forced to the storage device
+	 */
+	private final SyncPolicy _syncPolicy;
+	
+	/**
+	 * Channel used to append to the journal file
+	 */
+	private FileChannel _channel;
+	
+	/**
+	 * Records appended but not yet written to the file
+	 */
+	private byte[] _pending;
+	
+	/**
+	 * Number of bytes used in the pending buffer
+	 */
+	private int _pendingSize;
+	
+	/**
+	 * Spare buffer, swapped with the pending buffer when a group of records
+	 * <br>is being written
+	 */
+	private byte[] _spare;
+	
+	/**
+	 * Whether a group of records is currently being written by a thread
+	 */
+	private boolean _writing;
+	
+	/**
+	 * Sequence number of the last record appended
+	 */
+	private long _lastSequenceNumber;
+	
+	/**
+	 * Sequence number of the last record written to the file
+	 */
+	private long _writtenSequenceNumber;
+	
+	/**
+	 * Sequence number of the last record forced to the storage device
+	 */
+	private long _syncedSequenceNumber;
+	
+	/**
+	 * Size of the journal file, including records being written
+	 */
+	private long _size;
+	
+	/**
+	 * The schema version that the records of the journal file were
+	 * written in
+	 */
+	private int _schemaVersion;
+	
+	/**
+	 * The error that caused a write to fail, null if no write has failed
+	 * <br>Once a write fails, the journal refuses further commits
+	 */
+	private IOException _failure;
+	
+	/**
+	 * Timer used to sync the file periodically, null unless the sync policy
+	 * <br>is {@link SyncPolicy#Interval}
+	 */
+	private Timer _syncTimer;
+	
+	/**
+	 * Creates a new journal for the given file<br>
+	 * The journal has to be opened before records can be appended
+	 * 
+	 * @param file The journal file
+	 * @param syncPolicy When committed records are forced to the
+	 * 		  storage device
+	 */
+	private Journal(File file, SyncPolicy syncPolicy)
+	{
+		_file = file;
+		_syncPolicy = syncPolicy;
+		
+		_pending = new byte[BUFFER_SIZE];
+		_spare = new byte[BUFFER_SIZE];
+	}
+	
+	/**
+	 * Opens a journal file for appending, creating it if it does not exist
+	 * <p>
+	 * Existing records are passed to the handler first, skipping records
+	 * that are<br>already part of a checkpoint. A partially written record at
+	 * the end of the file<br>is discarded
+	 * 
+	 * @param file The journal file
+	 * @param syncPolicy When committed records are forced to the
+	 * 		  storage device
+	 * @param syncIntervalMillis How often the file is synced when using
+	 * 		  {@link SyncPolicy#Interval}
+	 * @param checkpointSequenceNumber Sequence number of the last record
+	 * 		  already part of a checkpoint
+	 * @param handler Handles the records found in the file
+	 * 
+	 * @return The opened journal
+	 * 
+	 * @throws IOException If the journal file cannot be read or opened
+	 */
+	public static Journal open(File file, SyncPolicy syncPolicy,
+			long syncIntervalMillis, long checkpointSequenceNumber,
+			RecordHandler handler) throws IOException
+	{
+		Journal journal = new Journal(file, syncPolicy);
+		
+		long[] lastSequenceNumber = { checkpointSequenceNumber };
+		long validSize = 0;
+		
+		if(file.isFile())
+		{
+			validSize = replay(file, checkpointSequenceNumber, handler,
+					lastSequenceNumber);
+		}
+		
+		journal._lastSequenceNumber = lastSequenceNumber[0];
+		journal._writtenSequenceNumber = lastSequenceNumber[0];
+		journal._syncedSequenceNumber = lastSequenceNumber[0];
+		
+		if(validSize > 0)
+			journal._schemaVersion = readSchemaVersion(file);
+		
+		journal.openChannel(validSize);
+		
+		if(syncPolicy == SyncPolicy.Interval)
+			journal.startSyncTimer(syncIntervalMillis);
+		
+		return journal;
+	}
+	
+	/**
+	 * Reads back the records of a journal file that is not being appended to
+	 * <br>A partially written record at the end of the file is ignored
+	 * 
+	 * @param file The journal file
+	 * @param checkpointSequenceNumber Sequence number of the last record
+	 * 		  already part of a checkpoint, such records are skipped
+	 * @param handler Handles the records found in the file
+	 * 
+	 * @return Sequence number of the last record found, or the checkpoint
+	 * 		   sequence number<br>if there are no newer records
+	 * 
+	 * @throws IOException If the journal file cannot be read, or the
+	 * 		   handler fails
+	 */
+	public static long replay(File file, long checkpointSequenceNumber,
+			RecordHandler handler) throws IOException
+	{
+		long[] lastSequenceNumber = { checkpointSequenceNumber };
+		replay(file, checkpointSequenceNumber, handler, lastSequenceNumber);
+		
+		return lastSequenceNumber[0];
+	}
+	
+	/**
+	 * Reads back the records of a journal file
+	 * 
+	 * @param file The journal file
+	 * @param checkpointSequenceNumber Sequence number of the last record
+	 * 		  already part of a checkpoint, such records are skipped
+	 * @param handler Handles the records found in the file
+	 * @param lastSequenceNumber Updated with the sequence number of the
+	 * 		  last record found
+	 * 
+	 * @return Size of the valid part of the file, in bytes<br>
+	 * 		   0 if the file does not even have a complete header
+	 * 
+	 * @throws IOException If the journal file cannot be read, or the
+	 * 		   handler fails
+	 */
+	private static long replay(File file, long checkpointSequenceNumber,
+			RecordHandler handler, long[] lastSequenceNumber)
+			throws IOException
+	{
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file), BUFFER_SIZE));
+		
+		try
+		{
+			int schemaVersion;
+			try
+			{
+				if(in.readInt() != MAGIC)
+					throw new IOException("Not a journal file: " + file);
+				
+				schemaVersion = in.readUnsignedShort();
+			}
+			catch(EOFException ex)
+			{
+				return 0; // Crashed while writing the header
+			}
+			
+			if(schemaVersion < 1 || schemaVersion > DataFile.CURRENT_SCHEMA_VERSION)
+			{
+				throw new IOException("Unsupported schema version "
+						+ schemaVersion + ": " + file);
+			}
+			
+			long validSize = HEADER_SIZE;
+			byte[] record = new byte[BUFFER_SIZE];
+			CRC32 checksum = new CRC32();
+			
+			while(true)
+			{
+				int recordSize;
+				int expectedChecksum;
+				try
+				{
+					recordSize = in.readInt();
+					expectedChecksum = in.readInt();
+					
+					if(recordSize < SEQUENCE_NUMBER_SIZE
+							|| recordSize > MAX_RECORD_SIZE)
+						break;
+					
+					if(recordSize > record.length)
+						record = new byte[Math.max(recordSize, record.length * 2)];
+					
+					in.readFully(record, 0, recordSize);
+				}
+				catch(EOFException ex)
+				{
+					break; // Partially written record
+				}
+				
+				checksum.reset();
+				checksum.update(record, 0, recordSize);
+				if((int) checksum.getValue() != expectedChecksum)
+					break;
+				
+				long sequenceNumber = ByteBuffer.wrap(record).getLong();
+				
+				if(sequenceNumber > checkpointSequenceNumber)
+				{
+					RecordInput recordIn = new RecordInput(
+							new ByteArrayInputStream(record,
+									SEQUENCE_NUMBER_SIZE,
+									recordSize - SEQUENCE_NUMBER_SIZE),
+							schemaVersion);
+					
+					handler.handleRecord(sequenceNumber, recordIn);
+				}
+				
+				if(sequenceNumber > lastSequenceNumber[0])
+					lastSequenceNumber[0] = sequenceNumber;
+				
+				validSize += FRAME_SIZE + recordSize;
+			}
+			
+			return validSize;
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+	
+	/**
+	 * Opens the channel used to append to the journal file<br>
+	 * Anything after the valid part of the file is cut off, and a header
+	 * is written<br>if the file does not have one
+	 * 
+	 * @param validSize Size of the valid part of the file, in bytes
+	 * 
+	 * @throws IOException If the journal file cannot be opened
+	 */
+	@SuppressWarnings("resource")
+	private void openChannel(long validSize) throws IOException
+	{
+		_channel = new RandomAccessFile(_file, "rw").getChannel();
+		
+		try
+		{
+			_channel.truncate(validSize);
+			_channel.position(validSize);
+			
+			if(validSize == 0)
+			{
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				header.putInt(MAGIC);
+				header.putShort((short) DataFile.CURRENT_SCHEMA_VERSION);
+				header.flip();
+				
+				writeFully(header);
+				_channel.force(true);
+				
+				validSize = HEADER_SIZE;
+				_schemaVersion = DataFile.CURRENT_SCHEMA_VERSION;
+			}
+		}
+		catch(IOException ex)
+		{
+			_channel.close();
+			throw ex;
+		}
+		
+		_size = validSize;
+	}
+	
+	/**
+	 * Starts the timer that syncs the journal file periodically
+	 * 
+	 * @param syncIntervalMillis How often the file is synced
+	 */
+	private void startSyncTimer(long syncIntervalMillis)
+	{
+		_syncTimer = new Timer("Journal sync: " + _file.getName(), true);
+		_syncTimer.schedule(new TimerTask() {
+			
+			@Override
+			public void run()
+			{
+				try {
+					sync();
+				} catch (IOException ex) {
+					// Recorded as the journal failure, reported on commit
+				}
+			}
+		}, syncIntervalMillis, syncIntervalMillis);
+	}
+	
+	/**
+	 * Appends a record to the journal<br>
+	 * The record is only guaranteed to be in the file once it has
+	 * been committed
+	 * 
+	 * @param record The content of the record
+	 * 
+	 * @return The sequence number given to the record
+	 */
+	public synchronized long append(byte[] record)
+	{
+		long sequenceNumber = ++_lastSequenceNumber;
+		int recordSize = SEQUENCE_NUMBER_SIZE + record.length;
+		
+		ensurePendingCapacity(FRAME_SIZE + recordSize);
+		
+		ByteBuffer frame = ByteBuffer.wrap(_pending, _pendingSize,
+				FRAME_SIZE + recordSize);
+		frame.putInt(recordSize);
+		frame.putInt(0); // Checksum, filled in below
+		frame.putLong(sequenceNumber);
+		frame.put(record);
+		
+		CRC32 checksum = new CRC32();
+		checksum.update(_pending, _pendingSize + FRAME_SIZE, recordSize);
+		ByteBuffer.wrap(_pending, _pendingSize + 4, 4).putInt(
+				(int) checksum.getValue());
+		
+		_pendingSize += FRAME_SIZE + recordSize;
+		_size += FRAME_SIZE + recordSize;
+		
+		return sequenceNumber;
+	}
+	
+	/**
+	 * Grows the pending buffer so that it can hold more bytes
+	 * 
+	 * @param extraSize The number of bytes that will be added
+	 */
+	private void ensurePendingCapacity(int extraSize)
+	{
+		if(_pendingSize + extraSize <= _pending.length)
+			return;
+		
+		byte[] grownBuffer = new byte[Math.max(_pendingSize + extraSize,
+				_pending.length * 2)];
+		System.arraycopy(_pending, 0, grownBuffer, 0, _pendingSize);
+		
+		_pending = grownBuffer;
+	}
+	
+	/**
+	 * Waits until a record (and every record before it) has been committed
+	 * <p>
+	 * If no other thread is writing, the calling thread writes every pending
+	 * record<br>in a single group. Otherwise it waits for the current group
+	 * to finish, as its<br>record is likely to be written with the next group
+	 * 
+	 * @param sequenceNumber The sequence number of the record
+	 * 
+	 * @throws IOException If the records cannot be written, or the journal
+	 * 		   has already failed
+	 */
+	public void commit(long sequenceNumber) throws IOException
+	{
+		byte[] group;
+		int groupSize;
+		long groupSequenceNumber;
+		
+		synchronized(this)
+		{
+			while(true)
+			{
+				if(_failure != null)
+					throw new IOException("Journal unavailable: " + _file, _failure);
+				
+				if(_channel == null)
+					throw new IOException("Journal closed: " + _file);
+				
+				if(isCommitted(sequenceNumber))
+					return;
+				
+				if(!_writing)
+					break;
+				
+				try {
+					wait();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while"
+							+ " committing to " + _file);
+				}
+			}
+			
+			_writing = true;
+			
+			group = _pending;
+			groupSize = _pendingSize;
+			groupSequenceNumber = _lastSequenceNumber;
+			
+			_pending = _spare;
+			_pendingSize = 0;
+		}
+		
+		IOException failure = null;
+		try
+		{
+			writeFully(ByteBuffer.wrap(group, 0, groupSize));
+			
+			if(_syncPolicy == SyncPolicy.EveryCommit)
+				_channel.force(false);
+		}
+		catch(IOException ex)
+		{
+			failure = ex;
+		}
+		
+		synchronized(this)
+		{
+			_writing = false;
+			_spare = group;
+			
+			if(failure == null)
+			{
+				_writtenSequenceNumber = groupSequenceNumber;
+				
+				if(_syncPolicy == SyncPolicy.EveryCommit)
+					_syncedSequenceNumber = groupSequenceNumber;
+			}
+			else
+				_failure = failure;
+			
+			notifyAll();
+		}
+		
+		if(failure != null)
+			throw failure;
+	}
+	
+	/**
+	 * Checks whether a record has been committed, according to the
+	 * sync policy
+	 * 
+	 * @param sequenceNumber The sequence number of the record
+	 * 
+	 * @return True if the record has been committed
+	 */
+	private boolean isCommitted(long sequenceNumber)
+	{
+		if(_syncPolicy == SyncPolicy.EveryCommit)
+			return _syncedSequenceNumber >= sequenceNumber;
+		
+		return _writtenSequenceNumber >= sequenceNumber;
+	}
+	
+	/**
+	 * Forces every record written so far to the storage device
+	 * 
+	 * @throws IOException If the journal file cannot be synced
+	 */
+	public void sync() throws IOException
+	{
+		FileChannel channel;
+		long writtenSequenceNumber;
+		synchronized(this)
+		{
+			if(_failure != null || _channel == null
+					|| _syncedSequenceNumber >= _writtenSequenceNumber)
+				return;
+			
+			channel = _channel;
+			writtenSequenceNumber = _writtenSequenceNumber;
+		}
+		
+		try
+		{
+			channel.force(false);
+		}
+		catch(ClosedChannelException ex)
+		{
+			return; // Closed while syncing, close() has synced the file
+		}
+		catch(IOException ex)
+		{
+			synchronized(this)
+			{
+				_failure = ex;
+				notifyAll();
+			}
+			throw ex;
+		}
+		
+		synchronized(this)
+		{
+			if(writtenSequenceNumber > _syncedSequenceNumber)
+				_syncedSequenceNumber = writtenSequenceNumber;
+		}
+	}
+	
+	/**
+	 * Moves every record in the journal to a separate segment file, and
+	 * continues<br>with an empty journal file. Used to checkpoint the
+	 * journal without blocking<br>threads that keep appending records
+	 * 
+	 * @param segmentFile The file that the records are moved to, replaced
+	 * 		  if it exists
+	 * 
+	 * @return Sequence number of the last record in the segment file
+	 * 
+	 * @throws IOException If the journal file cannot be moved, or a new
+	 * 		   journal file cannot be created
+	 */
+	public synchronized long rotate(File segmentFile) throws IOException
+	{
+		waitForWriter();
+		
+		if(_failure != null)
+			throw new IOException("Journal unavailable: " + _file, _failure);
+		
+		try
+		{
+			writeFully(ByteBuffer.wrap(_pending, 0, _pendingSize));
+			_pendingSize = 0;
+			
+			_channel.force(true);
+			_channel.close();
+			
+			Files.move(_file.toPath(), segmentFile.toPath(),
+					StandardCopyOption.REPLACE_EXISTING);
+			
+			openChannel(0);
+			DataFile.syncDirectory(_file.getAbsoluteFile().getParentFile());
+		}
+		catch(IOException ex)
+		{
+			_failure = ex;
+			notifyAll();
+			throw ex;
+		}
+		
+		_writtenSequenceNumber = _lastSequenceNumber;
+		_syncedSequenceNumber = _lastSequenceNumber;
+		
+		notifyAll();
+		
+		return _lastSequenceNumber;
+	}
+	
+	/**
+	 * Waits for the thread writing a group of records (if any) to finish
+	 * <br>Must be called while holding the lock of this journal
+	 * 
+	 * @throws InterruptedIOException If interrupted while waiting
+	 */
+	private void waitForWriter() throws InterruptedIOException
+	{
+		while(_writing)
+		{
+			try {
+				wait();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while"
+						+ " waiting for " + _file);
+			}
+		}
+	}
+	
+	/**
+	 * Writes the whole buffer to the journal file
+	 * 
+	 * @param buffer The bytes to be written
+	 * 
+	 * @throws IOException If the bytes cannot be written
+	 */
+	private void writeFully(ByteBuffer buffer) throws IOException
+	{
+		while(buffer.hasRemaining())
+			_channel.write(buffer);
+	}
+	
+	/**
+	 * Gets the size of the journal file, including records that have
+	 * <br>been appended but not yet written
+	 * 
+	 * @return The size of the journal file, in bytes
+	 */
+	public synchronized long size() {
+		return _size;
+	}
+	
+	/**
+	 * Checks whether the journal has no records
+	 * 
+	 * @return True if the journal has no records
+	 */
+	public synchronized boolean isEmpty() {
+		return _size <= HEADER_SIZE;
+	}
+	
+	/**
+	 * Gets the schema version that the records of the journal file were
+	 * written in<br>
+	 * Records appended to a journal file of an older schema version cannot
+	 * be<br>read back, so such a file has to be rotated first
+	 * 
+	 * @return The schema version of the journal file
+	 */
+	public synchronized int getSchemaVersion() {
+		return _schemaVersion;
+	}
+	
+	/**
+	 * Reads the schema version from the header of a journal file
+	 * 
+	 * @param file The journal file, with a complete header
+	 * 
+	 * @return The schema version
+	 * 
+	 * @throws IOException If the header cannot be read
+	 */
+	private static int readSchemaVersion(File file) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new FileInputStream(file));
+		
+		try
+		{
+			in.readInt();
+			return in.readUnsignedShort();
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+	
+	/**
+	 * Writes and syncs any remaining records, then closes the journal file
+	 * 
+	 * @throws IOException If the remaining records cannot be written
+	 */
+	@Override
+	public synchronized void close() throws IOException
+	{
+		if(_syncTimer != null)
+			_syncTimer.cancel();
+		
+		if(_channel == null)
+			return;
+		
+		waitForWriter();
+		
+		try
+		{
+			if(_failure == null)
+			{
+				writeFully(ByteBuffer.wrap(_pending, 0, _pendingSize));
+				_pendingSize = 0;
+				
+				_channel.force(false);
+			}
+		}
+		finally
+		{
+			_channel.close();
+			_channel = null;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,214 @@
+package sce.cz2002.Assignment.Persistence;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A single column of fixed-width values kept in a memory-mapped file<p>
+ * 
+ * Values are read and written in place in the mapped file, so reading a
+ * value never<br>copies it onto the heap. The file grows by doubling
+ * whenever more room is needed,<br>and is mapped again at its new size<p>
+ * 
+ * The column does not know how many of its values are in use, this is
+ * kept by its owner
+ * 
+ * @author Jin Yao
+ * 
+ */
+class MappedColumn implements Closeable
+{
+	/**
+	 * Largest number of bytes that can be mapped at once
+	 */
+	private static final long MAX_MAPPED_SIZE = Integer.MAX_VALUE;
+	
+	/**
+	 * Number of bytes taken up by each value
+	 */
+	private final int _width;
+	
+	/**
+	 * The file holding the values
+	 */
+	private final RandomAccessFile _file;
+	
+	/**
+	 * The channel used to map the file
+	 */
+	private final FileChannel _channel;
+	
+	/**
+	 * The mapped file<br>
+	 * Replaced by a larger mapping when the column grows, so readers
+	 * always<br>read this field once and use the buffer read
+	 */
+	private volatile MappedByteBuffer _buffer;
+	
+	/**
+	 * Opens a column, creating its file if it does not exist
+	 * 
+	 * @param file The file holding the values
+	 * @param width The number of bytes taken up by each value
+	 * @param initialCapacity The number of values to make room for,
+	 * 		  if the file is smaller
+	 * 
+	 * @throws IOException If the file cannot be opened or mapped
+	 */
+	MappedColumn(File file, int width, int initialCapacity) throws IOException
+	{
+		_width = width;
+		_file = new RandomAccessFile(file, "rw");
+		_channel = _file.getChannel();
+		
+		try
+		{
+			long size = Math.max(_channel.size(), (long) initialCapacity * width);
+			_buffer = _channel.map(FileChannel.MapMode.READ_WRITE, 0,
+					Math.min(size, MAX_MAPPED_SIZE));
+		}
+		catch(IOException ex)
+		{
+			_file.close();
+			throw ex;
+		}
+	}
+	
+	/**
+	 * Makes sure the column has room for the given number of values
+	 * 
+	 * @param numOfValues The number of values needed
+	 * 
+	 * @throws IOException If the file cannot be grown, or would be too
+	 * 		   large to map
+	 */
+	void ensureCapacity(long numOfValues) throws IOException
+	{
+		long size = numOfValues * _width;
+		
+		if(size <= _buffer.capacity())
+			return;
+		
+		if(size > MAX_MAPPED_SIZE)
+			throw new IOException("Column is full: " + numOfValues + " values");
+		
+		long newSize = Math.min(Math.max(size, 2L * _buffer.capacity()),
+				MAX_MAPPED_SIZE);
+		
+		// Values already written stay in the file, and are seen by the
+		// new mapping
+		_buffer = _channel.map(FileChannel.MapMode.READ_WRITE, 0, newSize);
+	}
+	
+	/**
+	 * Reads a single-byte value
+	 * 
+	 * @param index The index of the value
+	 * 
+	 * @return The value read
+	 */
+	byte getByte(int index) {
+		return _buffer.get(index * _width);
+	}
+	
+	/**
+	 * Writes a single-byte value
+	 * 
+	 * @param index The index of the value
+	 * @param value The value to be written
+	 */
+	void putByte(int index, byte value) {
+		_buffer.put(index * _width, value);
+	}
+	
+	/**
+	 * Reads a 4-byte integer value
+	 * 
+	 * @param index The index of the value
+	 * 
+	 * @return The value read
+	 */
+	int getInt(int index) {
+		return _buffer.getInt(index * _width);
+	}
+	
+	/**
+	 * Writes a 4-byte integer value
+	 * 
+	 * @param index The index of the value
+	 * @param value The value to be written
+	 */
+	void putInt(int index, int value) {
+		_buffer.putInt(index * _width, value);
+	}
+	
+	/**
+	 * Reads a 8-byte long value
+	 * 
+	 * @param index The index of the value
+	 * 
+	 * @return The value read
+	 */
+	long getLong(int index) {
+		return _buffer.getLong(index * _width);
+	}
+	
+	/**
+	 * Writes a 8-byte long value
+	 * 
+	 * @param index The index of the value
+	 * @param value The value to be written
+	 */
+	void putLong(int index, long value) {
+		_buffer.putLong(index * _width, value);
+	}
+	
+	/**
+	 * Reads a run of single-byte values
+	 * 
+	 * @param index The index of the first value
+	 * @param bytes The array to read the values into
+	 */
+	void getBytes(int index, byte[] bytes)
+	{
+		ByteBuffer view = _buffer.duplicate();
+		view.position(index);
+		view.get(bytes);
+	}
+	
+	/**
+	 * Writes a run of single-byte values
+	 * 
+	 * @param index The index of the first value
+	 * @param bytes The values to be written
+	 */
+	void putBytes(int index, byte[] bytes)
+	{
+		ByteBuffer view = _buffer.duplicate();
+		view.position(index);
+		view.put(bytes);
+	}
+	
+	/**
+	 * Forces the values written so far to the storage device
+	 */
+	void force() {
+		_buffer.force();
+	}
+	
+	/**
+	 * Closes the file<br>
+	 * The mapping itself is released once it is no longer referenced
+	 * 
+	 * @throws IOException If the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		_file.close();
+	}
+}
\ No newline at end of file
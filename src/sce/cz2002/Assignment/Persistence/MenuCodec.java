@@ -0,0 +1,196 @@
+package sce.cz2002.Assignment.Persistence;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import sce.cz2002.Assignment.Classes.MenuItem;
+import sce.cz2002.Assignment.Classes.SetPackage;
+
+/**
+ * Reads and writes the menu using the record format<p>
+ * 
+ * Layout: ItemType dictionary, number of menu items, followed by one record
+ * <br>per menu item. A set package record is followed by the records of the
+ * menu items it contains<p>
+ * 
+ * From schema version 4, each record starts with the item ID of the menu
+ * item,<br>and the menu is followed by the next item ID to be given out.
+ * Menu items read<br>from older files have {@link MenuItem#NO_ITEM_ID}<p>
+ * 
+ * From schema version 5, the next item ID is followed by the version of
+ * the menu
+ * 
+ * @author Chin Meng
+ * 
+ */
+public class MenuCodec
+{
+	/**
+	 * Record tag for an ala-carte menu item
+	 */
+	private static final int MENU_ITEM = 0;
+	
+	/**
+	 * Record tag for a set package
+	 */
+	private static final int SET_PACKAGE = 1;
+	
+	/**
+	 * Writes the complete menu
+	 * 
+	 * @param out The record output to write to
+	 * @param menu The list of all menu items in the menu
+	 * @param nextItemID The next item ID to be given out
+	 * @param menuVersion The version of the menu
+	 * 
+	 * @throws IOException If the menu cannot be written
+	 */
+	public static void writeMenu(RecordOutput out, List<MenuItem> menu,
+			int nextItemID, long menuVersion) throws IOException
+	{
+		EnumDictionary.write(out, MenuItem.ItemType.class);
+		
+		out.writeInt(menu.size());
+		for(MenuItem menuItem : menu)
+		{
+			writeMenuItem(out, menuItem);
+		}
+		
+		out.writeInt(nextItemID);
+		out.writeLong(menuVersion);
+	}
+	
+	/**
+	 * Reads the complete menu
+	 * 
+	 * @param in The record input to read from
+	 * 
+	 * @return The list of all menu items in the menu
+	 * 
+	 * @throws IOException If the menu cannot be read
+	 */
+	public static List<MenuItem> readMenu(RecordInput in) throws IOException
+	{
+		EnumDictionary<MenuItem.ItemType> itemTypes =
+				EnumDictionary.read(in, MenuItem.ItemType.class);
+		
+		int menuSize = in.readInt();
+		List<MenuItem> menu = new ArrayList<MenuItem>(menuSize);
+		
+		for(int currItem = 0; currItem < menuSize; currItem++)
+		{
+			menu.add(readMenuItem(in, itemTypes));
+		}
+		
+		return menu;
+	}
+	
+	/**
+	 * Reads the next item ID to be given out, which follows the menu
+	 * 
+	 * @param in The record input to read from, after the menu
+	 * 
+	 * @return The next item ID, {@link MenuItem#NO_ITEM_ID} if the file
+	 * 		   was written<br>before schema version 4
+	 * 
+	 * @throws IOException If the item ID cannot be read
+	 */
+	public static int readNextItemID(RecordInput in) throws IOException
+	{
+		if(in.getSchemaVersion() < 4)
+			return MenuItem.NO_ITEM_ID;
+		
+		return in.readInt();
+	}
+	
+	/**
+	 * Reads the version of the menu, which follows the next item ID
+	 * 
+	 * @param in The record input to read from, after the next item ID
+	 * 
+	 * @return The version of the menu, 0 if the file was written before
+	 * 		   schema<br>version 5
+	 * 
+	 * @throws IOException If the version cannot be read
+	 */
+	public static long readMenuVersion(RecordInput in) throws IOException
+	{
+		if(in.getSchemaVersion() < 5)
+			return 0;
+		
+		return in.readLong();
+	}
+	
+	/**
+	 * Writes a single menu item, or a set package together with its items
+	 * 
+	 * @param out The record output to write to
+	 * @param menuItem The menu item to be written
+	 * 
+	 * @throws IOException If the menu item cannot be written
+	 */
+	private static void writeMenuItem(RecordOutput out, MenuItem menuItem)
+			throws IOException
+	{
+		boolean isSetPackage = (menuItem instanceof SetPackage);
+		
+		out.writeByte(isSetPackage ? SET_PACKAGE : MENU_ITEM);
+		out.writeInt(menuItem.getItemID());
+		out.writeEnum(menuItem.getItemType());
+		out.writeString(menuItem.getName());
+		out.writeString(menuItem.getDesc());
+		out.writeDouble(menuItem.getPrice());
+		
+		if(isSetPackage)
+		{
+			List<MenuItem> packageItems = ((SetPackage) menuItem).getPackageItems();
+			
+			out.writeInt(packageItems.size());
+			for(MenuItem packageItem : packageItems)
+			{
+				writeMenuItem(out, packageItem);
+			}
+		}
+	}
+	
+	/**
+	 * Reads a single menu item, or a set package together with its items
+	 * 
+	 * @param in The record input to read from
+	 * @param itemTypes The ItemType dictionary of the file
+	 * 
+	 * @return The menu item read
+	 * 
+	 * @throws IOException If the menu item cannot be read
+	 */
+	private static MenuItem readMenuItem(RecordInput in,
+			EnumDictionary<MenuItem.ItemType> itemTypes) throws IOException
+	{
+		int tag = in.readByte();
+		
+		int itemID = (in.getSchemaVersion() < 4) ? MenuItem.NO_ITEM_ID
+				: in.readInt();
+		MenuItem.ItemType itemType = in.readEnum(itemTypes);
+		String name = in.readString();
+		String desc = in.readString();
+		double price = in.readDouble();
+		
+		if(tag == MENU_ITEM)
+			return new MenuItem(itemID, itemType, name, desc, price);
+		
+		if(tag != SET_PACKAGE)
+			throw new IOException("Invalid menu item record: " + tag);
+		
+		int packageSize = in.readInt();
+		List<MenuItem> packageItems = new ArrayList<MenuItem>(packageSize);
+		
+		for(int currItem = 0; currItem < packageSize; currItem++)
+		{
+			packageItems.add(readMenuItem(in, itemTypes));
+		}
+		
+		return new SetPackage(itemID, itemType, name, desc, price,
+				packageItems);
+	}
+}
\ No newline at end of file
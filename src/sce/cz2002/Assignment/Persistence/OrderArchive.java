@@ -0,0 +1,903 @@
+package sce.cz2002.Assignment.Persistence;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import sce.cz2002.Assignment.Classes.MenuItem;
+import sce.cz2002.Assignment.Classes.Order;
+import sce.cz2002.Assignment.Classes.OrderItem;
+
+/**
+ * Append-only columnar archive of completed transactions, kept in
+ * memory-mapped files<p>
+ * 
+ * Each field of an order is kept in its own column, so that reports only
+ * read the<br>columns they need, straight out of the mapped files. Orders
+ * are identified by their<br>row number, in the order they were archived.
+ * The order items of all orders are kept<br>as rows of their own, and each
+ * order keeps the end of its item rows. Item names<br>are kept once in a
+ * dictionary, and item rows refer to them by number. Item rows<br>also
+ * keep the item ID of the menu item ordered, so sales are joined back to
+ * the<br>menu without going through the names<p>
+ * 
+ * The number of rows in use is only saved to the header file when the
+ * archive is<br>forced, after the columns themselves. Rows archived after
+ * that are lost if the<br>machine crashes, so every order is archived with
+ * the journal sequence number of<br>its payment, and orders paid after
+ * {@link #getLastPaidSequenceNumber()} are archived again<br>from the
+ * journal on start up<p>
+ * 
+ * Orders are archived by one thread at a time, while any number of threads
+ * read<br>rows that have already been archived
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class OrderArchive implements Closeable
+{
+	/**
+	 * Number of rows that a new archive has room for
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+	
+	/**
+	 * Number of cents in a dollar
+	 */
+	private static final int CENTS_PER_DOLLAR = 100;
+	
+	/**
+	 * Name of the header file, holding the number of rows in use
+	 */
+	private static final String HEADER_FILE = "header.dat";
+	
+	/**
+	 * Name of the item name dictionary file
+	 */
+	private static final String NAMES_FILE = "names.dict";
+	
+	/**
+	 * The directory holding the archive files
+	 */
+	private final File _directory;
+	
+	/**
+	 * Order columns, one row per order
+	 */
+	private final MappedColumn _dateTimes;
+	private final MappedColumn _tableNumbers;
+	private final MappedColumn _outletIndexes;
+	private final MappedColumn _staffIDs;
+	private final MappedColumn _customerIDs;
+	private final MappedColumn _numsOfPeople;
+	private final MappedColumn _originalTotalCents;
+	private final MappedColumn _nettTotalCents;
+	private final MappedColumn _members;
+	private final MappedColumn _itemEnds;
+	private final MappedColumn _orderIDEnds;
+	
+	/**
+	 * The bytes of all order IDs, one after another
+	 */
+	private final MappedColumn _orderIDBytes;
+	
+	/**
+	 * Order item columns, one row per order item
+	 */
+	private final MappedColumn _itemNameIDs;
+	private final MappedColumn _itemIDs;
+	private final MappedColumn _itemPriceCents;
+	private final MappedColumn _itemQuantities;
+	
+	/**
+	 * The item name dictionary file, names are appended as they are
+	 * first seen
+	 */
+	private final RandomAccessFile _namesFile;
+	
+	/**
+	 * The item names, indexed by name ID<br>
+	 * Replaced by a larger copy when a name is added
+	 */
+	private volatile String[] _itemNames;
+	
+	/**
+	 * The name ID of each item name
+	 */
+	private final Map<String, Integer> _itemNameIDMap;
+	
+	/**
+	 * Number of orders archived<br>
+	 * Written after the order's columns, so readers only see whole orders
+	 */
+	private volatile int _numOfOrders;
+	
+	/**
+	 * Number of order items archived
+	 */
+	private int _numOfItems;
+	
+	/**
+	 * Number of order ID bytes archived
+	 */
+	private int _numOfOrderIDBytes;
+	
+	/**
+	 * Journal sequence number of the payment of the last order archived
+	 */
+	private long _lastPaidSequenceNumber;
+	
+	/**
+	 * Number of orders archived before the archive kept whether the
+	 * customer<br>was a member, these take the current membership of
+	 * their customer
+	 */
+	private int _numOfOrdersBeforeMembers;
+	
+	/**
+	 * Number of orders archived before the archive kept the outlet of each
+	 * order,<br>these were all taken at the first outlet
+	 */
+	private int _numOfOrdersBeforeOutlets;
+	
+	/**
+	 * Number of orders saved to the header file
+	 */
+	private int _numOfForcedOrders;
+	
+	/**
+	 * Whether archiving an order has failed<br>
+	 * No more orders are archived once this happens, so that the orders
+	 * <br>archived again on start up follow on from the header file
+	 */
+	private boolean _failed;
+	
+	/**
+	 * Creates an archive from its opened files
+	 * 
+	 * @param directory The directory holding the archive files
+	 * @param namesFile The item name dictionary file
+	 * 
+	 * @throws IOException If a column cannot be opened
+	 */
+	private OrderArchive(File directory, RandomAccessFile namesFile)
+			throws IOException
+	{
+		_directory = directory;
+		_namesFile = namesFile;
+		
+		_dateTimes = openColumn("dateTime.col", 8);
+		_tableNumbers = openColumn("table.col", 4);
+		_outletIndexes = openColumn("outlet.col", 4);
+		_staffIDs = openColumn("staff.col", 4);
+		_customerIDs = openColumn("customer.col", 4);
+		_numsOfPeople = openColumn("people.col", 4);
+		_originalTotalCents = openColumn("original.col", 8);
+		_nettTotalCents = openColumn("nett.col", 8);
+		_members = openColumn("member.col", 1);
+		_itemEnds = openColumn("itemEnd.col", 4);
+		_orderIDEnds = openColumn("orderIDEnd.col", 4);
+		_orderIDBytes = openColumn("orderID.col", 1);
+		
+		_itemNameIDs = openColumn("itemName.col", 4);
+		_itemIDs = openColumn("itemID.col", 4);
+		_itemPriceCents = openColumn("itemPrice.col", 8);
+		_itemQuantities = openColumn("itemQuantity.col", 4);
+		
+		_itemNames = new String[0];
+		_itemNameIDMap = new HashMap<String, Integer>();
+		
+		_lastPaidSequenceNumber = -1;
+	}
+	
+	/**
+	 * Opens a single column of the archive
+	 * 
+	 * @param fileName The name of the column file
+	 * @param width The number of bytes taken up by each value
+	 * 
+	 * @return The opened column
+	 * 
+	 * @throws IOException If the column cannot be opened
+	 */
+	private MappedColumn openColumn(String fileName, int width)
+			throws IOException
+	{
+		return new MappedColumn(new File(_directory, fileName), width,
+				INITIAL_CAPACITY);
+	}
+	
+	/**
+	 * Opens the archive in the given directory, creating an empty archive
+	 * <br>if it does not exist yet
+	 * 
+	 * @param directoryPath The path of the directory holding the archive
+	 * 
+	 * @return The opened archive
+	 * 
+	 * @throws IOException If the archive cannot be opened
+	 */
+	public static OrderArchive open(String directoryPath) throws IOException
+	{
+		File directory = new File(directoryPath);
+		
+		if(!directory.isDirectory())
+		{
+			if(!directory.mkdirs())
+				throw new IOException("Unable to create " + directoryPath);
+			
+			DataFile.syncDirectory(directory.getAbsoluteFile().getParentFile());
+		}
+		
+		RandomAccessFile namesFile = new RandomAccessFile(
+				new File(directory, NAMES_FILE), "rw");
+		
+		OrderArchive orderArchive = null;
+		try
+		{
+			orderArchive = new OrderArchive(directory, namesFile);
+			orderArchive.readHeader();
+			
+			return orderArchive;
+		}
+		catch(IOException ex)
+		{
+			if(orderArchive != null)
+				orderArchive.close();
+			else
+				namesFile.close();
+			
+			throw ex;
+		}
+	}
+	
+	/**
+	 * Reads the number of orders saved to the header file of an archive,
+	 * <br>without opening the archive
+	 * 
+	 * @param directory The directory holding the archive
+	 * 
+	 * @return The number of orders, 0 if the archive has never been saved
+	 * 
+	 * @throws IOException If the header file cannot be read
+	 */
+	static int readNumOfOrders(File directory) throws IOException
+	{
+		File headerFile = new File(directory, HEADER_FILE);
+		
+		if(!headerFile.isFile())
+			return 0;
+		
+		RecordInput in = DataFile.open(headerFile.getPath(), DataFile.ARCHIVE);
+		try {
+			return in.readInt();
+		} finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * Checks whether a directory holds an archive
+	 * 
+	 * @param directory The directory
+	 * 
+	 * @return True if the archive has been saved at least once
+	 */
+	static boolean exists(File directory) {
+		return new File(directory, HEADER_FILE).isFile();
+	}
+	
+	/**
+	 * Deletes the files of a closed archive<br>
+	 * The header file goes first, so an archive that is only partly deleted
+	 * <br>is taken to be empty
+	 * 
+	 * @param directory The directory holding the archive
+	 * 
+	 * @throws IOException If the header file cannot be deleted
+	 */
+	static void delete(File directory) throws IOException
+	{
+		File headerFile = new File(directory, HEADER_FILE);
+		
+		if(headerFile.isFile() && !headerFile.delete())
+			throw new IOException("Unable to delete " + headerFile);
+		
+		for(File file : directory.listFiles())
+		{
+			if(file.isFile())
+				file.delete();
+		}
+	}
+	
+	/**
+	 * Reads the number of rows in use from the header file, together with
+	 * <br>the item names. Anything written after the header file was saved
+	 * is ignored
+	 * 
+	 * @throws IOException If the header file or the dictionary cannot be read
+	 */
+	private void readHeader() throws IOException
+	{
+		File headerFile = new File(_directory, HEADER_FILE);
+		int numOfNames = 0;
+		
+		if(headerFile.isFile())
+		{
+			RecordInput in = DataFile.open(headerFile.getPath(),
+					DataFile.ARCHIVE);
+			try
+			{
+				_numOfOrders = in.readInt();
+				_numOfItems = in.readInt();
+				_numOfOrderIDBytes = in.readInt();
+				numOfNames = in.readInt();
+				_lastPaidSequenceNumber = in.readLong();
+				_numOfOrdersBeforeMembers = (in.getSchemaVersion() < 6) ?
+						_numOfOrders : in.readInt();
+				_numOfOrdersBeforeOutlets = (in.getSchemaVersion() < 7) ?
+						_numOfOrders : in.readInt();
+				_numOfForcedOrders = _numOfOrders;
+			}
+			finally
+			{
+				in.close();
+			}
+			
+			// Item rows archived before item IDs were kept read as no item ID
+			_itemIDs.ensureCapacity(_numOfItems);
+		}
+		
+		long namesLength = 0;
+		
+		if(numOfNames > 0)
+		{
+			RecordInput in = new RecordInput(new FileInputStream(
+					new File(_directory, NAMES_FILE)),
+					DataFile.CURRENT_SCHEMA_VERSION);
+			try
+			{
+				for(int nameID = 0; nameID < numOfNames; nameID++)
+				{
+					String itemName = in.readString();
+					
+					addItemName(itemName);
+					namesLength += 4 + itemName.getBytes(RecordOutput.UTF_8).length;
+				}
+			}
+			finally
+			{
+				in.close();
+			}
+		}
+		
+		// Names added after the header file was saved are written again
+		_namesFile.setLength(namesLength);
+	}
+	
+	/**
+	 * Adds an item name to the in-memory dictionary
+	 * 
+	 * @param itemName The item name
+	 * 
+	 * @return The name ID given to the item name
+	 */
+	private int addItemName(String itemName)
+	{
+		int nameID = _itemNames.length;
+		
+		String[] itemNames = Arrays.copyOf(_itemNames, nameID + 1);
+		itemNames[nameID] = itemName;
+		
+		_itemNameIDMap.put(itemName, nameID);
+		_itemNames = itemNames;
+		
+		return nameID;
+	}
+	
+	/**
+	 * Gets the name ID of an item name, adding it to the dictionary file
+	 * <br>if it is new
+	 * 
+	 * @param itemName The item name
+	 * 
+	 * @return The name ID
+	 * 
+	 * @throws IOException If the item name cannot be added to the
+	 * 		   dictionary file
+	 */
+	private int getOrAddItemName(String itemName) throws IOException
+	{
+		Integer nameID = _itemNameIDMap.get(itemName);
+		
+		if(nameID != null)
+			return nameID;
+		
+		byte[] nameBytes = itemName.getBytes(RecordOutput.UTF_8);
+		ByteBuffer record = ByteBuffer.allocate(4 + nameBytes.length);
+		record.putInt(nameBytes.length).put(nameBytes).flip();
+		
+		FileChannel channel = _namesFile.getChannel();
+		while(record.hasRemaining())
+			channel.write(record, channel.size());
+		
+		return addItemName(itemName);
+	}
+	
+	/**
+	 * Archives a completed order, after its payment has been written to
+	 * <br>the order journal<p>
+	 * 
+	 * Orders must be archived in the order of their journal sequence
+	 * numbers
+	 * 
+	 * @param order The completed order
+	 * @param paidSequenceNumber The journal sequence number of the payment
+	 * 
+	 * @return The row number of the archived order
+	 * 
+	 * @throws IOException If the order cannot be archived
+	 */
+	public synchronized int append(Order order, long paidSequenceNumber)
+			throws IOException
+	{
+		if(_failed)
+			throw new IOException("Order archive is unavailable until restarted");
+		
+		try
+		{
+			return appendOrder(order, paidSequenceNumber);
+		}
+		catch(IOException ex)
+		{
+			_failed = true;
+			throw ex;
+		}
+	}
+	
+	/**
+	 * Writes the columns of a completed order, and makes it visible
+	 * <br>to readers
+	 * 
+	 * @param order The completed order
+	 * @param paidSequenceNumber The journal sequence number of the payment
+	 * 
+	 * @return The row number of the archived order
+	 * 
+	 * @throws IOException If the columns cannot be grown
+	 */
+	private int appendOrder(Order order, long paidSequenceNumber)
+			throws IOException
+	{
+		int row = _numOfOrders;
+		List<OrderItem> orderItems = order.getOrderItems();
+		byte[] orderIDBytes = order.getOrderID().getBytes(RecordOutput.UTF_8);
+		
+		int itemEnd = _numOfItems + orderItems.size();
+		int orderIDEnd = _numOfOrderIDBytes + orderIDBytes.length;
+		
+		_dateTimes.ensureCapacity(row + 1);
+		_tableNumbers.ensureCapacity(row + 1);
+		_outletIndexes.ensureCapacity(row + 1);
+		_staffIDs.ensureCapacity(row + 1);
+		_customerIDs.ensureCapacity(row + 1);
+		_numsOfPeople.ensureCapacity(row + 1);
+		_originalTotalCents.ensureCapacity(row + 1);
+		_nettTotalCents.ensureCapacity(row + 1);
+		_members.ensureCapacity(row + 1);
+		_itemEnds.ensureCapacity(row + 1);
+		_orderIDEnds.ensureCapacity(row + 1);
+		_orderIDBytes.ensureCapacity(orderIDEnd);
+		
+		_itemNameIDs.ensureCapacity(itemEnd);
+		_itemIDs.ensureCapacity(itemEnd);
+		_itemPriceCents.ensureCapacity(itemEnd);
+		_itemQuantities.ensureCapacity(itemEnd);
+		
+		int item = _numOfItems;
+		for(OrderItem orderItem : orderItems)
+		{
+			_itemNameIDs.putInt(item, getOrAddItemName(orderItem.getName()));
+			_itemIDs.putInt(item, orderItem.getItemID());
+			_itemPriceCents.putLong(item, toCents(orderItem.getPrice()));
+			_itemQuantities.putInt(item, orderItem.getQuantity());
+			item++;
+		}
+		
+		_orderIDBytes.putBytes(_numOfOrderIDBytes, orderIDBytes);
+		
+		_dateTimes.putLong(row, order.getOrderTimeInMillis());
+		_tableNumbers.putInt(row, order.getTableNumber());
+		_outletIndexes.putInt(row, order.getOutletIndex());
+		_staffIDs.putInt(row, order.getStaffID());
+		_customerIDs.putInt(row, order.getCustomerID());
+		_numsOfPeople.putInt(row, order.getNumOfPeople());
+		_originalTotalCents.putLong(row, toCents(order.getOriginalTotalPrice()));
+		_nettTotalCents.putLong(row, toCents(order.getNettTotalPrice()));
+		_members.putByte(row, (byte) (order.isMember() ? 1 : 0));
+		_itemEnds.putInt(row, itemEnd);
+		_orderIDEnds.putInt(row, orderIDEnd);
+		
+		_numOfItems = itemEnd;
+		_numOfOrderIDBytes = orderIDEnd;
+		_lastPaidSequenceNumber = paidSequenceNumber;
+		
+		// Publishes the order to readers
+		_numOfOrders = row + 1;
+		
+		return row;
+	}
+	
+	/**
+	 * Converts a price to a whole number of cents
+	 * 
+	 * @param price The price in dollars
+	 * 
+	 * @return The price in cents
+	 */
+	private static long toCents(double price) {
+		return Math.round(price * CENTS_PER_DOLLAR);
+	}
+	
+	/**
+	 * Forces the archived orders to the storage device, then saves the
+	 * <br>number of rows in use to the header file
+	 * 
+	 * @throws IOException If the header file cannot be saved
+	 */
+	public synchronized void force() throws IOException
+	{
+		if(_numOfForcedOrders == _numOfOrders)
+			return;
+		
+		_dateTimes.force();
+		_tableNumbers.force();
+		_outletIndexes.force();
+		_staffIDs.force();
+		_customerIDs.force();
+		_numsOfPeople.force();
+		_originalTotalCents.force();
+		_nettTotalCents.force();
+		_members.force();
+		_itemEnds.force();
+		_orderIDEnds.force();
+		_orderIDBytes.force();
+		_itemNameIDs.force();
+		_itemIDs.force();
+		_itemPriceCents.force();
+		_itemQuantities.force();
+		_namesFile.getChannel().force(false);
+		
+		RecordOutput out = DataFile.create(
+				new File(_directory, HEADER_FILE).getPath(), DataFile.ARCHIVE);
+		try
+		{
+			out.writeInt(_numOfOrders);
+			out.writeInt(_numOfItems);
+			out.writeInt(_numOfOrderIDBytes);
+			out.writeInt(_itemNames.length);
+			out.writeLong(_lastPaidSequenceNumber);
+			out.writeInt(_numOfOrdersBeforeMembers);
+			out.writeInt(_numOfOrdersBeforeOutlets);
+		}
+		catch(IOException ex)
+		{
+			out.abort();
+			throw ex;
+		}
+		
+		out.close();
+		
+		_numOfForcedOrders = _numOfOrders;
+	}
+	
+	/**
+	 * Gets the journal sequence number of the payment of the last order
+	 * archived
+	 * 
+	 * @return The sequence number, -1 if no orders have been archived
+	 */
+	public synchronized long getLastPaidSequenceNumber() {
+		return _lastPaidSequenceNumber;
+	}
+	
+	/**
+	 * Gets the number of orders archived
+	 * 
+	 * @return The number of orders, rows from 0 up to this number can
+	 * 		   be read
+	 */
+	public int getNumOfOrders() {
+		return _numOfOrders;
+	}
+	
+	/**
+	 * Gets the date/time that an archived order was made
+	 * 
+	 * @param row The row number of the order
+	 * 
+	 * @return The date/time, in epoch milliseconds
+	 */
+	public long getOrderDateTimeMillis(int row) {
+		return _dateTimes.getLong(row);
+	}
+	
+	/**
+	 * Gets the table number of an archived order
+	 * 
+	 * @param row The row number of the order
+	 * 
+	 * @return The table number, within the outlet of the order
+	 */
+	public int getTableNumber(int row) {
+		return _tableNumbers.getInt(row);
+	}
+	
+	/**
+	 * Gets the outlet that an archived order was taken at
+	 * 
+	 * @param row The row number of the order
+	 * 
+	 * @return The index of the outlet, in the order of the floor plan file
+	 */
+	public int getOutletIndex(int row)
+	{
+		if(row < _numOfOrdersBeforeOutlets)
+			return 0;
+		
+		return _outletIndexes.getInt(row);
+	}
+	
+	/**
+	 * Gets the staff ID of the staff who took an archived order
+	 * 
+	 * @param row The row number of the order
+	 * 
+	 * @return The staff ID
+	 */
+	public int getStaffID(int row) {
+		return _staffIDs.getInt(row);
+	}
+	
+	/**
+	 * Gets the customer ID of the customer of an archived order
+	 * 
+	 * @param row The row number of the order
+	 * 
+	 * @return The customer ID
+	 */
+	public int getCustomerID(int row) {
+		return _customerIDs.getInt(row);
+	}
+	
+	/**
+	 * Gets the number of people at the table of an archived order
+	 * 
+	 * @param row The row number of the order
+	 * 
+	 * @return The number of people
+	 */
+	public int getNumOfPeople(int row) {
+		return _numsOfPeople.getInt(row);
+	}
+	
+	/**
+	 * Gets the original price of an archived order
+	 * 
+	 * @param row The row number of the order
+	 * 
+	 * @return The original price, in cents
+	 */
+	public long getOriginalTotalCents(int row) {
+		return _originalTotalCents.getLong(row);
+	}
+	
+	/**
+	 * Gets the nett price paid for an archived order
+	 * 
+	 * @param row The row number of the order
+	 * 
+	 * @return The nett price, in cents
+	 */
+	public long getNettTotalCents(int row) {
+		return _nettTotalCents.getLong(row);
+	}
+	
+	/**
+	 * Gets the first order item row of an archived order
+	 * 
+	 * @param row The row number of the order
+	 * 
+	 * @return The first order item row
+	 */
+	public int getFirstItem(int row) {
+		return (row == 0) ? 0 : _itemEnds.getInt(row - 1);
+	}
+	
+	/**
+	 * Gets the order item row after the last order item of an archived order
+	 * 
+	 * @param row The row number of the order
+	 * 
+	 * @return The order item row after the last one
+	 */
+	public int getItemEnd(int row) {
+		return _itemEnds.getInt(row);
+	}
+	
+	/**
+	 * Gets the name ID of an archived order item
+	 * 
+	 * @param item The order item row
+	 * 
+	 * @return The name ID, see {@link #getItemName(int)}
+	 */
+	public int getItemNameID(int item) {
+		return _itemNameIDs.getInt(item);
+	}
+	
+	/**
+	 * Gets the item ID of the menu item of an archived order item
+	 * 
+	 * @param item The order item row
+	 * 
+	 * @return The item ID, {@link MenuItem#NO_ITEM_ID} or below for items
+	 * 		   ordered before<br>menu items had item IDs
+	 */
+	public int getItemID(int item) {
+		return _itemIDs.getInt(item);
+	}
+	
+	/**
+	 * Gets the price of an archived order item
+	 * 
+	 * @param item The order item row
+	 * 
+	 * @return The price of a single item, in cents
+	 */
+	public long getItemPriceCents(int item) {
+		return _itemPriceCents.getLong(item);
+	}
+	
+	/**
+	 * Gets the quantity of an archived order item
+	 * 
+	 * @param item The order item row
+	 * 
+	 * @return The quantity
+	 */
+	public int getItemQuantity(int item) {
+		return _itemQuantities.getInt(item);
+	}
+	
+	/**
+	 * Gets the number of item names in the dictionary
+	 * 
+	 * @return The number of item names, name IDs run from 0 up to this number
+	 */
+	public int getNumOfItemNames() {
+		return _itemNames.length;
+	}
+	
+	/**
+	 * Gets an item name from the dictionary
+	 * 
+	 * @param nameID The name ID
+	 * 
+	 * @return The item name
+	 */
+	public String getItemName(int nameID) {
+		return _itemNames[nameID];
+	}
+	
+	/**
+	 * Looks up the name ID of an item name
+	 * 
+	 * @param itemName The item name
+	 * 
+	 * @return The name ID, -1 if the item has never been archived
+	 */
+	public synchronized int findItemName(String itemName)
+	{
+		Integer nameID = _itemNameIDMap.get(itemName);
+		return (nameID == null) ? -1 : nameID;
+	}
+	
+	/**
+	 * Gets the order ID of an archived order
+	 * 
+	 * @param row The row number of the order
+	 * 
+	 * @return The order ID
+	 */
+	public String getOrderID(int row)
+	{
+		int orderIDStart = (row == 0) ? 0 : _orderIDEnds.getInt(row - 1);
+		byte[] orderIDBytes = new byte[_orderIDEnds.getInt(row) - orderIDStart];
+		
+		_orderIDBytes.getBytes(orderIDStart, orderIDBytes);
+		
+		return new String(orderIDBytes, RecordOutput.UTF_8);
+	}
+	
+	/**
+	 * Reads an archived order back into an order, for displaying<br>
+	 * Orders archived before the archive kept membership take the current
+	 * <br>membership of their customer
+	 * 
+	 * @param row The row number of the order
+	 * 
+	 * @return The order, with its order items
+	 */
+	public Order getOrder(int row)
+	{
+		int firstItem = getFirstItem(row);
+		int itemEnd = getItemEnd(row);
+		
+		List<OrderItem> orderItems = new ArrayList<OrderItem>(itemEnd - firstItem);
+		for(int item = firstItem; item < itemEnd; item++)
+		{
+			orderItems.add(new OrderItem(getItemID(item),
+					getItemName(getItemNameID(item)),
+					(double) getItemPriceCents(item) / CENTS_PER_DOLLAR,
+					getItemQuantity(item)));
+		}
+		
+		Order order = new Order(getStaffID(row), getCustomerID(row),
+				getTableNumber(row), getNumOfPeople(row),
+				(double) getOriginalTotalCents(row) / CENTS_PER_DOLLAR,
+				(double) getNettTotalCents(row) / CENTS_PER_DOLLAR,
+				getOrderDateTimeMillis(row), getOrderID(row), orderItems);
+		
+		order.setOutletIndex(getOutletIndex(row));
+		
+		if(row >= _numOfOrdersBeforeMembers)
+			order.setMember(_members.getByte(row) != 0);
+		
+		return order;
+	}
+	
+	/**
+	 * Saves the archive and closes its files
+	 * 
+	 * @throws IOException If the archive cannot be saved
+	 */
+	@Override
+	public synchronized void close() throws IOException
+	{
+		try
+		{
+			if(!_failed)
+				force();
+		}
+		finally
+		{
+			_dateTimes.close();
+			_tableNumbers.close();
+			_outletIndexes.close();
+			_staffIDs.close();
+			_customerIDs.close();
+			_numsOfPeople.close();
+			_originalTotalCents.close();
+			_nettTotalCents.close();
+			_members.close();
+			_itemEnds.close();
+			_orderIDEnds.close();
+			_orderIDBytes.close();
+			_itemNameIDs.close();
+			_itemIDs.close();
+			_itemPriceCents.close();
+			_itemQuantities.close();
+			_namesFile.close();
+		}
+	}
+}
\ No newline at end of file
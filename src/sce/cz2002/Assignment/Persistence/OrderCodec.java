@@ -0,0 +1,243 @@
+package sce.cz2002.Assignment.Persistence;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import sce.cz2002.Assignment.Classes.MenuItem;
+import sce.cz2002.Assignment.Classes.Order;
+import sce.cz2002.Assignment.Classes.OrderItem;
+
+/**
+ * Reads and writes orders using the record format<p>
+ * 
+ * Layout: number of orders followed by one record per order, each followed
+ * <br>by its order item records. Order date/times are stored as epoch
+ * milliseconds,<br>and order item names are stored as shared strings since
+ * the same menu items<br>are ordered over and over again<p>
+ * 
+ * From schema version 2, the order file is a snapshot of the order journal,
+ * and also<br>holds the ongoing orders and the sequence number of the last
+ * journal record included<p>
+ * 
+ * From schema version 3, each completed transaction is followed by the
+ * sequence number<br>of its payment record<p>
+ * 
+ * From schema version 4, each order item starts with the item ID of the
+ * menu item ordered<p>
+ * 
+ * From schema version 5, each order holds the version of the menu that it
+ * was<br>last priced against<p>
+ * 
+ * From schema version 6, each order holds whether the customer was a
+ * member, so<br>the membership discount given stays the same when the
+ * membership changes<p>
+ * 
+ * From schema version 7, each order holds the index of the outlet that
+ * it was<br>taken at
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class OrderCodec
+{
+	/**
+	 * Writes a snapshot of all orders
+	 * 
+	 * @param out The record output to write to
+	 * @param snapshot The snapshot to be written
+	 * 
+	 * @throws IOException If the snapshot cannot be written
+	 */
+	public static void writeSnapshot(RecordOutput out, OrderSnapshot snapshot)
+			throws IOException
+	{
+		List<Order> completedOrders = snapshot.getCompletedOrders();
+		
+		out.writeInt(completedOrders.size());
+		for(int index = 0; index < completedOrders.size(); index++)
+		{
+			writeOrder(out, completedOrders.get(index));
+			out.writeLong(snapshot.getPaidSequenceNumber(index));
+		}
+		
+		writeOrders(out, snapshot.getCurrentOrders());
+		out.writeLong(snapshot.getLastSequenceNumber());
+	}
+	
+	/**
+	 * Reads a snapshot of all orders<br>
+	 * Order files written before schema version 2 only hold completed
+	 * transactions,<br>and before schema version 3 the completed
+	 * transactions have no payment record
+	 * 
+	 * @param in The record input to read from
+	 * 
+	 * @return The snapshot read
+	 * 
+	 * @throws IOException If the snapshot cannot be read
+	 */
+	public static OrderSnapshot readSnapshot(RecordInput in) throws IOException
+	{
+		if(in.getSchemaVersion() < 3)
+		{
+			List<Order> completedOrders = readOrders(in);
+			
+			if(in.getSchemaVersion() < 2)
+				return new OrderSnapshot(completedOrders, new ArrayList<Order>(), 0);
+			
+			List<Order> currentOrders = readOrders(in);
+			long lastSequenceNumber = in.readLong();
+			
+			return new OrderSnapshot(completedOrders, currentOrders,
+					lastSequenceNumber);
+		}
+		
+		OrderSnapshot snapshot = new OrderSnapshot();
+		
+		int numOfCompletedOrders = in.readInt();
+		for(int index = 0; index < numOfCompletedOrders; index++)
+		{
+			Order completedOrder = readOrder(in);
+			snapshot.addCompletedOrder(completedOrder, in.readLong());
+		}
+		
+		for(Order currentOrder : readOrders(in))
+		{
+			snapshot.putCurrentOrder(currentOrder);
+		}
+		
+		snapshot.setLastSequenceNumber(in.readLong());
+		
+		return snapshot;
+	}
+	
+	/**
+	 * Writes a list of orders
+	 * 
+	 * @param out The record output to write to
+	 * @param orders The list of orders
+	 * 
+	 * @throws IOException If the orders cannot be written
+	 */
+	public static void writeOrders(RecordOutput out, List<Order> orders)
+			throws IOException
+	{
+		out.writeInt(orders.size());
+		for(Order order : orders)
+		{
+			writeOrder(out, order);
+		}
+	}
+	
+	/**
+	 * Reads a list of orders
+	 * 
+	 * @param in The record input to read from
+	 * 
+	 * @return The list of orders
+	 * 
+	 * @throws IOException If the orders cannot be read
+	 */
+	public static List<Order> readOrders(RecordInput in) throws IOException
+	{
+		int numOfOrders = in.readInt();
+		List<Order> orders = new ArrayList<Order>(numOfOrders);
+		
+		for(int currOrder = 0; currOrder < numOfOrders; currOrder++)
+		{
+			orders.add(readOrder(in));
+		}
+		
+		return orders;
+	}
+	
+	/**
+	 * Writes a single order together with its order items
+	 * 
+	 * @param out The record output to write to
+	 * @param order The order to be written
+	 * 
+	 * @throws IOException If the order cannot be written
+	 */
+	public static void writeOrder(RecordOutput out, Order order)
+			throws IOException
+	{
+		out.writeString(order.getOrderID());
+		out.writeInt(order.getStaffID());
+		out.writeInt(order.getCustomerID());
+		out.writeInt(order.getTableNumber());
+		out.writeInt(order.getNumOfPeople());
+		out.writeDouble(order.getOriginalTotalPrice());
+		out.writeDouble(order.getNettTotalPrice());
+		out.writeLong(order.getOrderTimeInMillis());
+		out.writeLong(order.getMenuVersion());
+		out.writeBoolean(order.isMember());
+		out.writeInt(order.getOutletIndex());
+		
+		List<OrderItem> orderItems = order.getOrderItems();
+		
+		out.writeInt(orderItems.size());
+		for(OrderItem orderItem : orderItems)
+		{
+			out.writeInt(orderItem.getItemID());
+			out.writeSharedString(orderItem.getName());
+			out.writeDouble(orderItem.getPrice());
+			out.writeInt(orderItem.getQuantity());
+		}
+	}
+	
+	/**
+	 * Reads a single order together with its order items<br>
+	 * Order items written before schema version 4 have no item ID, orders
+	 * written<br>before schema version 5 have menu version 0, and orders
+	 * written before<br>schema version 6 take the current membership of
+	 * their customer, and<br>orders written before schema version 7 were
+	 * taken at the first outlet
+	 * 
+	 * @param in The record input to read from
+	 * 
+	 * @return The order read
+	 * 
+	 * @throws IOException If the order cannot be read
+	 */
+	public static Order readOrder(RecordInput in) throws IOException
+	{
+		String orderID = in.readString();
+		int staffID = in.readInt();
+		int customerID = in.readInt();
+		int tableNumber = in.readInt();
+		int numOfPeople = in.readInt();
+		double originalTotalPrice = in.readDouble();
+		double nettTotalPrice = in.readDouble();
+		long orderTimeMillis = in.readLong();
+		long menuVersion = (in.getSchemaVersion() < 5) ? 0 : in.readLong();
+		boolean isMember = (in.getSchemaVersion() >= 6) && in.readBoolean();
+		int outletIndex = (in.getSchemaVersion() < 7) ? 0 : in.readInt();
+		
+		int numOfOrderItems = in.readInt();
+		List<OrderItem> orderItems = new ArrayList<OrderItem>(numOfOrderItems);
+		
+		for(int currItem = 0; currItem < numOfOrderItems; currItem++)
+		{
+			int itemID = (in.getSchemaVersion() < 4) ? MenuItem.NO_ITEM_ID
+					: in.readInt();
+			String name = in.readSharedString();
+			double price = in.readDouble();
+			int quantity = in.readInt();
+			
+			orderItems.add(new OrderItem(itemID, name, price, quantity));
+		}
+		
+		Order order = new Order(staffID, customerID, tableNumber,
+				numOfPeople, originalTotalPrice, nettTotalPrice,
+				orderTimeMillis, orderID, orderItems);
+		order.setMenuVersion(menuVersion);
+		order.setOutletIndex(outletIndex);
+		
+		if(in.getSchemaVersion() >= 6)
+			order.setMember(isMember);
+		
+		return order;
+	}
+}
\ No newline at end of file
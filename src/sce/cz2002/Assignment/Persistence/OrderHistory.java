@@ -0,0 +1,815 @@
+package sce.cz2002.Assignment.Persistence;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import sce.cz2002.Assignment.Classes.DateTimes;
+import sce.cz2002.Assignment.Classes.Order;
+
+/**
+ * The completed transactions, partitioned by the month they were made in<p>
+ * 
+ * Each month is kept in its own {@link OrderArchive}, in a directory
+ * named after the<br>month (e.g. 2014-11). Next to the archive, a summary
+ * file holds the revenue and<br>number of orders of each day of the month.
+ * The summaries of every month are<br>always in memory, so revenue totals
+ * never open an archive<p>
+ * 
+ * Archives are only opened when the orders of their month are read or
+ * added to, and<br>only the most recently used archives are kept open.
+ * Queries over a range of time<br>only open the archives of the months
+ * that overlap the range<p>
+ * 
+ * Within a month, orders must be archived in the order of their journal
+ * sequence<br>numbers. A summary is saved after its archive has been
+ * forced, and is rebuilt<br>from the archive if the two do not agree
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class OrderHistory implements Closeable
+{
+	/**
+	 * Largest number of days in a month
+	 */
+	private static final int MAX_DAYS_IN_MONTH = 31;
+	
+	/**
+	 * Number of months in a year
+	 */
+	private static final int MONTHS_PER_YEAR = 12;
+	
+	/**
+	 * The year of epoch month 0
+	 */
+	private static final int EPOCH_YEAR = 1970;
+	
+	/**
+	 * Name of the summary file of each partition
+	 */
+	private static final String SUMMARY_FILE = "summary.dat";
+	
+	/**
+	 * A single month of completed transactions
+	 * 
+	 * @author Jin Yao
+	 * 
+	 */
+	private static class Partition
+	{
+		/**
+		 * The month, as a number of months since January 1970
+		 */
+		private final int _epochMonth;
+		
+		/**
+		 * The directory holding the archive and summary of the month
+		 */
+		private final File _directory;
+		
+		/**
+		 * Total nett revenue of each day of the month in cents, indexed
+		 * <br>by (day of month - 1)
+		 */
+		private final long[] _dayRevenueCents;
+		
+		/**
+		 * Number of orders made on each day of the month, indexed by
+		 * <br>(day of month - 1)
+		 */
+		private final int[] _dayNumOfOrders;
+		
+		/**
+		 * Number of orders archived
+		 */
+		private int _numOfOrders;
+		
+		/**
+		 * Journal sequence number of the payment of the last order archived
+		 */
+		private long _lastPaidSequenceNumber;
+		
+		/**
+		 * Whether the summary has changed since it was last saved
+		 */
+		private boolean _summaryChanged;
+		
+		/**
+		 * The archive of the month, null while closed
+		 */
+		private OrderArchive _orderArchive;
+		
+		/**
+		 * Creates an empty partition
+		 * 
+		 * @param epochMonth The month
+		 * @param directory The directory of the partition
+		 */
+		private Partition(int epochMonth, File directory)
+		{
+			_epochMonth = epochMonth;
+			_directory = directory;
+			
+			_dayRevenueCents = new long[MAX_DAYS_IN_MONTH];
+			_dayNumOfOrders = new int[MAX_DAYS_IN_MONTH];
+			_lastPaidSequenceNumber = -1;
+		}
+	}
+	
+	/**
+	 * The directory holding a directory for each partition
+	 */
+	private final File _directory;
+	
+	/**
+	 * Largest number of archives kept open at once
+	 */
+	private final int _maxOpenPartitions;
+	
+	/**
+	 * Every partition, keyed by epoch month
+	 */
+	private final TreeMap<Integer, Partition> _partitions;
+	
+	/**
+	 * Partitions with an open archive, from least to most recently used
+	 */
+	private final LinkedHashMap<Integer, Partition> _openPartitions;
+	
+	/**
+	 * Number of orders archived over all partitions
+	 */
+	private volatile int _numOfOrders;
+	
+	/**
+	 * Creates an order history<br>
+	 * The history has to be opened before orders can be read or archived
+	 * 
+	 * @param directoryPath The path of the directory holding the partitions
+	 * @param maxOpenPartitions Largest number of archives kept open at once,
+	 * 		  at least 1
+	 */
+	public OrderHistory(String directoryPath, int maxOpenPartitions)
+	{
+		_directory = new File(directoryPath);
+		_maxOpenPartitions = Math.max(maxOpenPartitions, 1);
+		
+		_partitions = new TreeMap<Integer, Partition>();
+		_openPartitions = new LinkedHashMap<Integer, Partition>(16, 0.75f, true);
+	}
+	
+	/**
+	 * Gets the name of the directory of a partition
+	 * 
+	 * @param epochMonth The month of the partition
+	 * 
+	 * @return The directory name, e.g. 2014-11
+	 */
+	private static String toDirectoryName(int epochMonth)
+	{
+		return String.format("%04d-%02d", DateTimes.getYearOfMonth(epochMonth),
+				DateTimes.getMonthOfYear(epochMonth));
+	}
+	
+	/**
+	 * Gets the month of a partition from the name of its directory
+	 * 
+	 * @param directoryName The directory name
+	 * 
+	 * @return The epoch month, -1 if the name is not that of a partition
+	 */
+	private static int parseDirectoryName(String directoryName)
+	{
+		if(directoryName.length() != 7 || directoryName.charAt(4) != '-')
+			return -1;
+		
+		try
+		{
+			int year = Integer.parseInt(directoryName.substring(0, 4));
+			int month = Integer.parseInt(directoryName.substring(5));
+			
+			if(year < EPOCH_YEAR || month < 1 || month > MONTHS_PER_YEAR)
+				return -1;
+			
+			return DateTimes.toEpochMonth(year, month);
+		}
+		catch(NumberFormatException ex)
+		{
+			return -1;
+		}
+	}
+	
+	/**
+	 * Opens the history, reading the summary of every partition<p>
+	 * 
+	 * An archive written before the orders were partitioned is split into
+	 * partitions first
+	 * 
+	 * @throws IOException If the directory cannot be created, or a
+	 * 		   partition cannot be read
+	 */
+	public synchronized void open() throws IOException
+	{
+		if(!_directory.isDirectory())
+		{
+			if(!_directory.mkdirs())
+				throw new IOException("Unable to create " + _directory);
+			
+			DataFile.syncDirectory(_directory.getAbsoluteFile().getParentFile());
+		}
+		
+		if(OrderArchive.exists(_directory))
+			partitionArchive();
+		
+		File[] partitionDirectories = _directory.listFiles();
+		if(partitionDirectories == null)
+			throw new IOException("Unable to read " + _directory);
+		
+		for(File partitionDirectory : partitionDirectories)
+		{
+			int epochMonth = parseDirectoryName(partitionDirectory.getName());
+			
+			if(epochMonth >= 0 && partitionDirectory.isDirectory())
+				loadPartition(new Partition(epochMonth, partitionDirectory));
+		}
+	}
+	
+	/**
+	 * Splits an archive holding the orders of every month into partitions,
+	 * <br>then removes it. Partitions left over from an earlier attempt
+	 * are removed first
+	 * 
+	 * @throws IOException If the archive cannot be split
+	 */
+	private void partitionArchive() throws IOException
+	{
+		for(File file : _directory.listFiles())
+		{
+			if(file.isDirectory() && parseDirectoryName(file.getName()) >= 0)
+				deleteDirectory(file);
+		}
+		
+		OrderArchive orderArchive = OrderArchive.open(_directory.getPath());
+		try
+		{
+			// The archive only kept the last payment, which all its orders
+			// were paid for at or before
+			long paidSequenceNumber = orderArchive.getLastPaidSequenceNumber();
+			
+			for(int row = 0; row < orderArchive.getNumOfOrders(); row++)
+			{
+				append(orderArchive.getOrder(row), paidSequenceNumber);
+			}
+		}
+		finally
+		{
+			orderArchive.close();
+		}
+		
+		closePartitions();
+		
+		_partitions.clear();
+		_numOfOrders = 0;
+		
+		OrderArchive.delete(_directory);
+	}
+	
+	/**
+	 * Deletes a partition directory and the files in it
+	 * 
+	 * @param directory The partition directory
+	 */
+	private static void deleteDirectory(File directory)
+	{
+		File[] files = directory.listFiles();
+		
+		if(files != null)
+		{
+			for(File file : files)
+				file.delete();
+		}
+		
+		directory.delete();
+	}
+	
+	/**
+	 * Reads the summary of a partition, rebuilding it from the archive if
+	 * <br>it is missing or behind the archive
+	 * 
+	 * @param partition The partition
+	 * 
+	 * @throws IOException If the summary or the archive cannot be read
+	 */
+	private void loadPartition(Partition partition) throws IOException
+	{
+		File summaryFile = new File(partition._directory, SUMMARY_FILE);
+		
+		if(summaryFile.isFile())
+		{
+			RecordInput in = DataFile.open(summaryFile.getPath(),
+					DataFile.PARTITION_SUMMARY);
+			try
+			{
+				partition._numOfOrders = in.readInt();
+				partition._lastPaidSequenceNumber = in.readLong();
+				
+				for(int dayIndex = 0; dayIndex < MAX_DAYS_IN_MONTH; dayIndex++)
+				{
+					partition._dayRevenueCents[dayIndex] = in.readLong();
+					partition._dayNumOfOrders[dayIndex] = in.readInt();
+				}
+			}
+			finally
+			{
+				in.close();
+			}
+		}
+		
+		_partitions.put(partition._epochMonth, partition);
+		
+		if(!summaryFile.isFile() || partition._numOfOrders !=
+				OrderArchive.readNumOfOrders(partition._directory))
+		{
+			summarize(partition);
+		}
+		
+		_numOfOrders += partition._numOfOrders;
+	}
+	
+	/**
+	 * Rebuilds the summary of a partition from its archive
+	 * 
+	 * @param partition The partition
+	 * 
+	 * @throws IOException If the archive cannot be opened
+	 */
+	private void summarize(Partition partition) throws IOException
+	{
+		OrderArchive orderArchive = getOrderArchive(partition);
+		
+		Arrays.fill(partition._dayRevenueCents, 0);
+		Arrays.fill(partition._dayNumOfOrders, 0);
+		
+		partition._numOfOrders = orderArchive.getNumOfOrders();
+		partition._lastPaidSequenceNumber =
+				orderArchive.getLastPaidSequenceNumber();
+		
+		for(int row = 0; row < partition._numOfOrders; row++)
+		{
+			int dayIndex = DateTimes.getDayOfMonth(DateTimes.toEpochDay(
+					orderArchive.getOrderDateTimeMillis(row))) - 1;
+			
+			partition._dayRevenueCents[dayIndex] +=
+					orderArchive.getNettTotalCents(row);
+			partition._dayNumOfOrders[dayIndex]++;
+		}
+		
+		partition._summaryChanged = true;
+	}
+	
+	/**
+	 * Gets the archive of a partition, opening it if needed<br>
+	 * The least recently used archives are closed once too many are open
+	 * 
+	 * @param partition The partition
+	 * 
+	 * @return The opened archive
+	 * 
+	 * @throws IOException If the archive cannot be opened, or an archive
+	 * 		   being closed cannot be saved
+	 */
+	private OrderArchive getOrderArchive(Partition partition)
+			throws IOException
+	{
+		if(partition._orderArchive != null)
+		{
+			// Marks the partition as the most recently used
+			_openPartitions.get(partition._epochMonth);
+			return partition._orderArchive;
+		}
+		
+		partition._orderArchive = OrderArchive.open(
+				partition._directory.getPath());
+		_openPartitions.put(partition._epochMonth, partition);
+		
+		Iterator<Partition> leastRecentlyUsed =
+				_openPartitions.values().iterator();
+		
+		while(_openPartitions.size() > _maxOpenPartitions)
+		{
+			Partition evictedPartition = leastRecentlyUsed.next();
+			leastRecentlyUsed.remove();
+			
+			closePartition(evictedPartition);
+		}
+		
+		return partition._orderArchive;
+	}
+	
+	/**
+	 * Forces the archive of a partition, then saves its summary if it
+	 * has changed
+	 * 
+	 * @param partition The partition, with its archive open
+	 * 
+	 * @throws IOException If the archive or the summary cannot be saved
+	 */
+	private static void savePartition(Partition partition) throws IOException
+	{
+		partition._orderArchive.force();
+		
+		if(!partition._summaryChanged)
+			return;
+		
+		RecordOutput out = DataFile.create(new File(partition._directory,
+				SUMMARY_FILE).getPath(), DataFile.PARTITION_SUMMARY);
+		try
+		{
+			out.writeInt(partition._numOfOrders);
+			out.writeLong(partition._lastPaidSequenceNumber);
+			
+			for(int dayIndex = 0; dayIndex < MAX_DAYS_IN_MONTH; dayIndex++)
+			{
+				out.writeLong(partition._dayRevenueCents[dayIndex]);
+				out.writeInt(partition._dayNumOfOrders[dayIndex]);
+			}
+		}
+		catch(IOException ex)
+		{
+			out.abort();
+			throw ex;
+		}
+		
+		out.close();
+		
+		partition._summaryChanged = false;
+	}
+	
+	/**
+	 * Saves a partition and closes its archive
+	 * 
+	 * @param partition The partition, with its archive open
+	 * 
+	 * @throws IOException If the partition cannot be saved
+	 */
+	private static void closePartition(Partition partition) throws IOException
+	{
+		try {
+			savePartition(partition);
+		} finally {
+			partition._orderArchive.close();
+			partition._orderArchive = null;
+		}
+	}
+	
+	/**
+	 * Saves every partition with an open archive, and closes the archives
+	 * 
+	 * @throws IOException If a partition cannot be saved
+	 */
+	private void closePartitions() throws IOException
+	{
+		IOException firstException = null;
+		
+		for(Partition partition : _openPartitions.values())
+		{
+			try {
+				closePartition(partition);
+			} catch (IOException ex) {
+				if(firstException == null)
+					firstException = ex;
+			}
+		}
+		
+		_openPartitions.clear();
+		
+		if(firstException != null)
+			throw firstException;
+	}
+	
+	/**
+	 * Archives a completed order into the partition of the month it was
+	 * made in,<br>after its payment has been written to the order journal
+	 * 
+	 * @param order The completed order
+	 * @param paidSequenceNumber The journal sequence number of the payment
+	 * 
+	 * @throws IOException If the order cannot be archived
+	 */
+	public synchronized void append(Order order, long paidSequenceNumber)
+			throws IOException
+	{
+		int epochDay = DateTimes.toEpochDay(order.getOrderTimeInMillis());
+		int epochMonth = DateTimes.toEpochMonthOfDay(epochDay);
+		Partition partition = _partitions.get(epochMonth);
+		
+		if(partition == null)
+		{
+			partition = new Partition(epochMonth,
+					new File(_directory, toDirectoryName(epochMonth)));
+			_partitions.put(epochMonth, partition);
+		}
+		
+		OrderArchive orderArchive = getOrderArchive(partition);
+		int row = orderArchive.append(order, paidSequenceNumber);
+		int dayIndex = DateTimes.getDayOfMonth(epochDay) - 1;
+		
+		partition._dayRevenueCents[dayIndex] += orderArchive.getNettTotalCents(row);
+		partition._dayNumOfOrders[dayIndex]++;
+		partition._numOfOrders++;
+		partition._lastPaidSequenceNumber = paidSequenceNumber;
+		partition._summaryChanged = true;
+		
+		_numOfOrders++;
+	}
+	
+	/**
+	 * Checks whether a completed order has already been archived
+	 * 
+	 * @param order The completed order
+	 * @param paidSequenceNumber The journal sequence number of the payment
+	 * 
+	 * @return True if the partition of the order has archived the payment,
+	 * 		   <br>whether or not it has been forced yet
+	 */
+	public synchronized boolean isArchived(Order order, long paidSequenceNumber)
+	{
+		Partition partition = _partitions.get(DateTimes.toEpochMonth(
+				order.getOrderTimeInMillis()));
+		
+		return partition != null &&
+				paidSequenceNumber <= partition._lastPaidSequenceNumber;
+	}
+	
+	/**
+	 * Forces the open archives to the storage device, and saves their
+	 * summaries<br>Archives that have been closed were saved when closed,
+	 * so every order archived<br>so far no longer needs the journal
+	 * 
+	 * @throws IOException If a partition cannot be saved
+	 */
+	public synchronized void force() throws IOException
+	{
+		for(Partition partition : _openPartitions.values())
+		{
+			savePartition(partition);
+		}
+	}
+	
+	/**
+	 * Gets the number of orders archived
+	 * 
+	 * @return The number of orders over all partitions
+	 */
+	public int getNumOfOrders() {
+		return _numOfOrders;
+	}
+	
+	/**
+	 * Gets the total nett revenue of a day, from the summary of its month
+	 * 
+	 * @param epochMonth The month
+	 * @param dayOfMonth The day of the month, from 1
+	 * 
+	 * @return The total nett revenue in cents, 0 if there were no sales
+	 */
+	public synchronized long getDayRevenueCents(int epochMonth, int dayOfMonth)
+	{
+		Partition partition = _partitions.get(epochMonth);
+		
+		return (partition == null) ? 0
+				: partition._dayRevenueCents[dayOfMonth - 1];
+	}
+	
+	/**
+	 * Gets the number of orders made on a day, from the summary of its month
+	 * 
+	 * @param epochMonth The month
+	 * @param dayOfMonth The day of the month, from 1
+	 * 
+	 * @return The number of orders
+	 */
+	public synchronized int getDayNumOfOrders(int epochMonth, int dayOfMonth)
+	{
+		Partition partition = _partitions.get(epochMonth);
+		
+		return (partition == null) ? 0
+				: partition._dayNumOfOrders[dayOfMonth - 1];
+	}
+	
+	/**
+	 * Gets the partitions that overlap a range of time
+	 * 
+	 * @param fromMillis The start of the range, in epoch milliseconds
+	 * @param toMillis The end of the range (exclusive)
+	 * 
+	 * @return The partitions, from the earliest month
+	 */
+	private Iterable<Partition> getPartitions(long fromMillis, long toMillis)
+	{
+		if(toMillis <= fromMillis)
+			return Collections.<Partition>emptyList();
+		
+		return _partitions.subMap(DateTimes.toEpochMonth(fromMillis), true,
+				DateTimes.toEpochMonth(toMillis - 1), true).values();
+	}
+	
+	/**
+	 * Gets the months with completed transactions within a range of time
+	 * 
+	 * @param fromMillis The start of the range, in epoch milliseconds
+	 * @param toMillis The end of the range (exclusive)
+	 * 
+	 * @return The epoch months, from the earliest
+	 */
+	public synchronized int[] getEpochMonths(long fromMillis, long toMillis)
+	{
+		List<Integer> epochMonths = new ArrayList<Integer>();
+		
+		for(Partition partition : getPartitions(fromMillis, toMillis))
+		{
+			epochMonths.add(partition._epochMonth);
+		}
+		
+		int[] result = new int[epochMonths.size()];
+		for(int index = 0; index < result.length; index++)
+			result[index] = epochMonths.get(index);
+		
+		return result;
+	}
+	
+	/**
+	 * Gets the archive of a month, opening it if needed, for reading by
+	 * <br>many threads at once<p>
+	 * 
+	 * The archive may be closed once other months are opened. It stays
+	 * readable, as<br>its mappings are only released once it is no longer
+	 * used, but it no longer sees<br>orders archived after it was closed
+	 * 
+	 * @param epochMonth The month
+	 * 
+	 * @return The archive, null if there are no orders in the month
+	 * 
+	 * @throws IOException If the archive cannot be opened
+	 */
+	public synchronized OrderArchive getOrderArchive(int epochMonth)
+			throws IOException
+	{
+		Partition partition = _partitions.get(epochMonth);
+		
+		return (partition == null) ? null : getOrderArchive(partition);
+	}
+	
+	/**
+	 * Reads back the archived orders made within a range of time<br>
+	 * Only the partitions that overlap the range are opened
+	 * 
+	 * @param fromMillis The start of the range, in epoch milliseconds
+	 * @param toMillis The end of the range (exclusive)
+	 * 
+	 * @return A new list of the orders, in the order they were archived
+	 * 		   <br>within each month
+	 * 
+	 * @throws IOException If an archive cannot be opened
+	 */
+	public synchronized List<Order> getOrders(long fromMillis, long toMillis)
+			throws IOException
+	{
+		List<Order> orders = new ArrayList<Order>();
+		
+		for(Partition partition : getPartitions(fromMillis, toMillis))
+		{
+			OrderArchive orderArchive = getOrderArchive(partition);
+			
+			for(int row = 0; row < partition._numOfOrders; row++)
+			{
+				long orderMillis = orderArchive.getOrderDateTimeMillis(row);
+				
+				if(orderMillis >= fromMillis && orderMillis < toMillis)
+					orders.add(orderArchive.getOrder(row));
+			}
+		}
+		
+		return orders;
+	}
+	
+	/**
+	 * Gets the total quantity sold of every item within a range of time
+	 * <br>Only the partitions that overlap the range are opened
+	 * 
+	 * @param fromMillis The start of the range, in epoch milliseconds
+	 * @param toMillis The end of the range (exclusive)
+	 * 
+	 * @return A new map of item name to quantity sold
+	 * 
+	 * @throws IOException If an archive cannot be opened
+	 */
+	public synchronized Map<String, Integer> getItemQuantities(
+			long fromMillis, long toMillis) throws IOException
+	{
+		Map<String, Integer> itemQuantities = new HashMap<String, Integer>();
+		
+		for(Partition partition : getPartitions(fromMillis, toMillis))
+		{
+			OrderArchive orderArchive = getOrderArchive(partition);
+			
+			for(int row = 0; row < partition._numOfOrders; row++)
+			{
+				long orderMillis = orderArchive.getOrderDateTimeMillis(row);
+				
+				if(orderMillis < fromMillis || orderMillis >= toMillis)
+					continue;
+				
+				int itemEnd = orderArchive.getItemEnd(row);
+				for(int item = orderArchive.getFirstItem(row); item < itemEnd; item++)
+				{
+					String itemName = orderArchive.getItemName(
+							orderArchive.getItemNameID(item));
+					Integer quantity = itemQuantities.get(itemName);
+					
+					itemQuantities.put(itemName, orderArchive.getItemQuantity(item)
+							+ ((quantity == null) ? 0 : quantity));
+				}
+			}
+		}
+		
+		return itemQuantities;
+	}
+	
+	/**
+	 * Gets the total quantity sold of every menu item within a range of
+	 * time,<br>by item ID. Only the partitions that overlap the range are
+	 * opened
+	 * 
+	 * @param fromMillis The start of the range, in epoch milliseconds
+	 * @param toMillis The end of the range (exclusive)
+	 * 
+	 * @return A new array of quantity sold, indexed by item ID. Item IDs
+	 * 		   past the end<br>of the array were not sold. Items ordered
+	 * 		   before menu items had item IDs<br>are counted at index 0
+	 * 
+	 * @throws IOException If an archive cannot be opened
+	 */
+	public synchronized int[] getQuantitiesByItemID(long fromMillis,
+			long toMillis) throws IOException
+	{
+		int[] quantities = new int[1];
+		
+		for(Partition partition : getPartitions(fromMillis, toMillis))
+		{
+			OrderArchive orderArchive = getOrderArchive(partition);
+			
+			for(int row = 0; row < partition._numOfOrders; row++)
+			{
+				long orderMillis = orderArchive.getOrderDateTimeMillis(row);
+				
+				if(orderMillis < fromMillis || orderMillis >= toMillis)
+					continue;
+				
+				int itemEnd = orderArchive.getItemEnd(row);
+				for(int item = orderArchive.getFirstItem(row); item < itemEnd; item++)
+				{
+					int itemID = Math.max(orderArchive.getItemID(item), 0);
+					
+					if(itemID >= quantities.length)
+						quantities = Arrays.copyOf(quantities,
+								Math.max(itemID + 1, quantities.length * 2));
+					
+					quantities[itemID] += orderArchive.getItemQuantity(item);
+				}
+			}
+		}
+		
+		return quantities;
+	}
+	
+	/**
+	 * Gets the number of archives currently open
+	 * 
+	 * @return The number of open archives, at most the budget given
+	 * 		   on creation
+	 */
+	public synchronized int getNumOfOpenPartitions() {
+		return _openPartitions.size();
+	}
+	
+	/**
+	 * Saves every partition and closes the open archives
+	 * 
+	 * @throws IOException If a partition cannot be saved
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		closePartitions();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,655 @@
+package sce.cz2002.Assignment.Persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import sce.cz2002.Assignment.Classes.Order;
+
+/**
+ * Write-ahead journal for all order-related changes<p>
+ * 
+ * Creating an order, adding/removing items, cancelling an order and making
+ * payment<br>are each appended to the journal as they happen, so a crash
+ * never loses more than<br>the change being made at the time<p>
+ * 
+ * The order file acts as a snapshot of the journal. On start up, the orders
+ * are rebuilt<br>from the snapshot followed by the journal records that came
+ * after it. Once the journal<br>grows large, a background compactor moves
+ * the journal records into a new snapshot<p>
+ * 
+ * Item changes are recorded with the resulting state of the whole order,
+ * so that<br>replaying a record never depends on the menu at the time<p>
+ * 
+ * Paid orders are moved into the {@link OrderHistory}. A paid order stays in
+ * the snapshot<br>until the order history has saved it, and any paid order
+ * missing from the order<br>history on start up is archived then
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class OrderJournal implements Closeable
+{
+	/**
+	 * Journal record for a newly created order
+	 */
+	private static final int ORDER_CREATED = 1;
+	
+	/**
+	 * Journal record for items added to an ongoing order
+	 */
+	private static final int ITEM_ADDED = 2;
+	
+	/**
+	 * Journal record for items removed from an ongoing order
+	 */
+	private static final int ITEM_REMOVED = 3;
+	
+	/**
+	 * Journal record for an ongoing order that has been cancelled
+	 */
+	private static final int ORDER_CANCELLED = 4;
+	
+	/**
+	 * Journal record for an ongoing order that has been paid for
+	 */
+	private static final int ORDER_PAID = 5;
+	
+	/**
+	 * Journal record for an ongoing order whose price has changed along
+	 * <br>with the customer's membership
+	 */
+	private static final int ORDER_REPRICED = 6;
+	
+	/**
+	 * Journal size (in bytes) at which the journal is compacted into a
+	 * new snapshot
+	 */
+	private static final long COMPACTION_THRESHOLD = 4 * 1024 * 1024;
+	
+	/**
+	 * Maximum time to wait for a running compaction when closing
+	 */
+	private static final long CLOSE_TIMEOUT_SECONDS = 30;
+	
+	/**
+	 * Suffix of the journal segment being compacted into a snapshot
+	 */
+	private static final String SEGMENT_SUFFIX = ".compacting";
+	
+	/**
+	 * Path of the snapshot (order) file
+	 */
+	private final String _snapshotPath;
+	
+	/**
+	 * The history that paid orders are moved into
+	 */
+	private final OrderHistory _orderHistory;
+	
+	/**
+	 * The journal file that records are appended to
+	 */
+	private final File _journalFile;
+	
+	/**
+	 * The journal segment being compacted, only exists during a compaction
+	 * <br>or if the last compaction did not finish
+	 */
+	private final File _segmentFile;
+	
+	/**
+	 * When committed records are forced to the storage device
+	 */
+	private final Journal.SyncPolicy _syncPolicy;
+	
+	/**
+	 * How often the journal is synced when using
+	 * {@link Journal.SyncPolicy#Interval}
+	 */
+	private final long _syncIntervalMillis;
+	
+	/**
+	 * The underlying journal, null until opened
+	 */
+	private Journal _journal;
+	
+	/**
+	 * Single background thread used for compactions
+	 */
+	private ExecutorService _compactor;
+	
+	/**
+	 * Whether a background compaction has been scheduled and not finished
+	 */
+	private boolean _compactionScheduled;
+	
+	/**
+	 * Why the last background compaction failed, null if it did not fail
+	 * or<br>a checkpoint has compacted its journal segment since
+	 */
+	private volatile Exception _compactionFailure;
+	
+	/**
+	 * Creates a new order journal<br>
+	 * The journal has to be opened before changes can be recorded
+	 * 
+	 * @param snapshotPath The path of the snapshot (order) file
+	 * @param journalPath The path of the journal file
+	 * @param orderHistory The history that paid orders are moved into,
+	 * 		  opened and closed together with the journal
+	 * @param syncPolicy When committed records are forced to the
+	 * 		  storage device
+	 * @param syncIntervalMillis How often the journal is synced when using
+	 * 		  {@link Journal.SyncPolicy#Interval}
+	 */
+	public OrderJournal(String snapshotPath, String journalPath,
+			OrderHistory orderHistory, Journal.SyncPolicy syncPolicy,
+			long syncIntervalMillis)
+	{
+		_snapshotPath = snapshotPath;
+		_orderHistory = orderHistory;
+		_journalFile = new File(journalPath);
+		_segmentFile = new File(journalPath + SEGMENT_SUFFIX);
+		
+		_syncPolicy = syncPolicy;
+		_syncIntervalMillis = syncIntervalMillis;
+	}
+	
+	/**
+	 * Opens the order history and the journal, and rebuilds the orders from
+	 * <br>the snapshot followed by the journal records that came after it<p>
+	 * 
+	 * A compaction that did not finish the last time is completed first,
+	 * and a journal<br>written by an older schema version is compacted
+	 * into the snapshot. Paid orders<br>missing from the order history are
+	 * archived, and the snapshot is written again<br>without them
+	 * 
+	 * @return The rebuilt orders, without the paid orders
+	 * 
+	 * @throws IOException If the order history, snapshot or journal cannot
+	 * 		   be read, or the journal cannot be opened
+	 */
+	public OrderSnapshot open() throws IOException
+	{
+		_orderHistory.open();
+		
+		if(_segmentFile.isFile())
+			compactSegment();
+		
+		final OrderSnapshot snapshot = readSnapshot(_snapshotPath);
+		
+		_journal = Journal.open(_journalFile, _syncPolicy, _syncIntervalMillis,
+				snapshot.getLastSequenceNumber(), new Journal.RecordHandler() {
+			
+			@Override
+			public void handleRecord(long sequenceNumber, RecordInput record)
+					throws IOException
+			{
+				applyRecord(snapshot, sequenceNumber, record);
+			}
+		});
+		
+		// New records cannot follow records of an older schema version
+		if(_journal.getSchemaVersion() < DataFile.CURRENT_SCHEMA_VERSION)
+		{
+			_journal.rotate(_segmentFile);
+			compactSegment();
+		}
+		
+		archiveCompletedOrders(snapshot);
+		
+		_compactor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			
+			@Override
+			public Thread newThread(Runnable task)
+			{
+				Thread compactorThread = new Thread(task, "Order journal compactor");
+				compactorThread.setDaemon(true);
+				
+				return compactorThread;
+			}
+		});
+		
+		return snapshot;
+	}
+	
+	/**
+	 * Archives the paid orders of a snapshot that the order history does not
+	 * <br>have yet, and writes the snapshot again without them
+	 * 
+	 * @param snapshot The snapshot
+	 * 
+	 * @throws IOException If the paid orders cannot be archived, or the
+	 * 		   snapshot cannot be written
+	 */
+	private void archiveCompletedOrders(OrderSnapshot snapshot)
+			throws IOException
+	{
+		List<Order> completedOrders = snapshot.getCompletedOrders();
+		
+		if(completedOrders.isEmpty())
+			return;
+		
+		// Checked before archiving any, as orders paid before the first
+		// journal record share a sequence number
+		boolean[] isArchived = new boolean[completedOrders.size()];
+		for(int index = 0; index < completedOrders.size(); index++)
+		{
+			isArchived[index] = _orderHistory.isArchived(completedOrders.get(index),
+					snapshot.getPaidSequenceNumber(index));
+		}
+		
+		for(int index = 0; index < completedOrders.size(); index++)
+		{
+			if(!isArchived[index])
+				_orderHistory.append(completedOrders.get(index),
+						snapshot.getPaidSequenceNumber(index));
+		}
+		
+		_orderHistory.force();
+		snapshot.removeArchivedOrders(_orderHistory);
+		writeSnapshot(_snapshotPath, snapshot);
+	}
+	
+	/**
+	 * Records a newly created order
+	 * 
+	 * @param order The new order, including its order items
+	 * 
+	 * @throws IOException If the change cannot be recorded
+	 */
+	public void orderCreated(Order order) throws IOException {
+		record(ORDER_CREATED, order, true);
+	}
+	
+	/**
+	 * Records that items have been added to an ongoing order
+	 * 
+	 * @param order The ongoing order, after adding the items
+	 * 
+	 * @throws IOException If the change cannot be recorded
+	 */
+	public void itemAdded(Order order) throws IOException {
+		record(ITEM_ADDED, order, true);
+	}
+	
+	/**
+	 * Records that items have been removed from an ongoing order
+	 * 
+	 * @param order The ongoing order, after removing the items
+	 * 
+	 * @throws IOException If the change cannot be recorded
+	 */
+	public void itemRemoved(Order order) throws IOException {
+		record(ITEM_REMOVED, order, true);
+	}
+	
+	/**
+	 * Records that an ongoing order has been cancelled
+	 * 
+	 * @param order The cancelled order
+	 * 
+	 * @throws IOException If the change cannot be recorded
+	 */
+	public void orderCancelled(Order order) throws IOException {
+		record(ORDER_CANCELLED, order, false);
+	}
+	
+	/**
+	 * Records that an ongoing order has been paid for<br>
+	 * The order should be archived next, with the sequence number returned
+	 * 
+	 * @param order The paid order
+	 * 
+	 * @return The sequence number of the payment record
+	 * 
+	 * @throws IOException If the change cannot be recorded
+	 */
+	public long orderPaid(Order order) throws IOException {
+		return record(ORDER_PAID, order, false);
+	}
+	
+	/**
+	 * Records that the price of an ongoing order has changed, after the
+	 * <br>customer's membership was refreshed
+	 * 
+	 * @param order The ongoing order, with its new price
+	 * 
+	 * @throws IOException If the change cannot be recorded
+	 */
+	public void orderRepriced(Order order) throws IOException {
+		record(ORDER_REPRICED, order, true);
+	}
+	
+	/**
+	 * Appends a journal record and waits for it to be committed
+	 * 
+	 * @param recordType The type of journal record
+	 * @param order The order that has changed
+	 * @param includeOrder Whether the whole order is recorded, or only
+	 * 		  its order ID
+	 * 
+	 * @return The sequence number of the journal record
+	 * 
+	 * @throws IOException If the record cannot be committed
+	 */
+	private long record(int recordType, Order order, boolean includeOrder)
+			throws IOException
+	{
+		if(_journal == null)
+			throw new IOException("Order journal is not open");
+		
+		ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+		RecordOutput out = new RecordOutput(recordBytes);
+		
+		out.writeByte(recordType);
+		if(includeOrder)
+			OrderCodec.writeOrder(out, order);
+		else
+			out.writeString(order.getOrderID());
+		
+		out.close();
+		
+		long sequenceNumber = _journal.append(recordBytes.toByteArray());
+		_journal.commit(sequenceNumber);
+		
+		scheduleCompaction();
+		
+		return sequenceNumber;
+	}
+	
+	/**
+	 * Applies a journal record to a snapshot
+	 * 
+	 * @param snapshot The snapshot to be updated
+	 * @param sequenceNumber The sequence number of the journal record
+	 * @param record The record input used to read the journal record
+	 * 
+	 * @throws IOException If the journal record cannot be read
+	 */
+	private static void applyRecord(OrderSnapshot snapshot, long sequenceNumber,
+			RecordInput record) throws IOException
+	{
+		int recordType = record.readByte();
+		
+		switch(recordType)
+		{
+		case ORDER_CREATED:
+		case ITEM_ADDED:
+		case ITEM_REMOVED:
+		case ORDER_REPRICED:
+			snapshot.putCurrentOrder(OrderCodec.readOrder(record));
+			break;
+		
+		case ORDER_CANCELLED:
+			snapshot.removeCurrentOrder(record.readString());
+			break;
+		
+		case ORDER_PAID:
+			snapshot.completeOrder(record.readString(), sequenceNumber);
+			break;
+		
+		default:
+			throw new IOException("Unknown order journal record: " + recordType);
+		}
+		
+		snapshot.setLastSequenceNumber(sequenceNumber);
+	}
+	
+	/**
+	 * Schedules a background compaction if the journal has grown large,
+	 * <br>and no compaction is scheduled yet
+	 */
+	private void scheduleCompaction()
+	{
+		synchronized(this)
+		{
+			if(_compactionScheduled || _journal.size() < COMPACTION_THRESHOLD)
+				return;
+			
+			_compactionScheduled = true;
+		}
+		
+		_compactor.submit(new Callable<Void>() {
+			
+			@Override
+			public Void call()
+			{
+				// Nothing waits for the result, so the failure is kept
+				// instead, and the segment is compacted again later
+				try
+				{
+					compact();
+				}
+				catch(IOException ex)
+				{
+					_compactionFailure = ex;
+				}
+				catch(RuntimeException ex)
+				{
+					_compactionFailure = ex;
+				}
+				finally
+				{
+					synchronized(OrderJournal.this)
+					{
+						_compactionScheduled = false;
+					}
+				}
+				
+				return null;
+			}
+		});
+	}
+	
+	/**
+	 * Compacts every journal record written so far into a new snapshot,
+	 * <br>and waits for the compaction to finish<p>
+	 * 
+	 * If the background compaction failed, the journal segment it left
+	 * behind is<br>compacted again here
+	 * 
+	 * @throws IOException If the new snapshot cannot be written
+	 */
+	public void checkpoint() throws IOException
+	{
+		if(_journal == null)
+			throw new IOException("Order journal is not open");
+		
+		Future<Void> compaction = _compactor.submit(new Callable<Void>() {
+			
+			@Override
+			public Void call() throws IOException
+			{
+				compact();
+				return null;
+			}
+		});
+		
+		try
+		{
+			compaction.get();
+			_compactionFailure = null;
+		}
+		catch(InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting"
+					+ " for checkpoint");
+		}
+		catch(ExecutionException ex)
+		{
+			if(ex.getCause() instanceof IOException)
+				throw (IOException) ex.getCause();
+			
+			throw new IOException("Unable to checkpoint order journal",
+					ex.getCause());
+		}
+	}
+	
+	/**
+	 * Gets why the last background compaction failed<br>
+	 * The records of a failed compaction are still in its journal segment,
+	 * and are<br>compacted by the next checkpoint or on the next start up
+	 * 
+	 * @return The failure, null if the last background compaction did not
+	 * 		   fail<br>or a checkpoint has succeeded since
+	 */
+	public Exception getCompactionFailure() {
+		return _compactionFailure;
+	}
+	
+	/**
+	 * Moves the journal records into a segment, and compacts the segment
+	 * <br>into a new snapshot. Only ever runs on the compactor thread
+	 * 
+	 * @throws IOException If the new snapshot cannot be written
+	 */
+	private void compact() throws IOException
+	{
+		// Left behind by a failed compaction, must not be overwritten
+		if(_segmentFile.isFile())
+			compactSegment();
+		
+		if(_journal.isEmpty())
+			return;
+		
+		_journal.rotate(_segmentFile);
+		compactSegment();
+	}
+	
+	/**
+	 * Applies the records of the journal segment to the current snapshot,
+	 * <br>writes the new snapshot and deletes the journal segment<p>
+	 * 
+	 * Paid orders that the archive has saved are left out of the new
+	 * snapshot<p>
+	 * 
+	 * The new snapshot replaces the old one atomically, and is on the
+	 * storage device<br>before the segment is deleted, so a crash at any
+	 * point leaves either the old<br>snapshot with the segment, or the new
+	 * snapshot
+	 * 
+	 * @throws IOException If the new snapshot cannot be written
+	 */
+	private void compactSegment() throws IOException
+	{
+		final OrderSnapshot snapshot = readSnapshot(_snapshotPath);
+		
+		Journal.replay(_segmentFile, snapshot.getLastSequenceNumber(),
+				new Journal.RecordHandler() {
+			
+			@Override
+			public void handleRecord(long sequenceNumber, RecordInput record)
+					throws IOException
+			{
+				applyRecord(snapshot, sequenceNumber, record);
+			}
+		});
+		
+		_orderHistory.force();
+		snapshot.removeArchivedOrders(_orderHistory);
+		
+		writeSnapshot(_snapshotPath, snapshot);
+		Files.delete(_segmentFile.toPath());
+		DataFile.syncDirectory(_segmentFile.getAbsoluteFile().getParentFile());
+	}
+	
+	/**
+	 * Reads the snapshot (order) file
+	 * 
+	 * @param snapshotPath The path of the snapshot file
+	 * 
+	 * @return The snapshot read, or an empty snapshot if the file
+	 * 		   does not exist
+	 * 
+	 * @throws IOException If the snapshot file cannot be read
+	 */
+	public static OrderSnapshot readSnapshot(String snapshotPath)
+			throws IOException
+	{
+		if(!new File(snapshotPath).isFile())
+			return new OrderSnapshot();
+		
+		RecordInput in = DataFile.open(snapshotPath, DataFile.ORDERS);
+		try {
+			return OrderCodec.readSnapshot(in);
+		} finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * Writes the snapshot (order) file, replacing the existing one
+	 * 
+	 * @param snapshotPath The path of the snapshot file
+	 * @param snapshot The snapshot to be written
+	 * 
+	 * @throws IOException If the snapshot file cannot be written
+	 */
+	public static void writeSnapshot(String snapshotPath, OrderSnapshot snapshot)
+			throws IOException
+	{
+		RecordOutput out = DataFile.create(snapshotPath, DataFile.ORDERS);
+		
+		try {
+			OrderCodec.writeSnapshot(out, snapshot);
+		} catch (IOException ex) {
+			out.abort();
+			throw ex;
+		}
+		
+		out.close();
+	}
+	
+	/**
+	 * Waits for any running compaction, then writes any remaining records
+	 * <br>and closes the journal and the order history
+	 * 
+	 * @throws IOException If the remaining records cannot be written, or
+	 * 		   the last<br>background compaction failed and no checkpoint
+	 * 		   has succeeded since
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			if(_journal == null)
+				return;
+			
+			_compactor.shutdown();
+			try {
+				_compactor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			
+			_journal.close();
+			_journal = null;
+			
+			Exception compactionFailure = _compactionFailure;
+			if(compactionFailure != null)
+			{
+				throw new IOException("Order journal compaction failed",
+						compactionFailure);
+			}
+		}
+		finally
+		{
+			_orderHistory.close();
+		}
+	}
+}
\ No newline at end of file
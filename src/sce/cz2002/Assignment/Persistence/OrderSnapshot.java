@@ -0,0 +1,205 @@
+package sce.cz2002.Assignment.Persistence;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import sce.cz2002.Assignment.Classes.Order;
+
+/**
+ * The state of all orders at a point in the order journal<p>
+ * 
+ * Holds the completed transactions, the ongoing orders (in the order they
+ * were created)<br>and the sequence number of the last journal record that
+ * the state includes<p>
+ * 
+ * Completed transactions only stay in the snapshot until they are safely
+ * in the<br>{@link OrderHistory}, and are kept with the sequence number of
+ * their payment record
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class OrderSnapshot
+{
+	/**
+	 * Completed transactions, in the order they were paid for
+	 */
+	private final List<Order> _completedOrders;
+	
+	/**
+	 * Sequence number of the payment record of each completed transaction
+	 */
+	private final List<Long> _paidSequenceNumbers;
+	
+	/**
+	 * Ongoing orders keyed by order ID, in the order they were created
+	 */
+	private final Map<String, Order> _currentOrders;
+	
+	/**
+	 * Sequence number of the last journal record included in this snapshot
+	 */
+	private long _lastSequenceNumber;
+	
+	/**
+	 * Creates a new snapshot with no orders
+	 */
+	public OrderSnapshot()
+	{
+		_completedOrders = new ArrayList<Order>();
+		_paidSequenceNumbers = new ArrayList<Long>();
+		_currentOrders = new LinkedHashMap<String, Order>();
+		_lastSequenceNumber = 0;
+	}
+	
+	/**
+	 * Creates a new snapshot with the given orders<br>
+	 * The completed transactions are taken to have been paid for before
+	 * <br>the first journal record
+	 * 
+	 * @param completedOrders The completed transactions
+	 * @param currentOrders The ongoing orders
+	 * @param lastSequenceNumber Sequence number of the last journal record
+	 * 		  included in the snapshot
+	 */
+	public OrderSnapshot(List<Order> completedOrders, List<Order> currentOrders,
+			long lastSequenceNumber)
+	{
+		this();
+		
+		for(Order order : completedOrders)
+		{
+			addCompletedOrder(order, 0);
+		}
+		
+		for(Order order : currentOrders)
+		{
+			_currentOrders.put(order.getOrderID(), order);
+		}
+		
+		_lastSequenceNumber = lastSequenceNumber;
+	}
+	
+	/**
+	 * Gets the completed transactions
+	 * 
+	 * @return The completed transactions, in the order they were paid for
+	 */
+	public List<Order> getCompletedOrders() {
+		return _completedOrders;
+	}
+	
+	/**
+	 * Gets the sequence number of the payment record of a completed
+	 * transaction
+	 * 
+	 * @param index The index of the completed transaction
+	 * 
+	 * @return The sequence number, 0 if paid for before the first
+	 * 		   journal record
+	 */
+	public long getPaidSequenceNumber(int index) {
+		return _paidSequenceNumbers.get(index);
+	}
+	
+	/**
+	 * Adds a completed transaction
+	 * 
+	 * @param order The completed transaction
+	 * @param paidSequenceNumber The sequence number of its payment record
+	 */
+	void addCompletedOrder(Order order, long paidSequenceNumber)
+	{
+		_completedOrders.add(order);
+		_paidSequenceNumbers.add(paidSequenceNumber);
+	}
+	
+	/**
+	 * Removes the completed transactions that are safely in the order history
+	 * 
+	 * @param orderHistory The order history, forced to the storage device
+	 */
+	void removeArchivedOrders(OrderHistory orderHistory)
+	{
+		int numOfKept = 0;
+		
+		for(int index = 0; index < _completedOrders.size(); index++)
+		{
+			if(orderHistory.isArchived(_completedOrders.get(index),
+					_paidSequenceNumbers.get(index)))
+				continue;
+			
+			_completedOrders.set(numOfKept, _completedOrders.get(index));
+			_paidSequenceNumbers.set(numOfKept, _paidSequenceNumbers.get(index));
+			numOfKept++;
+		}
+		
+		_completedOrders.subList(numOfKept, _completedOrders.size()).clear();
+		_paidSequenceNumbers.subList(numOfKept,
+				_paidSequenceNumbers.size()).clear();
+	}
+	
+	/**
+	 * Gets the ongoing orders
+	 * 
+	 * @return A new list of the ongoing orders, in the order they
+	 * 		   were created
+	 */
+	public List<Order> getCurrentOrders() {
+		return new ArrayList<Order>(_currentOrders.values());
+	}
+	
+	/**
+	 * Gets the sequence number of the last journal record included in
+	 * this snapshot
+	 * 
+	 * @return The sequence number, 0 if no journal record is included
+	 */
+	public long getLastSequenceNumber() {
+		return _lastSequenceNumber;
+	}
+	
+	/**
+	 * Records that a journal record has been applied to this snapshot
+	 * 
+	 * @param sequenceNumber The sequence number of the journal record
+	 */
+	void setLastSequenceNumber(long sequenceNumber) {
+		_lastSequenceNumber = sequenceNumber;
+	}
+	
+	/**
+	 * Adds an ongoing order, or replaces it with its latest state
+	 * 
+	 * @param order The ongoing order
+	 */
+	void putCurrentOrder(Order order) {
+		_currentOrders.put(order.getOrderID(), order);
+	}
+	
+	/**
+	 * Removes an ongoing order that has been cancelled
+	 * 
+	 * @param orderID The order ID of the ongoing order
+	 */
+	void removeCurrentOrder(String orderID) {
+		_currentOrders.remove(orderID);
+	}
+	
+	/**
+	 * Moves an ongoing order to the completed transactions once it has
+	 * been paid for
+	 * 
+	 * @param orderID The order ID of the ongoing order
+	 * @param paidSequenceNumber The sequence number of the payment record
+	 */
+	void completeOrder(String orderID, long paidSequenceNumber)
+	{
+		Order paidOrder = _currentOrders.remove(orderID);
+		
+		if(paidOrder != null)
+			addCompletedOrder(paidOrder, paidSequenceNumber);
+	}
+}
\ No newline at end of file
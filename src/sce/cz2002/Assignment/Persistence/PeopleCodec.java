@@ -0,0 +1,198 @@
+package sce.cz2002.Assignment.Persistence;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import sce.cz2002.Assignment.Classes.Customer;
+import sce.cz2002.Assignment.Classes.Person;
+import sce.cz2002.Assignment.Classes.Staff;
+
+/**
+ * Reads and writes staff and customer records using the record format<p>
+ * 
+ * Layout: Gender and JobTitle dictionaries, number of staff followed by
+ * <br>the staff records, number of customers followed by the customer records
+ * 
+ * @author Alvin Ng Keng Hian
+ * 
+ */
+public class PeopleCodec
+{
+	/**
+	 * The Gender dictionary of the file being read
+	 */
+	private final EnumDictionary<Person.Gender> _genders;
+	
+	/**
+	 * The JobTitle dictionary of the file being read
+	 */
+	private final EnumDictionary<Staff.JobTitle> _jobTitles;
+	
+	/**
+	 * Creates a codec for reading people, using the dictionaries from
+	 * <br>the file being read
+	 * 
+	 * @param genders The Gender dictionary
+	 * @param jobTitles The JobTitle dictionary
+	 */
+	private PeopleCodec(EnumDictionary<Person.Gender> genders,
+			EnumDictionary<Staff.JobTitle> jobTitles)
+	{
+		_genders = genders;
+		_jobTitles = jobTitles;
+	}
+	
+	/**
+	 * Writes the dictionaries used by staff and customer records
+	 * 
+	 * @param out The record output to write to
+	 * 
+	 * @throws IOException If the dictionaries cannot be written
+	 */
+	public static void writeDictionaries(RecordOutput out) throws IOException
+	{
+		EnumDictionary.write(out, Person.Gender.class);
+		EnumDictionary.write(out, Staff.JobTitle.class);
+	}
+	
+	/**
+	 * Reads the dictionaries used by staff and customer records
+	 * 
+	 * @param in The record input to read from
+	 * 
+	 * @return A codec used to read the staff and customer records
+	 * 
+	 * @throws IOException If the dictionaries cannot be read
+	 */
+	public static PeopleCodec readDictionaries(RecordInput in)
+			throws IOException
+	{
+		EnumDictionary<Person.Gender> genders =
+				EnumDictionary.read(in, Person.Gender.class);
+		EnumDictionary<Staff.JobTitle> jobTitles =
+				EnumDictionary.read(in, Staff.JobTitle.class);
+		
+		return new PeopleCodec(genders, jobTitles);
+	}
+	
+	/**
+	 * Writes the list of all staff
+	 * 
+	 * @param out The record output to write to
+	 * @param staffList The list of all staff
+	 * 
+	 * @throws IOException If the staff cannot be written
+	 */
+	public static void writeStaff(RecordOutput out, List<Staff> staffList)
+			throws IOException
+	{
+		out.writeInt(staffList.size());
+		for(Staff staff : staffList)
+		{
+			writePerson(out, staff);
+			out.writeInt(staff.getStaffID());
+			out.writeEnum(staff.getJobTitle());
+			out.writeDouble(staff.getSalary());
+		}
+	}
+	
+	/**
+	 * Writes the list of all customers
+	 * 
+	 * @param out The record output to write to
+	 * @param customerList The list of all customers
+	 * 
+	 * @throws IOException If the customers cannot be written
+	 */
+	public static void writeCustomers(RecordOutput out,
+			List<Customer> customerList) throws IOException
+	{
+		out.writeInt(customerList.size());
+		for(Customer customer : customerList)
+		{
+			writePerson(out, customer);
+			out.writeInt(customer.getCustomerID());
+			out.writeInt(customer.getContactNumber());
+			out.writeBoolean(customer.checkMembership());
+		}
+	}
+	
+	/**
+	 * Reads the list of all staff
+	 * 
+	 * @param in The record input to read from
+	 * 
+	 * @return The list of all staff
+	 * 
+	 * @throws IOException If the staff cannot be read
+	 */
+	public List<Staff> readStaff(RecordInput in) throws IOException
+	{
+		int numOfStaff = in.readInt();
+		List<Staff> staffList = new ArrayList<Staff>(numOfStaff);
+		
+		for(int currStaff = 0; currStaff < numOfStaff; currStaff++)
+		{
+			String name = in.readString();
+			int age = in.readInt();
+			Person.Gender gender = in.readEnum(_genders);
+			
+			int staffID = in.readInt();
+			Staff.JobTitle jobTitle = in.readEnum(_jobTitles);
+			double salary = in.readDouble();
+			
+			staffList.add(new Staff(name, age, gender, staffID,
+					jobTitle, salary));
+		}
+		
+		return staffList;
+	}
+	
+	/**
+	 * Reads the list of all customers
+	 * 
+	 * @param in The record input to read from
+	 * 
+	 * @return The list of all customers
+	 * 
+	 * @throws IOException If the customers cannot be read
+	 */
+	public List<Customer> readCustomers(RecordInput in) throws IOException
+	{
+		int numOfCustomers = in.readInt();
+		List<Customer> customerList = new ArrayList<Customer>(numOfCustomers);
+		
+		for(int currCustomer = 0; currCustomer < numOfCustomers; currCustomer++)
+		{
+			String name = in.readString();
+			int age = in.readInt();
+			Person.Gender gender = in.readEnum(_genders);
+			
+			int customerID = in.readInt();
+			int contactNumber = in.readInt();
+			boolean isMember = in.readBoolean();
+			
+			customerList.add(new Customer(name, age, gender, customerID,
+					contactNumber, isMember));
+		}
+		
+		return customerList;
+	}
+	
+	/**
+	 * Writes the fields shared by all people
+	 * 
+	 * @param out The record output to write to
+	 * @param person The person to be written
+	 * 
+	 * @throws IOException If the person cannot be written
+	 */
+	private static void writePerson(RecordOutput out, Person person)
+			throws IOException
+	{
+		out.writeString(person.getName());
+		out.writeInt(person.getAge());
+		out.writeEnum(person.getGender());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,217 @@
+package sce.cz2002.Assignment.Persistence;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads records written by a {@link RecordOutput}
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class RecordInput implements Closeable
+{
+	/**
+	 * Size of the buffer used when reading from a file
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	/**
+	 * The underlying data input stream
+	 */
+	private final DataInputStream _in;
+	
+	/**
+	 * The schema version of the records being read
+	 */
+	private int _schemaVersion;
+	
+	/**
+	 * Shared strings that have been read so far, indexed by their
+	 * <br>reference numbers
+	 */
+	private final List<String> _sharedStrings;
+	
+	/**
+	 * Reusable buffer for decoding strings
+	 */
+	private byte[] _stringBuffer;
+	
+	/**
+	 * Creates a new record input which reads from the given stream
+	 * 
+	 * @param in The stream to read the records from
+	 * @param schemaVersion The schema version of the records
+	 */
+	public RecordInput(InputStream in, int schemaVersion)
+	{
+		_in = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+		_schemaVersion = schemaVersion;
+		_sharedStrings = new ArrayList<String>();
+		_stringBuffer = new byte[64];
+	}
+	
+	/**
+	 * Gets the schema version of the records being read<br>
+	 * Codecs use this to read records written by an older version
+	 * 
+	 * @return The schema version of the records
+	 */
+	public int getSchemaVersion() {
+		return _schemaVersion;
+	}
+	
+	/**
+	 * Changes the schema version of the records being read
+	 * 
+	 * @param schemaVersion The schema version read from the file header
+	 */
+	void setSchemaVersion(int schemaVersion) {
+		_schemaVersion = schemaVersion;
+	}
+	
+	/**
+	 * Reads a single byte
+	 * 
+	 * @return The byte read, as an unsigned value
+	 * 
+	 * @throws IOException If the byte cannot be read
+	 */
+	public int readByte() throws IOException {
+		return _in.readUnsignedByte();
+	}
+	
+	/**
+	 * Reads a boolean written as a single byte
+	 * 
+	 * @return The boolean read
+	 * 
+	 * @throws IOException If the boolean cannot be read
+	 */
+	public boolean readBoolean() throws IOException {
+		return _in.readBoolean();
+	}
+	
+	/**
+	 * Reads a 2-byte short
+	 * 
+	 * @return The short read, as an unsigned value
+	 * 
+	 * @throws IOException If the short cannot be read
+	 */
+	public int readShort() throws IOException {
+		return _in.readUnsignedShort();
+	}
+	
+	/**
+	 * Reads a 4-byte integer
+	 * 
+	 * @return The integer read
+	 * 
+	 * @throws IOException If the integer cannot be read
+	 */
+	public int readInt() throws IOException {
+		return _in.readInt();
+	}
+	
+	/**
+	 * Reads a 8-byte long
+	 * 
+	 * @return The long read
+	 * 
+	 * @throws IOException If the long cannot be read
+	 */
+	public long readLong() throws IOException {
+		return _in.readLong();
+	}
+	
+	/**
+	 * Reads a 8-byte double
+	 * 
+	 * @return The double read
+	 * 
+	 * @throws IOException If the double cannot be read
+	 */
+	public double readDouble() throws IOException {
+		return _in.readDouble();
+	}
+	
+	/**
+	 * Reads a length-prefixed UTF-8 string
+	 * 
+	 * @return The string read, null if a null string was written
+	 * 
+	 * @throws IOException If the string cannot be read
+	 */
+	public String readString() throws IOException
+	{
+		int length = _in.readInt();
+		
+		if(length == RecordOutput.NULL_STRING_LENGTH)
+			return null;
+		
+		if(length < 0)
+			throw new IOException("Invalid string length: " + length);
+		
+		if(length > _stringBuffer.length)
+			_stringBuffer = new byte[Math.max(length, _stringBuffer.length * 2)];
+		
+		_in.readFully(_stringBuffer, 0, length);
+		return new String(_stringBuffer, 0, length, RecordOutput.UTF_8);
+	}
+	
+	/**
+	 * Reads a string written by {@link RecordOutput#writeSharedString}<br>
+	 * Repeated strings are read as the same String object
+	 * 
+	 * @return The string read
+	 * 
+	 * @throws IOException If the string cannot be read
+	 */
+	public String readSharedString() throws IOException
+	{
+		int reference = _in.readInt();
+		
+		if(reference < _sharedStrings.size())
+			return _sharedStrings.get(reference);
+		
+		if(reference != _sharedStrings.size())
+			throw new IOException("Invalid shared string: " + reference);
+		
+		String value = readString();
+		_sharedStrings.add(value);
+		
+		return value;
+	}
+	
+	/**
+	 * Reads an enumeration constant written as its index in an
+	 * {@link EnumDictionary}
+	 * 
+	 * @param dictionary The dictionary that was read from the file
+	 * 
+	 * @return The enumeration constant read
+	 * 
+	 * @throws IOException If the enumeration constant cannot be read
+	 */
+	public <E extends Enum<E>> E readEnum(EnumDictionary<E> dictionary)
+			throws IOException
+	{
+		return dictionary.decode(_in.readUnsignedByte());
+	}
+	
+	/**
+	 * Closes this record input
+	 * 
+	 * @throws IOException If the underlying stream cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		_in.close();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,298 @@
+package sce.cz2002.Assignment.Persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes records of a data file using the compact binary record format<p>
+ * 
+ * Primitives are written with a fixed width, strings are written as
+ * length-prefixed UTF-8<br>and enumerations are written as their index in
+ * an {@link EnumDictionary}<p>
+ * 
+ * When writing to a data file, the records are written to a temporary file
+ * which<br>replaces the data file only when this record output is closed,
+ * so a failed save never<br>leaves a half-written data file behind. The
+ * temporary file and the directory are<br>forced to the storage device
+ * around the rename, so a closed data file survives<br>a crash
+ * 
+ * @author Jin Yao
+ * 
+ */
+public class RecordOutput implements Closeable
+{
+	/**
+	 * Character set used for all strings
+	 */
+	static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	/**
+	 * Length written in place of a null string
+	 */
+	static final int NULL_STRING_LENGTH = -1;
+	
+	/**
+	 * Size of the buffer used when writing to a file
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	/**
+	 * The underlying data output stream
+	 */
+	private final DataOutputStream _out;
+	
+	/**
+	 * The stream of the temporary file, null if not writing to a file
+	 */
+	private final FileOutputStream _fileOut;
+	
+	/**
+	 * The temporary file being written to, null if not writing to a file
+	 */
+	private final File _tempFile;
+	
+	/**
+	 * The data file that will be replaced once this output is closed
+	 */
+	private final File _targetFile;
+	
+	/**
+	 * Strings that have been written as shared strings, with their
+	 * <br>reference numbers
+	 */
+	private final Map<String, Integer> _sharedStrings;
+	
+	/**
+	 * Creates a new record output which writes to the given stream
+	 * 
+	 * @param out The stream to write the records to
+	 */
+	public RecordOutput(OutputStream out)
+	{
+		_out = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+		_fileOut = null;
+		_tempFile = null;
+		_targetFile = null;
+		_sharedStrings = new HashMap<String, Integer>();
+	}
+	
+	/**
+	 * Creates a new record output which replaces the given data file
+	 * once closed
+	 * 
+	 * @param targetFile The data file to be written
+	 * 
+	 * @throws IOException If the temporary file cannot be created
+	 */
+	RecordOutput(File targetFile) throws IOException
+	{
+		File parent = targetFile.getAbsoluteFile().getParentFile();
+		
+		_targetFile = targetFile;
+		_tempFile = File.createTempFile(targetFile.getName(), ".tmp", parent);
+		_fileOut = new FileOutputStream(_tempFile);
+		_out = new DataOutputStream(new BufferedOutputStream(_fileOut,
+				BUFFER_SIZE));
+		_sharedStrings = new HashMap<String, Integer>();
+	}
+	
+	/**
+	 * Writes a single byte
+	 * 
+	 * @param value The byte to be written
+	 * 
+	 * @throws IOException If the byte cannot be written
+	 */
+	public void writeByte(int value) throws IOException {
+		_out.writeByte(value);
+	}
+	
+	/**
+	 * Writes a boolean as a single byte
+	 * 
+	 * @param value The boolean to be written
+	 * 
+	 * @throws IOException If the boolean cannot be written
+	 */
+	public void writeBoolean(boolean value) throws IOException {
+		_out.writeBoolean(value);
+	}
+	
+	/**
+	 * Writes a 2-byte short
+	 * 
+	 * @param value The short to be written
+	 * 
+	 * @throws IOException If the short cannot be written
+	 */
+	public void writeShort(int value) throws IOException {
+		_out.writeShort(value);
+	}
+	
+	/**
+	 * Writes a 4-byte integer
+	 * 
+	 * @param value The integer to be written
+	 * 
+	 * @throws IOException If the integer cannot be written
+	 */
+	public void writeInt(int value) throws IOException {
+		_out.writeInt(value);
+	}
+	
+	/**
+	 * Writes a 8-byte long
+	 * 
+	 * @param value The long to be written
+	 * 
+	 * @throws IOException If the long cannot be written
+	 */
+	public void writeLong(long value) throws IOException {
+		_out.writeLong(value);
+	}
+	
+	/**
+	 * Writes a 8-byte double
+	 * 
+	 * @param value The double to be written
+	 * 
+	 * @throws IOException If the double cannot be written
+	 */
+	public void writeDouble(double value) throws IOException {
+		_out.writeDouble(value);
+	}
+	
+	/**
+	 * Writes a string as a 4-byte length followed by its UTF-8 bytes<br>
+	 * A null string is written as a length of -1
+	 * 
+	 * @param value The string to be written
+	 * 
+	 * @throws IOException If the string cannot be written
+	 */
+	public void writeString(String value) throws IOException
+	{
+		if(value == null)
+		{
+			_out.writeInt(NULL_STRING_LENGTH);
+			return;
+		}
+		
+		byte[] bytes = value.getBytes(UTF_8);
+		_out.writeInt(bytes.length);
+		_out.write(bytes);
+	}
+	
+	/**
+	 * Writes a string that is expected to repeat often within the file
+	 * <p>
+	 * The first time a string is written, it is given a reference number
+	 * and<br>written in full. Every time after that, only the 4-byte
+	 * reference number is written
+	 * 
+	 * @param value The string to be written
+	 * 
+	 * @throws IOException If the string cannot be written
+	 */
+	public void writeSharedString(String value) throws IOException
+	{
+		Integer reference = _sharedStrings.get(value);
+		
+		if(reference != null)
+		{
+			_out.writeInt(reference);
+			return;
+		}
+		
+		int newReference = _sharedStrings.size();
+		_sharedStrings.put(value, newReference);
+		
+		_out.writeInt(newReference);
+		writeString(value);
+	}
+	
+	/**
+	 * Writes an enumeration constant as its single byte index in the
+	 * <br>enumeration's {@link EnumDictionary}
+	 * 
+	 * @param value The enumeration constant to be written
+	 * 
+	 * @throws IOException If the enumeration constant cannot be written
+	 */
+	public void writeEnum(Enum<?> value) throws IOException {
+		_out.writeByte(value.ordinal());
+	}
+	
+	/**
+	 * Flushes any buffered records to the underlying stream
+	 * 
+	 * @throws IOException If the records cannot be flushed
+	 */
+	public void flush() throws IOException {
+		_out.flush();
+	}
+	
+	/**
+	 * Flushes and closes this record output<br>
+	 * If writing to a data file, the data file is replaced with the
+	 * newly written records,<br>and is on the storage device once this
+	 * returns
+	 * 
+	 * @throws IOException If the records cannot be flushed, or the data file
+	 * 		   cannot be replaced
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if(_tempFile == null)
+		{
+			_out.close();
+			return;
+		}
+		
+		try
+		{
+			_out.flush();
+			_fileOut.getChannel().force(true);
+		}
+		catch(IOException ex)
+		{
+			abort();
+			throw ex;
+		}
+		
+		_out.close();
+		
+		Files.move(_tempFile.toPath(), _targetFile.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+		
+		// Makes the rename itself durable
+		DataFile.syncDirectory(_targetFile.getAbsoluteFile().getParentFile());
+	}
+	
+	/**
+	 * Closes this record output without replacing the data file<br>
+	 * Used when a save has failed halfway
+	 */
+	public void abort()
+	{
+		try {
+			_out.close();
+		} catch (IOException ex) {
+			// Nothing else can be done, the temporary file is removed below
+		}
+		
+		if(_tempFile != null)
+			_tempFile.delete();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package sce.cz2002.Assignment.Persistence;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import sce.cz2002.Assignment.Classes.Reservation;
+
+/**
+ * Reads and writes reservations using the record format<p>
+ * 
+ * Layout: number of reservations followed by one record per reservation.
+ * <br>Reservation date/times are stored as epoch milliseconds
+ * 
+ * @author Chua Yong Lun
+ * 
+ */
+public class ReservationCodec
+{
+	/**
+	 * Writes the list of all reservations
+	 * 
+	 * @param out The record output to write to
+	 * @param reservations The list of all reservations
+	 * 
+	 * @throws IOException If the reservations cannot be written
+	 */
+	public static void writeReservations(RecordOutput out,
+			List<Reservation> reservations) throws IOException
+	{
+		out.writeInt(reservations.size());
+		for(Reservation reservation : reservations)
+		{
+			out.writeInt(reservation.getReservedTableNo());
+			out.writeInt(reservation.getCustomerID());
+			out.writeString(reservation.getCustomerName());
+			out.writeInt(reservation.getCustomerContact());
+			out.writeInt(reservation.getNumOfPeople());
+			out.writeLong(reservation.getStartTimeInMillis());
+			out.writeInt(reservation.getDuration());
+		}
+	}
+	
+	/**
+	 * Reads the list of all reservations
+	 * 
+	 * @param in The record input to read from
+	 * 
+	 * @return The list of all reservations
+	 * 
+	 * @throws IOException If the reservations cannot be read
+	 */
+	public static List<Reservation> readReservations(RecordInput in)
+			throws IOException
+	{
+		int numOfReservations = in.readInt();
+		List<Reservation> reservations =
+				new ArrayList<Reservation>(numOfReservations);
+		
+		for(int currRes = 0; currRes < numOfReservations; currRes++)
+		{
+			int reservedTableNo = in.readInt();
+			int customerID = in.readInt();
+			String customerName = in.readString();
+			int customerContact = in.readInt();
+			int numOfPeople = in.readInt();
+			long startTimeMillis = in.readLong();
+			int duration = in.readInt();
+			
+			reservations.add(new Reservation(reservedTableNo, customerID,
+					customerName, customerContact, numOfPeople,
+					startTimeMillis, duration));
+		}
+		
+		return reservations;
+	}
+}
\ No newline at end of file